@@ -2,8 +2,13 @@ package tech.ada.banco;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import tech.ada.banco.config.HintsNativos;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(HintsNativos.class)
 public class BancoSpringApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,104 @@
+package tech.ada.banco.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Negocia {@link #APPLICATION_BANCO_BINARIO} apenas nas rotas informadas e apenas para os tipos declarados que
+ * o {@link CodecBinario} sabe escrever, incluindo o tipo dos elementos de listas; fora disso a requisição recebe
+ * 406 ou 415, e não um erro na serialização.
+ */
+public class BinarioHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_BANCO_BINARIO_VALUE = "application/vnd.banco.binario";
+    public static final MediaType APPLICATION_BANCO_BINARIO = MediaType.parseMediaType(APPLICATION_BANCO_BINARIO_VALUE);
+
+    private final List<String> rotas;
+    private final AntPathMatcher caminhos = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public BinarioHttpMessageConverter(String... rotas) {
+        super(APPLICATION_BANCO_BINARIO);
+        this.rotas = List.of(rotas);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CodecBinario.suporta(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && canRead(mediaType) && rotaPermitida();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return canRead(ResolvableType.forType(type).toClass(), mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return CodecBinario.suporta(type == null ? clazz : type) && canWrite(mediaType) && rotaPermitida();
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && canWrite(mediaType) && rotaPermitida();
+    }
+
+    /**
+     * Consultado pelo Spring MVC só com a classe do valor, depois de {@link #canWrite(Type, Class, MediaType)} já
+     * ter conferido o tipo dos elementos da coleção.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz) || supports(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(ResolvableType.forType(type).toClass(), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        Object valor = CodecBinario.ler(new DataInputStream(inputMessage.getBody()));
+        if (!clazz.isInstance(valor)) {
+            throw new HttpMessageNotReadableException("Mensagem binária não corresponde a " + clazz.getSimpleName(),
+                    inputMessage);
+        }
+        return valor;
+    }
+
+    @Override
+    protected void writeInternal(Object valor, Type type, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = CodecBinario.codificar(valor);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    private boolean rotaPermitida() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return false;
+        }
+        HttpServletRequest requisicao = atributos.getRequest();
+        String caminho = urlPathHelper.getPathWithinApplication(requisicao);
+        return rotas.stream().anyMatch(rota -> caminhos.match(rota, caminho));
+    }
+}
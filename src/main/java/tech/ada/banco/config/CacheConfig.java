@@ -0,0 +1,26 @@
+package tech.ada.banco.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URISyntaxException;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager() throws URISyntaxException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        return Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider")
+                .getCacheManager(classLoader.getResource("ehcache.xml").toURI(), classLoader);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerCustomizer(CacheManager cacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+}
@@ -0,0 +1,15 @@
+package tech.ada.banco.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca o parâmetro de um método de repositório que decide o shard: um {@code int} é número de conta, um
+ * {@code long} é id de pessoa. Parâmetros inteiros sem a marca não roteiam (ver {@link ShardingConfig}).
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ChaveShard {
+}
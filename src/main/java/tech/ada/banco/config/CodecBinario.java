@@ -0,0 +1,222 @@
+package tech.ada.banco.config;
+
+import org.springframework.core.ResolvableType;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Pessoa;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Formato binário compacto de {@link Conta}, {@link Pessoa} e valores, escrito campo a campo sem
+ * reflexão. Toda mensagem começa com um byte de tipo; campos opcionais são precedidos de um byte
+ * de presença e decimais são gravados como escala mais valor sem escala em inteiro variável (zigzag).
+ */
+public final class CodecBinario {
+
+    static final byte DECIMAL = 1;
+    static final byte CONTA = 2;
+    static final byte PESSOA = 3;
+    static final byte LISTA = 4;
+
+    private static final byte MODALIDADE_AUSENTE = -1;
+    private static final byte ESCALA_GRANDE = Byte.MIN_VALUE;
+
+    private CodecBinario() {
+    }
+
+    public static boolean suporta(Class<?> tipo) {
+        return BigDecimal.class.equals(tipo) || Conta.class.isAssignableFrom(tipo)
+                || Pessoa.class.isAssignableFrom(tipo);
+    }
+
+    /**
+     * Como {@link #suporta(Class)}, aceitando também coleções cujo tipo de elemento declarado tem formato
+     * binário; coleções sem tipo de elemento resolvível não são aceitas.
+     */
+    public static boolean suporta(Type tipo) {
+        ResolvableType resolvido = ResolvableType.forType(tipo);
+        Class<?> classe = resolvido.toClass();
+        if (Collection.class.isAssignableFrom(classe)) {
+            Class<?> elemento = resolvido.asCollection().resolveGeneric(0);
+            return elemento != null && suporta(elemento);
+        }
+        return suporta(classe);
+    }
+
+    public static byte[] codificar(Object valor) throws IOException {
+        SaidaBytes bytes = new SaidaBytes();
+        escrever(new DataOutputStream(bytes), valor);
+        return bytes.toByteArray();
+    }
+
+    public static void escrever(DataOutput saida, Object valor) throws IOException {
+        if (valor instanceof BigDecimal decimal) {
+            saida.writeByte(DECIMAL);
+            escreverDecimal(saida, decimal);
+        } else if (valor instanceof Conta conta) {
+            saida.writeByte(CONTA);
+            escreverConta(saida, conta);
+        } else if (valor instanceof Pessoa pessoa) {
+            saida.writeByte(PESSOA);
+            escreverPessoa(saida, pessoa);
+        } else if (valor instanceof Collection<?> itens) {
+            saida.writeByte(LISTA);
+            saida.writeInt(itens.size());
+            for (Object item : itens) {
+                escrever(saida, item);
+            }
+        } else {
+            throw new IllegalArgumentException("Tipo sem formato binário: " + valor.getClass().getName());
+        }
+    }
+
+    public static Object ler(DataInput entrada) throws IOException {
+        byte tipo = entrada.readByte();
+        return switch (tipo) {
+            case DECIMAL -> lerDecimal(entrada);
+            case PESSOA -> lerPessoa(entrada);
+            default -> throw new IOException("Tipo de mensagem binária não suportado para leitura: " + tipo);
+        };
+    }
+
+    private static void escreverConta(DataOutput saida, Conta conta) throws IOException {
+        saida.writeInt(conta.getNumeroConta());
+        saida.writeUTF(conta.getAgencia());
+        saida.writeByte(conta.getTipo() == null ? MODALIDADE_AUSENTE : conta.getTipo().ordinal());
+        escreverDecimal(saida, conta.getSaldo());
+        saida.writeBoolean(conta.getTitular() != null);
+        if (conta.getTitular() != null) {
+            escreverPessoa(saida, conta.getTitular());
+        }
+    }
+
+    private static void escreverPessoa(DataOutput saida, Pessoa pessoa) throws IOException {
+        saida.writeBoolean(pessoa.getId() != null);
+        if (pessoa.getId() != null) {
+            saida.writeLong(pessoa.getId());
+        }
+        escreverTexto(saida, pessoa.getNome());
+        escreverTexto(saida, pessoa.getCpf());
+        escreverTexto(saida, pessoa.getTelefone());
+        saida.writeBoolean(pessoa.getDataNascimento() != null);
+        if (pessoa.getDataNascimento() != null) {
+            saida.writeInt((int) pessoa.getDataNascimento().toEpochDay());
+        }
+    }
+
+    private static Pessoa lerPessoa(DataInput entrada) throws IOException {
+        Long id = entrada.readBoolean() ? entrada.readLong() : null;
+        String nome = lerTexto(entrada);
+        String cpf = lerTexto(entrada);
+        String telefone = lerTexto(entrada);
+        if (!entrada.readBoolean()) {
+            throw new IOException("Data de nascimento não informada.");
+        }
+        LocalDate dataNascimento = LocalDate.ofEpochDay(entrada.readInt());
+
+        Pessoa pessoa = new Pessoa(nome, cpf, dataNascimento);
+        pessoa.setId(id);
+        pessoa.setTelefone(telefone);
+        return pessoa;
+    }
+
+    private static void escreverDecimal(DataOutput saida, BigDecimal valor) throws IOException {
+        BigInteger semEscala = valor.unscaledValue();
+        if (semEscala.bitLength() < Long.SIZE && valor.scale() > ESCALA_GRANDE && valor.scale() <= Byte.MAX_VALUE) {
+            saida.writeByte(valor.scale());
+            escreverVarLong(saida, semEscala.longValue());
+        } else {
+            byte[] bytes = semEscala.toByteArray();
+            saida.writeByte(ESCALA_GRANDE);
+            saida.writeInt(valor.scale());
+            saida.writeShort(bytes.length);
+            saida.write(bytes);
+        }
+    }
+
+    private static BigDecimal lerDecimal(DataInput entrada) throws IOException {
+        byte escala = entrada.readByte();
+        if (escala != ESCALA_GRANDE) {
+            return BigDecimal.valueOf(lerVarLong(entrada), escala);
+        }
+        int escalaGrande = entrada.readInt();
+        byte[] bytes = new byte[entrada.readShort()];
+        entrada.readFully(bytes);
+        return new BigDecimal(new BigInteger(bytes), escalaGrande);
+    }
+
+    private static void escreverVarLong(DataOutput saida, long valor) throws IOException {
+        long zigzag = (valor << 1) ^ (valor >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            saida.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        saida.writeByte((int) zigzag);
+    }
+
+    private static long lerVarLong(DataInput entrada) throws IOException {
+        long zigzag = 0;
+        for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += 7) {
+            byte b = entrada.readByte();
+            zigzag |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Inteiro variável mal formado.");
+    }
+
+    private static void escreverTexto(DataOutput saida, String texto) throws IOException {
+        saida.writeBoolean(texto != null);
+        if (texto != null) {
+            saida.writeUTF(texto);
+        }
+    }
+
+    private static String lerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    /**
+     * {@link java.io.ByteArrayOutputStream} sem sincronização: o codec escreve byte a byte e o lock
+     * custava mais que a própria codificação em listas grandes.
+     */
+    private static final class SaidaBytes extends OutputStream {
+
+        private byte[] buffer = new byte[256];
+        private int tamanho;
+
+        @Override
+        public void write(int b) {
+            garantir(1);
+            buffer[tamanho++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] origem, int inicio, int quantidade) {
+            garantir(quantidade);
+            System.arraycopy(origem, inicio, buffer, tamanho, quantidade);
+            tamanho += quantidade;
+        }
+
+        private void garantir(int quantidade) {
+            if (tamanho + quantidade > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, tamanho + quantidade));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, tamanho);
+        }
+    }
+}
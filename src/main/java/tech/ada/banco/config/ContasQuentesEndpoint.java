@@ -0,0 +1,26 @@
+package tech.ada.banco.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.services.ContasQuentes;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/contasquentes}: as contas mais movimentadas em cada janela de {@link ContasQuentes}.
+ * Os números são estimativas, que podem ficar acima do real, nunca abaixo.
+ */
+@Component
+@Endpoint(id = "contasquentes")
+@RequiredArgsConstructor
+public class ContasQuentesEndpoint {
+
+    private final ContasQuentes contasQuentes;
+
+    @ReadOperation
+    public List<ContasQuentes.Janela> contasQuentes() {
+        return contasQuentes.consultar();
+    }
+}
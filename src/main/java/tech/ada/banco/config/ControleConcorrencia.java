@@ -0,0 +1,133 @@
+package tech.ada.banco.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tech.ada.banco.exceptions.SobrecargaException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limita as requisições simultâneas em cada rota de dinheiro com um {@link LimiteAdaptativo}: acima do limite
+ * a requisição é recusada na hora com 429 e {@code Retry-After}, em vez de esperar por uma thread do Tomcat ou
+ * por uma conexão do pool.
+ * <p>
+ * Consultas de saldo têm prioridade: quando a latência delas sobe, os limites de depósito, saque e Pix também
+ * são reduzidos, liberando o banco para as leituras.
+ */
+@Component
+public class ControleConcorrencia implements HandlerInterceptor {
+
+    static final String INICIO = ControleConcorrencia.class.getName() + ".inicio";
+
+    public enum Rota {
+        SALDO(true),
+        DEPOSITO(false),
+        SAQUE(false),
+        PIX(false);
+
+        private final boolean leitura;
+
+        Rota(boolean leitura) {
+            this.leitura = leitura;
+        }
+    }
+
+    private final boolean habilitado;
+    private final String retryAfter;
+    private final Map<Rota, LimiteAdaptativo> limites = new EnumMap<>(Rota.class);
+    private final Map<Rota, Counter> recusadas = new EnumMap<>(Rota.class);
+
+    public ControleConcorrencia(MeterRegistry registry,
+                                @Value("${banco.concorrencia.habilitado:true}") boolean habilitado,
+                                @Value("${banco.concorrencia.limite-inicial:50}") int inicial,
+                                @Value("${banco.concorrencia.limite-minimo:10}") int minimo,
+                                @Value("${banco.concorrencia.limite-maximo:500}") int maximo,
+                                @Value("${banco.concorrencia.tolerancia:2.0}") double tolerancia,
+                                @Value("${banco.concorrencia.janela:100ms}") Duration janela,
+                                @Value("${banco.concorrencia.amostras-minimas:20}") int amostrasMinimas,
+                                @Value("${banco.concorrencia.retry-after:1s}") Duration retryAfter) {
+        this.habilitado = habilitado;
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        for (Rota rota : Rota.values()) {
+            LimiteAdaptativo limite = new LimiteAdaptativo(inicial, minimo, maximo, tolerancia, janela.toNanos(),
+                    amostrasMinimas);
+            limites.put(rota, limite);
+            String nome = rota.name().toLowerCase();
+            Gauge.builder("banco.concorrencia.limite", limite, LimiteAdaptativo::getLimite)
+                    .tag("rota", nome)
+                    .register(registry);
+            Gauge.builder("banco.concorrencia.em-voo", limite, LimiteAdaptativo::getEmVoo)
+                    .tag("rota", nome)
+                    .register(registry);
+            recusadas.put(rota, Counter.builder("banco.concorrencia.recusadas")
+                    .description("Requisições recusadas com 429 por excesso de concorrência")
+                    .tag("rota", nome)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Rota rota = rota(request);
+        if (!habilitado || rota == null) {
+            return true;
+        }
+        if (!limites.get(rota).adquirir()) {
+            recusadas.get(rota).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            throw new SobrecargaException();
+        }
+        request.setAttribute(INICIO, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Long inicio = (Long) request.getAttribute(INICIO);
+        if (inicio == null) {
+            return;
+        }
+        request.removeAttribute(INICIO);
+        Rota rota = rota(request);
+        long agora = System.nanoTime();
+        boolean falha = ex != null || response.getStatus() >= 500;
+        if (limites.get(rota).liberar(agora - inicio, falha, agora) && rota.leitura) {
+            for (Map.Entry<Rota, LimiteAdaptativo> limite : limites.entrySet()) {
+                if (!limite.getKey().leitura) {
+                    limite.getValue().reduzir();
+                }
+            }
+        }
+    }
+
+    LimiteAdaptativo limite(Rota rota) {
+        return limites.get(rota);
+    }
+
+    private static Rota rota(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        if (caminho.startsWith("/pix/")) {
+            return Rota.PIX;
+        }
+        if (caminho.startsWith("/saque/")) {
+            return Rota.SAQUE;
+        }
+        if (caminho.startsWith("/deposito/")) {
+            return Rota.DEPOSITO;
+        }
+        if (caminho.startsWith("/contas/") && caminho.endsWith("/saldo") && "GET".equals(request.getMethod())) {
+            return Rota.SALDO;
+        }
+        return null;
+    }
+}
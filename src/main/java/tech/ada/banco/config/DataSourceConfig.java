@@ -0,0 +1,37 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty("banco.datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primariaProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("banco.datasource.replica")
+    public DataSourceProperties replicaProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        DataSource primaria = primariaProperties().initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        DataSource replica = replicaProperties().initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primaria, replica));
+    }
+}
@@ -0,0 +1,112 @@
+package tech.ada.banco.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Envolve conexões, statements e result sets para contar, na {@link MedicaoSql} da thread, cada
+ * comando executado, as linhas lidas ou alteradas e o tempo gasto no banco.
+ */
+public class DataSourceInstrumentado extends DelegatingDataSource {
+
+    private static final Set<String> EXECUCOES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public DataSourceInstrumentado(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexao(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexao(super.getConnection(username, password));
+    }
+
+    private static Connection conexao(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object resultado = invocar(connection, method, args);
+            if (resultado instanceof Statement statement) {
+                return statement(method.getReturnType(), statement);
+            }
+            return resultado;
+        });
+    }
+
+    private static Object statement(Class<?> tipo, Statement statement) {
+        return proxy(tipo, statement, (proxy, method, args) -> {
+            if (!EXECUCOES.contains(method.getName())) {
+                Object resultado = invocar(statement, method, args);
+                return resultado instanceof ResultSet resultSet && method.getName().equals("getResultSet")
+                        ? resultSet(resultSet) : resultado;
+            }
+
+            long inicio = System.nanoTime();
+            Object resultado = invocar(statement, method, args);
+            MedicaoSql.registrarComando(System.nanoTime() - inicio, linhasAlteradas(resultado));
+            return resultado instanceof ResultSet resultSet ? resultSet(resultSet) : resultado;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object resultado = invocar(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(resultado)) {
+                MedicaoSql.registrarLinha();
+            }
+            return resultado;
+        });
+    }
+
+    private static long linhasAlteradas(Object resultado) {
+        if (resultado instanceof Integer linhas) {
+            return Math.max(linhas, 0);
+        }
+        if (resultado instanceof Long linhas) {
+            return Math.max(linhas, 0);
+        }
+        long total = 0;
+        if (resultado instanceof int[] lote) {
+            for (int linhas : lote) {
+                total += Math.max(linhas, 0);
+            }
+        } else if (resultado instanceof long[] lote) {
+            for (long linhas : lote) {
+                total += Math.max(linhas, 0);
+            }
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, Object alvo, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(DataSourceInstrumentado.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "unwrap" -> ((Class<?>) args[0]).isInstance(proxy) ? proxy : invocar(alvo, method, args);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
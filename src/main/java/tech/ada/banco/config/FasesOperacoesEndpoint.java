@@ -0,0 +1,32 @@
+package tech.ada.banco.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.services.PerfilOperacoes;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/fasesoperacoes}: percentis por fase de saque, depósito e Pix desde a subida ou o último
+ * {@code DELETE}. Só há dados com {@code banco.perfil.histogramas} ligado.
+ */
+@Component
+@Endpoint(id = "fasesoperacoes")
+@RequiredArgsConstructor
+public class FasesOperacoesEndpoint {
+
+    private final PerfilOperacoes perfil;
+
+    @ReadOperation
+    public List<PerfilOperacoes.Resumo> fases() {
+        return perfil.resumir();
+    }
+
+    @DeleteOperation
+    public void zerar() {
+        perfil.zerar();
+    }
+}
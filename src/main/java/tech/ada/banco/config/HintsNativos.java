@@ -0,0 +1,70 @@
+package tech.ada.banco.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import tech.ada.banco.model.Bloqueio;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ContaArquivada;
+import tech.ada.banco.model.EventoConta;
+import tech.ada.banco.model.HistoricoConta;
+import tech.ada.banco.model.LoteImportacao;
+import tech.ada.banco.model.LoteRendimento;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.model.ResumoConta;
+import tech.ada.banco.model.TotalAgencia;
+import tech.ada.banco.model.TransferenciaShard;
+import tech.ada.banco.model.UsoLimite;
+import tech.ada.banco.repository.BloqueioRepository;
+import tech.ada.banco.repository.ContaArquivadaRepository;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.EventoContaRepository;
+import tech.ada.banco.repository.LoteImportacaoRepository;
+import tech.ada.banco.repository.LoteRendimentoRepository;
+import tech.ada.banco.repository.PessoaRepository;
+import tech.ada.banco.repository.ResumoContaRepository;
+import tech.ada.banco.repository.TransferenciaShardRepository;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * O que a imagem nativa não descobre sozinha: getters e setters gerados pelo Lombok nas entidades, lidos pelo
+ * Jackson e pelo Hibernate; os métodos dos repositórios, inspecionados pelo roteamento de shards; os proxies JDK
+ * do {@link DataSourceInstrumentado}; e o provedor JCache carregado pelo nome, com seu ehcache.xml.
+ */
+public class HintsNativos implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> ENTIDADES = List.of(Conta.class, Pessoa.class, EventoConta.class, ResumoConta.class,
+            TransferenciaShard.class, LoteRendimento.class, UsoLimite.class, MovimentacaoConta.class,
+            TotalAgencia.class, ContaArquivada.class, HistoricoConta.class, LoteImportacao.class, Bloqueio.class);
+
+    static final List<Class<?>> REPOSITORIOS = List.of(ContaRepository.class, PessoaRepository.class,
+            EventoContaRepository.class, ResumoContaRepository.class, TransferenciaShardRepository.class,
+            LoteRendimentoRepository.class, ContaArquivadaRepository.class, LoteImportacaoRepository.class,
+            BloqueioRepository.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entidade : ENTIDADES) {
+            hints.reflection().registerType(entidade, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (Class<?> repositorio : REPOSITORIOS) {
+            hints.reflection().registerType(repositorio, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (Class<?> tipo : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class, ResultSet.class)) {
+            hints.proxies().registerJdkProxy(tipo);
+        }
+        hints.reflection().registerType(TypeReference.of("org.ehcache.jsr107.EhcacheCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("ehcache.xml");
+    }
+}
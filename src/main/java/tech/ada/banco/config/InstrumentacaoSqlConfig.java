@@ -0,0 +1,124 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Mede os comandos SQL de cada requisição HTTP, devolve os totais nos cabeçalhos
+ * {@code X-Sql-Comandos}, {@code X-Sql-Linhas} e {@code X-Sql-Tempo-Ms} e os publica como métricas
+ * {@code banco.sql.*} por URI.
+ * <p>
+ * Respostas com corpo recebem os cabeçalhos antes da escrita do corpo; respostas sem corpo, ao fim da cadeia de
+ * filtros. Respostas assíncronas ou em streaming (SSE, exportação) não recebem os cabeçalhos, já que são
+ * confirmadas antes do fim do trabalho, e as métricas delas cobrem só a parte feita na thread da requisição.
+ * <p>
+ * Um {@link HikariDataSource} declarado como bean é instrumentado por baixo do pool, continuando visível como
+ * Hikari para as métricas e o health do Spring Boot; os demais DataSources, como os de roteamento e shards, são
+ * envolvidos.
+ */
+@Configuration
+public class InstrumentacaoSqlConfig {
+
+    public static final String CABECALHO_COMANDOS = "X-Sql-Comandos";
+    public static final String CABECALHO_LINHAS = "X-Sql-Linhas";
+    public static final String CABECALHO_TEMPO = "X-Sql-Tempo-Ms";
+
+    @Bean
+    public static BeanPostProcessor dataSourceInstrumentado() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    if (hikari.getDataSource() == null && hikari.getJdbcUrl() != null) {
+                        hikari.setDataSource(new DataSourceInstrumentado(new DriverDataSource(hikari.getJdbcUrl(),
+                                hikari.getDriverClassName(), hikari.getDataSourceProperties(), hikari.getUsername(),
+                                hikari.getPassword())));
+                    }
+                    return bean;
+                }
+                return bean instanceof DataSource dataSource && !(bean instanceof DataSourceInstrumentado)
+                        ? new DataSourceInstrumentado(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public OncePerRequestFilter filtroMedicaoSql(ObjectProvider<MeterRegistry> registry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                try (MedicaoSql medicao = MedicaoSql.iniciar()) {
+                    chain.doFilter(request, response);
+                    // sem corpo o ResponseBodyAdvice não é chamado; a resposta ainda não foi confirmada
+                    if (!request.isAsyncStarted() && !response.isCommitted()
+                            && !response.containsHeader(CABECALHO_COMANDOS)) {
+                        cabecalhos(medicao, response::setHeader);
+                    }
+                    registry.ifAvailable(meterRegistry -> publicar(meterRegistry, request, medicao));
+                }
+            }
+        };
+    }
+
+    private static void cabecalhos(MedicaoSql medicao, BiConsumer<String, String> cabecalho) {
+        cabecalho.accept(CABECALHO_COMANDOS, String.valueOf(medicao.getComandos()));
+        cabecalho.accept(CABECALHO_LINHAS, String.valueOf(medicao.getLinhas()));
+        cabecalho.accept(CABECALHO_TEMPO, String.valueOf(TimeUnit.NANOSECONDS.toMillis(medicao.getNanos())));
+    }
+
+    private static void publicar(MeterRegistry registry, HttpServletRequest request, MedicaoSql medicao) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao == null ? "UNKNOWN" : padrao.toString();
+        DistributionSummary.builder("banco.sql.comandos").tag("uri", uri).register(registry)
+                .record(medicao.getComandos());
+        DistributionSummary.builder("banco.sql.linhas").tag("uri", uri).register(registry)
+                .record(medicao.getLinhas());
+        Timer.builder("banco.sql.tempo").tag("uri", uri).register(registry)
+                .record(medicao.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @ControllerAdvice
+    static class CabecalhoMedicaoSql implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class selectedConverterType, ServerHttpRequest request,
+                                      ServerHttpResponse response) {
+            MedicaoSql medicao = MedicaoSql.atual();
+            if (medicao != null) {
+                cabecalhos(medicao, response.getHeaders()::set);
+            }
+            return body;
+        }
+    }
+}
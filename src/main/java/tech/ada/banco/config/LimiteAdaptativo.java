@@ -0,0 +1,108 @@
+package tech.ada.banco.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada.
+ * <p>
+ * As latências são agrupadas em janelas com duração e número de amostras mínimos. Ao fim de cada uma, a média é
+ * comparada a uma base de longo prazo: acima de {@code tolerancia} vezes a base, o limite cai na proporção do
+ * gradiente (base × tolerância / média, no máximo pela metade); com falhas, cai 10%; sem sobrecarga e com pelo
+ * menos metade do limite em uso, sobe √limite. A base só acompanha devagar as janelas sobrecarregadas, para que
+ * uma lentidão passageira do banco não vire a nova referência.
+ */
+final class LimiteAdaptativo {
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final long janela;
+    private final int amostrasMinimas;
+    private final AtomicInteger emVoo = new AtomicInteger();
+    private volatile int limite;
+
+    private long inicioJanela;
+    private long somaLatencias;
+    private int amostras;
+    private int maiorEmVoo;
+    private boolean falhou;
+    private double base;
+
+    LimiteAdaptativo(int inicial, int minimo, int maximo, double tolerancia, long janelaNanos, int amostrasMinimas) {
+        this.limite = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.janela = janelaNanos;
+        this.amostrasMinimas = amostrasMinimas;
+        this.inicioJanela = System.nanoTime();
+    }
+
+    boolean adquirir() {
+        while (true) {
+            int atual = emVoo.get();
+            if (atual >= limite) {
+                return false;
+            }
+            if (emVoo.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga e registra a latência; retorna se a janela encerrada agora terminou em sobrecarga.
+     */
+    boolean liberar(long latenciaNanos, boolean falha, long agora) {
+        int ocupadas = emVoo.getAndDecrement();
+        synchronized (this) {
+            somaLatencias += latenciaNanos;
+            amostras++;
+            maiorEmVoo = Math.max(maiorEmVoo, ocupadas);
+            falhou |= falha;
+            if (agora - inicioJanela < janela || amostras < amostrasMinimas) {
+                return false;
+            }
+            boolean sobrecarga = ajustar((double) somaLatencias / amostras);
+            inicioJanela = agora;
+            somaLatencias = 0;
+            amostras = 0;
+            maiorEmVoo = 0;
+            falhou = false;
+            return sobrecarga;
+        }
+    }
+
+    /**
+     * Redução imposta de fora, quando outro limite de maior prioridade entrou em sobrecarga.
+     */
+    synchronized void reduzir() {
+        limite = Math.max(minimo, (int) (limite * 0.9));
+    }
+
+    int getLimite() {
+        return limite;
+    }
+
+    int getEmVoo() {
+        return emVoo.get();
+    }
+
+    private boolean ajustar(double media) {
+        if (base == 0) {
+            base = media;
+        }
+        double gradiente = base * tolerancia / Math.max(media, 1);
+        boolean sobrecarga = falhou || gradiente < 1;
+        if (falhou) {
+            limite = Math.max(minimo, (int) (limite * 0.9));
+        } else if (gradiente < 1) {
+            limite = Math.max(minimo, (int) (limite * Math.max(0.5, gradiente)));
+        } else if (maiorEmVoo * 2 >= limite) {
+            limite = Math.min(maximo, limite + Math.max(1, (int) Math.sqrt(limite)));
+        }
+        double peso = sobrecarga ? 0.01 : 0.05;
+        base = base * (1 - peso) + media * peso;
+        return sobrecarga;
+    }
+}
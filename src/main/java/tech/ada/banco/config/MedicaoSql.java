@@ -0,0 +1,73 @@
+package tech.ada.banco.config;
+
+/**
+ * Contadores de comandos SQL, linhas e tempo de banco da thread atual.
+ * <p>
+ * Medições podem ser aninhadas: ao encerrar, os números da medição interna são somados à externa.
+ */
+public final class MedicaoSql implements AutoCloseable {
+
+    private static final ThreadLocal<MedicaoSql> ATUAL = new ThreadLocal<>();
+
+    private final MedicaoSql anterior;
+    private int comandos;
+    private long linhas;
+    private long nanos;
+
+    private MedicaoSql(MedicaoSql anterior) {
+        this.anterior = anterior;
+    }
+
+    public static MedicaoSql iniciar() {
+        MedicaoSql medicao = new MedicaoSql(ATUAL.get());
+        ATUAL.set(medicao);
+        return medicao;
+    }
+
+    public static MedicaoSql atual() {
+        return ATUAL.get();
+    }
+
+    static void registrarComando(long nanos, long linhas) {
+        MedicaoSql medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.comandos++;
+            medicao.nanos += nanos;
+            medicao.linhas += linhas;
+        }
+    }
+
+    static void registrarLinha() {
+        MedicaoSql medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.linhas++;
+        }
+    }
+
+    public int getComandos() {
+        return comandos;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public void close() {
+        if (ATUAL.get() != this) {
+            return;
+        }
+        if (anterior == null) {
+            ATUAL.remove();
+        } else {
+            anterior.comandos += comandos;
+            anterior.linhas += linhas;
+            anterior.nanos += nanos;
+            ATUAL.set(anterior);
+        }
+    }
+}
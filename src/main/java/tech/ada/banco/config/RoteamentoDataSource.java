@@ -0,0 +1,53 @@
+package tech.ada.banco.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Envia as transações {@code readOnly} para a réplica e todo o resto para a primária.
+ * <p>
+ * Precisa estar atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * para que a escolha aconteça no primeiro comando SQL, depois que a transação já foi marcada como
+ * somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public enum Destino {
+        PRIMARIA,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCAR_PRIMARIA = new ThreadLocal<>();
+
+    public RoteamentoDataSource(DataSource primaria, DataSource replica) {
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    public static <T> T naPrimaria(Supplier<T> operacao) {
+        Boolean anterior = FORCAR_PRIMARIA.get();
+        FORCAR_PRIMARIA.set(Boolean.TRUE);
+        try {
+            return operacao.get();
+        } finally {
+            if (anterior == null) {
+                FORCAR_PRIMARIA.remove();
+            } else {
+                FORCAR_PRIMARIA.set(anterior);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && FORCAR_PRIMARIA.get() == null) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIA;
+    }
+}
@@ -0,0 +1,70 @@
+package tech.ada.banco.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Escolhe o banco do shard corrente da thread; sem shard definido usa o shard 0.
+ * <p>
+ * Assim como o {@link RoteamentoDataSource}, precisa estar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: a conexão só é obtida no
+ * primeiro comando SQL, depois que o roteamento dos repositórios já definiu o shard da transação.
+ */
+public class ShardDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    public ShardDataSource(List<DataSource> shards) {
+        Map<Object, Object> destinos = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            destinos.put(i, shards.get(i));
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    public static <T> T em(int shard, Supplier<T> operacao) {
+        Integer anterior = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return operacao.get();
+        } finally {
+            if (anterior == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(anterior);
+            }
+        }
+    }
+
+    public static Integer atual() {
+        return SHARD.get();
+    }
+
+    /**
+     * Prende a transação corrente ao shard até ela terminar.
+     */
+    static void fixarNaTransacao(int shard) {
+        SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                SHARD.remove();
+            }
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+}
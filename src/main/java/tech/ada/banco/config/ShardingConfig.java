@@ -0,0 +1,183 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.PessoaRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liga o particionamento quando {@code banco.shards.urls} está configurado (não combinar com réplica de
+ * leitura). Os repositórios de conta e pessoa ganham um roteamento pela chave: o parâmetro marcado com
+ * {@link ChaveShard}, a entidade em {@code save}/{@code delete} ou o id nos métodos herdados do Spring Data. A
+ * primeira operação de uma transação com chave fixa o shard até o fim dela, e usar uma chave de outro shard na
+ * mesma transação é erro. Consultas sem chave rodam no shard corrente, ou no shard 0.
+ */
+@Configuration
+@ConditionalOnProperty("banco.shards.urls")
+@Slf4j
+public class ShardingConfig {
+
+    private static final Map<Method, Integer> POSICOES_CHAVE = new ConcurrentHashMap<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties shardPrincipalProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Value("${banco.shards.urls}") List<String> urls) {
+        DataSourceProperties principal = shardPrincipalProperties();
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(principal.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        for (String url : urls) {
+            shards.add(DataSourceBuilder.create().type(HikariDataSource.class).url(url)
+                    .driverClassName(principal.determineDriverClassName())
+                    .username(principal.determineUsername()).password(principal.determinePassword()).build());
+        }
+        return new LazyConnectionDataSourceProxy(new ShardDataSource(shards));
+    }
+
+    @Bean
+    public static BeanPostProcessor roteamentoRepositorios(ObjectProvider<Shards> shards) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ContaRepository) && !(bean instanceof PessoaRepository)) {
+                    return bean;
+                }
+                MethodInterceptor roteamento = invocation -> {
+                    Integer shard = shardDaChave(shards.getObject(), bean instanceof ContaRepository,
+                            invocation.getMethod(), invocation.getArguments());
+                    if (shard == null) {
+                        return invocation.proceed();
+                    }
+                    Integer atual = ShardDataSource.atual();
+                    if (atual != null) {
+                        if (atual.intValue() != shard) {
+                            throw new IllegalStateException("Operação no shard " + shard
+                                    + " dentro de uma transação do shard " + atual + ".");
+                        }
+                        return invocation.proceed();
+                    }
+                    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        ShardDataSource.fixarNaTransacao(shard);
+                        return invocation.proceed();
+                    }
+                    return ShardDataSource.em(shard, () -> {
+                        try {
+                            return invocation.proceed();
+                        } catch (RuntimeException | Error e) {
+                            throw e;
+                        } catch (Throwable e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                };
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, roteamento);
+                    return bean;
+                }
+                ProxyFactory proxy = new ProxyFactory(bean);
+                proxy.addAdvice(roteamento);
+                return proxy.getProxy();
+            }
+        };
+    }
+
+    private static Integer shardDaChave(Shards shards, boolean repositorioDeContas, Method metodo,
+                                        Object[] argumentos) {
+        int posicao = POSICOES_CHAVE.computeIfAbsent(metodo, ShardingConfig::posicaoDaChave);
+        if (posicao >= 0) {
+            Object chave = argumentos[posicao];
+            return chave instanceof Integer numeroConta ? Integer.valueOf(shards.shardDaConta(numeroConta))
+                    : chave instanceof Long id ? Integer.valueOf(shards.shardDaPessoa(id)) : null;
+        }
+        if (argumentos.length != 1) {
+            return null;
+        }
+        Object chave = argumentos[0];
+        if (chave instanceof Conta conta) {
+            return conta.getNumeroConta() == 0 ? shards.shardParaNovo() : shards.shardDaConta(conta.getNumeroConta());
+        } else if (chave instanceof Pessoa pessoa) {
+            return pessoa.getId() == null ? shards.shardParaNovo() : shards.shardDaPessoa(pessoa.getId());
+        } else if (metodo.getDeclaringClass().getName().startsWith("org.springframework.data.")) {
+            // findById, existsById, deleteById...: o único argumento inteiro é o id da entidade do repositório
+            if (repositorioDeContas && chave instanceof Integer numeroConta) {
+                return shards.shardDaConta(numeroConta);
+            } else if (!repositorioDeContas && chave instanceof Long id) {
+                return shards.shardDaPessoa(id);
+            }
+        }
+        return null;
+    }
+
+    private static int posicaoDaChave(Method metodo) {
+        Parameter[] parametros = metodo.getParameters();
+        for (int i = 0; i < parametros.length; i++) {
+            if (parametros[i].isAnnotationPresent(ChaveShard.class)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replica nos demais shards o esquema que o Hibernate criou no shard 0 e reposiciona as sequências de
+     * conta e pessoa no início da faixa de cada shard.
+     */
+    @Bean
+    public InitializingBean esquemaShards(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                          Shards shards) {
+        return () -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            List<String> esquema = jdbc.queryForList("SCRIPT NODATA", String.class).stream()
+                    .filter(comando -> !comando.startsWith("--"))
+                    .toList();
+            for (int shard = 1; shard < shards.getQuantidade(); shard++) {
+                int destino = shard;
+                ShardDataSource.em(destino, () -> {
+                    Integer tabelas = jdbc.queryForObject("select count(*) from INFORMATION_SCHEMA.TABLES "
+                            + "where TABLE_SCHEMA = 'PUBLIC' and TABLE_NAME = 'CONTA'", Integer.class);
+                    if (tabelas != null && tabelas > 0) {
+                        return null;
+                    }
+                    esquema.forEach(jdbc::execute);
+                    jdbc.execute("alter sequence CONTA_SQ restart with " + shards.primeiraConta(destino));
+                    jdbc.execute("alter sequence PESSOA_SQ restart with " + shards.primeiraPessoa(destino));
+                    log.info("Esquema criado no shard {}", destino);
+                    return null;
+                });
+            }
+        };
+    }
+}
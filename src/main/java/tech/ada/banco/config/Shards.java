@@ -0,0 +1,86 @@
+package tech.ada.banco.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Divisão das contas entre shards por faixa de número: o shard {@code i} guarda as contas de
+ * {@code PRIMEIRA_CONTA + i * bloco} até a faixa seguinte, e as pessoas de {@code PRIMEIRA_PESSOA + i * bloco}.
+ * O shard 0 é o {@code spring.datasource}; os demais vêm de {@code banco.shards.urls}.
+ */
+@Component
+public class Shards {
+
+    public static final int PRIMEIRA_CONTA = 10000;
+    public static final long PRIMEIRA_PESSOA = 100;
+
+    private final int quantidade;
+    private final int bloco;
+    private final AtomicInteger proximo = new AtomicInteger();
+
+    public Shards(@Value("${banco.shards.urls:}") List<String> urls,
+                  @Value("${banco.shards.bloco:100000000}") int bloco) {
+        this.quantidade = urls.size() + 1;
+        this.bloco = bloco;
+    }
+
+    public static Shards unico() {
+        return new Shards(List.of(), Integer.MAX_VALUE);
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public int shardDaConta(int numeroConta) {
+        return limitar((numeroConta - (long) PRIMEIRA_CONTA) / bloco);
+    }
+
+    public int shardDaPessoa(long id) {
+        return limitar((id - PRIMEIRA_PESSOA) / bloco);
+    }
+
+    public boolean mesmoShard(int contaOrigem, int contaDestino) {
+        return shardDaConta(contaOrigem) == shardDaConta(contaDestino);
+    }
+
+    /**
+     * Shard para uma conta ou pessoa nova: o shard corrente da thread, se houver, ou o próximo num rodízio.
+     */
+    public int shardParaNovo() {
+        Integer atual = ShardDataSource.atual();
+        if (atual != null) {
+            return atual;
+        }
+        return Math.floorMod(proximo.getAndIncrement(), quantidade);
+    }
+
+    /**
+     * Executa a consulta em cada shard, fora de transação, e junta os resultados na ordem dos shards.
+     */
+    public <T> List<T> emTodos(Supplier<? extends Collection<T>> consulta) {
+        List<T> resultado = new ArrayList<>();
+        for (int shard = 0; shard < quantidade; shard++) {
+            resultado.addAll(ShardDataSource.em(shard, consulta));
+        }
+        return resultado;
+    }
+
+    long primeiraConta(int shard) {
+        return PRIMEIRA_CONTA + (long) shard * bloco;
+    }
+
+    long primeiraPessoa(int shard) {
+        return PRIMEIRA_PESSOA + (long) shard * bloco;
+    }
+
+    private int limitar(long shard) {
+        return (int) Math.max(0, Math.min(shard, quantidade - 1));
+    }
+}
@@ -0,0 +1,27 @@
+package tech.ada.banco.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ControleConcorrencia controleConcorrencia;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new BinarioHttpMessageConverter("/contas/**", "/saque/**", "/deposito/**", "/pix/**"));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(controleConcorrencia)
+                .addPathPatterns("/pix/**", "/saque/**", "/deposito/**", "/contas/*/saldo");
+    }
+}
@@ -0,0 +1,59 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Bloqueio;
+import tech.ada.banco.services.Bloqueios;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/contas/{conta}/bloqueios")
+@RequiredArgsConstructor
+public class BloqueioController {
+
+    private final Bloqueios bloqueios;
+
+    @GetMapping
+    public List<Bloqueio> getBloqueios(@PathVariable int conta) {
+        return bloqueios.ativos(conta);
+    }
+
+    /**
+     * Sem {@code validade} ({@code 15m}, {@code 7d} ou ISO-8601) vale {@code banco.bloqueios.validade-padrao}.
+     */
+    @PostMapping
+    public Bloqueio createBloqueio(@PathVariable int conta, @RequestParam BigDecimal valor,
+                                   @RequestParam(required = false) String validade) {
+        return bloqueios.bloquear(conta, valor, validade == null ? null : duracao(validade));
+    }
+
+    @PostMapping("{id}/captura")
+    public Bloqueio capturar(@PathVariable int conta, @PathVariable long id,
+                             @RequestParam(required = false) BigDecimal valor) {
+        return bloqueios.capturar(conta, id, valor);
+    }
+
+    @DeleteMapping("{id}")
+    public Bloqueio liberar(@PathVariable int conta, @PathVariable long id) {
+        return bloqueios.liberar(conta, id);
+    }
+
+    private static Duration duracao(String validade) {
+        try {
+            return DurationStyle.detectAndParse(validade);
+        } catch (IllegalArgumentException e) {
+            throw new ValorInvalidoException();
+        }
+    }
+}
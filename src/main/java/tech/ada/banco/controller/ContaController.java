@@ -2,21 +2,36 @@ package tech.ada.banco.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.ada.banco.config.Shards;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.HistoricoConta;
 import tech.ada.banco.model.ModalidadeConta;
 import tech.ada.banco.model.Pessoa;
 import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.CanalEventos;
+import tech.ada.banco.services.ContasQuentes;
+import tech.ada.banco.services.EncerramentoContas;
+import tech.ada.banco.services.IndiceNomes;
+import tech.ada.banco.services.IndiceSaldos;
+import tech.ada.banco.services.LeituraContas;
+import tech.ada.banco.services.OutboxMovimentacoes;
+import tech.ada.banco.services.ProjecaoResumoContas;
+import tech.ada.banco.services.TotaisAgencia;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -25,26 +40,93 @@ import java.util.List;
 public class ContaController {
 
     private final ContaRepository repository;
+    private final LeituraContas leituras;
+    private final ContasQuentes quentes;
+    private final IndiceSaldos indiceSaldos;
+    private final Shards shards;
+    private final CanalEventos canalEventos;
+    private final OutboxMovimentacoes outbox;
+    private final ProjecaoResumoContas resumos;
+    private final TotaisAgencia totais;
+    private final IndiceNomes nomes;
+    private final EncerramentoContas encerramento;
 
     @GetMapping("{conta}")
     public Conta getConta(@PathVariable int conta) {
-        return repository.findContaByNumeroConta(conta).orElseThrow(ResourceNotFoundException::new);
+        quentes.leitura(conta);
+        return leituras.buscar(conta).orElseThrow(ResourceNotFoundException::new);
+    }
+
+    /**
+     * Várias contas numa só requisição: a resposta segue a ordem pedida e marca as não encontradas.
+     */
+    @PostMapping("consulta")
+    public List<LeituraContas.ContaConsultada> consultarContas(@RequestBody List<Integer> contas) {
+        return leituras.consultar(contas);
+    }
+
+    @GetMapping("{conta}/saldo")
+    public BigDecimal getSaldo(@PathVariable int conta) {
+        long centavos = indiceSaldos.saldo(conta);
+        if (centavos == IndiceSaldos.AUSENTE) {
+            quentes.leitura(conta);
+            // o valor fica no índice além desta requisição: vem da primária, não de uma réplica ou carga coalescida
+            Conta encontrada = leituras.buscarNaPrimaria(conta).orElseThrow(ResourceNotFoundException::new);
+            centavos = IndiceSaldos.centavos(encontrada.getSaldo());
+            indiceSaldos.inserirSeAusente(conta, centavos, encontrada.getVersaoSaldo());
+        }
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Movimentações da conta em Server-Sent Events. Com {@code Last-Event-ID} o stream começa pelos eventos
+     * posteriores ao informado que ainda estejam na outbox.
+     */
+    @GetMapping(value = "{conta}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEventos(@PathVariable int conta,
+                                 @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        if (!repository.existsById(conta)) {
+            throw new ResourceNotFoundException();
+        }
+        return canalEventos.assinar(conta, ultimoEvento, desde -> outbox.eventosDesde(conta, desde));
+    }
+
+    /**
+     * Situação da conta mesmo depois de encerrada ou arquivada; as demais rotas só enxergam contas ativas.
+     */
+    @GetMapping("{conta}/historico")
+    public HistoricoConta getHistorico(@PathVariable int conta) {
+        return encerramento.historico(conta).orElseThrow(ResourceNotFoundException::new);
     }
 
     @GetMapping
     public List<Conta> getContas() {
-        return repository.findAll();
+        return shards.emTodos(repository::findAll);
     }
 
     @PostMapping
     public Conta createConta(@RequestParam ModalidadeConta modalidade,
                              @RequestBody(required = false) Pessoa pessoa) {
-        return repository.save(new Conta(modalidade, pessoa));
+        Conta conta = totais.abrir(() -> repository.save(new Conta(modalidade, pessoa)));
+        leituras.invalidar(conta.getNumeroConta());
+        indiceSaldos.inserirSeAusente(conta.getNumeroConta(), IndiceSaldos.centavos(conta.getSaldo()),
+                conta.getVersaoSaldo());
+        resumos.contaAlterada(conta.getNumeroConta());
+        if (conta.getTitular() != null) {
+            nomes.indexar(conta.getTitular());
+        }
+        return conta;
     }
 
+    /**
+     * Encerra a conta; a linha continua em CONTA até o arquivamento (ver {@link EncerramentoContas}).
+     */
     @DeleteMapping("{conta}")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public void deleteConta(@PathVariable int conta) {
-        repository.deleteById(conta);
+        totais.encerrar(() -> encerramento.encerrar(conta));
+        leituras.invalidar(conta);
+        indiceSaldos.remover(conta);
+        resumos.contaAlterada(conta);
     }
 }
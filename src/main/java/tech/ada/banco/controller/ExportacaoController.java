@@ -0,0 +1,43 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.ada.banco.services.Exportacao;
+import tech.ada.banco.services.Exportacao.Formato;
+
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportacaoController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+
+    private final Exportacao exportacao;
+
+    @GetMapping("contas")
+    public ResponseEntity<StreamingResponseBody> exportarContas(@RequestParam(defaultValue = "CSV") Formato formato) {
+        return resposta("contas", formato, saida -> exportacao.exportarContas(saida, formato));
+    }
+
+    @GetMapping("pessoas")
+    public ResponseEntity<StreamingResponseBody> exportarPessoas(@RequestParam(defaultValue = "CSV") Formato formato) {
+        return resposta("pessoas", formato, saida -> exportacao.exportarPessoas(saida, formato));
+    }
+
+    private ResponseEntity<StreamingResponseBody> resposta(String nome, Formato formato, StreamingResponseBody corpo) {
+        String arquivo = nome + (formato == Formato.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(formato == Formato.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + arquivo + "\"")
+                .body(corpo);
+    }
+}
@@ -0,0 +1,54 @@
+package tech.ada.banco.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.services.ImportacaoFolha;
+import tech.ada.banco.services.ImportacaoFolha.Importacao;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/importacoes/folha")
+@RequiredArgsConstructor
+public class ImportacaoController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final ImportacaoFolha importacao;
+
+    /**
+     * Recebe o arquivo no corpo da requisição e devolve a importação, que segue em segundo plano.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Importacao importar(HttpServletRequest request) throws IOException {
+        return importacao.receber(request.getInputStream());
+    }
+
+    @GetMapping("{id}")
+    public Importacao getImportacao(@PathVariable String id) {
+        return importacao.consultar(id);
+    }
+
+    @GetMapping("{id}/resultado")
+    public ResponseEntity<Resource> getResultado(@PathVariable String id) {
+        return ResponseEntity.ok().contentType(TEXT_CSV).body(new FileSystemResource(importacao.resultado(id)));
+    }
+
+    @PostMapping("{id}/retomada")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Importacao retomar(@PathVariable String id) {
+        return importacao.iniciar(id);
+    }
+}
@@ -1,43 +1,82 @@
 package tech.ada.banco.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.config.Shards;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
 import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.ContaRepository;
 import tech.ada.banco.repository.PessoaRepository;
+import tech.ada.banco.services.IndiceNomes;
+import tech.ada.banco.services.ProjecaoResumoContas;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/pessoas")
 @RequiredArgsConstructor
 public class PessoaController {
 
+    private static final int LIMITE_MAXIMO = 100;
+
     private final PessoaRepository repository;
+    private final Shards shards;
+    private final ContaRepository contas;
+    private final ProjecaoResumoContas resumos;
+    private final IndiceNomes nomes;
 
+    /**
+     * Lida da réplica só quando falta no cache: a atualização grava a entidade nova na região "pessoa" ao
+     * confirmar, e a leitura seguinte não volta à réplica atrasada.
+     */
     @GetMapping("{id}")
-    public Pessoa getPessoa(@PathVariable int id) {
+    @Transactional(readOnly = true)
+    public Pessoa getPessoa(@PathVariable long id) {
         return repository.findById(id).orElseThrow(ResourceNotFoundException::new);
     }
 
     @GetMapping
     public List<Pessoa> getPessoas() {
-        return repository.findAll();
+        return shards.emTodos(repository::findAll);
+    }
+
+    /**
+     * Pessoas cujo nome corresponde a {@code q} por prefixo de palavras ou aproximadamente, sem diferenciar
+     * acentos nem maiúsculas, em ordem de relevância (ver {@link IndiceNomes}).
+     */
+    @GetMapping("busca")
+    public List<Pessoa> buscar(@RequestParam String q, @RequestParam(defaultValue = "20") int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new ValorInvalidoException();
+        }
+        return nomes.buscar(q, limite).stream()
+                .map(repository::findById)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     @PostMapping
     public Pessoa createPessoa(@RequestBody Pessoa pessoa) {
-        return repository.save(pessoa);
+        Pessoa criada = repository.save(pessoa);
+        nomes.indexar(criada);
+        return criada;
     }
 
     @PutMapping
     public Pessoa atualizaPessoa(@RequestBody Pessoa pessoa) {
-        return repository.save(pessoa);
+        Pessoa atualizada = repository.save(pessoa);
+        nomes.indexar(atualizada);
+        shards.emTodos(() -> contas.numerosDoTitular(atualizada.getId())).forEach(resumos::contaAlterada);
+        return atualizada;
     }
 }
@@ -1,11 +1,13 @@
 package tech.ada.banco.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.exceptions.TransferenciaPendenteException;
 import tech.ada.banco.services.Pix;
 
 import java.math.BigDecimal;
@@ -17,9 +19,16 @@ public class PixController {
 
     private final Pix pix;
 
+    /**
+     * 200 com o saldo da origem; 202 com o saldo da origem quando o crédito em outro shard ficou pendente.
+     */
     @PostMapping("{conta}")
-    public BigDecimal createPixTransaction(@PathVariable int conta, @RequestParam int destino,
-                                           @RequestParam BigDecimal valor) {
-            return pix.executar(conta, destino, valor);
+    public ResponseEntity<BigDecimal> createPixTransaction(@PathVariable int conta, @RequestParam int destino,
+                                                           @RequestParam BigDecimal valor) {
+        try {
+            return ResponseEntity.ok(pix.executar(conta, destino, valor));
+        } catch (TransferenciaPendenteException e) {
+            return ResponseEntity.accepted().body(e.getSaldo());
+        }
     }
 }
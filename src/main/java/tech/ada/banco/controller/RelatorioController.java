@@ -0,0 +1,39 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.services.ConciliacaoSaldos;
+import tech.ada.banco.services.TotaisAgencia;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/relatorios")
+@RequiredArgsConstructor
+public class RelatorioController {
+
+    private final TotaisAgencia totais;
+    private final ConciliacaoSaldos conciliacao;
+
+    @GetMapping("totais")
+    public List<TotaisAgencia.Total> getTotais() {
+        return totais.consultar();
+    }
+
+    @GetMapping("conciliacao")
+    public ConciliacaoSaldos.Relatorio getConciliacao() {
+        return conciliacao.getUltimo().orElseThrow(ResourceNotFoundException::new);
+    }
+
+    /**
+     * Executa a conciliação na hora, fora do agendamento diário, e devolve o relatório.
+     */
+    @PostMapping("conciliacao")
+    public ConciliacaoSaldos.Relatorio conciliar() {
+        return conciliacao.executar();
+    }
+}
@@ -0,0 +1,79 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.ResumoConta;
+import tech.ada.banco.repository.ResumoContaRepository;
+import tech.ada.banco.services.ProjecaoResumoContas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listagem e busca de contas para o back-office, servidas por RESUMO_CONTA (ver {@link ProjecaoResumoContas}).
+ */
+@RestController
+@RequestMapping("/resumos")
+@RequiredArgsConstructor
+public class ResumoContaController {
+
+    private static final int TAMANHO_MAXIMO = 1000;
+
+    private final ResumoContaRepository repository;
+    private final ProjecaoResumoContas projecao;
+    private final Shards shards;
+
+    /**
+     * Página de contas em ordem de número, a partir da conta seguinte a {@code aPartirDe}. Os shards são faixas
+     * de números consecutivas, então percorrê-los em ordem mantém a ordenação global.
+     */
+    @GetMapping
+    public List<ResumoConta> listar(@RequestParam(defaultValue = "0") int aPartirDe,
+                                    @RequestParam(defaultValue = "100") int tamanho) {
+        validarTamanho(tamanho);
+        List<ResumoConta> pagina = new ArrayList<>(tamanho);
+        for (int shard = shards.shardDaConta(aPartirDe); shard < shards.getQuantidade(); shard++) {
+            int restante = tamanho - pagina.size();
+            pagina.addAll(ShardDataSource.em(shard, () -> repository
+                    .findByNumeroContaGreaterThanOrderByNumeroContaAsc(aPartirDe, PageRequest.ofSize(restante))));
+            if (pagina.size() == tamanho) {
+                break;
+            }
+        }
+        return pagina;
+    }
+
+    @GetMapping("busca")
+    public List<ResumoConta> buscar(@RequestParam(required = false) String cpf,
+                                    @RequestParam(required = false) String nome,
+                                    @RequestParam(defaultValue = "100") int tamanho) {
+        validarTamanho(tamanho);
+        if ((cpf == null) == (nome == null)) {
+            throw new ValorInvalidoException();
+        }
+        PageRequest pagina = PageRequest.ofSize(tamanho);
+        List<ResumoConta> encontradas = shards.emTodos(() -> cpf != null
+                ? repository.findByCpfTitularOrderByNumeroContaAsc(cpf, pagina)
+                : repository.findByNomeTitularStartingWithOrderByNumeroContaAsc(nome, pagina));
+        return encontradas.size() > tamanho ? encontradas.subList(0, tamanho) : encontradas;
+    }
+
+    @PostMapping("reconstrucao")
+    public int reconstruir() {
+        return projecao.reconstruir();
+    }
+
+    private static void validarTamanho(int tamanho) {
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO) {
+            throw new ValorInvalidoException();
+        }
+    }
+}
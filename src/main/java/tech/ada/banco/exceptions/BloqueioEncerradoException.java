@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Bloqueio já capturado, liberado ou expirado.")
+public class BloqueioEncerradoException extends RuntimeException {
+
+    public BloqueioEncerradoException() {
+        super("Bloqueio já capturado, liberado ou expirado.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Conta com saldo ou bloqueios ativos não pode ser encerrada.")
+public class ContaComSaldoException extends RuntimeException {
+
+    public ContaComSaldoException() {
+        super("Conta com saldo ou bloqueios ativos não pode ser encerrada.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Limite de movimentação da conta excedido.")
+public class LimiteExcedidoException extends RuntimeException {
+
+    public LimiteExcedidoException() {
+        super("Limite de movimentação da conta excedido.");
+    }
+}
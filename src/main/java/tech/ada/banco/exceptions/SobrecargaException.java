@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Serviço sobrecarregado, tente novamente em instantes.")
+public class SobrecargaException extends RuntimeException {
+
+    public SobrecargaException() {
+        super("Serviço sobrecarregado, tente novamente em instantes.");
+    }
+}
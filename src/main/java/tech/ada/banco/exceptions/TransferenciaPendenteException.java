@@ -0,0 +1,23 @@
+package tech.ada.banco.exceptions;
+
+import java.math.BigDecimal;
+
+/**
+ * Pix entre shards debitado na origem com o crédito no destino ainda pendente; a recuperação o conclui ou estorna.
+ */
+public class TransferenciaPendenteException extends RuntimeException {
+
+    private final BigDecimal saldo;
+
+    public TransferenciaPendenteException(BigDecimal saldo) {
+        super("Pix debitado; o crédito no destino está pendente e será concluído.");
+        this.saldo = saldo;
+    }
+
+    /**
+     * Saldo da conta de origem depois do débito.
+     */
+    public BigDecimal getSaldo() {
+        return saldo;
+    }
+}
@@ -0,0 +1,88 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Reserva de saldo (pré-autorização) de cartão ou caixa eletrônico. Enquanto ATIVO o valor fica somado em
+ * {@code Conta.bloqueado}; depois vira CAPTURADO, LIBERADO ou EXPIRADO. O id é único dentro do shard da conta.
+ */
+@Entity
+@Table(name = "BLOQUEIO", indexes = {
+        @Index(name = "BLOQUEIO_CONTA_IX", columnList = "NUMERO_CONTA, SITUACAO"),
+        @Index(name = "BLOQUEIO_SITUACAO_IX", columnList = "SITUACAO, EXPIRA_EM")})
+@Getter
+public class Bloqueio {
+
+    public enum Situacao {
+        ATIVO,
+        CAPTURADO,
+        LIBERADO,
+        EXPIRADO
+    }
+
+    @Id
+    @SequenceGenerator(name = "bloqueioSequenceGenerator", sequenceName = "BLOQUEIO_SQ")
+    @GeneratedValue(generator = "bloqueioSequenceGenerator", strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "NUMERO_CONTA", nullable = false)
+    private int numeroConta;
+
+    @Column(name = "VALOR", nullable = false)
+    private BigDecimal valor;
+
+    @Column(name = "VALOR_CAPTURADO")
+    private BigDecimal valorCapturado;
+
+    @Column(name = "SITUACAO", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Situacao situacao;
+
+    @Column(name = "CRIADO_EM", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "EXPIRA_EM", nullable = false)
+    private Instant expiraEm;
+
+    @Column(name = "ENCERRADO_EM")
+    private Instant encerradoEm;
+
+    public Bloqueio(int numeroConta, BigDecimal valor, Instant expiraEm) {
+        this.numeroConta = numeroConta;
+        this.valor = valor;
+        this.situacao = Situacao.ATIVO;
+        this.criadoEm = Instant.now();
+        this.expiraEm = expiraEm;
+    }
+
+    protected Bloqueio() {
+
+    }
+
+    public boolean isAtivo() {
+        return situacao == Situacao.ATIVO;
+    }
+
+    public void capturar(BigDecimal capturado) {
+        valorCapturado = capturado;
+        encerrar(Situacao.CAPTURADO);
+    }
+
+    public void encerrar(Situacao situacao) {
+        this.situacao = situacao;
+        this.encerradoEm = Instant.now();
+    }
+}
@@ -0,0 +1,10 @@
+package tech.ada.banco.model;
+
+import java.time.Instant;
+
+/**
+ * Publicado na transação que reserva ou libera um bloqueio. {@code expiraEm} só vem preenchido na reserva, quando
+ * o prazo ainda precisa ser agendado.
+ */
+public record BloqueioAlterado(long id, int numeroConta, Instant expiraEm) {
+}
@@ -1,5 +1,6 @@
 package tech.ada.banco.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,23 +14,36 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Where;
+import tech.ada.banco.exceptions.ContaComSaldoException;
 import tech.ada.banco.exceptions.SaldoInsuficienteException;
 import tech.ada.banco.exceptions.ValorInvalidoException;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.time.Instant;
 
 @Entity
 @Table(name = "CONTA")
+// contas encerradas ficam fora das consultas JPA até serem arquivadas (ver EncerramentoContas)
+@Where(clause = "SITUACAO = 'ATIVA'")
 @Getter
 @Setter
 public class Conta {
 
+    public enum Situacao {
+        ATIVA,
+        ENCERRADA
+    }
+
     @Id
-    @SequenceGenerator(name = "contaSequenceGenerator", sequenceName = "CONTA_SQ", initialValue = 10000)
+    // sem reserva de blocos em memória: cada shard tem sua própria faixa na sequência (ver Shards)
+    @SequenceGenerator(name = "contaSequenceGenerator", sequenceName = "CONTA_SQ", initialValue = 10000,
+            allocationSize = 1)
     @GeneratedValue(generator = "contaSequenceGenerator", strategy = GenerationType.SEQUENCE)
     @Column(updatable = false)
     private int numeroConta;
@@ -41,12 +55,29 @@ public class Conta {
     @Column(name = "SALDO")
     protected BigDecimal saldo;
 
+    // soma dos bloqueios ATIVO da conta (ver Bloqueio); o saldo disponível é SALDO - BLOQUEADO
+    @Column(name = "BLOQUEADO", nullable = false)
+    private BigDecimal bloqueado;
+
+    // cresce a cada alteração de SALDO, na transação que a faz; ordena as atualizações do índice de saldos
+    @Column(name = "VERSAO_SALDO", nullable = false)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private long versaoSaldo;
+
     @Column(name = "AGENCIA")
     private final String agencia;
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinColumn(name = "PESSOA_ID", referencedColumnName = "ID")
     private Pessoa titular;
 
+    @Column(name = "SITUACAO", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Situacao situacao;
+
+    @Column(name = "ENCERRADA_EM")
+    private Instant encerradaEm;
+
     public Conta(ModalidadeConta tipo, Pessoa titular) {
         this();
         this.tipo = tipo;
@@ -56,6 +87,22 @@ public class Conta {
     protected Conta() {
         agencia = "0001";
         saldo = BigDecimal.ZERO;
+        bloqueado = BigDecimal.ZERO;
+        situacao = Situacao.ATIVA;
+    }
+
+    /**
+     * Só encerra conta zerada e sem bloqueios ativos, para que nenhum valor fique preso numa conta que não
+     * movimenta mais.
+     */
+    public void encerrar() {
+        if (saldo.signum() != 0 || bloqueado.signum() != 0) {
+            throw new ContaComSaldoException();
+        }
+        if (situacao == Situacao.ATIVA) {
+            situacao = Situacao.ENCERRADA;
+            encerradaEm = Instant.now();
+        }
     }
 
     public ModalidadeConta getTipo() {
@@ -66,12 +113,21 @@ public class Conta {
         return saldo.setScale(2, RoundingMode.HALF_EVEN);
     }
 
+    public BigDecimal getBloqueado() {
+        return bloqueado.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    public BigDecimal getSaldoDisponivel() {
+        return saldo.subtract(bloqueado).setScale(2, RoundingMode.HALF_EVEN);
+    }
+
     public void deposito(BigDecimal valor) {
         if (valor.compareTo(BigDecimal.ZERO) < 0) {
             throw new ValorInvalidoException();
         }
 
         saldo = saldo.add(valor);
+        versaoSaldo++;
     }
 
     public void saque(BigDecimal valor) {
@@ -79,13 +135,45 @@ public class Conta {
             throw new ValorInvalidoException();
         }
 
-        if (valor.compareTo(saldo) > 0) {
+        if (valor.compareTo(saldo.subtract(bloqueado)) > 0) {
             throw new SaldoInsuficienteException();
         } else {
             saldo = saldo.subtract(valor);
+            versaoSaldo++;
         }
     }
 
+    /**
+     * Reserva {@code valor} do saldo disponível sem movimentar o saldo.
+     */
+    public void bloquear(BigDecimal valor) {
+        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ValorInvalidoException();
+        }
+
+        if (valor.compareTo(saldo.subtract(bloqueado)) > 0) {
+            throw new SaldoInsuficienteException();
+        }
+        bloqueado = bloqueado.add(valor);
+    }
+
+    /**
+     * Debita {@code capturado} de um bloqueio de {@code valorBloqueado} e devolve o restante ao saldo disponível.
+     */
+    public void capturar(BigDecimal valorBloqueado, BigDecimal capturado) {
+        if (capturado.compareTo(BigDecimal.ZERO) < 0 || capturado.compareTo(valorBloqueado) > 0) {
+            throw new ValorInvalidoException();
+        }
+
+        bloqueado = bloqueado.subtract(valorBloqueado);
+        saldo = saldo.subtract(capturado);
+        versaoSaldo++;
+    }
+
+    public void desbloquear(BigDecimal valor) {
+        bloqueado = bloqueado.subtract(valor);
+    }
+
     public int getNumeroConta() {
         return numeroConta;
     }
@@ -0,0 +1,50 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Conta encerrada retirada de CONTA pelo arquivamento, com o estado que tinha no encerramento. O titular é
+ * guardado só pelo id: a pessoa continua em PESSOA e pode ter outras contas.
+ */
+@Entity
+@Table(name = "CONTA_ARQUIVO", indexes = @Index(name = "CONTA_ARQUIVO_PESSOA_IX", columnList = "PESSOA_ID"))
+@Getter
+public class ContaArquivada {
+
+    @Id
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Column(name = "AGENCIA")
+    private String agencia;
+
+    @Column(name = "TIPO")
+    @Enumerated(EnumType.STRING)
+    private ModalidadeConta tipo;
+
+    @Column(name = "SALDO")
+    private BigDecimal saldo;
+
+    @Column(name = "PESSOA_ID")
+    private Long titular;
+
+    @Column(name = "ENCERRADA_EM")
+    private Instant encerradaEm;
+
+    @Column(name = "ARQUIVADA_EM")
+    private Instant arquivadaEm;
+
+    protected ContaArquivada() {
+
+    }
+}
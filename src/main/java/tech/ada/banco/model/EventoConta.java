@@ -0,0 +1,58 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Outbox das movimentações: uma linha por {@link MovimentacaoConta}, gravada na mesma transação da
+ * alteração de saldo. O id é uma coluna de identidade do próprio banco, crescente em cada shard, e é por ele
+ * que o relay acompanha a tabela.
+ */
+@Entity
+@Table(name = "EVENTO_CONTA", indexes = @Index(name = "EVENTO_CONTA_CONTA_IX", columnList = "NUMERO_CONTA, ID"))
+@Getter
+public class EventoConta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Column(name = "TIPO")
+    @Enumerated(EnumType.STRING)
+    private MovimentacaoConta.Tipo tipo;
+
+    @Column(name = "VALOR")
+    private BigDecimal valor;
+
+    @Column(name = "SALDO")
+    private BigDecimal saldo;
+
+    @Column(name = "MOMENTO")
+    private Instant momento;
+
+    public EventoConta(MovimentacaoConta movimentacao) {
+        this.numeroConta = movimentacao.numeroConta();
+        this.tipo = movimentacao.tipo();
+        this.valor = movimentacao.valor();
+        this.saldo = movimentacao.saldo();
+        this.momento = movimentacao.momento();
+    }
+
+    protected EventoConta() {
+
+    }
+}
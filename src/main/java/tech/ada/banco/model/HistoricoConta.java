@@ -0,0 +1,22 @@
+package tech.ada.banco.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Situação de uma conta em qualquer fase: ativa ou encerrada em CONTA, ou já em CONTA_ARQUIVO.
+ */
+public record HistoricoConta(int numeroConta, String agencia, ModalidadeConta modalidade, BigDecimal saldo,
+                             Long titular, Conta.Situacao situacao, Instant encerradaEm, Instant arquivadaEm) {
+
+    public static HistoricoConta de(Conta conta) {
+        return new HistoricoConta(conta.getNumeroConta(), conta.getAgencia(), conta.getTipo(), conta.getSaldo(),
+                conta.getTitular() == null ? null : conta.getTitular().getId(), conta.getSituacao(),
+                conta.getEncerradaEm(), null);
+    }
+
+    public static HistoricoConta de(ContaArquivada conta) {
+        return new HistoricoConta(conta.getNumeroConta(), conta.getAgencia(), conta.getTipo(), conta.getSaldo(),
+                conta.getTitular(), Conta.Situacao.ENCERRADA, conta.getEncerradaEm(), conta.getArquivadaEm());
+    }
+}
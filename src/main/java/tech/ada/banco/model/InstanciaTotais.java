@@ -0,0 +1,34 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Marca, por instância, se ela tem variações de {@link tech.ada.banco.services.TotaisAgencia} confirmadas e
+ * ainda não gravadas em TOTAL_AGENCIA. A marca é ligada antes da confirmação da primeira variação depois de
+ * cada gravação e desligada pela gravação; fica no shard 0, junto de TOTAL_AGENCIA.
+ */
+@Entity
+@Table(name = "TOTAL_AGENCIA_INSTANCIA")
+@Getter
+public class InstanciaTotais {
+
+    @Id
+    @Column(name = "INSTANCIA")
+    private String instancia;
+
+    @Column(name = "PENDENTE")
+    private boolean pendente;
+
+    @Column(name = "ATUALIZADO_EM")
+    private Instant atualizadoEm;
+
+    protected InstanciaTotais() {
+
+    }
+}
@@ -0,0 +1,57 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Faixa de linhas de um arquivo de folha já creditada neste shard, gravada na transação dos créditos: ao retomar
+ * uma importação as linhas cobertas por faixas registradas não são aplicadas de novo, qualquer que seja o tamanho
+ * de lote da nova execução.
+ */
+@Entity
+@Table(name = "IMPORTACAO_LOTE",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"IMPORTACAO", "LINHA_INICIAL"}))
+@Getter
+public class LoteImportacao {
+
+    @Id
+    @SequenceGenerator(name = "loteImportacaoSequenceGenerator", sequenceName = "IMPORTACAO_LOTE_SQ")
+    @GeneratedValue(generator = "loteImportacaoSequenceGenerator", strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "IMPORTACAO", length = 64)
+    private String importacao;
+
+    @Column(name = "LINHA_INICIAL")
+    private long linhaInicial;
+
+    @Column(name = "LINHA_FINAL")
+    private long linhaFinal;
+
+    @Column(name = "CREDITOS")
+    private int creditos;
+
+    @Column(name = "PROCESSADO_EM")
+    private Instant processadoEm;
+
+    public LoteImportacao(String importacao, long linhaInicial, long linhaFinal, int creditos) {
+        this.importacao = importacao;
+        this.linhaInicial = linhaInicial;
+        this.linhaFinal = linhaFinal;
+        this.creditos = creditos;
+        this.processadoEm = Instant.now();
+    }
+
+    protected LoteImportacao() {
+
+    }
+}
@@ -0,0 +1,53 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "RENDIMENTO_LOTE",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"DATA_REFERENCIA", "INICIO"}))
+@Getter
+public class LoteRendimento {
+
+    @Id
+    @SequenceGenerator(name = "loteRendimentoSequenceGenerator", sequenceName = "RENDIMENTO_LOTE_SQ")
+    @GeneratedValue(generator = "loteRendimentoSequenceGenerator", strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "DATA_REFERENCIA")
+    private LocalDate dataReferencia;
+
+    @Column(name = "INICIO")
+    private int inicio;
+
+    @Column(name = "FIM")
+    private int fim;
+
+    @Column(name = "CONTAS")
+    private int contas;
+
+    @Column(name = "PROCESSADO_EM")
+    private Instant processadoEm;
+
+    public LoteRendimento(LocalDate dataReferencia, int inicio, int fim, int contas) {
+        this.dataReferencia = dataReferencia;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.contas = contas;
+        this.processadoEm = Instant.now();
+    }
+
+    protected LoteRendimento() {
+
+    }
+}
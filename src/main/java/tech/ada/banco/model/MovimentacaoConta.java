@@ -0,0 +1,28 @@
+package tech.ada.banco.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Publicado a cada alteração de saldo. {@code valor} é positivo para créditos e negativo para débitos;
+ * {@code versaoSaldo} é a versão do saldo da conta depois da alteração.
+ * O rendimento diário não passa por aqui: é gravado direto em EVENTO_CONTA pelo próprio lote (ver {@code Rendimento}).
+ */
+public record MovimentacaoConta(int numeroConta, String agencia, ModalidadeConta modalidade, Tipo tipo,
+                                BigDecimal valor, BigDecimal saldo, long versaoSaldo, Instant momento) {
+
+    public enum Tipo {
+        DEPOSITO,
+        SAQUE,
+        PIX_ENVIADO,
+        PIX_RECEBIDO,
+        PIX_ESTORNADO,
+        CAPTURA,
+        RENDIMENTO
+    }
+
+    public static MovimentacaoConta de(Conta conta, Tipo tipo, BigDecimal valor) {
+        return new MovimentacaoConta(conta.getNumeroConta(), conta.getAgencia(), conta.getTipo(), tipo, valor,
+                conta.getSaldo(), conta.getVersaoSaldo(), Instant.now());
+    }
+}
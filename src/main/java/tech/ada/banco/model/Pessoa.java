@@ -1,5 +1,6 @@
 package tech.ada.banco.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -9,6 +10,8 @@ import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import tech.ada.banco.exceptions.ValorInvalidoException;
 
 import java.time.LocalDate;
@@ -17,10 +20,14 @@ import java.time.LocalDate;
 @Getter
 @Entity
 @Table(name = "PESSOA")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pessoa")
 public class Pessoa {
 
     @Id
-    @SequenceGenerator(name = "pessoaSequenceGenerator", sequenceName = "PESSOA_SQ", initialValue = 100)
+    // sem reserva de blocos em memória: cada shard tem sua própria faixa na sequência (ver Shards)
+    @SequenceGenerator(name = "pessoaSequenceGenerator", sequenceName = "PESSOA_SQ", initialValue = 100,
+            allocationSize = 1)
     @GeneratedValue(generator = "pessoaSequenceGenerator", strategy = GenerationType.SEQUENCE)
     @Column(updatable = false)
     private Long id;
@@ -0,0 +1,10 @@
+package tech.ada.banco.model;
+
+import java.time.LocalDate;
+
+/**
+ * Publicado ao fim de cada execução do rendimento diário, que altera saldos de poupança direto no banco, sem
+ * {@link MovimentacaoConta}; quem mantém saldos fora de CONTA se atualiza por aqui.
+ */
+public record RendimentoAplicado(LocalDate dataReferencia, int contas) {
+}
@@ -0,0 +1,59 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Modelo de leitura das contas para consultas administrativas: conta, titular e saldo numa só linha, sem
+ * junções com CONTA ou PESSOA. É atualizado de forma assíncrona e pode estar alguns instantes atrás delas.
+ */
+@Entity
+@Table(name = "RESUMO_CONTA", indexes = {
+        @Index(name = "RESUMO_CONTA_CPF_IX", columnList = "CPF_TITULAR"),
+        @Index(name = "RESUMO_CONTA_NOME_IX", columnList = "NOME_TITULAR")})
+@Getter
+public class ResumoConta {
+
+    @Id
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Column(name = "AGENCIA")
+    private String agencia;
+
+    @Column(name = "TIPO")
+    @Enumerated(EnumType.STRING)
+    private ModalidadeConta tipo;
+
+    @Column(name = "NOME_TITULAR")
+    private String nomeTitular;
+
+    @Column(name = "CPF_TITULAR")
+    private String cpfTitular;
+
+    @Column(name = "SALDO")
+    private BigDecimal saldo;
+
+    @Column(name = "ULTIMA_MOVIMENTACAO")
+    private Instant ultimaMovimentacao;
+
+    @Column(name = "ATUALIZADO_EM")
+    private Instant atualizadoEm;
+
+    /** Maior id de EVENTO_CONTA já refletido no resumo; a conferência com a outbox parte dele. */
+    @Column(name = "ULTIMO_EVENTO")
+    private Long ultimoEvento;
+
+    protected ResumoConta() {
+
+    }
+}
@@ -0,0 +1,58 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Totais por agência e modalidade, mantidos pelo {@link tech.ada.banco.services.TotaisAgencia}. Fica sempre no
+ * shard 0, com os totais de todos os shards.
+ */
+@Entity
+@Table(name = "TOTAL_AGENCIA")
+@IdClass(TotalAgencia.Chave.class)
+@Getter
+public class TotalAgencia {
+
+    @Id
+    @Column(name = "AGENCIA")
+    private String agencia;
+
+    @Id
+    @Column(name = "TIPO")
+    @Enumerated(EnumType.STRING)
+    private ModalidadeConta tipo;
+
+    @Column(name = "CONTAS")
+    private long contas;
+
+    @Column(name = "SALDO")
+    private BigDecimal saldo;
+
+    @Column(name = "DEPOSITOS")
+    private BigDecimal depositos;
+
+    @Column(name = "ATUALIZADO_EM")
+    private Instant atualizadoEm;
+
+    protected TotalAgencia() {
+
+    }
+
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private String agencia;
+        private ModalidadeConta tipo;
+    }
+}
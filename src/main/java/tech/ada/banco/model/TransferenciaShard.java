@@ -0,0 +1,87 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Registro de um Pix entre contas de shards diferentes. No shard de origem a linha acompanha a transferência
+ * (DEBITADA, depois CONCLUIDA ou ESTORNADA); no shard de destino uma linha CREDITADA com o mesmo id garante que
+ * o crédito seja aplicado uma única vez.
+ */
+@Entity
+@Table(name = "TRANSFERENCIA_SHARD")
+@Getter
+public class TransferenciaShard implements Persistable<String> {
+
+    public enum Situacao {
+        DEBITADA,
+        CREDITADA,
+        CONCLUIDA,
+        ESTORNADA
+    }
+
+    @Id
+    @Column(name = "ID", length = 36)
+    private String id;
+
+    @Column(name = "CONTA_ORIGEM")
+    private int contaOrigem;
+
+    @Column(name = "CONTA_DESTINO")
+    private int contaDestino;
+
+    @Column(name = "VALOR")
+    private BigDecimal valor;
+
+    @Setter
+    @Column(name = "SITUACAO")
+    @Enumerated(EnumType.STRING)
+    private Situacao situacao;
+
+    @Column(name = "MOMENTO")
+    private Instant momento;
+
+    @Transient
+    private boolean nova = true;
+
+    public TransferenciaShard(String id, int contaOrigem, int contaDestino, BigDecimal valor, Situacao situacao) {
+        this.id = id;
+        this.contaOrigem = contaOrigem;
+        this.contaDestino = contaDestino;
+        this.valor = valor;
+        this.situacao = situacao;
+        this.momento = Instant.now();
+    }
+
+    protected TransferenciaShard() {
+
+    }
+
+    public TransferenciaShard credito() {
+        return new TransferenciaShard(id, contaOrigem, contaDestino, valor, Situacao.CREDITADA);
+    }
+
+    @Override
+    public boolean isNew() {
+        return nova;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        nova = false;
+    }
+}
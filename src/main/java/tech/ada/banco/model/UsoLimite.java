@@ -0,0 +1,44 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Entity
+@Table(name = "LIMITE_USO")
+@IdClass(UsoLimite.Chave.class)
+@Getter
+public class UsoLimite {
+
+    @Id
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Id
+    @Column(name = "OPERACAO")
+    private String operacao;
+
+    @Column(name = "TOTAL_DIA")
+    private long totalDia;
+
+    @Column(name = "ATUALIZADO_EM")
+    private Instant atualizadoEm;
+
+    protected UsoLimite() {
+
+    }
+
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private int numeroConta;
+        private String operacao;
+    }
+}
@@ -0,0 +1,10 @@
+package tech.ada.banco.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Publicado na transação de cada lote do rendimento diário com o quanto o lote somou ao saldo das contas da
+ * agência, para que quem mantém totais fora de CONTA os acompanhe sem voltar a somar a tabela.
+ */
+public record VariacaoRendimento(String agencia, ModalidadeConta modalidade, BigDecimal valor) {
+}
@@ -0,0 +1,25 @@
+package tech.ada.banco.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.Bloqueio;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BloqueioRepository extends JpaRepository<Bloqueio, Long> {
+
+    List<Bloqueio> findByNumeroContaAndSituacaoOrderById(int numeroConta, Bloqueio.Situacao situacao);
+
+    /**
+     * Trava o bloqueio para que captura, liberação e expiração concorrentes encerrem cada um uma única vez.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Bloqueio b where b.id = :id and b.numeroConta = :conta")
+    Optional<Bloqueio> travar(@Param("id") long id, @Param("conta") int numeroConta);
+}
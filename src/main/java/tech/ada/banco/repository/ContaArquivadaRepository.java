@@ -0,0 +1,22 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.ContaArquivada;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ContaArquivadaRepository extends JpaRepository<ContaArquivada, Integer> {
+
+    @Modifying
+    @Query(value = "insert into CONTA_ARQUIVO (NUMERO_CONTA, AGENCIA, TIPO, SALDO, PESSOA_ID, ENCERRADA_EM, "
+            + "ARQUIVADA_EM) "
+            + "select NUMERO_CONTA, AGENCIA, TIPO, SALDO, PESSOA_ID, ENCERRADA_EM, :agora from CONTA "
+            + "where NUMERO_CONTA in (:numeros) and SITUACAO = 'ENCERRADA'", nativeQuery = true)
+    int arquivar(@Param("numeros") List<Integer> numeros, @Param("agora") Instant agora);
+}
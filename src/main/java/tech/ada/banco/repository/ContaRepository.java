@@ -1,13 +1,98 @@
 package tech.ada.banco.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tech.ada.banco.config.ChaveShard;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Integer> {
 
-    Optional<Conta> findContaByNumeroConta(int numeroConta);
+    Optional<Conta> findContaByNumeroConta(@ChaveShard int numeroConta);
+
+    List<Conta> findByNumeroContaIn(Collection<Integer> numerosConta);
+
+    /**
+     * Trava a conta até o fim da transação. Toda alteração de SALDO ou BLOQUEADO carrega a conta por aqui, para
+     * que operações simultâneas na mesma conta não gravem uma por cima da outra.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.numeroConta = :numero")
+    Optional<Conta> travar(@ChaveShard @Param("numero") int numeroConta);
+
+    /**
+     * Trava as contas em ordem de número, a mesma de {@code travar} em sequência, para que lotes com contas em
+     * comum não entrem em deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.numeroConta in :numeros order by c.numeroConta")
+    List<Conta> travarTodas(@Param("numeros") Collection<Integer> numerosConta);
+
+    /**
+     * Contas do titular no shard corrente; as contas de uma pessoa podem estar em qualquer shard.
+     */
+    @Query("select c.numeroConta from Conta c where c.titular.id = :titular")
+    List<Integer> numerosDoTitular(@Param("titular") Long titular);
+
+    @Query("select min(c.numeroConta) from Conta c where c.tipo = :tipo")
+    Optional<Integer> menorNumeroConta(@Param("tipo") ModalidadeConta tipo);
+
+    @Query("select max(c.numeroConta) from Conta c where c.tipo = :tipo")
+    Optional<Integer> maiorNumeroConta(@Param("tipo") ModalidadeConta tipo);
+
+    /**
+     * Trava as contas que o lote de rendimento vai alterar, para que o saldo lançado em EVENTO_CONTA seja o mesmo
+     * sobre o qual o UPDATE calcula.
+     */
+    @Query(value = "select NUMERO_CONTA from CONTA " +
+            "where TIPO = :tipo and NUMERO_CONTA between :inicio and :fim and SALDO > 0 and SITUACAO = 'ATIVA' " +
+            "for update", nativeQuery = true)
+    List<Integer> travarParaRendimento(@Param("tipo") String tipo, @Param("inicio") int inicio, @Param("fim") int fim);
+
+    /**
+     * Quanto o UPDATE de {@code aplicarRendimento} vai somar ao saldo de cada agência; lido com as linhas já
+     * travadas, antes do UPDATE.
+     */
+    @Query(value = "select AGENCIA, sum(round(SALDO * :fator, 2) - SALDO) from CONTA " +
+            "where TIPO = :tipo and NUMERO_CONTA between :inicio and :fim and SALDO > 0 and SITUACAO = 'ATIVA' " +
+            "group by AGENCIA", nativeQuery = true)
+    List<Object[]> variacaoRendimento(@Param("tipo") String tipo, @Param("fator") BigDecimal fator,
+                                      @Param("inicio") int inicio, @Param("fim") int fim);
+
+    @Modifying
+    @Query(value = "update CONTA set SALDO = round(SALDO * :fator, 2), VERSAO_SALDO = VERSAO_SALDO + 1 " +
+            "where TIPO = :tipo and NUMERO_CONTA between :inicio and :fim and SALDO > 0 and SITUACAO = 'ATIVA'",
+            nativeQuery = true)
+    int aplicarRendimento(@Param("tipo") String tipo, @Param("fator") BigDecimal fator,
+                          @Param("inicio") int inicio, @Param("fim") int fim);
+
+    /**
+     * Conta ativa ou encerrada ainda não arquivada; as consultas JPA só enxergam as ativas.
+     */
+    @Query(value = "select * from CONTA where NUMERO_CONTA = :numero", nativeQuery = true)
+    Optional<Conta> findIncluindoEncerradas(@ChaveShard @Param("numero") int numeroConta);
+
+    @Query(value = "select * from CONTA where NUMERO_CONTA = :numero for update", nativeQuery = true)
+    Optional<Conta> travarIncluindoEncerradas(@ChaveShard @Param("numero") int numeroConta);
+
+    @Query(value = "select NUMERO_CONTA from CONTA where SITUACAO = 'ENCERRADA' and ENCERRADA_EM < :limite "
+            + "order by NUMERO_CONTA fetch first :lote rows only", nativeQuery = true)
+    List<Integer> encerradasAntesDe(@Param("limite") Instant limite, @Param("lote") int lote);
+
+    @Modifying
+    @Query(value = "delete from CONTA where NUMERO_CONTA in (:numeros) and SITUACAO = 'ENCERRADA'",
+            nativeQuery = true)
+    int removerEncerradas(@Param("numeros") List<Integer> numeros);
 }
@@ -0,0 +1,46 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.EventoConta;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EventoContaRepository extends JpaRepository<EventoConta, Long> {
+
+    List<EventoConta> findByIdGreaterThanOrderByIdAsc(long id, Pageable lote);
+
+    List<EventoConta> findByIdBetweenOrderByIdAsc(long inicio, long fim, Pageable lote);
+
+    @Query("select e.id from EventoConta e where e.id > :depoisDe and e.id <= :ate order by e.id")
+    List<Long> idsEntre(@Param("depoisDe") long depoisDe, @Param("ate") long ate);
+
+    List<EventoConta> findByNumeroContaAndIdGreaterThanOrderByIdAsc(int numeroConta, long id, Pageable lote);
+
+    @Query("select coalesce(max(e.id), 0) from EventoConta e")
+    long maiorId();
+
+    /**
+     * Lançamentos do rendimento de um lote, calculados sobre o saldo antes do UPDATE de
+     * {@link ContaRepository#aplicarRendimento} e com o mesmo filtro.
+     */
+    @Modifying
+    @Query(value = "insert into EVENTO_CONTA (NUMERO_CONTA, TIPO, VALOR, SALDO, MOMENTO) " +
+            "select NUMERO_CONTA, 'RENDIMENTO', round(SALDO * :fator, 2) - SALDO, round(SALDO * :fator, 2), :momento " +
+            "from CONTA " +
+            "where TIPO = :tipo and NUMERO_CONTA between :inicio and :fim and SALDO > 0 and SITUACAO = 'ATIVA'",
+            nativeQuery = true)
+    int lancarRendimento(@Param("tipo") String tipo, @Param("fator") BigDecimal fator, @Param("inicio") int inicio,
+                         @Param("fim") int fim, @Param("momento") Instant momento);
+
+    @Modifying
+    @Query("delete from EventoConta e where e.momento < :limite")
+    int removerAnterioresA(@Param("limite") Instant limite);
+}
@@ -0,0 +1,21 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.LoteImportacao;
+
+import java.util.List;
+
+@Repository
+public interface LoteImportacaoRepository extends JpaRepository<LoteImportacao, Long> {
+
+    /**
+     * Faixas da importação que cobrem alguma linha de {@code inicio..fim}, em ordem de linha inicial.
+     */
+    @Query("select l from LoteImportacao l where l.importacao = :importacao and l.linhaInicial <= :fim "
+            + "and l.linhaFinal >= :inicio order by l.linhaInicial")
+    List<LoteImportacao> sobrepostos(@Param("importacao") String importacao, @Param("inicio") long inicio,
+                                     @Param("fim") long fim);
+}
@@ -0,0 +1,22 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.LoteRendimento;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LoteRendimentoRepository extends JpaRepository<LoteRendimento, Long> {
+
+    /**
+     * Lotes da data que cobrem alguma parte de {@code inicio..fim}, em ordem de início.
+     */
+    @Query("select l from LoteRendimento l where l.dataReferencia = :data and l.inicio <= :fim and l.fim >= :inicio "
+            + "order by l.inicio")
+    List<LoteRendimento> sobrepostos(@Param("data") LocalDate dataReferencia, @Param("inicio") int inicio,
+                                     @Param("fim") int fim);
+}
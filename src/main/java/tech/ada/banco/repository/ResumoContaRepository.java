@@ -0,0 +1,104 @@
+package tech.ada.banco.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.ResumoConta;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResumoContaRepository extends JpaRepository<ResumoConta, Integer> {
+
+    List<ResumoConta> findByNumeroContaGreaterThanOrderByNumeroContaAsc(int numeroConta, Pageable pagina);
+
+    List<ResumoConta> findByCpfTitularOrderByNumeroContaAsc(String cpf, Pageable pagina);
+
+    List<ResumoConta> findByNomeTitularStartingWithOrderByNumeroContaAsc(String nome, Pageable pagina);
+
+    /**
+     * Aplica uma movimentação já confirmada; não faz nada se a conta não tem resumo ou se o resumo já
+     * reflete uma movimentação posterior.
+     */
+    @Modifying
+    @Query("update ResumoConta r set r.saldo = :saldo, r.ultimaMovimentacao = :momento, r.ultimoEvento = :evento, "
+            + "r.atualizadoEm = :agora where r.numeroConta = :conta "
+            + "and (r.ultimaMovimentacao is null or r.ultimaMovimentacao <= :momento) "
+            + "and (r.ultimoEvento is null or r.ultimoEvento < :evento)")
+    int aplicarMovimentacao(@Param("conta") int numeroConta, @Param("saldo") BigDecimal saldo,
+                            @Param("momento") Instant momento, @Param("evento") long evento,
+                            @Param("agora") Instant agora);
+
+    /**
+     * Contas com eventos confirmados no intervalo de ids que o resumo ainda não reflete, seja porque o relay os
+     * pulou, seja porque a aplicação falhou depois de o relay avançar.
+     */
+    @Query(value = "select distinct e.NUMERO_CONTA from EVENTO_CONTA e "
+            + "join RESUMO_CONTA r on r.NUMERO_CONTA = e.NUMERO_CONTA "
+            + "where e.ID > :depoisDe and e.ID <= :ate and (r.ULTIMO_EVENTO is null or r.ULTIMO_EVENTO < e.ID)",
+            nativeQuery = true)
+    List<Integer> contasComEventosNaoAplicados(@Param("depoisDe") long depoisDe, @Param("ate") long ate);
+
+    /**
+     * Contas ativas sem resumo e resumos sem conta ativa: aberturas e encerramentos cuja marcação se perdeu.
+     */
+    @Query(value = "select c.NUMERO_CONTA from CONTA c where c.SITUACAO = 'ATIVA' "
+            + "and not exists (select 1 from RESUMO_CONTA r where r.NUMERO_CONTA = c.NUMERO_CONTA) "
+            + "union select r.NUMERO_CONTA from RESUMO_CONTA r where not exists "
+            + "(select 1 from CONTA c where c.NUMERO_CONTA = r.NUMERO_CONTA and c.SITUACAO = 'ATIVA')",
+            nativeQuery = true)
+    List<Integer> contasSemResumoOuSemConta();
+
+    /**
+     * Trava em ordem de número as linhas de CONTA das contas a reler, para que releituras simultâneas da mesma
+     * conta em outras instâncias esperem esta terminar: o MERGE seguinte já encontra a linha que a outra inseriu.
+     */
+    @Query(value = "select NUMERO_CONTA from CONTA where NUMERO_CONTA in (:contas) order by NUMERO_CONTA for update",
+            nativeQuery = true)
+    List<Integer> travarContas(@Param("contas") Collection<Integer> numerosConta);
+
+    /**
+     * Relê de CONTA e PESSOA o resumo das contas ativas informadas, inserindo a linha que faltar. Os comandos
+     * nativos declaram RESUMO_CONTA como único espaço afetado, para não esvaziar o cache de segundo nível das
+     * demais entidades.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "RESUMO_CONTA"))
+    @Query(value = "merge into RESUMO_CONTA r using (select c.NUMERO_CONTA, c.AGENCIA, c.TIPO, p.NOME, p.CPF, "
+            + "c.SALDO, (select max(e.MOMENTO) from EVENTO_CONTA e where e.NUMERO_CONTA = c.NUMERO_CONTA) MOMENTO, "
+            + "(select max(e.ID) from EVENTO_CONTA e where e.NUMERO_CONTA = c.NUMERO_CONTA) EVENTO "
+            + "from CONTA c left join PESSOA p on p.ID = c.PESSOA_ID "
+            + "where c.NUMERO_CONTA in (:contas) and c.SITUACAO = 'ATIVA') c on (r.NUMERO_CONTA = c.NUMERO_CONTA) "
+            + "when matched then update set r.AGENCIA = c.AGENCIA, r.TIPO = c.TIPO, r.NOME_TITULAR = c.NOME, "
+            + "r.CPF_TITULAR = c.CPF, r.SALDO = c.SALDO, r.ULTIMA_MOVIMENTACAO = c.MOMENTO, "
+            + "r.ULTIMO_EVENTO = c.EVENTO, r.ATUALIZADO_EM = :agora "
+            + "when not matched then insert (NUMERO_CONTA, AGENCIA, TIPO, NOME_TITULAR, CPF_TITULAR, SALDO, "
+            + "ULTIMA_MOVIMENTACAO, ULTIMO_EVENTO, ATUALIZADO_EM) values (c.NUMERO_CONTA, c.AGENCIA, c.TIPO, "
+            + "c.NOME, c.CPF, c.SALDO, c.MOMENTO, c.EVENTO, :agora)", nativeQuery = true)
+    int reler(@Param("contas") Collection<Integer> numerosConta, @Param("agora") Instant agora);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "RESUMO_CONTA"))
+    @Query(value = "delete from RESUMO_CONTA r where r.NUMERO_CONTA in (:contas) and not exists "
+            + "(select 1 from CONTA c where c.NUMERO_CONTA = r.NUMERO_CONTA and c.SITUACAO = 'ATIVA')",
+            nativeQuery = true)
+    int removerSemConta(@Param("contas") Collection<Integer> numerosConta);
+
+    @Modifying
+    @Query(value = "insert into RESUMO_CONTA (NUMERO_CONTA, AGENCIA, TIPO, NOME_TITULAR, CPF_TITULAR, SALDO, "
+            + "ULTIMA_MOVIMENTACAO, ULTIMO_EVENTO, ATUALIZADO_EM) "
+            + "select c.NUMERO_CONTA, c.AGENCIA, c.TIPO, p.NOME, p.CPF, c.SALDO, "
+            + "(select max(e.MOMENTO) from EVENTO_CONTA e where e.NUMERO_CONTA = c.NUMERO_CONTA), "
+            + "(select max(e.ID) from EVENTO_CONTA e where e.NUMERO_CONTA = c.NUMERO_CONTA), :agora "
+            + "from CONTA c left join PESSOA p on p.ID = c.PESSOA_ID where c.SITUACAO = 'ATIVA'", nativeQuery = true)
+    int reconstruir(@Param("agora") Instant agora);
+}
@@ -0,0 +1,14 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import tech.ada.banco.model.TransferenciaShard;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TransferenciaShardRepository extends JpaRepository<TransferenciaShard, String> {
+
+    List<TransferenciaShard> findBySituacaoAndMomentoBefore(TransferenciaShard.Situacao situacao, Instant momento);
+}
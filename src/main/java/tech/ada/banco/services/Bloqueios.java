@@ -0,0 +1,218 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.BloqueioEncerradoException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.Bloqueio;
+import tech.ada.banco.model.BloqueioAlterado;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.BloqueioRepository;
+import tech.ada.banco.repository.ContaRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bloqueios de saldo (pré-autorizações): reservar, capturar total ou parcialmente e liberar. O total bloqueado
+ * fica em {@code Conta.bloqueado}, então saque e Pix consultam o saldo disponível sem somar a tabela BLOQUEIO.
+ * <p>
+ * Os prazos ficam numa {@link RodaTemporizacao} em memória, preenchida com os bloqueios ATIVO na subida; nada
+ * varre a tabela atrás de vencidos. Captura e liberação não tiram o bloqueio da roda: quando o prazo chega ele
+ * é relido com lock e ignorado se já não estiver ATIVO.
+ * <p>
+ * Toda operação trava a conta antes do bloqueio, como saque e Pix travam a conta antes de movimentá-la, de modo
+ * que BLOQUEADO continua igual à soma dos bloqueios ATIVO mesmo com operações simultâneas.
+ */
+@Service
+@Slf4j
+public class Bloqueios {
+
+    private final ContaRepository contas;
+    private final BloqueioRepository bloqueios;
+    private final ApplicationEventPublisher eventos;
+    private final LeituraContas leituras;
+    private final Shards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacao;
+    private final RodaTemporizacao roda;
+    private final Duration validadePadrao;
+    private final Duration validadeMaxima;
+    private final Counter expirados;
+
+    public Bloqueios(ContaRepository contas, BloqueioRepository bloqueios, ApplicationEventPublisher eventos,
+                     LeituraContas leituras, Shards shards, DataSource dataSource,
+                     PlatformTransactionManager transactionManager, MeterRegistry registry,
+                     @Value("${banco.bloqueios.tique:1000}") long tique,
+                     @Value("${banco.bloqueios.validade-padrao:7d}") Duration validadePadrao,
+                     @Value("${banco.bloqueios.validade-maxima:30d}") Duration validadeMaxima) {
+        this.contas = contas;
+        this.bloqueios = bloqueios;
+        this.eventos = eventos;
+        this.leituras = leituras;
+        this.shards = shards;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.roda = new RodaTemporizacao(tique, System.currentTimeMillis());
+        this.validadePadrao = validadePadrao;
+        this.validadeMaxima = validadeMaxima;
+        this.expirados = Counter.builder("banco.bloqueios.expirados").register(registry);
+        Gauge.builder("banco.bloqueios.agendados", roda, RodaTemporizacao::getAgendados)
+                .description("Bloqueios aguardando o prazo na roda de temporização, inclusive os já encerrados")
+                .register(registry);
+    }
+
+    @Transactional
+    public Bloqueio bloquear(int numeroConta, BigDecimal valor, Duration validade) {
+        valor = valor.setScale(2, RoundingMode.HALF_EVEN);
+        if (validade == null || validade.isNegative() || validade.isZero()) {
+            validade = validadePadrao;
+        } else if (validade.compareTo(validadeMaxima) > 0) {
+            validade = validadeMaxima;
+        }
+
+        Conta conta = contas.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        conta.bloquear(valor);
+        contas.save(conta);
+        Bloqueio bloqueio = bloqueios.save(new Bloqueio(numeroConta, valor, Instant.now().plus(validade)));
+        eventos.publishEvent(new BloqueioAlterado(bloqueio.getId(), numeroConta, bloqueio.getExpiraEm()));
+        log.info("Bloqueio {} de R$ {} na conta {}.", bloqueio.getId(), valor, numeroConta);
+        return bloqueio;
+    }
+
+    /**
+     * Debita da conta {@code valor}, ou o valor inteiro do bloqueio quando nulo; a diferença volta ao saldo
+     * disponível.
+     */
+    @Transactional
+    public Bloqueio capturar(int numeroConta, long id, BigDecimal valor) {
+        Conta conta = contas.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        Bloqueio bloqueio = ativo(numeroConta, id);
+        BigDecimal capturado = valor == null ? bloqueio.getValor() : valor.setScale(2, RoundingMode.HALF_EVEN);
+
+        conta.capturar(bloqueio.getValor(), capturado);
+        contas.save(conta);
+        bloqueio.capturar(capturado);
+        if (capturado.signum() > 0) {
+            eventos.publishEvent(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.CAPTURA, capturado.negate()));
+        }
+        log.info("Bloqueio {} capturado em R$ {}.", id, capturado);
+        return bloqueio;
+    }
+
+    @Transactional
+    public Bloqueio liberar(int numeroConta, long id) {
+        Conta conta = contas.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        Bloqueio bloqueio = ativo(numeroConta, id);
+
+        conta.desbloquear(bloqueio.getValor());
+        contas.save(conta);
+        bloqueio.encerrar(Bloqueio.Situacao.LIBERADO);
+        eventos.publishEvent(new BloqueioAlterado(id, numeroConta, null));
+        return bloqueio;
+    }
+
+    /**
+     * Agenda o prazo e descarta a leitura em cache só depois da confirmação, como saque e Pix fazem pela
+     * {@link MovimentacaoConta}: um bloqueio desfeito não entra na roda e uma leitura feita antes do commit não
+     * volta a ser guardada com o saldo disponível antigo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alterado(BloqueioAlterado alterado) {
+        if (alterado.expiraEm() != null) {
+            roda.agendar(alterado.id(), alterado.numeroConta(), alterado.expiraEm().toEpochMilli());
+        }
+        leituras.invalidar(alterado.numeroConta());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Bloqueio> ativos(int numeroConta) {
+        if (!contas.existsById(numeroConta)) {
+            throw new ResourceNotFoundException();
+        }
+        return bloqueios.findByNumeroContaAndSituacaoOrderById(numeroConta, Bloqueio.Situacao.ATIVO);
+    }
+
+    @Scheduled(fixedDelayString = "${banco.bloqueios.tique:1000}")
+    public void expirar() {
+        roda.avancar(System.currentTimeMillis(), this::expirar);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        try {
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                ShardDataSource.em(shard, () -> {
+                    jdbcTemplate.query("select ID, NUMERO_CONTA, EXPIRA_EM from BLOQUEIO where SITUACAO = 'ATIVO'",
+                            rs -> {
+                                roda.agendar(rs.getLong(1), rs.getInt(2), rs.getTimestamp(3).getTime());
+                            });
+                    return null;
+                });
+            }
+        } catch (DataAccessException e) {
+            log.error("Não foi possível carregar os bloqueios ativos; eles não vão expirar até a próxima subida.", e);
+            return;
+        }
+        log.info("{} bloqueios ativos agendados em {} ms.", roda.getAgendados(), System.currentTimeMillis() - inicio);
+    }
+
+    private Bloqueio ativo(int numeroConta, long id) {
+        Bloqueio bloqueio = bloqueios.travar(id, numeroConta).orElseThrow(ResourceNotFoundException::new);
+        if (!bloqueio.isAtivo()) {
+            throw new BloqueioEncerradoException();
+        }
+        return bloqueio;
+    }
+
+    private void expirar(long id, int numeroConta) {
+        try {
+            boolean expirou = Boolean.TRUE.equals(ShardDataSource.em(shards.shardDaConta(numeroConta),
+                    () -> transacao.execute(status -> {
+                        // conta antes do bloqueio, na mesma ordem de captura e liberação
+                        Optional<Conta> conta = contas.travarIncluindoEncerradas(numeroConta);
+                        Bloqueio bloqueio = bloqueios.travar(id, numeroConta).orElse(null);
+                        if (bloqueio == null || !bloqueio.isAtivo()) {
+                            return false;
+                        }
+                        conta.ifPresent(travada -> {
+                            travada.desbloquear(bloqueio.getValor());
+                            contas.save(travada);
+                        });
+                        bloqueio.encerrar(Bloqueio.Situacao.EXPIRADO);
+                        return true;
+                    })));
+            if (expirou) {
+                leituras.invalidar(numeroConta);
+                expirados.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao expirar o bloqueio {} da conta {}; nova tentativa no próximo tique.", id, numeroConta, e);
+            roda.agendar(id, numeroConta, System.currentTimeMillis());
+        }
+    }
+}
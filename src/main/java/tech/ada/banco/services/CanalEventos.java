@@ -0,0 +1,224 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.ada.banco.model.EventoConta;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Assinaturas SSE das movimentações por conta. Cada assinante tem uma fila limitada, esvaziada por um pool
+ * compartilhado; quem deixa a fila encher é desconectado, e o cliente recupera o que perdeu ao reconectar com
+ * o cabeçalho {@code Last-Event-ID}.
+ */
+@Component
+@Slf4j
+public class CanalEventos {
+
+    private final Map<Integer, Set<Assinante>> assinantes = new ConcurrentHashMap<>();
+    private final AtomicInteger totalAssinantes = new AtomicInteger();
+    private final ExecutorService envio;
+    private final int capacidadeFila;
+    private final long timeout;
+    private final Counter enviados;
+    private final Counter descartados;
+
+    @Autowired
+    public CanalEventos(MeterRegistry registry,
+                        @Value("${banco.eventos.buffer-assinante:256}") int capacidadeFila,
+                        @Value("${banco.eventos.timeout-assinatura:1800000}") long timeout,
+                        @Value("${banco.eventos.threads-envio:4}") int threadsEnvio) {
+        this(registry, capacidadeFila, timeout,
+                Executors.newFixedThreadPool(threadsEnvio, new CustomizableThreadFactory("eventos-sse-")));
+    }
+
+    CanalEventos(MeterRegistry registry, int capacidadeFila, long timeout, ExecutorService envio) {
+        this.capacidadeFila = capacidadeFila;
+        this.timeout = timeout;
+        this.envio = envio;
+        this.enviados = Counter.builder("banco.eventos.enviados").register(registry);
+        this.descartados = Counter.builder("banco.eventos.assinantes.descartados")
+                .description("Assinantes desconectados por não acompanharem o ritmo dos eventos")
+                .register(registry);
+        Gauge.builder("banco.eventos.assinantes", totalAssinantes, AtomicInteger::get).register(registry);
+    }
+
+    /**
+     * Registra o assinante antes de ler o histórico, para que nada publicado entre a leitura e o registro se
+     * perca; eventos que chegam pelos dois caminhos são enviados uma vez só. Com {@code ultimoEvento} o histórico
+     * é pedido página a página a {@code historico}, a partir do último id enviado, até vir uma página vazia.
+     */
+    public SseEmitter assinar(int numeroConta, Long ultimoEvento, LongFunction<List<EventoConta>> historico) {
+        Assinante assinante = new Assinante(numeroConta, new SseEmitter(timeout));
+        assinantes.compute(numeroConta, (conta, daConta) -> {
+            Set<Assinante> conjunto = daConta == null ? ConcurrentHashMap.newKeySet() : daConta;
+            conjunto.add(assinante);
+            return conjunto;
+        });
+        totalAssinantes.incrementAndGet();
+        assinante.emitter.onCompletion(assinante::encerrar);
+        assinante.emitter.onTimeout(assinante::encerrar);
+        assinante.emitter.onError(erro -> assinante.encerrar());
+        try {
+            if (ultimoEvento != null) {
+                long desde = ultimoEvento;
+                List<EventoConta> pagina;
+                while (!(pagina = historico.apply(desde)).isEmpty()) {
+                    for (EventoConta evento : pagina) {
+                        assinante.enviar(evento, false);
+                    }
+                    desde = pagina.get(pagina.size() - 1).getId();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            assinante.emitter.completeWithError(e);
+            assinante.encerrar();
+            return assinante.emitter;
+        }
+        assinante.agendado.set(false);
+        assinante.agendar();
+        return assinante.emitter;
+    }
+
+    public void publicar(EventoConta evento) {
+        publicar(evento, false);
+    }
+
+    /**
+     * Evento que o relay encontrou depois de ter passado da sua lacuna: vai aos assinantes mesmo com id menor que
+     * o último enviado, e por isso pode chegar fora de ordem.
+     */
+    public void publicarAtrasado(EventoConta evento) {
+        publicar(evento, true);
+    }
+
+    private void publicar(EventoConta evento, boolean atrasado) {
+        Set<Assinante> daConta = assinantes.get(evento.getNumeroConta());
+        if (daConta == null) {
+            return;
+        }
+        for (Assinante assinante : daConta) {
+            assinante.oferecer(new Entrega(evento, atrasado));
+        }
+    }
+
+    public int getAssinantes() {
+        return totalAssinantes.get();
+    }
+
+    /**
+     * Comentário SSE periódico: mantém proxies sem fechar a conexão e revela clientes que já foram embora.
+     */
+    @Scheduled(fixedDelayString = "${banco.eventos.intervalo-heartbeat:15000}")
+    public void manterConexoes() {
+        for (Set<Assinante> daConta : assinantes.values()) {
+            for (Assinante assinante : daConta) {
+                try {
+                    assinante.emitter.send(SseEmitter.event().comment(""));
+                } catch (IOException | IllegalStateException e) {
+                    assinante.encerrar();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        envio.shutdownNow();
+        assinantes.values().forEach(daConta -> daConta.forEach(assinante -> assinante.emitter.complete()));
+    }
+
+    private record Entrega(EventoConta evento, boolean atrasado) {
+    }
+
+    private final class Assinante {
+
+        private final int numeroConta;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Entrega> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        // começa agendado: o histórico é enviado por quem assina, antes dos eventos ao vivo
+        private final AtomicBoolean agendado = new AtomicBoolean(true);
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+        private volatile long ultimoEnviado;
+
+        private Assinante(int numeroConta, SseEmitter emitter) {
+            this.numeroConta = numeroConta;
+            this.emitter = emitter;
+        }
+
+        private void oferecer(Entrega entrega) {
+            if (!fila.offer(entrega)) {
+                log.warn("Assinante da conta {} não acompanhou os eventos e foi desconectado.", numeroConta);
+                descartados.increment();
+                encerrar();
+                emitter.complete();
+                return;
+            }
+            agendar();
+        }
+
+        private void agendar() {
+            if (!fila.isEmpty() && !encerrado.get() && agendado.compareAndSet(false, true)) {
+                envio.execute(this::drenar);
+            }
+        }
+
+        private void drenar() {
+            try {
+                Entrega entrega;
+                while (!encerrado.get() && (entrega = fila.poll()) != null) {
+                    enviar(entrega.evento(), entrega.atrasado());
+                }
+            } catch (IOException | RuntimeException e) {
+                encerrar();
+            } finally {
+                agendado.set(false);
+            }
+            agendar();
+        }
+
+        private void enviar(EventoConta evento, boolean atrasado) throws IOException {
+            if (!atrasado && evento.getId() <= ultimoEnviado) {
+                return;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(evento.getId()))
+                    .name(evento.getTipo().name())
+                    .data(evento, MediaType.APPLICATION_JSON));
+            ultimoEnviado = Math.max(ultimoEnviado, evento.getId());
+            enviados.increment();
+        }
+
+        private void encerrar() {
+            if (!encerrado.compareAndSet(false, true)) {
+                return;
+            }
+            fila.clear();
+            totalAssinantes.decrementAndGet();
+            assinantes.computeIfPresent(numeroConta, (conta, daConta) -> {
+                daConta.remove(this);
+                return daConta.isEmpty() ? null : daConta;
+            });
+        }
+    }
+}
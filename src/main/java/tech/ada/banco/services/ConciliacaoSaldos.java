@@ -0,0 +1,240 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Confere CONTA.SALDO contra os lançamentos de EVENTO_CONTA: o saldo de cada lançamento deve ser o do anterior
+ * mais o seu valor, e o saldo da conta deve ser o do último lançamento. Contas sem lançamentos retidos (ver
+ * {@code banco.eventos.retencao}) são contadas, mas não conferidas.
+ * <p>
+ * Os números de conta de cada shard são divididos em faixas processadas num {@link ForkJoinPool}. Cada faixa é
+ * lida da primária num único SELECT, sem transação nem lock: a leitura consistente do banco vê saldo e
+ * lançamentos de uma mesma movimentação juntos, e saques e Pix seguem normalmente durante a conciliação.
+ */
+@Service
+@Slf4j
+public class ConciliacaoSaldos {
+
+    private static final String LANCAMENTOS = "select c.NUMERO_CONTA, c.SALDO, e.VALOR, e.SALDO "
+            + "from CONTA c left join EVENTO_CONTA e on e.NUMERO_CONTA = c.NUMERO_CONTA "
+            + "where c.NUMERO_CONTA between ? and ? order by c.NUMERO_CONTA, e.ID";
+
+    public enum TipoDivergencia {
+        /**
+         * O saldo da conta não é o do seu último lançamento.
+         */
+        SALDO,
+        /**
+         * O saldo de um lançamento não é o do anterior mais o valor lançado.
+         */
+        LANCAMENTO
+    }
+
+    public record Divergencia(int numeroConta, TipoDivergencia tipo, BigDecimal esperado, BigDecimal encontrado) {
+    }
+
+    public record Relatorio(Instant inicio, Duration duracao, long contas, long semLancamentos, long divergentes,
+                            List<Divergencia> divergencias) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final int tamanhoFaixa;
+    private final int paralelismo;
+    private final int maximoDivergencias;
+    private final Timer duracao;
+    private final AtomicReference<Relatorio> ultimo = new AtomicReference<>();
+
+    public ConciliacaoSaldos(DataSource dataSource, Shards shards, MeterRegistry registry,
+                             @Value("${banco.conciliacao.tamanho-faixa:10000}") int tamanhoFaixa,
+                             @Value("${banco.conciliacao.paralelismo:2}") int paralelismo,
+                             @Value("${banco.conciliacao.maximo-divergencias:1000}") int maximoDivergencias) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.shards = shards;
+        this.tamanhoFaixa = tamanhoFaixa;
+        this.paralelismo = paralelismo;
+        this.maximoDivergencias = maximoDivergencias;
+        this.duracao = Timer.builder("banco.conciliacao.duracao")
+                .description("Duração da conciliação de saldos com os lançamentos")
+                .register(registry);
+        Gauge.builder("banco.conciliacao.contas", ultimo, r -> r.get() == null ? 0 : r.get().contas())
+                .register(registry);
+        Gauge.builder("banco.conciliacao.divergentes", ultimo, r -> r.get() == null ? 0 : r.get().divergentes())
+                .description("Contas divergentes na última conciliação")
+                .register(registry);
+    }
+
+    public Optional<Relatorio> getUltimo() {
+        return Optional.ofNullable(ultimo.get());
+    }
+
+    @Scheduled(cron = "${banco.conciliacao.cron:0 50 2 * * *}")
+    public synchronized Relatorio executar() {
+        Instant inicio = Instant.now();
+        long comeco = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            Parcial total = new Parcial();
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                int destino = shard;
+                Map<String, Object> limites = ShardDataSource.em(destino, () -> jdbcTemplate.queryForMap(
+                        "select min(NUMERO_CONTA) MENOR, max(NUMERO_CONTA) MAIOR from CONTA"));
+                if (limites.get("MENOR") == null) {
+                    continue;
+                }
+                total.juntar(pool.invoke(new Faixa(destino, ((Number) limites.get("MENOR")).intValue(),
+                        ((Number) limites.get("MAIOR")).intValue())), maximoDivergencias);
+            }
+            Duration tempo = Duration.ofNanos(System.nanoTime() - comeco);
+            duracao.record(tempo);
+            Relatorio relatorio = new Relatorio(inicio, tempo, total.contas, total.semLancamentos, total.divergentes,
+                    List.copyOf(total.divergencias));
+            ultimo.set(relatorio);
+            if (relatorio.divergentes() > 0) {
+                log.warn("Conciliação de saldos: {} de {} contas divergentes em {} ms.", relatorio.divergentes(),
+                        relatorio.contas(), tempo.toMillis());
+            } else {
+                log.info("Conciliação de saldos: {} contas conferidas em {} ms, sem divergências.",
+                        relatorio.contas(), tempo.toMillis());
+            }
+            return relatorio;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Faixa de números de conta de um shard, dividida ao meio até caber em {@code tamanhoFaixa}.
+     */
+    private class Faixa extends RecursiveTask<Parcial> {
+
+        private final int shard;
+        private final int inicio;
+        private final int fim;
+
+        private Faixa(int shard, int inicio, int fim) {
+            this.shard = shard;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if ((long) fim - inicio < tamanhoFaixa) {
+                return ShardDataSource.em(shard, this::conferir);
+            }
+            int meio = (int) (((long) inicio + fim) / 2);
+            Faixa esquerda = new Faixa(shard, inicio, meio);
+            esquerda.fork();
+            Parcial direita = new Faixa(shard, meio + 1, fim).compute();
+            Parcial parcial = esquerda.join();
+            parcial.juntar(direita, maximoDivergencias);
+            return parcial;
+        }
+
+        private Parcial conferir() {
+            Parcial parcial = new Parcial();
+            Conferencia atual = new Conferencia();
+            jdbcTemplate.query(LANCAMENTOS, rs -> {
+                int numeroConta = rs.getInt(1);
+                if (numeroConta != atual.numeroConta) {
+                    atual.encerrar(parcial, maximoDivergencias);
+                    atual.iniciar(numeroConta, rs.getBigDecimal(2));
+                }
+                BigDecimal valor = rs.getBigDecimal(3);
+                if (valor != null) {
+                    atual.lancar(valor, rs.getBigDecimal(4));
+                }
+            }, inicio, fim);
+            atual.encerrar(parcial, maximoDivergencias);
+            return parcial;
+        }
+    }
+
+    /**
+     * Estado da conta sendo lida; as linhas chegam ordenadas por conta e lançamento.
+     */
+    private static final class Conferencia {
+
+        private int numeroConta = -1;
+        private BigDecimal saldoConta;
+        private BigDecimal saldoLancado;
+        private Divergencia divergencia;
+
+        private void iniciar(int numeroConta, BigDecimal saldoConta) {
+            this.numeroConta = numeroConta;
+            this.saldoConta = saldoConta;
+            this.saldoLancado = null;
+            this.divergencia = null;
+        }
+
+        private void lancar(BigDecimal valor, BigDecimal saldo) {
+            if (saldoLancado != null && divergencia == null && saldoLancado.add(valor).compareTo(saldo) != 0) {
+                divergencia = new Divergencia(numeroConta, TipoDivergencia.LANCAMENTO, saldoLancado.add(valor), saldo);
+            }
+            saldoLancado = saldo;
+        }
+
+        private void encerrar(Parcial parcial, int maximoDivergencias) {
+            if (numeroConta < 0) {
+                return;
+            }
+            parcial.contas++;
+            if (saldoLancado == null) {
+                parcial.semLancamentos++;
+                return;
+            }
+            if (divergencia == null && saldoLancado.compareTo(saldoConta) != 0) {
+                divergencia = new Divergencia(numeroConta, TipoDivergencia.SALDO, saldoLancado, saldoConta);
+            }
+            if (divergencia != null) {
+                parcial.divergentes++;
+                if (parcial.divergencias.size() < maximoDivergencias) {
+                    parcial.divergencias.add(divergencia);
+                }
+            }
+        }
+    }
+
+    private static final class Parcial {
+
+        private long contas;
+        private long semLancamentos;
+        private long divergentes;
+        private final List<Divergencia> divergencias = new ArrayList<>();
+
+        private void juntar(Parcial outra, int maximoDivergencias) {
+            contas += outra.contas;
+            semLancamentos += outra.semLancamentos;
+            divergentes += outra.divergentes;
+            for (Divergencia divergencia : outra.divergencias) {
+                if (divergencias.size() >= maximoDivergencias) {
+                    break;
+                }
+                divergencias.add(divergencia);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tech.ada.banco.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.ada.banco.model.MovimentacaoConta;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lembra as contas movimentadas recentemente para que as leituras delas, durante a janela de atraso
+ * da réplica, sejam feitas na primária.
+ */
+@Component
+public class ConsistenciaLeitura {
+
+    private final Map<Integer, Long> ultimasEscritas = new ConcurrentHashMap<>();
+    private final long janela;
+
+    public ConsistenciaLeitura(@Value("${banco.datasource.replica.janela-consistencia:2000}") long janela) {
+        this.janela = janela;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void registrar(MovimentacaoConta movimentacao) {
+        ultimasEscritas.put(movimentacao.numeroConta(), System.currentTimeMillis());
+    }
+
+    public boolean escritaRecente(int numeroConta) {
+        Long momento = ultimasEscritas.get(numeroConta);
+        return momento != null && System.currentTimeMillis() - momento < janela;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.datasource.replica.janela-consistencia:2000}")
+    public void removerExpiradas() {
+        long limite = System.currentTimeMillis() - janela;
+        ultimasEscritas.values().removeIf(momento -> momento < limite);
+    }
+}
@@ -0,0 +1,82 @@
+package tech.ada.banco.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.model.MovimentacaoConta;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contas com mais operações e maior valor movimentado em duas janelas deslizantes, para achar as contas que
+ * concentram disputa por linha no banco. Saques, depósitos, Pix e capturas entram pelas movimentações, no
+ * momento em que são publicadas; leituras de {@code GET /contas/{conta}} entram só na contagem de operações.
+ */
+@Component
+public class ContasQuentes {
+
+    public record ContaQuente(int numeroConta, long operacoes, BigDecimal valor) {
+    }
+
+    public record Janela(Duration duracao, List<ContaQuente> porOperacoes, List<ContaQuente> porValor) {
+    }
+
+    private final Map<Duration, Esbocos> janelas = new LinkedHashMap<>();
+    private final int quantidade;
+
+    public ContasQuentes(@Value("${banco.contas-quentes.janelas:1m,15m}") List<Duration> janelas,
+                         @Value("${banco.contas-quentes.fatias:6}") int fatias,
+                         @Value("${banco.contas-quentes.largura:2048}") int largura,
+                         @Value("${banco.contas-quentes.quantidade:10}") int quantidade) {
+        this.quantidade = quantidade;
+        for (Duration janela : janelas) {
+            long larguraFatia = Math.max(1, janela.toMillis() / fatias);
+            this.janelas.put(janela, new Esbocos(
+                    new EsbocoQuentes(largura, quantidade * 16, fatias, larguraFatia),
+                    new EsbocoQuentes(largura, quantidade * 16, fatias, larguraFatia)));
+        }
+    }
+
+    @EventListener
+    public void movimentacao(MovimentacaoConta movimentacao) {
+        registrar(movimentacao.numeroConta(), IndiceSaldos.centavos(movimentacao.valor().abs()));
+    }
+
+    public void leitura(int numeroConta) {
+        registrar(numeroConta, 0);
+    }
+
+    public List<Janela> consultar() {
+        long agora = System.currentTimeMillis();
+        return janelas.entrySet().stream()
+                .map(janela -> new Janela(janela.getKey(),
+                        contas(janela.getValue(), janela.getValue().operacoes.maiores(quantidade, agora), agora),
+                        contas(janela.getValue(), janela.getValue().valor.maiores(quantidade, agora), agora)))
+                .toList();
+    }
+
+    private void registrar(int numeroConta, long centavos) {
+        long agora = System.currentTimeMillis();
+        for (Esbocos esbocos : janelas.values()) {
+            esbocos.operacoes.somar(numeroConta, 1, agora);
+            if (centavos > 0) {
+                esbocos.valor.somar(numeroConta, centavos, agora);
+            }
+        }
+    }
+
+    private static List<ContaQuente> contas(Esbocos esbocos, List<EsbocoQuentes.Item> itens, long agora) {
+        return itens.stream()
+                .map(item -> new ContaQuente(item.numeroConta(),
+                        esbocos.operacoes.estimar(item.numeroConta(), agora),
+                        BigDecimal.valueOf(esbocos.valor.estimar(item.numeroConta(), agora), 2)))
+                .toList();
+    }
+
+    private record Esbocos(EsbocoQuentes operacoes, EsbocoQuentes valor) {
+    }
+}
@@ -1,10 +1,16 @@
 package tech.ada.banco.services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
 import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.PerfilOperacoes.Fase;
+import tech.ada.banco.services.PerfilOperacoes.Medicao;
+import tech.ada.banco.services.PerfilOperacoes.Operacao;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -14,17 +20,28 @@ import java.math.RoundingMode;
 public class Deposito {
 
     private final ContaRepository repository;
+    private final ApplicationEventPublisher eventos;
+    private final PerfilOperacoes perfil;
 
-    public Deposito(ContaRepository repository) {
+    public Deposito(ContaRepository repository, ApplicationEventPublisher eventos, PerfilOperacoes perfil) {
         this.repository = repository;
+        this.eventos = eventos;
+        this.perfil = perfil;
     }
 
+    @Transactional
     public BigDecimal executar(int numeroConta, BigDecimal valor) {
+        Medicao medicao = perfil.iniciar(Operacao.DEPOSITO, numeroConta, 0, valor);
 
-        Conta conta = repository.findContaByNumeroConta(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        Conta conta = repository.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        medicao.concluir(Fase.CARGA);
         conta.deposito(valor);
+        medicao.concluir(Fase.MOVIMENTACAO);
         log.info("O saldo da conta é de: R$ {}", conta.getSaldo());
         repository.save(conta);
+        medicao.concluir(Fase.GRAVACAO);
+        medicao.medirCommit();
+        eventos.publishEvent(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.DEPOSITO, valor));
         return conta.getSaldo();
     }
 }
@@ -0,0 +1,107 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.HistoricoConta;
+import tech.ada.banco.repository.ContaArquivadaRepository;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Encerramento de contas como mudança de situação, sem apagar a linha nem o titular, e arquivamento em lotes:
+ * contas encerradas há mais de {@code banco.arquivamento.carencia} são copiadas para CONTA_ARQUIVO e removidas de
+ * CONTA numa mesma transação por lote, mantendo a tabela e seus índices só com as contas em uso.
+ */
+@Service
+@Slf4j
+public class EncerramentoContas {
+
+    private final ContaRepository contas;
+    private final ContaArquivadaRepository arquivo;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final Duration carencia;
+    private final int tamanhoLote;
+    private final Counter arquivadas;
+
+    public EncerramentoContas(ContaRepository contas, ContaArquivadaRepository arquivo, Shards shards,
+                              PlatformTransactionManager transactionManager, MeterRegistry registry,
+                              @Value("${banco.arquivamento.carencia:30d}") Duration carencia,
+                              @Value("${banco.arquivamento.tamanho-lote:1000}") int tamanhoLote) {
+        this.contas = contas;
+        this.arquivo = arquivo;
+        this.shards = shards;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.carencia = carencia;
+        this.tamanhoLote = tamanhoLote;
+        this.arquivadas = Counter.builder("banco.contas.arquivadas").register(registry);
+    }
+
+    @Transactional
+    public Conta encerrar(int numeroConta) {
+        // travada como nos saques: um depósito ou bloqueio concorrente não escapa da verificação de saldo zerado
+        Conta conta = contas.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        conta.encerrar();
+        return contas.save(conta);
+    }
+
+    /**
+     * Procura a conta em CONTA, incluindo as encerradas, e depois em CONTA_ARQUIVO do mesmo shard.
+     */
+    public Optional<HistoricoConta> historico(int numeroConta) {
+        return ShardDataSource.em(shards.shardDaConta(numeroConta), () -> transacao.execute(status -> contas
+                .findIncluindoEncerradas(numeroConta).map(HistoricoConta::de)
+                .or(() -> arquivo.findById(numeroConta).map(HistoricoConta::de))));
+    }
+
+    @Scheduled(fixedDelayString = "${banco.arquivamento.intervalo:600000}",
+            initialDelayString = "${banco.arquivamento.intervalo:600000}")
+    public synchronized int arquivar() {
+        Instant limite = Instant.now().minus(carencia);
+        int total = 0;
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            int doLote;
+            do {
+                doLote = arquivarLote(shard, limite);
+                total += doLote;
+            } while (doLote == tamanhoLote);
+        }
+        if (total > 0) {
+            log.info("{} contas encerradas antes de {} arquivadas.", total, limite);
+        }
+        return total;
+    }
+
+    private int arquivarLote(int shard, Instant limite) {
+        Integer movidas = ShardDataSource.em(shard, () -> transacao.execute(status -> {
+            List<Integer> numeros = contas.encerradasAntesDe(limite, tamanhoLote);
+            if (numeros.isEmpty()) {
+                return 0;
+            }
+            int copiadas = arquivo.arquivar(numeros, Instant.now());
+            int removidas = contas.removerEncerradas(numeros);
+            if (copiadas != removidas) {
+                throw new IllegalStateException("Lote de arquivamento do shard " + shard + " copiou " + copiadas
+                        + " contas e removeu " + removidas + ".");
+            }
+            return removidas;
+        }));
+        arquivadas.increment(movidas);
+        return movidas;
+    }
+}
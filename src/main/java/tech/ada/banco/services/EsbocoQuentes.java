@@ -0,0 +1,168 @@
+package tech.ada.banco.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contas mais frequentes numa janela deslizante, em memória constante e sem locks.
+ * <p>
+ * Os totais ficam num count-min sketch por fatia de tempo; cada célula guarda a época da fatia e o total num
+ * único long, como em {@link JanelaDeslizante}, de modo que fatias antigas são zeradas na primeira escrita da
+ * nova época. A estimativa de uma conta é o menor total, entre as linhas, da soma das fatias da janela, e nunca
+ * fica abaixo do valor real.
+ * <p>
+ * Os candidatos ao topo ficam numa tabela pequena: cada conta só pode ocupar {@value #SONDAGENS} posições
+ * vizinhas e, quando nenhuma está livre, toma a de menor estimativa se a sua for maior.
+ */
+final class EsbocoQuentes {
+
+    record Item(int numeroConta, long total) {
+    }
+
+    private static final int BITS_VALOR = 40;
+    private static final long MASCARA_VALOR = (1L << BITS_VALOR) - 1;
+    private static final long MASCARA_EPOCA = (1L << (Long.SIZE - BITS_VALOR)) - 1;
+    private static final long[] SEMENTES = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+            0xD6E8FEB86659FD93L};
+    private static final int SONDAGENS = 4;
+    private static final int VAZIO = 0;
+
+    private final int largura;
+    private final int quantidadeFatias;
+    private final long larguraFatia;
+    private final AtomicLongArray celulas;
+    private final AtomicIntegerArray candidatos;
+    private final AtomicLongArray estimativas;
+
+    /**
+     * @param largura    colunas de cada linha do sketch, arredondada para potência de 2
+     * @param candidatos posições da tabela de candidatos, arredondada para potência de 2
+     */
+    EsbocoQuentes(int largura, int candidatos, int quantidadeFatias, long larguraFatiaMillis) {
+        this.largura = Integer.highestOneBit(Math.max(largura, 16) * 2 - 1);
+        this.quantidadeFatias = quantidadeFatias;
+        this.larguraFatia = larguraFatiaMillis;
+        this.celulas = new AtomicLongArray(quantidadeFatias * SEMENTES.length * this.largura);
+        int posicoes = Integer.highestOneBit(Math.max(candidatos, SONDAGENS) * 2 - 1);
+        this.candidatos = new AtomicIntegerArray(posicoes);
+        this.estimativas = new AtomicLongArray(posicoes);
+    }
+
+    void somar(int numeroConta, long quantidade, long agora) {
+        long epoca = epoca(agora);
+        int base = (int) ((agora / larguraFatia) % quantidadeFatias) * SEMENTES.length * largura;
+        for (int linha = 0; linha < SEMENTES.length; linha++) {
+            int indice = base + linha * largura + coluna(numeroConta, linha);
+            while (true) {
+                long atual = celulas.get(indice);
+                long novo = epocaDe(atual) == epoca
+                        ? empacotar(epoca, Math.min(valorDe(atual) + quantidade, MASCARA_VALOR))
+                        : empacotar(epoca, Math.min(quantidade, MASCARA_VALOR));
+                if (celulas.compareAndSet(indice, atual, novo)) {
+                    break;
+                }
+            }
+        }
+        candidatar(numeroConta, estimar(numeroConta, agora), epoca, agora);
+    }
+
+    long estimar(int numeroConta, long agora) {
+        long epocaAtual = epoca(agora);
+        long menor = Long.MAX_VALUE;
+        for (int linha = 0; linha < SEMENTES.length; linha++) {
+            int coluna = coluna(numeroConta, linha);
+            long soma = 0;
+            for (int fatia = 0; fatia < quantidadeFatias; fatia++) {
+                long celula = celulas.get((fatia * SEMENTES.length + linha) * largura + coluna);
+                if (((epocaAtual - epocaDe(celula)) & MASCARA_EPOCA) < quantidadeFatias) {
+                    soma += valorDe(celula);
+                }
+            }
+            menor = Math.min(menor, soma);
+        }
+        return menor;
+    }
+
+    List<Item> maiores(int quantidade, long agora) {
+        List<Item> itens = new ArrayList<>();
+        // duas threads podem colocar a mesma conta em posições diferentes ao mesmo tempo
+        Set<Integer> vistas = new HashSet<>();
+        for (int i = 0; i < candidatos.length(); i++) {
+            int numeroConta = candidatos.get(i);
+            if (numeroConta != VAZIO && vistas.add(numeroConta)) {
+                long total = estimar(numeroConta, agora);
+                if (total > 0) {
+                    itens.add(new Item(numeroConta, total));
+                }
+            }
+        }
+        itens.sort(Comparator.comparingLong(Item::total).reversed().thenComparingInt(Item::numeroConta));
+        return itens.size() > quantidade ? List.copyOf(itens.subList(0, quantidade)) : itens;
+    }
+
+    private void candidatar(int numeroConta, long estimativa, long epoca, long agora) {
+        int mascara = candidatos.length() - 1;
+        int inicio = (int) (misturar(numeroConta, 0) >>> 32) & mascara;
+        int menor = -1;
+        int ocupante = VAZIO;
+        long menorEstimativa = Long.MAX_VALUE;
+        for (int sondagem = 0; sondagem < SONDAGENS; sondagem++) {
+            int posicao = (inicio + sondagem) & mascara;
+            int candidato = candidatos.get(posicao);
+            if (candidato == numeroConta) {
+                estimativas.set(posicao, empacotar(epoca, Math.min(estimativa, MASCARA_VALOR)));
+                return;
+            }
+            long deste = estimativaGuardada(posicao, candidato, epoca, agora);
+            if (deste < menorEstimativa) {
+                menor = posicao;
+                ocupante = candidato;
+                menorEstimativa = deste;
+            }
+        }
+        if (estimativa > menorEstimativa && candidatos.compareAndSet(menor, ocupante, numeroConta)) {
+            estimativas.set(menor, empacotar(epoca, Math.min(estimativa, MASCARA_VALOR)));
+        }
+    }
+
+    /**
+     * Estimativas guardadas em outra fatia são recalculadas, para que uma conta que esfriou não segure a posição.
+     */
+    private long estimativaGuardada(int posicao, int candidato, long epoca, long agora) {
+        if (candidato == VAZIO) {
+            return -1;
+        }
+        long guardada = estimativas.get(posicao);
+        return epocaDe(guardada) == epoca ? valorDe(guardada) : estimar(candidato, agora);
+    }
+
+    private long epoca(long agora) {
+        return (agora / larguraFatia) & MASCARA_EPOCA;
+    }
+
+    private int coluna(int numeroConta, int linha) {
+        return (int) (misturar(numeroConta, linha) >>> 40) & (largura - 1);
+    }
+
+    private static long misturar(int numeroConta, int linha) {
+        long h = (numeroConta + 1L) * SEMENTES[linha];
+        return h ^ (h >>> 29);
+    }
+
+    private static long empacotar(long epoca, long valor) {
+        return (epoca << BITS_VALOR) | valor;
+    }
+
+    private static long epocaDe(long celula) {
+        return celula >>> BITS_VALOR;
+    }
+
+    private static long valorDe(long celula) {
+        return celula & MASCARA_VALOR;
+    }
+}
@@ -0,0 +1,37 @@
+package tech.ada.banco.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder com a duração de uma fase de saque, depósito ou Pix. Desligado por padrão; numa
+ * gravação, habilitar {@value #NOME} (com {@code threshold} para guardar só as fases lentas).
+ */
+@Name(EventoFase.NOME)
+@Label("Fase de operação")
+@Description("Carga, movimentação, gravação ou commit de um saque, depósito ou Pix")
+@Category({"Banco", "Operações"})
+@StackTrace(false)
+final class EventoFase extends Event {
+
+    static final String NOME = "tech.ada.banco.FaseOperacao";
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Conta")
+    int conta;
+
+    @Label("Conta destino")
+    int contaDestino;
+
+    @Label("Valor")
+    double valor;
+}
@@ -0,0 +1,220 @@
+package tech.ada.banco.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta tabelas inteiras lendo o ResultSet linha a linha e escrevendo direto na saída compactada,
+ * sem montar entidades nem listas em memória.
+ */
+@Service
+public class Exportacao {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String SQL_CONTAS =
+            "select NUMERO_CONTA, AGENCIA, TIPO, SALDO, PESSOA_ID from CONTA order by NUMERO_CONTA";
+
+    private static final String SQL_PESSOAS =
+            "select ID, NOME, CPF, TELEFONE, DATA_NASCIMENTO from PESSOA order by ID";
+
+    public enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate leitura;
+    private final Shards shards;
+
+    public Exportacao(DataSource dataSource, PlatformTransactionManager transactionManager, Shards shards) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.shards = shards;
+    }
+
+    public void exportarContas(OutputStream saida, Formato formato) throws IOException {
+        exportar(SQL_CONTAS, saida, formato);
+    }
+
+    public void exportarPessoas(OutputStream saida, Formato formato) throws IOException {
+        exportar(SQL_PESSOAS, saida, formato);
+    }
+
+    private void exportar(String sql, OutputStream saida, Formato formato) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(saida, TAMANHO_BUFFER);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+        Escritor escritor = new Escritor(writer, formato);
+        try {
+            // os shards guardam faixas consecutivas de números, então a ordem é mantida percorrendo-os em sequência
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                ShardDataSource.em(shard, () -> leitura.execute(status -> jdbcTemplate.query(sql, escritor::escrever)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        gzip.finish();
+    }
+
+    private static final class Escritor {
+
+        private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+        private final Writer writer;
+        private final Formato formato;
+        private final StringBuilder linha = new StringBuilder(256);
+        private String[] colunas;
+
+        private Escritor(Writer writer, Formato formato) {
+            this.writer = writer;
+            this.formato = formato;
+        }
+
+        private Void escrever(ResultSet rs) throws SQLException {
+            if (colunas == null) {
+                colunas = nomesDasColunas(rs.getMetaData());
+                if (formato == Formato.CSV) {
+                    cabecalhoCsv();
+                }
+            }
+            while (rs.next()) {
+                escreverLinha(rs);
+            }
+            return null;
+        }
+
+        private void escreverLinha(ResultSet rs) throws SQLException {
+            linha.setLength(0);
+            if (formato == Formato.CSV) {
+                linhaCsv(rs);
+            } else {
+                linhaJson(rs);
+            }
+            linha.append('\n');
+
+            try {
+                writer.append(linha);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void cabecalhoCsv() {
+            linha.setLength(0);
+            for (int i = 0; i < colunas.length; i++) {
+                if (i > 0) {
+                    linha.append(',');
+                }
+                linha.append(colunas[i]);
+            }
+            linha.append('\n');
+            try {
+                writer.append(linha);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void linhaCsv(ResultSet rs) throws SQLException {
+            for (int i = 0; i < colunas.length; i++) {
+                if (i > 0) {
+                    linha.append(',');
+                }
+                String valor = rs.getString(i + 1);
+                if (valor != null) {
+                    escaparCsv(valor);
+                }
+            }
+        }
+
+        private void linhaJson(ResultSet rs) throws SQLException {
+            linha.append('{');
+            for (int i = 0; i < colunas.length; i++) {
+                if (i > 0) {
+                    linha.append(',');
+                }
+                linha.append('"').append(colunas[i]).append("\":");
+                Object valor = rs.getObject(i + 1);
+                if (valor == null) {
+                    linha.append("null");
+                } else if (valor instanceof Number) {
+                    linha.append(valor);
+                } else {
+                    escaparJson(valor.toString());
+                }
+            }
+            linha.append('}');
+        }
+
+        private void escaparCsv(String valor) {
+            boolean aspas = false;
+            for (int i = 0; i < valor.length() && !aspas; i++) {
+                char c = valor.charAt(i);
+                aspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!aspas) {
+                linha.append(valor);
+                return;
+            }
+            linha.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') {
+                    linha.append('"');
+                }
+                linha.append(c);
+            }
+            linha.append('"');
+        }
+
+        private void escaparJson(String valor) {
+            linha.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                switch (c) {
+                    case '"' -> linha.append("\\\"");
+                    case '\\' -> linha.append("\\\\");
+                    case '\n' -> linha.append("\\n");
+                    case '\r' -> linha.append("\\r");
+                    case '\t' -> linha.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            linha.append("\\u00").append(HEXADECIMAL[c >> 4]).append(HEXADECIMAL[c & 0xf]);
+                        } else {
+                            linha.append(c);
+                        }
+                    }
+                }
+            }
+            linha.append('"');
+        }
+
+        private static String[] nomesDasColunas(ResultSetMetaData metaData) throws SQLException {
+            String[] nomes = new String[metaData.getColumnCount()];
+            for (int i = 0; i < nomes.length; i++) {
+                nomes[i] = metaData.getColumnLabel(i + 1).toLowerCase();
+            }
+            return nomes;
+        }
+    }
+}
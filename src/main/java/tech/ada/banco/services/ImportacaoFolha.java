@@ -0,0 +1,609 @@
+package tech.ada.banco.services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.LoteImportacao;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.LoteImportacaoRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Importação de arquivos de folha de pagamento: cada linha credita um valor numa conta, com a mesma semântica
+ * de {@link Deposito} (saldo, evento DEPOSITO e outbox), mas aplicada em lotes com uma transação por lote e shard.
+ * <p>
+ * Formatos aceitos, por linha: {@code conta,valor} ou {@code conta;valor} (com ponto ou, no segundo caso,
+ * vírgula decimal) ou largura fixa, com a conta nas 10 primeiras posições e o valor em centavos nas 15 seguintes.
+ * Uma primeira linha que não começa por dígito é tratada como cabeçalho.
+ * <p>
+ * O arquivo é lido por janelas mapeadas em memória e interpretado byte a byte, sem criar Strings por linha.
+ * Ao lado dele ficam o arquivo de resultado, com a situação de cada linha, e o de progresso, regravado a cada
+ * lote com a posição no arquivo e o tamanho do resultado; uma importação interrompida continua dali. As faixas
+ * de linhas aplicadas são registradas em IMPORTACAO_LOTE junto com os créditos, então um lote confirmado pouco
+ * antes de uma queda não é creditado de novo, mesmo que a retomada use outro {@code tamanho-lote}.
+ */
+@Service
+@Slf4j
+public class ImportacaoFolha {
+
+    private static final long JANELA = 64L * 1024 * 1024;
+
+    public enum Situacao {
+        EM_ANDAMENTO,
+        INTERROMPIDA,
+        CONCLUIDA
+    }
+
+    public enum SituacaoLinha {
+        CREDITADA,
+        CONTA_INEXISTENTE,
+        VALOR_INVALIDO,
+        FORMATO_INVALIDO
+    }
+
+    public record Importacao(String id, Situacao situacao, long linhas, long creditadas, long rejeitadas,
+                             Instant atualizadaEm) {
+    }
+
+    private final ContaRepository contas;
+    private final LoteImportacaoRepository lotes;
+    private final ApplicationEventPublisher eventos;
+    private final EntityManager entityManager;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final Path diretorio;
+    private final int tamanhoLote;
+    private final ExecutorService execucao = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("importacao-folha-"));
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+
+    public ImportacaoFolha(ContaRepository contas, LoteImportacaoRepository lotes, ApplicationEventPublisher eventos,
+                           EntityManager entityManager, Shards shards, PlatformTransactionManager transactionManager,
+                           @Value("${banco.importacao.diretorio:${java.io.tmpdir}/banco-importacoes}") Path diretorio,
+                           @Value("${banco.importacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.contas = contas;
+        this.lotes = lotes;
+        this.eventos = eventos;
+        this.entityManager = entityManager;
+        this.shards = shards;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.diretorio = diretorio;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Grava o arquivo recebido com o SHA-256 do conteúdo como id e inicia a importação; reenviar o mesmo
+     * arquivo retoma a importação existente em vez de creditar tudo de novo.
+     */
+    public Importacao receber(InputStream conteudo) throws IOException {
+        Files.createDirectories(diretorio);
+        Path temporario = Files.createTempFile(diretorio, "recebendo-", ".tmp");
+        MessageDigest sha256 = sha256();
+        try (InputStream entrada = new DigestInputStream(conteudo, sha256)) {
+            Files.copy(entrada, temporario, StandardCopyOption.REPLACE_EXISTING);
+        }
+        String id = HexFormat.of().formatHex(sha256.digest());
+        if (Files.exists(arquivo(id))) {
+            Files.delete(temporario);
+        } else {
+            Files.move(temporario, arquivo(id), StandardCopyOption.ATOMIC_MOVE);
+        }
+        return iniciar(id);
+    }
+
+    public Importacao iniciar(String id) {
+        if (!Files.exists(arquivo(id))) {
+            throw new ResourceNotFoundException();
+        }
+        Importacao atual = consultar(id);
+        if (atual.situacao() != Situacao.CONCLUIDA && emAndamento.add(id)) {
+            execucao.execute(() -> {
+                try {
+                    processar(id);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Importação {} interrompida.", id, e);
+                } finally {
+                    emAndamento.remove(id);
+                }
+            });
+            return new Importacao(id, Situacao.EM_ANDAMENTO, atual.linhas(), atual.creditadas(),
+                    atual.rejeitadas(), atual.atualizadaEm());
+        }
+        return atual;
+    }
+
+    public Importacao consultar(String id) {
+        if (!Files.exists(arquivo(id))) {
+            throw new ResourceNotFoundException();
+        }
+        Progresso progresso = Progresso.ler(this.progresso(id));
+        Situacao situacao = emAndamento.contains(id) ? Situacao.EM_ANDAMENTO
+                : progresso.concluida ? Situacao.CONCLUIDA : Situacao.INTERROMPIDA;
+        return new Importacao(id, situacao, progresso.linha, progresso.creditadas, progresso.rejeitadas,
+                progresso.atualizadaEm);
+    }
+
+    public Path resultado(String id) {
+        Path resultado = diretorio.resolve(id + ".resultado.csv");
+        if (!Files.exists(resultado)) {
+            throw new ResourceNotFoundException();
+        }
+        return resultado;
+    }
+
+    @PreDestroy
+    public void parar() {
+        execucao.shutdownNow();
+    }
+
+    /**
+     * Processa o arquivo a partir do último progresso gravado; roda na thread de importação.
+     */
+    void processar(String id) throws IOException {
+        long inicio = System.nanoTime();
+        Path caminhoProgresso = progresso(id);
+        Progresso progresso = Progresso.ler(caminhoProgresso);
+        Path resultado = diretorio.resolve(id + ".resultado.csv");
+        try (FileChannel canal = FileChannel.open(arquivo(id), StandardOpenOption.READ);
+             FileChannel canalResultado = FileChannel.open(resultado, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE)) {
+            // descarta o que foi escrito depois do último progresso: esse lote é refeito
+            canalResultado.truncate(progresso.tamanhoResultado);
+            canalResultado.position(progresso.tamanhoResultado);
+            OutputStream saida = new BufferedOutputStream(Channels.newOutputStream(canalResultado), 64 * 1024);
+            Leitor leitor = new Leitor(canal, progresso.posicao);
+            Lote lote = new Lote(tamanhoLote);
+            long linha = progresso.linha;
+            while (!progresso.concluida) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Importação " + id + " interrompida.");
+                }
+                lote.limpar(linha + 1);
+                while (lote.tamanho < tamanhoLote && leitor.proxima()) {
+                    linha++;
+                    if (leitor.vazia() || (linha == 1 && leitor.cabecalho())) {
+                        continue;
+                    }
+                    leitor.interpretar(lote, linha);
+                }
+                lote.linhaFinal = linha;
+                aplicar(id, lote);
+                lote.escrever(saida);
+                saida.flush();
+                progresso.posicao = leitor.posicao;
+                progresso.linha = linha;
+                progresso.tamanhoResultado = canalResultado.position();
+                progresso.creditadas += lote.contar(SituacaoLinha.CREDITADA);
+                progresso.rejeitadas += lote.tamanho - lote.contar(SituacaoLinha.CREDITADA);
+                progresso.concluida = leitor.posicao >= canal.size();
+                progresso.gravar(caminhoProgresso);
+            }
+        }
+        log.info("Importação {} concluída: {} linhas, {} créditos, {} rejeitadas em {} ms.", id, progresso.linha,
+                progresso.creditadas, progresso.rejeitadas, Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+    }
+
+    private void aplicar(String id, Lote lote) {
+        Map<Integer, List<Integer>> porShard = new HashMap<>();
+        for (int i = 0; i < lote.tamanho; i++) {
+            if (lote.situacoes[i] == null) {
+                porShard.computeIfAbsent(shards.shardDaConta(lote.contas[i]), shard -> new ArrayList<>()).add(i);
+            }
+        }
+        porShard.forEach((shard, indices) -> ShardDataSource.em(shard, () -> transacao.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+            List<LoteImportacao> aplicados = lotes.sobrepostos(id, lote.linhaInicial, lote.linhaFinal);
+            List<Integer> numeros = indices.stream().map(i -> lote.contas[i]).distinct().toList();
+            Map<Integer, Conta> encontradas = new HashMap<>();
+            contas.travarTodas(numeros).forEach(conta -> encontradas.put(conta.getNumeroConta(), conta));
+            // as linhas fora das faixas já registradas formam as lacunas a creditar, cada uma com sua faixa
+            long pendente = lote.linhaInicial;
+            int proxima = 0;
+            int creditos = 0;
+            for (int i : indices) {
+                while (proxima < aplicados.size() && aplicados.get(proxima).getLinhaFinal() < lote.linhas[i]) {
+                    pendente = registrarLacuna(id, pendente, aplicados.get(proxima), creditos);
+                    creditos = 0;
+                    proxima++;
+                }
+                Conta conta = encontradas.get(lote.contas[i]);
+                if (conta == null) {
+                    lote.situacoes[i] = SituacaoLinha.CONTA_INEXISTENTE;
+                    continue;
+                }
+                lote.situacoes[i] = SituacaoLinha.CREDITADA;
+                boolean aplicado = proxima < aplicados.size()
+                        && aplicados.get(proxima).getLinhaInicial() <= lote.linhas[i];
+                if (!aplicado) {
+                    creditos++;
+                    BigDecimal valor = BigDecimal.valueOf(lote.centavos[i], 2);
+                    conta.deposito(valor);
+                    eventos.publishEvent(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.DEPOSITO, valor));
+                }
+            }
+            for (; proxima < aplicados.size(); proxima++) {
+                pendente = registrarLacuna(id, pendente, aplicados.get(proxima), creditos);
+                creditos = 0;
+            }
+            if (pendente <= lote.linhaFinal) {
+                lotes.save(new LoteImportacao(id, pendente, lote.linhaFinal, creditos));
+            }
+            return null;
+        })));
+    }
+
+    /**
+     * Registra a lacuna entre {@code pendente} e a faixa já aplicada, se houver, e devolve a linha seguinte à faixa.
+     */
+    private long registrarLacuna(String id, long pendente, LoteImportacao aplicado, int creditos) {
+        if (aplicado.getLinhaInicial() > pendente) {
+            lotes.save(new LoteImportacao(id, pendente, aplicado.getLinhaInicial() - 1, creditos));
+        }
+        return Math.max(pendente, aplicado.getLinhaFinal() + 1);
+    }
+
+    private Path arquivo(String id) {
+        if (!id.matches("[0-9a-f]{64}")) {
+            throw new ResourceNotFoundException();
+        }
+        return diretorio.resolve(id + ".csv");
+    }
+
+    private Path progresso(String id) {
+        return diretorio.resolve(id + ".progresso");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Linhas de um lote em vetores reaproveitados de um lote para o outro. Situação nula indica linha válida
+     * ainda não aplicada.
+     */
+    private static final class Lote {
+
+        private final long[] linhas;
+        private final int[] contas;
+        private final long[] centavos;
+        private final SituacaoLinha[] situacoes;
+        private final byte[] numero = new byte[20];
+        private long linhaInicial;
+        private long linhaFinal;
+        private int tamanho;
+
+        private Lote(int capacidade) {
+            linhas = new long[capacidade];
+            contas = new int[capacidade];
+            centavos = new long[capacidade];
+            situacoes = new SituacaoLinha[capacidade];
+        }
+
+        private void limpar(long linhaInicial) {
+            this.linhaInicial = linhaInicial;
+            tamanho = 0;
+        }
+
+        private void adicionar(long linha, int conta, long valor, SituacaoLinha situacao) {
+            linhas[tamanho] = linha;
+            contas[tamanho] = conta;
+            centavos[tamanho] = valor;
+            situacoes[tamanho] = situacao;
+            tamanho++;
+        }
+
+        private int contar(SituacaoLinha situacao) {
+            int total = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (situacoes[i] == situacao) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * {@code linha;conta;valor;situacao}, com conta e valor vazios quando a linha não pôde ser interpretada.
+         */
+        private void escrever(OutputStream saida) {
+            try {
+                for (int i = 0; i < tamanho; i++) {
+                    escreverNumero(saida, linhas[i]);
+                    saida.write(';');
+                    if (situacoes[i] != SituacaoLinha.FORMATO_INVALIDO) {
+                        escreverNumero(saida, contas[i]);
+                        saida.write(';');
+                        escreverNumero(saida, centavos[i] / 100);
+                        saida.write('.');
+                        saida.write('0' + (int) (centavos[i] % 100 / 10));
+                        saida.write('0' + (int) (centavos[i] % 10));
+                    } else {
+                        saida.write(';');
+                    }
+                    saida.write(';');
+                    String nome = situacoes[i].name();
+                    for (int c = 0; c < nome.length(); c++) {
+                        saida.write(nome.charAt(c));
+                    }
+                    saida.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void escreverNumero(OutputStream saida, long valor) throws IOException {
+            int posicao = numero.length;
+            do {
+                numero[--posicao] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            } while (valor > 0);
+            saida.write(numero, posicao, numero.length - posicao);
+        }
+    }
+
+    /**
+     * Percorre o arquivo por janelas mapeadas de até 64 MB; uma linha que atravessa o fim da janela é lida
+     * na janela seguinte, mapeada a partir do seu início.
+     */
+    private static final class Leitor {
+
+        private final FileChannel canal;
+        private final long tamanhoArquivo;
+        private MappedByteBuffer janela;
+        private long inicioJanela;
+        private long posicao;
+        private int inicioLinha;
+        private int fimLinha;
+
+        private Leitor(FileChannel canal, long posicao) throws IOException {
+            this.canal = canal;
+            this.tamanhoArquivo = canal.size();
+            this.posicao = posicao;
+        }
+
+        private boolean proxima() throws IOException {
+            while (posicao < tamanhoArquivo) {
+                if (janela == null || posicao >= inicioJanela + janela.limit()) {
+                    mapear();
+                }
+                int inicio = (int) (posicao - inicioJanela);
+                int limite = janela.limit();
+                int fim = inicio;
+                while (fim < limite && janela.get(fim) != '\n') {
+                    fim++;
+                }
+                if (fim == limite && inicioJanela + limite < tamanhoArquivo) {
+                    if (inicio == 0) {
+                        throw new IOException("Linha maior que " + JANELA + " bytes na posição " + posicao + ".");
+                    }
+                    mapear();
+                    continue;
+                }
+                posicao = inicioJanela + Math.min(fim + 1, limite);
+                inicioLinha = inicio;
+                fimLinha = fim > inicio && janela.get(fim - 1) == '\r' ? fim - 1 : fim;
+                return true;
+            }
+            return false;
+        }
+
+        private void mapear() throws IOException {
+            janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(JANELA, tamanhoArquivo - posicao));
+            inicioJanela = posicao;
+        }
+
+        private boolean vazia() {
+            return inicioLinha == fimLinha;
+        }
+
+        private boolean cabecalho() {
+            int inicio = inicioLinha;
+            // marca de ordem de bytes do UTF-8
+            if (fimLinha - inicio >= 3 && janela.get(inicio) == (byte) 0xEF) {
+                inicio += 3;
+            }
+            return inicio < fimLinha && !digito(janela.get(inicio));
+        }
+
+        private void interpretar(Lote lote, long linha) {
+            int separador = -1;
+            for (int i = inicioLinha; i < fimLinha && separador < 0; i++) {
+                byte c = janela.get(i);
+                if (c == ',' || c == ';') {
+                    separador = i;
+                }
+            }
+            long conta;
+            long centavos;
+            if (separador >= 0) {
+                conta = inteiro(inicioLinha, separador);
+                centavos = valor(separador + 1, fimLinha, janela.get(separador) == ';');
+            } else if (fimLinha - inicioLinha >= 25) {
+                conta = inteiro(inicioLinha, inicioLinha + 10);
+                long fixo = inteiro(inicioLinha + 10, inicioLinha + 25);
+                centavos = fixo < 0 ? -2 : fixo;
+            } else {
+                lote.adicionar(linha, 0, 0, SituacaoLinha.FORMATO_INVALIDO);
+                return;
+            }
+            if (conta < 0 || conta > Integer.MAX_VALUE || centavos == -2) {
+                lote.adicionar(linha, 0, 0, SituacaoLinha.FORMATO_INVALIDO);
+            } else if (centavos <= 0) {
+                lote.adicionar(linha, (int) conta, 0, SituacaoLinha.VALOR_INVALIDO);
+            } else {
+                lote.adicionar(linha, (int) conta, centavos, null);
+            }
+        }
+
+        /**
+         * Inteiro não negativo entre espaços, ou -1.
+         */
+        private long inteiro(int inicio, int fim) {
+            while (inicio < fim && janela.get(inicio) == ' ') {
+                inicio++;
+            }
+            while (fim > inicio && janela.get(fim - 1) == ' ') {
+                fim--;
+            }
+            if (inicio == fim || fim - inicio > 15) {
+                return -1;
+            }
+            long valor = 0;
+            for (int i = inicio; i < fim; i++) {
+                byte c = janela.get(i);
+                if (!digito(c)) {
+                    return -1;
+                }
+                valor = valor * 10 + (c - '0');
+            }
+            return valor;
+        }
+
+        /**
+         * Valor em centavos com até duas casas decimais; -1 se inválido (negativo, casas demais) e -2 se
+         * não é um número.
+         */
+        private long valor(int inicio, int fim, boolean virgulaDecimal) {
+            while (inicio < fim && janela.get(inicio) == ' ') {
+                inicio++;
+            }
+            while (fim > inicio && janela.get(fim - 1) == ' ') {
+                fim--;
+            }
+            if (inicio < fim && janela.get(inicio) == '-') {
+                return valor(inicio + 1, fim, virgulaDecimal) >= 0 ? -1 : -2;
+            }
+            long inteiros = 0;
+            int digitos = 0;
+            int casas = -1;
+            for (int i = inicio; i < fim; i++) {
+                byte c = janela.get(i);
+                if (digito(c)) {
+                    if (casas >= 0) {
+                        casas++;
+                    }
+                    inteiros = inteiros * 10 + (c - '0');
+                    if (++digitos > 15) {
+                        return -2;
+                    }
+                } else if ((c == '.' || (c == ',' && virgulaDecimal)) && casas < 0) {
+                    casas = 0;
+                } else {
+                    return -2;
+                }
+            }
+            if (digitos == 0) {
+                return -2;
+            }
+            if (casas > 2) {
+                return -1;
+            }
+            for (int c = Math.max(casas, 0); c < 2; c++) {
+                inteiros *= 10;
+            }
+            return inteiros;
+        }
+
+        private static boolean digito(byte c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    private static final class Progresso {
+
+        private long posicao;
+        private long linha;
+        private long tamanhoResultado;
+        private long creditadas;
+        private long rejeitadas;
+        private boolean concluida;
+        private Instant atualizadaEm;
+
+        private static Progresso ler(Path caminho) {
+            Progresso progresso = new Progresso();
+            if (!Files.exists(caminho)) {
+                return progresso;
+            }
+            Properties propriedades = new Properties();
+            try (InputStream entrada = Files.newInputStream(caminho)) {
+                propriedades.load(entrada);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            progresso.posicao = Long.parseLong(propriedades.getProperty("posicao"));
+            progresso.linha = Long.parseLong(propriedades.getProperty("linha"));
+            progresso.tamanhoResultado = Long.parseLong(propriedades.getProperty("tamanhoResultado"));
+            progresso.creditadas = Long.parseLong(propriedades.getProperty("creditadas"));
+            progresso.rejeitadas = Long.parseLong(propriedades.getProperty("rejeitadas"));
+            progresso.concluida = Boolean.parseBoolean(propriedades.getProperty("concluida"));
+            progresso.atualizadaEm = Instant.parse(propriedades.getProperty("atualizadaEm"));
+            return progresso;
+        }
+
+        /**
+         * Grava num arquivo temporário e o move sobre o anterior, para que uma queda nunca deixe o progresso
+         * pela metade.
+         */
+        private void gravar(Path caminho) throws IOException {
+            atualizadaEm = Instant.now();
+            Properties propriedades = new Properties();
+            propriedades.setProperty("posicao", String.valueOf(posicao));
+            propriedades.setProperty("linha", String.valueOf(linha));
+            propriedades.setProperty("tamanhoResultado", String.valueOf(tamanhoResultado));
+            propriedades.setProperty("creditadas", String.valueOf(creditadas));
+            propriedades.setProperty("rejeitadas", String.valueOf(rejeitadas));
+            propriedades.setProperty("concluida", String.valueOf(concluida));
+            propriedades.setProperty("atualizadaEm", atualizadaEm.toString());
+            Path temporario = caminho.resolveSibling(caminho.getFileName() + ".tmp");
+            try (OutputStream saida = Files.newOutputStream(temporario)) {
+                propriedades.store(saida, null);
+            }
+            Files.move(temporario, caminho, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Pessoa;
+
+import javax.sql.DataSource;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória de trigramas sobre {@code Pessoa.nome} para a busca por nome parcial.
+ * <p>
+ * Os nomes são guardados sem acentos, em minúsculas e só com letras, dígitos e espaços, num único vetor de bytes;
+ * cada pessoa ocupa uma posição, e cada trigrama (de cada palavra, com dois espaços antes e um depois) tem a lista
+ * ordenada das posições que o contêm. A busca exige que cada termo seja prefixo de alguma palavra do nome,
+ * cruzando as listas a partir da menor; se nenhum nome atender, busca os que compartilhem ao menos
+ * {@code banco.busca-pessoas.similaridade-minima} dos trigramas dos termos, o que tolera erros de digitação. Em
+ * ambos os casos só os primeiros {@code banco.busca-pessoas.maximo-candidatos} nomes encontrados são ordenados.
+ * Alterar um nome marca a posição antiga como removida e acrescenta outra; o índice é compactado quando as
+ * removidas passam de um quarto do total.
+ * <p>
+ * Cada instância só vê as alterações feitas por ela: o índice é recarregado do banco na subida e diariamente.
+ */
+@Component
+@Slf4j
+public class IndiceNomes {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    // espaço, a-z e 0-9
+    private static final int SIMBOLOS = 37;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final int maximoCandidatos;
+    private final double similaridadeMinima;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Dados dados = new Dados();
+    // alterações feitas durante uma recarga, reaplicadas sobre o índice novo antes da troca
+    private List<Pessoa> alteradasDuranteCarga;
+
+    @Autowired
+    public IndiceNomes(DataSource dataSource, Shards shards, MeterRegistry registry,
+                       @Value("${banco.busca-pessoas.maximo-candidatos:10000}") int maximoCandidatos,
+                       @Value("${banco.busca-pessoas.similaridade-minima:0.6}") double similaridadeMinima) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.shards = shards;
+        this.maximoCandidatos = maximoCandidatos;
+        this.similaridadeMinima = similaridadeMinima;
+        Gauge.builder("banco.busca.pessoas.indexadas", this, IndiceNomes::getIndexadas).register(registry);
+        Gauge.builder("banco.busca.pessoas.memoria", this, IndiceNomes::getBytes)
+                .description("Memória ocupada pelo índice de nomes de pessoas")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Ids das pessoas cujos nomes melhor correspondem à consulta, do mais ao menos relevante: os nomes em que
+     * cada termo é prefixo de uma palavra, com mais termos iguais a palavras inteiras e nomes mais curtos à frente,
+     * ou, se não houver nenhum, os aproximados com mais trigramas em comum.
+     */
+    public List<Long> buscar(String consulta, int limite) {
+        byte[][] termos = termos(normalizar(consulta));
+        if (termos.length == 0 || limite <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1, Resultado.ORDEM.reversed());
+            dados.buscarPrefixos(termos, limite, maximoCandidatos, melhores);
+            if (melhores.isEmpty()) {
+                dados.buscarAproximados(termos, limite, maximoCandidatos, similaridadeMinima, melhores);
+            }
+            List<Resultado> ordenados = new ArrayList<>(melhores);
+            ordenados.sort(Resultado.ORDEM);
+            return ordenados.stream().map(resultado -> dados.ids[resultado.posicao()]).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexar(Pessoa pessoa) {
+        if (pessoa.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (alteradasDuranteCarga != null) {
+                alteradasDuranteCarga.add(pessoa);
+            }
+            dados.indexar(pessoa.getId(), normalizar(pessoa.getNome()));
+            if (dados.removidas > 1024 && dados.removidas > dados.posicoes / 4) {
+                dados = dados.compactar();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getIndexadas() {
+        lock.readLock().lock();
+        try {
+            return dados.posicoes - dados.removidas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getBytes() {
+        lock.readLock().lock();
+        try {
+            return dados.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta um índice novo a partir de PESSOA em todos os shards, sem bloquear as buscas, e o troca pelo atual.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${banco.busca-pessoas.recarga-cron:0 40 2 * * *}")
+    public synchronized void carregar() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            alteradasDuranteCarga = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Dados novos = new Dados();
+        try {
+            // sem transação somente leitura: a carga vem da primária, e não de uma réplica atrasada
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                ShardDataSource.em(shard, () -> {
+                    jdbcTemplate.query("select ID, NOME from PESSOA", rs -> {
+                        novos.indexar(rs.getLong(1), normalizar(rs.getString(2)));
+                    });
+                    return null;
+                });
+            }
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível carregar o índice de nomes; mantido o índice atual.", e);
+            lock.writeLock().lock();
+            alteradasDuranteCarga = null;
+            lock.writeLock().unlock();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Pessoa pessoa : alteradasDuranteCarga) {
+                novos.indexar(pessoa.getId(), normalizar(pessoa.getNome()));
+            }
+            alteradasDuranteCarga = null;
+            novos.ajustar();
+            dados = novos;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de nomes carregado com {} pessoas ({} MB) em {} ms.", getIndexadas(),
+                getBytes() / (1024 * 1024), System.currentTimeMillis() - inicio);
+    }
+
+    static byte[] normalizar(String nome) {
+        if (nome == null) {
+            return new byte[0];
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(nome, Normalizer.Form.NFD)).replaceAll("");
+        byte[] normalizado = new byte[semAcentos.length()];
+        int tamanho = 0;
+        boolean espaco = true;
+        for (int i = 0; i < semAcentos.length(); i++) {
+            char c = Character.toLowerCase(semAcentos.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalizado[tamanho++] = (byte) c;
+                espaco = false;
+            } else if (!espaco) {
+                normalizado[tamanho++] = ' ';
+                espaco = true;
+            }
+        }
+        if (tamanho > 0 && normalizado[tamanho - 1] == ' ') {
+            tamanho--;
+        }
+        return Arrays.copyOf(normalizado, tamanho);
+    }
+
+    private static byte[][] termos(byte[] normalizado) {
+        List<byte[]> termos = new ArrayList<>();
+        int inicio = 0;
+        for (int i = 0; i <= normalizado.length; i++) {
+            if (i == normalizado.length || normalizado[i] == ' ') {
+                if (i > inicio) {
+                    termos.add(Arrays.copyOfRange(normalizado, inicio, i));
+                }
+                inicio = i + 1;
+            }
+        }
+        return termos.toArray(new byte[0][]);
+    }
+
+    private static int simbolo(int c) {
+        if (c == ' ') {
+            return 0;
+        }
+        return c <= '9' ? c - '0' + 27 : c - 'a' + 1;
+    }
+
+    /**
+     * Trigramas distintos das palavras, cada uma precedida de dois espaços e, se {@code completas}, seguida de
+     * um; sem o espaço final servem para buscar prefixos.
+     */
+    private static int[] trigramas(byte[][] palavras, boolean completas) {
+        int total = 0;
+        for (byte[] palavra : palavras) {
+            total += palavra.length + (completas ? 1 : 0);
+        }
+        int[] trigramas = new int[total];
+        int quantidade = 0;
+        for (byte[] palavra : palavras) {
+            int a = 0;
+            int b = 0;
+            int fim = palavra.length + (completas ? 1 : 0);
+            for (int i = 0; i < fim; i++) {
+                int c = i < palavra.length ? simbolo(palavra[i]) : 0;
+                trigramas[quantidade++] = (a * SIMBOLOS + b) * SIMBOLOS + c;
+                a = b;
+                b = c;
+            }
+        }
+        Arrays.sort(trigramas, 0, quantidade);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (distintos == 0 || trigramas[distintos - 1] != trigramas[i]) {
+                trigramas[distintos++] = trigramas[i];
+            }
+        }
+        return Arrays.copyOf(trigramas, distintos);
+    }
+
+    private record Resultado(int posicao, double pontuacao, int tamanho) {
+
+        // maior pontuação, depois nome mais curto, depois indexado antes
+        private static final Comparator<Resultado> ORDEM = Comparator.comparingDouble(Resultado::pontuacao).reversed()
+                .thenComparingInt(Resultado::tamanho)
+                .thenComparingInt(Resultado::posicao);
+    }
+
+    private static void oferecer(PriorityQueue<Resultado> melhores, int limite, Resultado resultado) {
+        melhores.add(resultado);
+        if (melhores.size() > limite) {
+            melhores.poll();
+        }
+    }
+
+    private static final class Dados {
+
+        private long[] ids = new long[1024];
+        // nome normalizado da posição p em nomes[inicios[p], inicios[p + 1])
+        private int[] inicios = new int[1025];
+        private byte[] nomes = new byte[16 * 1024];
+        private final int[][] listas = new int[SIMBOLOS * SIMBOLOS * SIMBOLOS][];
+        private final int[] tamanhos = new int[listas.length];
+        private final MapaPosicoes posicoesPorId = new MapaPosicoes();
+        private int posicoes;
+        private int removidas;
+
+        private void indexar(long id, byte[] nome) {
+            int atual = posicoesPorId.get(id);
+            if (atual >= 0) {
+                if (Arrays.equals(nomes, inicios[atual], inicios[atual + 1], nome, 0, nome.length)) {
+                    return;
+                }
+                ids[atual] = 0;
+                removidas++;
+            }
+            if (posicoes == ids.length) {
+                ids = Arrays.copyOf(ids, posicoes * 2);
+                inicios = Arrays.copyOf(inicios, posicoes * 2 + 1);
+            }
+            int inicio = inicios[posicoes];
+            if (inicio + nome.length > nomes.length) {
+                nomes = Arrays.copyOf(nomes, (int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.max(inicio + nome.length, nomes.length * 3L / 2)));
+            }
+            System.arraycopy(nome, 0, nomes, inicio, nome.length);
+            ids[posicoes] = id;
+            inicios[posicoes + 1] = inicio + nome.length;
+            for (int trigrama : trigramas(termos(nome), true)) {
+                int[] lista = listas[trigrama];
+                if (lista == null) {
+                    lista = listas[trigrama] = new int[4];
+                } else if (tamanhos[trigrama] == lista.length) {
+                    lista = listas[trigrama] = Arrays.copyOf(lista, lista.length * 2);
+                }
+                lista[tamanhos[trigrama]++] = posicoes;
+            }
+            posicoesPorId.put(id, posicoes);
+            posicoes++;
+        }
+
+        private Dados compactar() {
+            Dados compactados = new Dados();
+            for (int posicao = 0; posicao < posicoes; posicao++) {
+                if (ids[posicao] != 0) {
+                    compactados.indexar(ids[posicao], Arrays.copyOfRange(nomes, inicios[posicao], inicios[posicao + 1]));
+                }
+            }
+            return compactados;
+        }
+
+        private void buscarPrefixos(byte[][] termos, int limite, int maximoCandidatos,
+                                    PriorityQueue<Resultado> melhores) {
+            int[] trigramas = ordenarPorTamanho(trigramas(termos, false));
+            if (tamanhos[trigramas[0]] == 0) {
+                return;
+            }
+            int[] menor = listas[trigramas[0]];
+            int[] cursores = new int[trigramas.length];
+            int verificadas = 0;
+            for (int i = 0; i < tamanhos[trigramas[0]] && verificadas < maximoCandidatos; i++) {
+                int posicao = menor[i];
+                if (ids[posicao] == 0 || !emTodas(trigramas, cursores, posicao)) {
+                    continue;
+                }
+                verificadas++;
+                int palavrasInteiras = 0;
+                boolean todos = true;
+                for (byte[] termo : termos) {
+                    int correspondencia = corresponde(posicao, termo);
+                    if (correspondencia == 0) {
+                        todos = false;
+                        break;
+                    }
+                    if (correspondencia == 2) {
+                        palavrasInteiras++;
+                    }
+                }
+                if (todos) {
+                    oferecer(melhores, limite, new Resultado(posicao,
+                            1 + palavrasInteiras / (double) termos.length, inicios[posicao + 1] - inicios[posicao]));
+                }
+            }
+        }
+
+        /**
+         * Um nome com ao menos {@code m} dos {@code n} trigramas da consulta aparece em pelo menos uma das
+         * {@code n - m + 1} menores listas; só elas geram candidatos, contados nas demais por busca binária.
+         */
+        private void buscarAproximados(byte[][] termos, int limite, int maximoCandidatos, double similaridadeMinima,
+                                       PriorityQueue<Resultado> melhores) {
+            int[] trigramas = ordenarPorTamanho(trigramas(termos, true));
+            int minimo = Math.max(1, (int) Math.ceil(similaridadeMinima * trigramas.length));
+            Set<Integer> vistas = new HashSet<>();
+            for (int j = 0; j < trigramas.length - minimo + 1 && vistas.size() < maximoCandidatos; j++) {
+                int[] lista = listas[trigramas[j]];
+                for (int i = 0; i < tamanhos[trigramas[j]] && vistas.size() < maximoCandidatos; i++) {
+                    int posicao = lista[i];
+                    if (ids[posicao] == 0 || !vistas.add(posicao)) {
+                        continue;
+                    }
+                    int comuns = 0;
+                    for (int trigrama : trigramas) {
+                        if (tamanhos[trigrama] > 0 && Arrays.binarySearch(listas[trigrama], 0, tamanhos[trigrama],
+                                posicao) >= 0) {
+                            comuns++;
+                        }
+                    }
+                    if (comuns >= minimo) {
+                        oferecer(melhores, limite, new Resultado(posicao, comuns / (double) trigramas.length,
+                                inicios[posicao + 1] - inicios[posicao]));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Descarta a folga dos vetores, que depois de uma carga completa só crescem com as alterações do dia.
+         */
+        private void ajustar() {
+            ids = Arrays.copyOf(ids, posicoes + 1);
+            inicios = Arrays.copyOf(inicios, posicoes + 2);
+            nomes = Arrays.copyOf(nomes, inicios[posicoes]);
+            for (int trigrama = 0; trigrama < listas.length; trigrama++) {
+                if (listas[trigrama] != null) {
+                    listas[trigrama] = Arrays.copyOf(listas[trigrama], tamanhos[trigrama] + 1);
+                }
+            }
+        }
+
+        private int[] ordenarPorTamanho(int[] trigramas) {
+            return Arrays.stream(trigramas).boxed()
+                    .sorted(Comparator.comparingInt(trigrama -> tamanhos[trigrama]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Avança o cursor de cada lista, a partir da segunda, até a posição pedida; as posições chegam em ordem
+         * crescente, então cada lista é percorrida uma vez só por busca.
+         */
+        private boolean emTodas(int[] trigramas, int[] cursores, int posicao) {
+            for (int j = 1; j < trigramas.length; j++) {
+                int[] lista = listas[trigramas[j]];
+                int tamanho = tamanhos[trigramas[j]];
+                int inicio = cursores[j];
+                int passo = 1;
+                while (inicio + passo < tamanho && lista[inicio + passo] < posicao) {
+                    passo *= 2;
+                }
+                int indice = Arrays.binarySearch(lista, inicio, Math.min(tamanho, inicio + passo + 1), posicao);
+                cursores[j] = indice >= 0 ? indice : -indice - 1;
+                if (indice < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 2 se o termo é uma palavra inteira do nome, 1 se é prefixo de uma palavra, 0 se não é.
+         */
+        private int corresponde(int posicao, byte[] termo) {
+            int fim = inicios[posicao + 1];
+            int resultado = 0;
+            for (int i = inicios[posicao]; i < fim; i++) {
+                if ((i == inicios[posicao] || nomes[i - 1] == ' ') && i + termo.length <= fim
+                        && Arrays.equals(nomes, i, i + termo.length, termo, 0, termo.length)) {
+                    if (i + termo.length == fim || nomes[i + termo.length] == ' ') {
+                        return 2;
+                    }
+                    resultado = 1;
+                }
+            }
+            return resultado;
+        }
+
+        private long bytes() {
+            long total = ids.length * 8L + inicios.length * 4L + nomes.length + posicoesPorId.bytes()
+                    + listas.length * 8L + tamanhos.length * 4L;
+            for (int[] lista : listas) {
+                if (lista != null) {
+                    total += 16 + lista.length * 4L;
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Id da pessoa para a posição no índice, em endereçamento aberto; ids nunca são 0.
+     */
+    private static final class MapaPosicoes {
+
+        private long[] chaves = new long[2048];
+        private int[] valores = new int[2048];
+        private int ocupadas;
+
+        private int get(long id) {
+            int mascara = chaves.length - 1;
+            for (int i = hash(id) & mascara; chaves[i] != 0; i = (i + 1) & mascara) {
+                if (chaves[i] == id) {
+                    return valores[i];
+                }
+            }
+            return -1;
+        }
+
+        private void put(long id, int posicao) {
+            if (ocupadas * 2 >= chaves.length) {
+                long[] antigasChaves = chaves;
+                int[] antigosValores = valores;
+                chaves = new long[antigasChaves.length * 2];
+                valores = new int[antigasChaves.length * 2];
+                ocupadas = 0;
+                for (int i = 0; i < antigasChaves.length; i++) {
+                    if (antigasChaves[i] != 0) {
+                        put(antigasChaves[i], antigosValores[i]);
+                    }
+                }
+            }
+            int mascara = chaves.length - 1;
+            int i = hash(id) & mascara;
+            while (chaves[i] != 0 && chaves[i] != id) {
+                i = (i + 1) & mascara;
+            }
+            if (chaves[i] == 0) {
+                chaves[i] = id;
+                ocupadas++;
+            }
+            valores[i] = posicao;
+        }
+
+        private long bytes() {
+            return chaves.length * 12L;
+        }
+
+        private static int hash(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.model.RendimentoAplicado;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tabela hash de endereçamento aberto, fora do heap, de número de conta para saldo em centavos.
+ * <p>
+ * Cada posição ocupa 32 bytes em buffers diretos: a chave (número da conta marcado com o bit 32), o saldo, a
+ * versão do saldo ({@code Conta.versaoSaldo}) e uma sequência. Leituras não usam lock nem alocam; escritas são
+ * serializadas e mudam a posição entre dois incrementos da sequência, e o leitor refaz a leitura da posição se a
+ * sequência estava ímpar ou mudou, de modo que nunca combina a chave de uma conta com o saldo de outra. A
+ * capacidade é fixa e definida na subida; acima de 90% de ocupação novas contas deixam de ser indexadas e são
+ * lidas do banco. A remoção desloca para trás as chaves seguintes da sequência, sem deixar marcas; uma leitura
+ * simultânea pode não achar a conta deslocada e ir ao banco.
+ * <p>
+ * Um saldo só é sobrescrito por outro de versão maior: a confirmação de uma movimentação pode chegar depois da de
+ * outra posterior na mesma conta. Quem leu o saldo do banco numa falta usa {@link #inserirSeAusente}.
+ */
+@Component
+@Slf4j
+public class IndiceSaldos {
+
+    public static final long AUSENTE = Long.MIN_VALUE;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int BYTES_POR_POSICAO = 32;
+    private static final int SALDO = Long.BYTES;
+    private static final int VERSAO = 2 * Long.BYTES;
+    private static final int SEQUENCIA = 3 * Long.BYTES;
+    private static final int BITS_SEGMENTO = 25;
+    private static final long OCUPADA = 1L << 32;
+
+    private final ByteBuffer[] segmentos;
+    private final long mascara;
+    private final long limiteOcupacao;
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private long ocupadas;
+
+    public IndiceSaldos(@Value("${banco.indice-saldos.capacidade:1048576}") long capacidade,
+                        DataSource dataSource, Shards shards) {
+        long posicoes = Long.highestOneBit(Math.max(capacidade, 16) * 2 - 1);
+        long porSegmento = Math.min(posicoes, 1L << BITS_SEGMENTO);
+        this.segmentos = new ByteBuffer[(int) (posicoes / porSegmento)];
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = ByteBuffer.allocateDirect((int) (porSegmento * BYTES_POR_POSICAO)).order(ByteOrder.nativeOrder());
+        }
+        this.mascara = posicoes - 1;
+        this.limiteOcupacao = posicoes * 9 / 10;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.shards = shards;
+    }
+
+    public long saldo(int numeroConta) {
+        long chave = (numeroConta & 0xFFFFFFFFL) | OCUPADA;
+        for (long posicao = hash(numeroConta) & mascara; ; posicao = (posicao + 1) & mascara) {
+            ByteBuffer segmento = segmento(posicao);
+            int deslocamento = deslocamento(posicao);
+            long atual;
+            long saldo;
+            while (true) {
+                long sequencia = (long) LONGS.getAcquire(segmento, deslocamento + SEQUENCIA);
+                atual = (long) LONGS.getOpaque(segmento, deslocamento);
+                saldo = (long) LONGS.getOpaque(segmento, deslocamento + SALDO);
+                VarHandle.loadLoadFence();
+                if ((sequencia & 1) == 0 && (long) LONGS.getOpaque(segmento, deslocamento + SEQUENCIA) == sequencia) {
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+            if (atual == 0) {
+                return AUSENTE;
+            }
+            if (atual == chave) {
+                return saldo;
+            }
+        }
+    }
+
+    /**
+     * Grava o saldo se a conta não estiver indexada ou se {@code versao} for maior que a da posição.
+     */
+    public void atualizar(int numeroConta, long centavos, long versao) {
+        gravar(numeroConta, centavos, versao, true);
+    }
+
+    public void inserirSeAusente(int numeroConta, long centavos, long versao) {
+        gravar(numeroConta, centavos, versao, false);
+    }
+
+    private synchronized void gravar(int numeroConta, long centavos, long versao, boolean sobrescrever) {
+        long chave = (numeroConta & 0xFFFFFFFFL) | OCUPADA;
+        for (long posicao = hash(numeroConta) & mascara; ; posicao = (posicao + 1) & mascara) {
+            long atual = chave(posicao);
+            if (atual == chave) {
+                if (sobrescrever && versao > (long) LONGS.get(segmento(posicao), deslocamento(posicao) + VERSAO)) {
+                    escrever(posicao, chave, centavos, versao);
+                }
+                return;
+            }
+            if (atual == 0) {
+                if (ocupadas >= limiteOcupacao) {
+                    log.warn("Índice de saldos cheio ({} contas); conta {} não será indexada.", ocupadas, numeroConta);
+                    return;
+                }
+                escrever(posicao, chave, centavos, versao);
+                ocupadas++;
+                return;
+            }
+        }
+    }
+
+    public synchronized void remover(int numeroConta) {
+        long chave = (numeroConta & 0xFFFFFFFFL) | OCUPADA;
+        long vaga = hash(numeroConta) & mascara;
+        while (true) {
+            long atual = chave(vaga);
+            if (atual == 0) {
+                return;
+            }
+            if (atual == chave) {
+                break;
+            }
+            vaga = (vaga + 1) & mascara;
+        }
+        for (long posicao = (vaga + 1) & mascara; ; posicao = (posicao + 1) & mascara) {
+            long atual = chave(posicao);
+            if (atual == 0) {
+                break;
+            }
+            // a chave só pode ocupar a vaga se a sua posição de origem não estiver entre a vaga e ela
+            long origem = hash((int) atual) & mascara;
+            if (((posicao - origem) & mascara) >= ((posicao - vaga) & mascara)) {
+                ByteBuffer segmento = segmento(posicao);
+                int deslocamento = deslocamento(posicao);
+                escrever(vaga, atual, (long) LONGS.get(segmento, deslocamento + SALDO),
+                        (long) LONGS.get(segmento, deslocamento + VERSAO));
+                vaga = posicao;
+            }
+        }
+        escrever(vaga, 0L, 0L, 0L);
+        ocupadas--;
+    }
+
+    /**
+     * Troca o conteúdo da posição entre dois incrementos da sequência; só roda com o lock do índice.
+     */
+    private void escrever(long posicao, long chave, long centavos, long versao) {
+        ByteBuffer segmento = segmento(posicao);
+        int deslocamento = deslocamento(posicao);
+        long sequencia = (long) LONGS.get(segmento, deslocamento + SEQUENCIA);
+        LONGS.setOpaque(segmento, deslocamento + SEQUENCIA, sequencia + 1);
+        VarHandle.storeStoreFence();
+        LONGS.setOpaque(segmento, deslocamento + SALDO, centavos);
+        LONGS.setOpaque(segmento, deslocamento + VERSAO, versao);
+        LONGS.setOpaque(segmento, deslocamento, chave);
+        LONGS.setRelease(segmento, deslocamento + SEQUENCIA, sequencia + 2);
+    }
+
+    public synchronized long getOcupadas() {
+        return ocupadas;
+    }
+
+    public static long centavos(BigDecimal saldo) {
+        return saldo.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void movimentacao(MovimentacaoConta movimentacao) {
+        atualizar(movimentacao.numeroConta(), centavos(movimentacao.saldo()), movimentacao.versaoSaldo());
+    }
+
+    /**
+     * O rendimento altera os saldos das poupanças sem publicar movimentações, mas avança a versão: as contas CP
+     * são relidas e prevalece, conta a conta, o saldo de versão maior entre a releitura e as movimentações.
+     */
+    @EventListener
+    public void rendimentoAplicado(RendimentoAplicado rendimento) {
+        long inicio = System.currentTimeMillis();
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            ShardDataSource.em(shard, () -> {
+                jdbcTemplate.query("select NUMERO_CONTA, SALDO, VERSAO_SALDO from CONTA "
+                        + "where TIPO = 'CP' and SITUACAO = 'ATIVA'", rs -> {
+                    atualizar(rs.getInt(1), centavos(rs.getBigDecimal(2)), rs.getLong(3));
+                });
+                return null;
+            });
+        }
+        log.info("Saldos das poupanças recarregados no índice depois do rendimento de {} em {} ms.",
+                rendimento.dataReferencia(), System.currentTimeMillis() - inicio);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        try {
+            // sem transação somente leitura: a carga vem da primária, e não de uma réplica atrasada; o tráfego já
+            // está chegando, então o que uma movimentação gravou nesse meio tempo não é trocado pela carga
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                ShardDataSource.em(shard, () -> {
+                    jdbcTemplate.query("select NUMERO_CONTA, SALDO, VERSAO_SALDO from CONTA where SITUACAO = 'ATIVA'",
+                            rs -> {
+                                inserirSeAusente(rs.getInt(1), centavos(rs.getBigDecimal(2)), rs.getLong(3));
+                            });
+                    return null;
+                });
+            }
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível carregar o índice de saldos; as contas serão indexadas sob demanda.", e);
+            return;
+        }
+        log.info("Índice de saldos carregado com {} contas em {} ms.", getOcupadas(), System.currentTimeMillis() - inicio);
+    }
+
+    private long chave(long posicao) {
+        return (long) LONGS.get(segmento(posicao), deslocamento(posicao));
+    }
+
+    private ByteBuffer segmento(long posicao) {
+        return segmentos[(int) (posicao >>> BITS_SEGMENTO)];
+    }
+
+    private static int deslocamento(long posicao) {
+        return (int) (posicao & ((1L << BITS_SEGMENTO) - 1)) * BYTES_POR_POSICAO;
+    }
+
+    private static long hash(int numeroConta) {
+        long h = numeroConta * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,78 @@
+package tech.ada.banco.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Soma de valores (em centavos) numa janela deslizante dividida em fatias de tempo.
+ * <p>
+ * Cada fatia guarda, num único long, a época a que pertence (24 bits altos) e o total acumulado
+ * (40 bits baixos), o que permite atualizar a fatia com um único compareAndSet, sem locks.
+ */
+final class JanelaDeslizante {
+
+    private static final int BITS_VALOR = 40;
+    private static final long MASCARA_VALOR = (1L << BITS_VALOR) - 1;
+    private static final long MASCARA_EPOCA = (1L << (Long.SIZE - BITS_VALOR)) - 1;
+
+    private final AtomicLongArray fatias;
+    private final long larguraFatia;
+
+    JanelaDeslizante(int quantidadeFatias, long larguraFatiaMillis) {
+        this.fatias = new AtomicLongArray(quantidadeFatias);
+        this.larguraFatia = larguraFatiaMillis;
+    }
+
+    long somar(long agora, long centavos) {
+        long epoca = (agora / larguraFatia) & MASCARA_EPOCA;
+        int indice = (int) ((agora / larguraFatia) % fatias.length());
+        while (true) {
+            long atual = fatias.get(indice);
+            long novo = epocaDe(atual) == epoca
+                    ? empacotar(epoca, Math.min(valorDe(atual) + centavos, MASCARA_VALOR))
+                    : empacotar(epoca, Math.min(centavos, MASCARA_VALOR));
+            if (fatias.compareAndSet(indice, atual, novo)) {
+                return total(agora);
+            }
+        }
+    }
+
+    void subtrair(long agora, long centavos) {
+        long epoca = (agora / larguraFatia) & MASCARA_EPOCA;
+        int indice = (int) ((agora / larguraFatia) % fatias.length());
+        while (true) {
+            long atual = fatias.get(indice);
+            if (epocaDe(atual) != epoca) {
+                return;
+            }
+            long novo = empacotar(epoca, Math.max(valorDe(atual) - centavos, 0));
+            if (fatias.compareAndSet(indice, atual, novo)) {
+                return;
+            }
+        }
+    }
+
+    long total(long agora) {
+        long epocaAtual = (agora / larguraFatia) & MASCARA_EPOCA;
+        long total = 0;
+        for (int i = 0; i < fatias.length(); i++) {
+            long fatia = fatias.get(i);
+            long idade = (epocaAtual - epocaDe(fatia)) & MASCARA_EPOCA;
+            if (idade < fatias.length()) {
+                total += valorDe(fatia);
+            }
+        }
+        return total;
+    }
+
+    private static long empacotar(long epoca, long valor) {
+        return (epoca << BITS_VALOR) | valor;
+    }
+
+    private static long epocaDe(long fatia) {
+        return fatia >>> BITS_VALOR;
+    }
+
+    private static long valorDe(long fatia) {
+        return fatia & MASCARA_VALOR;
+    }
+}
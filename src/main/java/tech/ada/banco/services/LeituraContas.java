@@ -0,0 +1,195 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.RoteamentoDataSource;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leituras de conta fora das operações de dinheiro. Leituras simultâneas da mesma conta compartilham uma única
+ * consulta ao banco, e o resultado continua valendo por {@code banco.coalescencia.validade} para quem chegar logo
+ * depois. Movimentações, abertura e encerramento descartam o resultado guardado; o rendimento diário, que não
+ * publica eventos, pode ficar visível com esse atraso.
+ * <p>
+ * A consulta roda na thread de quem chegou primeiro, em transação própria; os demais esperam sem ocupar conexão.
+ * Contas inexistentes não ficam guardadas além da consulta em andamento.
+ * <p>
+ * {@link #consultar} atende vários números de uma vez, sem coalescência: um {@code IN} por shard a cada
+ * {@code banco.consulta-contas.tamanho-lote} contas.
+ */
+@Component
+public class LeituraContas {
+
+    public record ContaConsultada(int numeroConta, boolean encontrada, Conta conta) {
+    }
+
+    private final ContaRepository repository;
+    private final ConsistenciaLeitura consistencia;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final long validade;
+    private final int maximoConsulta;
+    private final int tamanhoLote;
+    private final Map<Integer, Carga> cargas = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter coalescidas;
+
+    public LeituraContas(ContaRepository repository, ConsistenciaLeitura consistencia, Shards shards,
+                         PlatformTransactionManager transactionManager, MeterRegistry registry,
+                         @Value("${banco.coalescencia.validade:50ms}") Duration validade,
+                         @Value("${banco.consulta-contas.maximo:5000}") int maximoConsulta,
+                         @Value("${banco.consulta-contas.tamanho-lote:1000}") int tamanhoLote) {
+        this.repository = repository;
+        this.consistencia = consistencia;
+        this.shards = shards;
+        this.maximoConsulta = maximoConsulta;
+        this.tamanhoLote = tamanhoLote;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+        this.validade = validade.toNanos();
+        this.executadas = Counter.builder("banco.contas.leituras")
+                .description("Leituras de conta por origem do resultado")
+                .tag("origem", "banco")
+                .register(registry);
+        this.coalescidas = Counter.builder("banco.contas.leituras")
+                .description("Leituras de conta por origem do resultado")
+                .tag("origem", "coalescida")
+                .register(registry);
+    }
+
+    public Optional<Conta> buscar(int numeroConta) {
+        while (true) {
+            Carga nova = new Carga();
+            Carga atual = cargas.putIfAbsent(numeroConta, nova);
+            if (atual == null) {
+                return executar(numeroConta, nova);
+            }
+            if (atual.expirada(System.nanoTime())) {
+                cargas.remove(numeroConta, atual);
+                continue;
+            }
+            coalescidas.increment();
+            try {
+                return atual.resultado.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+    }
+
+    /**
+     * Lê a conta na primária, sem coalescência: para quem guarda o resultado além desta requisição, como o índice
+     * de saldos numa falta, e não pode guardar o valor de uma réplica atrasada.
+     */
+    public Optional<Conta> buscarNaPrimaria(int numeroConta) {
+        return RoteamentoDataSource.naPrimaria(() -> consultar(numeroConta));
+    }
+
+    /**
+     * Uma posição na resposta para cada número pedido, na mesma ordem, inclusive repetidos e inexistentes. Uma lista
+     * com número nulo ou com mais de {@code banco.consulta-contas.maximo} números é recusada.
+     */
+    public List<ContaConsultada> consultar(List<Integer> numerosConta) {
+        if (numerosConta.size() > maximoConsulta || numerosConta.stream().anyMatch(Objects::isNull)) {
+            throw new ValorInvalidoException();
+        }
+        Map<Integer, List<Integer>> porShard = new TreeMap<>();
+        for (Integer numeroConta : new LinkedHashSet<>(numerosConta)) {
+            porShard.computeIfAbsent(shards.shardDaConta(numeroConta), shard -> new ArrayList<>()).add(numeroConta);
+        }
+        Map<Integer, Conta> encontradas = new HashMap<>();
+        porShard.forEach((shard, doShard) -> ShardDataSource.em(shard, () -> {
+            for (int inicio = 0; inicio < doShard.size(); inicio += tamanhoLote) {
+                List<Integer> lote = doShard.subList(inicio, Math.min(inicio + tamanhoLote, doShard.size()));
+                List<Conta> contas = lote.stream().anyMatch(consistencia::escritaRecente)
+                        ? RoteamentoDataSource.naPrimaria(() -> consultarLote(lote))
+                        : consultarLote(lote);
+                contas.forEach(conta -> encontradas.put(conta.getNumeroConta(), conta));
+            }
+            return null;
+        }));
+        return numerosConta.stream()
+                .map(numeroConta -> new ContaConsultada(numeroConta, encontradas.containsKey(numeroConta),
+                        encontradas.get(numeroConta)))
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void movimentada(MovimentacaoConta movimentacao) {
+        invalidar(movimentacao.numeroConta());
+    }
+
+    public void invalidar(int numeroConta) {
+        cargas.remove(numeroConta);
+    }
+
+    @Scheduled(fixedDelayString = "${banco.coalescencia.intervalo-limpeza:1000}")
+    public void removerExpiradas() {
+        long agora = System.nanoTime();
+        cargas.values().removeIf(carga -> carga.expirada(agora));
+    }
+
+    private Optional<Conta> executar(int numeroConta, Carga carga) {
+        executadas.increment();
+        Optional<Conta> conta;
+        try {
+            // a decisão de ir à primária fica aqui dentro: uma movimentação confirmada depois do putIfAbsent
+            // já removeu esta carga, e quem chegar em seguida começa outra
+            conta = consistencia.escritaRecente(numeroConta)
+                    ? RoteamentoDataSource.naPrimaria(() -> consultar(numeroConta))
+                    : consultar(numeroConta);
+        } catch (RuntimeException e) {
+            cargas.remove(numeroConta, carga);
+            carga.resultado.completeExceptionally(e);
+            throw e;
+        }
+        carga.concluidaEm = System.nanoTime();
+        if (conta.isEmpty() || validade <= 0) {
+            cargas.remove(numeroConta, carga);
+        }
+        carga.resultado.complete(conta);
+        return conta;
+    }
+
+    private Optional<Conta> consultar(int numeroConta) {
+        return transacao.execute(status -> repository.findContaByNumeroConta(numeroConta));
+    }
+
+    private List<Conta> consultarLote(List<Integer> numerosConta) {
+        return transacao.execute(status -> repository.findByNumeroContaIn(numerosConta));
+    }
+
+    private final class Carga {
+
+        private final CompletableFuture<Optional<Conta>> resultado = new CompletableFuture<>();
+        private volatile long concluidaEm;
+
+        boolean expirada(long agora) {
+            return resultado.isDone() && agora - concluidaEm >= validade;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.ada.banco.exceptions.LimiteExcedidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.services.LimitesProperties.Limite;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limites de saque e Pix por conta, por minuto e por dia, controlados inteiramente em memória.
+ * <p>
+ * O valor é somado à janela antes da alteração do saldo; se o total passar do limite a soma é desfeita na hora, e
+ * se a transação em curso for desfeita, ao fim dela. Um estorno posterior, como o de uma transferência
+ * compensada, usa {@link #estornar} com o momento devolvido por {@link #consumir}, para tirar o valor da mesma
+ * fatia em que foi somado.
+ */
+@Component
+@Slf4j
+@EnableConfigurationProperties(LimitesProperties.class)
+public class LimitesMovimentacao {
+
+    private static final long MINUTO = Duration.ofMinutes(1).toMillis();
+    private static final long HORA = Duration.ofHours(1).toMillis();
+    private static final long DIA = Duration.ofDays(1).toMillis();
+
+    private final LimitesProperties properties;
+    private final Map<Integer, UsoConta> usos = new ConcurrentHashMap<>();
+
+    public LimitesMovimentacao(LimitesProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Soma o valor às janelas da conta e devolve o momento usado, que identifica as fatias a estornar.
+     */
+    public long consumir(Conta conta, Operacao operacao, BigDecimal valor) {
+        return consumir(conta, operacao, valor, System.currentTimeMillis());
+    }
+
+    long consumir(Conta conta, Operacao operacao, BigDecimal valor, long momento) {
+        Limite limite = properties.limite(conta.getTipo(), operacao);
+        if (limite == Limite.SEM_LIMITE) {
+            return momento;
+        }
+
+        long centavos = centavos(valor);
+        if (centavos <= 0) {
+            return momento;
+        }
+
+        // a soma acontece dentro do compute: a limpeza só remove a entrada no mesmo compute da conta, então o
+        // consumo nunca cai num UsoConta que já saiu do mapa
+        boolean[] excedido = new boolean[1];
+        usos.compute(conta.getNumeroConta(), (numero, uso) -> {
+            UsoConta atual = uso == null ? new UsoConta() : uso;
+            atual.ultimoUso = Math.max(atual.ultimoUso, momento);
+            long totalMinuto = atual.minuto[operacao.ordinal()].somar(momento, centavos);
+            long totalDia = atual.dia[operacao.ordinal()].somar(momento, centavos);
+            if (totalMinuto > limite.porMinutoEmCentavos() || totalDia > limite.porDiaEmCentavos()) {
+                atual.minuto[operacao.ordinal()].subtrair(momento, centavos);
+                atual.dia[operacao.ordinal()].subtrair(momento, centavos);
+                excedido[0] = true;
+            }
+            return atual;
+        });
+        if (excedido[0]) {
+            throw new LimiteExcedidoException();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            int numeroConta = conta.getNumeroConta();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        estornar(numeroConta, operacao, centavos, momento);
+                    }
+                }
+            });
+        }
+        return momento;
+    }
+
+    /**
+     * Desfaz um consumo já confirmado; {@code momento} é o devolvido por {@link #consumir}. Fatias que já saíram
+     * da janela não são alteradas.
+     */
+    public void estornar(Conta conta, Operacao operacao, BigDecimal valor, long momento) {
+        long centavos = centavos(valor);
+        if (centavos > 0) {
+            estornar(conta.getNumeroConta(), operacao, centavos, momento);
+        }
+    }
+
+    private void estornar(int numeroConta, Operacao operacao, long centavos, long momento) {
+        usos.computeIfPresent(numeroConta, (numero, uso) -> {
+            uso.minuto[operacao.ordinal()].subtrair(momento, centavos);
+            uso.dia[operacao.ordinal()].subtrair(momento, centavos);
+            return uso;
+        });
+    }
+
+    public long totalDiario(int numeroConta, Operacao operacao) {
+        UsoConta uso = usos.get(numeroConta);
+        return uso == null ? 0 : uso.dia[operacao.ordinal()].total(System.currentTimeMillis());
+    }
+
+    long ultimoUso(int numeroConta) {
+        UsoConta uso = usos.get(numeroConta);
+        return uso == null ? 0 : uso.ultimoUso;
+    }
+
+    Iterable<Integer> contas() {
+        return usos.keySet();
+    }
+
+    void restaurar(int numeroConta, Operacao operacao, long centavos, long momento) {
+        usos.compute(numeroConta, (numero, uso) -> {
+            UsoConta atual = uso == null ? new UsoConta() : uso;
+            atual.dia[operacao.ordinal()].somar(momento, centavos);
+            atual.ultimoUso = Math.max(atual.ultimoUso, momento);
+            return atual;
+        });
+    }
+
+    /**
+     * Remove as contas sem uso há mais de um dia. Acima de {@code maximo-contas} remove também, das mais antigas
+     * para as mais recentes, as que não têm nada somado na janela diária; uma conta com consumo no dia nunca é
+     * removida, já que voltaria com o limite inteiro, e o mapa pode passar do máximo enquanto houver essas contas.
+     */
+    @Scheduled(fixedDelayString = "${banco.limites.intervalo-limpeza:60000}")
+    public void removerContasOciosas() {
+        long agora = System.currentTimeMillis();
+        for (Integer numeroConta : usos.keySet()) {
+            usos.computeIfPresent(numeroConta, (numero, uso) -> uso.ultimoUso < agora - DIA ? null : uso);
+        }
+
+        int excedente = usos.size() - properties.maximoContas();
+        if (excedente > 0) {
+            List<Map.Entry<Integer, UsoConta>> entradas = new ArrayList<>();
+            for (Map.Entry<Integer, UsoConta> entrada : usos.entrySet()) {
+                if (entrada.getValue().semUsoNoDia(agora)) {
+                    entradas.add(entrada);
+                }
+            }
+            entradas.sort(Comparator.comparingLong(entrada -> entrada.getValue().ultimoUso));
+            for (Map.Entry<Integer, UsoConta> entrada : entradas) {
+                if (excedente == 0) {
+                    break;
+                }
+                // conferido de novo dentro do compute: um consumo pode ter chegado depois da seleção
+                if (usos.computeIfPresent(entrada.getKey(),
+                        (numero, uso) -> uso.semUsoNoDia(agora) ? null : uso) == null) {
+                    excedente--;
+                }
+            }
+            if (excedente > 0) {
+                log.warn("Limites em memória com {} contas acima de maximo-contas, todas com consumo no dia.",
+                        excedente);
+            }
+        }
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor.movePointRight(2).longValue();
+    }
+
+    private static final class UsoConta {
+
+        private final JanelaDeslizante[] minuto = new JanelaDeslizante[Operacao.values().length];
+        private final JanelaDeslizante[] dia = new JanelaDeslizante[Operacao.values().length];
+        private volatile long ultimoUso;
+
+        private UsoConta() {
+            for (int i = 0; i < minuto.length; i++) {
+                minuto[i] = new JanelaDeslizante(60, MINUTO / 60);
+                dia[i] = new JanelaDeslizante(24, HORA);
+            }
+        }
+
+        private boolean semUsoNoDia(long agora) {
+            for (JanelaDeslizante janela : dia) {
+                if (janela.total(agora) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
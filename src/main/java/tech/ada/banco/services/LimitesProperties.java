@@ -0,0 +1,45 @@
+package tech.ada.banco.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import tech.ada.banco.model.ModalidadeConta;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "banco.limites")
+public record LimitesProperties(Map<ModalidadeConta, Map<Operacao, Limite>> modalidades, Integer maximoContas) {
+
+    public LimitesProperties {
+        modalidades = modalidades == null ? new EnumMap<>(ModalidadeConta.class) : modalidades;
+        maximoContas = maximoContas == null ? 1_000_000 : maximoContas;
+    }
+
+    public Limite limite(ModalidadeConta modalidade, Operacao operacao) {
+        Map<Operacao, Limite> limites = modalidades.get(modalidade);
+        Limite limite = limites == null ? null : limites.get(operacao);
+        return limite == null ? Limite.SEM_LIMITE : limite;
+    }
+
+    public enum Operacao {
+        SAQUE,
+        PIX
+    }
+
+    public record Limite(BigDecimal porMinuto, BigDecimal porDia) {
+
+        static final Limite SEM_LIMITE = new Limite(null, null);
+
+        long porMinutoEmCentavos() {
+            return centavos(porMinuto);
+        }
+
+        long porDiaEmCentavos() {
+            return centavos(porDia);
+        }
+
+        private static long centavos(BigDecimal valor) {
+            return valor == null ? Long.MAX_VALUE : valor.movePointRight(2).longValue();
+        }
+    }
+}
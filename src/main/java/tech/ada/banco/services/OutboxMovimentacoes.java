@@ -0,0 +1,260 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.EventoConta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.EventoContaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Grava cada {@link MovimentacaoConta} em EVENTO_CONTA dentro da transação que a publicou e, num relay
+ * agendado, lê a tabela de cada shard em lotes pela ordem do id e entrega os eventos ao {@link CanalEventos} e
+ * à {@link ProjecaoResumoContas}.
+ * <p>
+ * Ids de identidade são atribuídos no insert, mas as transações podem confirmar fora dessa ordem: ao encontrar
+ * uma lacuna o relay espera até {@code banco.eventos.espera-lacuna} pela transação atrasada antes de seguir
+ * adiante. A lacuna continua anotada e é consultada a cada ciclo por até {@code banco.eventos.espera-atrasados},
+ * tempo que cobre rendimento e importações longas; o que aparecer nela é entregue fora de ordem. Lacunas que não
+ * se preenchem nesse prazo vêm de transações desfeitas.
+ */
+@Service
+@Slf4j
+public class OutboxMovimentacoes {
+
+    private final EventoContaRepository repository;
+    private final CanalEventos canal;
+    private final ProjecaoResumoContas resumos;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+    private final long esperaLacuna;
+    private final long esperaAtrasados;
+    private final int maximoLacunas;
+    private final int verificacaoInicial;
+    private final Duration retencao;
+    private final Timer atraso;
+    private final Counter atrasados;
+    private final Counter abandonados;
+
+    private final long[] ultimoId;
+    private final long[] lacunaDesde;
+    // por shard: início da lacuna -> lacuna ainda sem todos os eventos
+    private final List<TreeMap<Long, Lacuna>> lacunas = new ArrayList<>();
+    private volatile boolean iniciado;
+
+    public OutboxMovimentacoes(EventoContaRepository repository, CanalEventos canal,
+                               ProjecaoResumoContas resumos, Shards shards,
+                               PlatformTransactionManager transactionManager, MeterRegistry registry,
+                               @Value("${banco.eventos.lote-relay:500}") int tamanhoLote,
+                               @Value("${banco.eventos.espera-lacuna:2000}") long esperaLacuna,
+                               @Value("${banco.eventos.espera-atrasados:15m}") Duration esperaAtrasados,
+                               @Value("${banco.eventos.maximo-lacunas:1000}") int maximoLacunas,
+                               @Value("${banco.eventos.verificacao-inicial:10000}") int verificacaoInicial,
+                               @Value("${banco.eventos.retencao:7d}") Duration retencao) {
+        this.repository = repository;
+        this.canal = canal;
+        this.resumos = resumos;
+        this.shards = shards;
+        // sem readOnly: a outbox é lida sempre da primária, já que a réplica pode estar atrasada
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+        this.esperaLacuna = esperaLacuna;
+        this.esperaAtrasados = esperaAtrasados.toMillis();
+        this.maximoLacunas = maximoLacunas;
+        this.verificacaoInicial = verificacaoInicial;
+        this.retencao = retencao;
+        this.atraso = Timer.builder("banco.eventos.atraso")
+                .description("Tempo entre a movimentação e a entrega do evento aos assinantes")
+                .register(registry);
+        this.atrasados = Counter.builder("banco.eventos.atrasados")
+                .description("Eventos entregues depois que o relay já tinha passado da sua lacuna")
+                .register(registry);
+        this.abandonados = Counter.builder("banco.eventos.lacunas.abandonadas")
+                .description("Lacunas que não se preencheram em banco.eventos.espera-atrasados")
+                .register(registry);
+        this.ultimoId = new long[shards.getQuantidade()];
+        this.lacunaDesde = new long[shards.getQuantidade()];
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            lacunas.add(new TreeMap<>());
+        }
+        Gauge.builder("banco.eventos.lacunas", this, OutboxMovimentacoes::getLacunas).register(registry);
+    }
+
+    @EventListener
+    public void registrar(MovimentacaoConta movimentacao) {
+        repository.save(new EventoConta(movimentacao));
+    }
+
+    /**
+     * O relay começa do fim da tabela: quem assina recebe o que acontecer dali em diante, e o histórico
+     * anterior só é lido quando o cliente informa o último evento recebido. Ids ausentes entre os
+     * {@code banco.eventos.verificacao-inicial} últimos podem ser de transações ainda abertas e entram como lacunas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        long agora = System.currentTimeMillis();
+        for (int shard = 0; shard < ultimoId.length; shard++) {
+            long maior = ShardDataSource.em(shard, () -> transacao.execute(status -> repository.maiorId()));
+            long anterior = Math.max(0, maior - verificacaoInicial);
+            List<Long> presentes = ShardDataSource.em(shard,
+                    () -> transacao.execute(status -> repository.idsEntre(anterior, maior)));
+            long esperado = anterior + 1;
+            for (long id : presentes) {
+                if (id > esperado) {
+                    anotarLacuna(shard, esperado, id - 1, agora);
+                }
+                esperado = id + 1;
+            }
+            ultimoId[shard] = maior;
+        }
+        iniciado = true;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.eventos.intervalo-relay:200}")
+    public synchronized int transmitir() {
+        if (!iniciado) {
+            return 0;
+        }
+        int transmitidos = 0;
+        for (int shard = 0; shard < ultimoId.length; shard++) {
+            transmitidos += transmitir(shard);
+        }
+        return transmitidos;
+    }
+
+    public synchronized int getLacunas() {
+        return lacunas.stream().mapToInt(TreeMap::size).sum();
+    }
+
+    private int transmitir(int shard) {
+        int transmitidos = transmitirAtrasados(shard);
+        List<EventoConta> lote = ShardDataSource.em(shard, () -> transacao.execute(status ->
+                repository.findByIdGreaterThanOrderByIdAsc(ultimoId[shard], PageRequest.ofSize(tamanhoLote))));
+        int emOrdem = 0;
+        for (EventoConta evento : lote) {
+            if (evento.getId() != ultimoId[shard] + 1) {
+                if (!lacunaExpirada(shard)) {
+                    break;
+                }
+                anotarLacuna(shard, ultimoId[shard] + 1, evento.getId() - 1, lacunaDesde[shard]);
+            }
+            lacunaDesde[shard] = 0;
+            ultimoId[shard] = evento.getId();
+            canal.publicar(evento);
+            atraso.record(Duration.between(evento.getMomento(), Instant.now()));
+            emOrdem++;
+        }
+        if (emOrdem > 0) {
+            resumos.aplicar(shard, lote.subList(0, emOrdem));
+        }
+        return transmitidos + emOrdem;
+    }
+
+    /**
+     * Procura eventos nas lacunas anotadas do shard e tira da lacuna o que encontrar; lacunas mais velhas que
+     * {@code banco.eventos.espera-atrasados} são abandonadas.
+     */
+    private int transmitirAtrasados(int shard) {
+        TreeMap<Long, Lacuna> doShard = lacunas.get(shard);
+        if (doShard.isEmpty()) {
+            return 0;
+        }
+        long limite = System.currentTimeMillis() - esperaAtrasados;
+        List<EventoConta> encontrados = new ArrayList<>();
+        for (Lacuna lacuna : List.copyOf(doShard.values())) {
+            if (lacuna.desde() < limite) {
+                doShard.remove(lacuna.inicio());
+                abandonados.increment();
+                continue;
+            }
+            List<EventoConta> daLacuna = ShardDataSource.em(shard, () -> transacao.execute(status ->
+                    repository.findByIdBetweenOrderByIdAsc(lacuna.inicio(), lacuna.fim(),
+                            PageRequest.ofSize(tamanhoLote))));
+            if (daLacuna.isEmpty()) {
+                continue;
+            }
+            doShard.remove(lacuna.inicio());
+            long proximo = lacuna.inicio();
+            for (EventoConta evento : daLacuna) {
+                if (evento.getId() > proximo) {
+                    doShard.put(proximo, new Lacuna(proximo, evento.getId() - 1, lacuna.desde()));
+                }
+                proximo = evento.getId() + 1;
+            }
+            if (proximo <= lacuna.fim()) {
+                doShard.put(proximo, new Lacuna(proximo, lacuna.fim(), lacuna.desde()));
+            }
+            encontrados.addAll(daLacuna);
+        }
+        for (EventoConta evento : encontrados) {
+            canal.publicarAtrasado(evento);
+            atraso.record(Duration.between(evento.getMomento(), Instant.now()));
+        }
+        if (!encontrados.isEmpty()) {
+            atrasados.increment(encontrados.size());
+            resumos.aplicar(shard, encontrados);
+        }
+        return encontrados.size();
+    }
+
+    private void anotarLacuna(int shard, long inicio, long fim, long desde) {
+        TreeMap<Long, Lacuna> doShard = lacunas.get(shard);
+        doShard.put(inicio, new Lacuna(inicio, fim, desde));
+        if (doShard.size() > maximoLacunas) {
+            Lacuna descartada = doShard.pollFirstEntry().getValue();
+            abandonados.increment();
+            log.warn("Mais de {} lacunas no shard {}; ids {} a {} deixam de ser acompanhados.", maximoLacunas, shard,
+                    descartada.inicio(), descartada.fim());
+        }
+    }
+
+    private boolean lacunaExpirada(int shard) {
+        long agora = System.currentTimeMillis();
+        if (lacunaDesde[shard] == 0) {
+            lacunaDesde[shard] = agora;
+        }
+        return agora - lacunaDesde[shard] >= esperaLacuna;
+    }
+
+    /**
+     * Uma página de até {@code banco.eventos.lote-relay} eventos da conta; quem precisa do resto pede de novo a
+     * partir do último id recebido.
+     */
+    public List<EventoConta> eventosDesde(int numeroConta, long id) {
+        return ShardDataSource.em(shards.shardDaConta(numeroConta), () -> transacao.execute(status ->
+                repository.findByNumeroContaAndIdGreaterThanOrderByIdAsc(numeroConta, id,
+                        PageRequest.ofSize(tamanhoLote))));
+    }
+
+    @Scheduled(cron = "${banco.eventos.limpeza-cron:0 30 3 * * *}")
+    public void limpar() {
+        Instant limite = Instant.now().minus(retencao);
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            Integer removidos = ShardDataSource.em(shard,
+                    () -> transacao.execute(status -> repository.removerAnterioresA(limite)));
+            log.info("{} eventos anteriores a {} removidos do shard {}.", removidos, limite, shard);
+        }
+    }
+
+    private record Lacuna(long inicio, long fim, long desde) {
+    }
+}
@@ -0,0 +1,178 @@
+package tech.ada.banco.services;
+
+import jdk.jfr.EventType;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de cada fase de saque, depósito e Pix, em histogramas HdrHistogram em memória
+ * ({@code banco.perfil.histogramas}) e em eventos {@link EventoFase} do Flight Recorder. Sem histogramas e sem
+ * gravação com o evento habilitado, {@link #iniciar} devolve uma medição vazia compartilhada e o custo por
+ * operação é uma leitura de flag.
+ */
+@Component
+public class PerfilOperacoes {
+
+    public enum Operacao {
+        SAQUE,
+        DEPOSITO,
+        PIX
+    }
+
+    public enum Fase {
+        CARGA,
+        MOVIMENTACAO,
+        GRAVACAO,
+        COMMIT
+    }
+
+    public record Resumo(Operacao operacao, Fase fase, long quantidade, double mediaMicros, long p50Micros,
+                         long p90Micros, long p99Micros, long p999Micros, long maximoMicros) {
+    }
+
+    private static final EventType TIPO_EVENTO = EventType.getEventType(EventoFase.class);
+    private static final long MAXIMO_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean histogramas;
+    private final Map<Operacao, Map<Fase, Histogram>> tempos = new EnumMap<>(Operacao.class);
+
+    public PerfilOperacoes(@Value("${banco.perfil.histogramas:false}") boolean histogramas) {
+        this.histogramas = histogramas;
+        for (Operacao operacao : Operacao.values()) {
+            Map<Fase, Histogram> daOperacao = new EnumMap<>(Fase.class);
+            for (Fase fase : Fase.values()) {
+                daOperacao.put(fase, new ConcurrentHistogram(TimeUnit.MICROSECONDS.toNanos(1), MAXIMO_NANOS, 2));
+            }
+            tempos.put(operacao, daOperacao);
+        }
+    }
+
+    public static PerfilOperacoes desligado() {
+        return new PerfilOperacoes(false);
+    }
+
+    public Medicao iniciar(Operacao operacao, int conta, int contaDestino, BigDecimal valor) {
+        if (!histogramas && !TIPO_EVENTO.isEnabled()) {
+            return Medicao.VAZIA;
+        }
+        return new Medicao(this, operacao, conta, contaDestino, valor);
+    }
+
+    public List<Resumo> resumir() {
+        List<Resumo> resumos = new ArrayList<>();
+        tempos.forEach((operacao, daOperacao) -> daOperacao.forEach((fase, histograma) -> {
+            Histogram copia = histograma.copy();
+            if (copia.getTotalCount() > 0) {
+                resumos.add(new Resumo(operacao, fase, copia.getTotalCount(), copia.getMean() / 1000,
+                        micros(copia, 50), micros(copia, 90), micros(copia, 99), micros(copia, 99.9),
+                        copia.getMaxValue() / 1000));
+            }
+        }));
+        return resumos;
+    }
+
+    public void zerar() {
+        tempos.values().forEach(daOperacao -> daOperacao.values().forEach(Histogram::reset));
+    }
+
+    private void registrar(Operacao operacao, Fase fase, long nanos) {
+        if (histogramas) {
+            tempos.get(operacao).get(fase).recordValue(Math.max(0, Math.min(nanos, MAXIMO_NANOS)));
+        }
+    }
+
+    private static long micros(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000;
+    }
+
+    /**
+     * Medição de uma operação. Cada {@link #concluir} fecha a fase corrente e abre a seguinte; o commit é medido
+     * do {@code beforeCommit} ao fim da transação, incluindo o flush do Hibernate.
+     */
+    public static class Medicao {
+
+        static final Medicao VAZIA = new Medicao(null, null, 0, 0, null);
+
+        private final PerfilOperacoes perfil;
+        private final Operacao operacao;
+        private final int conta;
+        private final int contaDestino;
+        private final BigDecimal valor;
+        private long marca;
+        private EventoFase evento;
+
+        private Medicao(PerfilOperacoes perfil, Operacao operacao, int conta, int contaDestino, BigDecimal valor) {
+            this.perfil = perfil;
+            this.operacao = operacao;
+            this.conta = conta;
+            this.contaDestino = contaDestino;
+            this.valor = valor;
+            if (perfil != null) {
+                abrir();
+            }
+        }
+
+        public void concluir(Fase fase) {
+            if (perfil == null) {
+                return;
+            }
+            long agora = System.nanoTime();
+            perfil.registrar(operacao, fase, agora - marca);
+            if (evento != null) {
+                evento.end();
+                if (evento.shouldCommit()) {
+                    evento.operacao = operacao.name();
+                    evento.fase = fase.name();
+                    evento.conta = conta;
+                    evento.contaDestino = contaDestino;
+                    evento.valor = valor == null ? 0 : valor.doubleValue();
+                    evento.commit();
+                }
+            }
+            abrir();
+        }
+
+        /**
+         * Mede o commit da transação corrente, se houver; sem transação não há o que medir.
+         */
+        public void medirCommit() {
+            if (perfil == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    abrir();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        concluir(Fase.COMMIT);
+                    }
+                }
+            });
+        }
+
+        private void abrir() {
+            marca = System.nanoTime();
+            if (TIPO_EVENTO.isEnabled()) {
+                evento = new EventoFase();
+                evento.begin();
+            } else {
+                evento = null;
+            }
+        }
+    }
+}
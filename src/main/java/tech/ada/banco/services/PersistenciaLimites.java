@@ -0,0 +1,78 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava periodicamente em LIMITE_USO o total diário de cada conta movimentada e o recarrega na
+ * subida da aplicação, para que um restart não zere os limites diários.
+ * <p>
+ * A gravação usa o MERGE do SQL padrão com a origem em DUAL, aceito pelo Oracle e pelo H2 no modo Oracle; em
+ * bancos sem DUAL a origem do MERGE precisa ser trocada.
+ */
+@Component
+@Slf4j
+public class PersistenciaLimites {
+
+    private static final String MERGE = "merge into LIMITE_USO u " +
+            "using (select cast(? as integer) NUMERO_CONTA, cast(? as varchar(10)) OPERACAO, " +
+            "cast(? as numeric(19)) TOTAL_DIA, cast(? as timestamp) ATUALIZADO_EM from DUAL) n " +
+            "on (u.NUMERO_CONTA = n.NUMERO_CONTA and u.OPERACAO = n.OPERACAO) " +
+            "when matched then update set u.TOTAL_DIA = n.TOTAL_DIA, u.ATUALIZADO_EM = n.ATUALIZADO_EM " +
+            "when not matched then insert (NUMERO_CONTA, OPERACAO, TOTAL_DIA, ATUALIZADO_EM) " +
+            "values (n.NUMERO_CONTA, n.OPERACAO, n.TOTAL_DIA, n.ATUALIZADO_EM)";
+
+    private static final String SELECT = "select NUMERO_CONTA, OPERACAO, TOTAL_DIA, ATUALIZADO_EM from LIMITE_USO " +
+            "where ATUALIZADO_EM > ?";
+
+    private final LimitesMovimentacao limites;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile long ultimaGravacao;
+
+    public PersistenciaLimites(LimitesMovimentacao limites, JdbcTemplate jdbcTemplate) {
+        this.limites = limites;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long desde = System.currentTimeMillis() - Duration.ofDays(1).toMillis();
+        jdbcTemplate.query(SELECT, rs -> {
+            limites.restaurar(rs.getInt(1), Operacao.valueOf(rs.getString(2)), rs.getLong(3),
+                    rs.getTimestamp(4).getTime());
+        }, new Timestamp(desde));
+    }
+
+    @Scheduled(fixedDelayString = "${banco.limites.intervalo-persistencia:60000}")
+    public void gravar() {
+        long inicio = System.currentTimeMillis();
+        long desde = ultimaGravacao;
+        Timestamp agora = new Timestamp(inicio);
+
+        List<Object[]> linhas = new ArrayList<>();
+        for (Integer numeroConta : limites.contas()) {
+            if (limites.ultimoUso(numeroConta) < desde) {
+                continue;
+            }
+            for (Operacao operacao : Operacao.values()) {
+                linhas.add(new Object[]{numeroConta, operacao.name(), limites.totalDiario(numeroConta, operacao), agora});
+            }
+        }
+
+        if (!linhas.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE, linhas);
+            log.debug("Uso de limite gravado para {} contas.", linhas.size() / Operacao.values().length);
+        }
+        ultimaGravacao = inicio;
+    }
+}
@@ -1,11 +1,18 @@
 package tech.ada.banco.services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.config.Shards;
 import tech.ada.banco.exceptions.ContaOrigemIgualDestinoException;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
 import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+import tech.ada.banco.services.PerfilOperacoes.Fase;
+import tech.ada.banco.services.PerfilOperacoes.Medicao;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -15,27 +22,63 @@ import java.math.RoundingMode;
 public class Pix {
 
     private final ContaRepository repository;
+    private final LimitesMovimentacao limites;
+    private final ApplicationEventPublisher eventos;
+    private final Shards shards;
+    private final TransferenciaEntreShards entreShards;
+    private final PerfilOperacoes perfil;
 
-    public Pix(ContaRepository repository) {
+    public Pix(ContaRepository repository, LimitesMovimentacao limites, ApplicationEventPublisher eventos,
+               Shards shards, TransferenciaEntreShards entreShards, PerfilOperacoes perfil) {
         this.repository = repository;
+        this.limites = limites;
+        this.eventos = eventos;
+        this.shards = shards;
+        this.entreShards = entreShards;
+        this.perfil = perfil;
     }
 
+    @Transactional
     public BigDecimal executar(int contaOrigem, int contaDestino, BigDecimal valor) {
         if (contaOrigem == contaDestino) {
             throw new ContaOrigemIgualDestinoException();
         }
 
         valor = valor.setScale(2, RoundingMode.HALF_EVEN);
+        if (!shards.mesmoShard(contaOrigem, contaDestino)) {
+            // nenhum comando rodou nesta transação, então ela não chegou a abrir conexão em shard algum
+            return entreShards.executar(contaOrigem, contaDestino, valor);
+        }
 
-        Conta origem = repository.findContaByNumeroConta(contaOrigem).orElseThrow(ResourceNotFoundException::new);
-        Conta destino = repository.findContaByNumeroConta(contaDestino).orElseThrow(ResourceNotFoundException::new);
+        Medicao medicao = perfil.iniciar(PerfilOperacoes.Operacao.PIX, contaOrigem, contaDestino, valor);
+        // travadas em ordem de número, para que Pix cruzados entre as mesmas contas não entrem em deadlock
+        Conta origem;
+        Conta destino;
+        if (contaOrigem < contaDestino) {
+            origem = travar(contaOrigem);
+            destino = travar(contaDestino);
+        } else {
+            destino = travar(contaDestino);
+            origem = travar(contaOrigem);
+        }
+        medicao.concluir(Fase.CARGA);
 
+        limites.consumir(origem, Operacao.PIX, valor);
         origem.saque(valor);
-        repository.save(origem);
         destino.deposito(valor);
+        medicao.concluir(Fase.MOVIMENTACAO);
+        repository.save(origem);
         repository.save(destino);
+        medicao.concluir(Fase.GRAVACAO);
+        medicao.medirCommit();
+        eventos.publishEvent(MovimentacaoConta.de(origem, MovimentacaoConta.Tipo.PIX_ENVIADO, valor.negate()));
+        eventos.publishEvent(MovimentacaoConta.de(destino, MovimentacaoConta.Tipo.PIX_RECEBIDO, valor));
         log.info("Operação realizada com sucesso.");
         return origem.getSaldo();
     }
 
+    private Conta travar(int numeroConta) {
+        return repository.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+    }
+
 }
@@ -0,0 +1,260 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.EventoConta;
+import tech.ada.banco.model.RendimentoAplicado;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.EventoContaRepository;
+import tech.ada.banco.repository.ResumoContaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém RESUMO_CONTA fora do caminho das escritas. Saques, depósitos e Pix chegam pelo relay da outbox e
+ * só atualizam saldo e data da última movimentação; abertura, exclusão e mudança de titular apenas marcam a
+ * conta, que é relida de CONTA no próximo ciclo. O relay não é a única fonte: a conferência periódica compara
+ * os ids de EVENTO_CONTA com o último evento de cada resumo, procura contas sem resumo e resumos sem conta e
+ * relê o que encontrar, e o fim do rendimento diário dispara a reconstrução completa. Uma atualização que falha
+ * devolve as contas à marcação, para o próximo ciclo.
+ */
+@Service
+@Slf4j
+public class ProjecaoResumoContas {
+
+    private static final int TAMANHO_LOTE = 500;
+
+    private final ResumoContaRepository resumos;
+    private final ContaRepository contas;
+    private final EventoContaRepository eventos;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final Set<Integer> pendentes = ConcurrentHashMap.newKeySet();
+    private final Timer atraso;
+    private final Counter corrigidas;
+    private final Duration janelaConferencia;
+    /** Por shard, o maior id de EVENTO_CONTA visto em cada conferência ainda dentro da janela. */
+    private final List<ArrayDeque<Marca>> marcas = new ArrayList<>();
+
+    private record Marca(long momento, long id) {
+    }
+
+    public ProjecaoResumoContas(ResumoContaRepository resumos, ContaRepository contas, EventoContaRepository eventos,
+                                Shards shards, PlatformTransactionManager transactionManager, MeterRegistry registry,
+                                @Value("${banco.resumo.janela-conferencia:15m}") Duration janelaConferencia) {
+        this.resumos = resumos;
+        this.contas = contas;
+        this.eventos = eventos;
+        this.shards = shards;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.janelaConferencia = janelaConferencia;
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            marcas.add(new ArrayDeque<>());
+        }
+        this.atraso = Timer.builder("banco.resumo.atraso")
+                .description("Tempo entre a movimentação e sua aplicação em RESUMO_CONTA")
+                .register(registry);
+        this.corrigidas = Counter.builder("banco.resumo.conferencia.corrigidas")
+                .description("Contas que a conferência com EVENTO_CONTA encontrou atrás da outbox")
+                .register(registry);
+        Gauge.builder("banco.resumo.pendentes", pendentes, Set::size)
+                .description("Contas marcadas aguardando releitura para RESUMO_CONTA")
+                .register(registry);
+    }
+
+    public void contaAlterada(int numeroConta) {
+        pendentes.add(numeroConta);
+    }
+
+    /**
+     * Chamado pelo relay com os eventos já confirmados de um shard, em ordem; de cada conta só o último
+     * evento do lote é gravado, em ordem de número para que relays simultâneos travem as linhas na mesma ordem.
+     * Se a transação falhar as contas ficam marcadas para releitura, já que o relay segue adiante.
+     */
+    public void aplicar(int shard, List<EventoConta> eventos) {
+        Map<Integer, EventoConta> ultimos = new TreeMap<>();
+        for (EventoConta evento : eventos) {
+            ultimos.put(evento.getNumeroConta(), evento);
+        }
+        Instant agora = Instant.now();
+        try {
+            ShardDataSource.em(shard, () -> transacao.execute(status -> {
+                for (EventoConta evento : ultimos.values()) {
+                    if (resumos.aplicarMovimentacao(evento.getNumeroConta(), evento.getSaldo(), evento.getMomento(),
+                            evento.getId(), agora) == 0) {
+                        pendentes.add(evento.getNumeroConta());
+                    }
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            pendentes.addAll(ultimos.keySet());
+            log.warn("Falha ao aplicar {} movimentações em RESUMO_CONTA; contas marcadas para releitura.",
+                    ultimos.size(), e);
+            return;
+        }
+        for (EventoConta evento : eventos) {
+            atraso.record(Duration.between(evento.getMomento(), agora));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banco.resumo.intervalo:500}")
+    public synchronized int processarPendentes() {
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<Integer>> porShard = new TreeMap<>();
+        for (Integer numeroConta : pendentes) {
+            pendentes.remove(numeroConta);
+            porShard.computeIfAbsent(shards.shardDaConta(numeroConta), shard -> new ArrayList<>()).add(numeroConta);
+        }
+        int relidas = 0;
+        for (Map.Entry<Integer, List<Integer>> doShard : porShard.entrySet()) {
+            List<Integer> numeros = doShard.getValue();
+            Collections.sort(numeros);
+            for (int inicio = 0; inicio < numeros.size(); inicio += TAMANHO_LOTE) {
+                List<Integer> lote = numeros.subList(inicio, Math.min(inicio + TAMANHO_LOTE, numeros.size()));
+                try {
+                    ShardDataSource.em(doShard.getKey(), () -> transacao.execute(status -> {
+                        resumos.travarContas(lote);
+                        resumos.removerSemConta(lote);
+                        return resumos.reler(lote, Instant.now());
+                    }));
+                    relidas += lote.size();
+                } catch (RuntimeException e) {
+                    pendentes.addAll(lote);
+                    log.warn("Falha ao reler {} contas para RESUMO_CONTA; ficam para o próximo ciclo.", lote.size(), e);
+                }
+            }
+        }
+        return relidas;
+    }
+
+    /**
+     * Confere RESUMO_CONTA contra CONTA e contra a outbox por id: contas ativas sem resumo, resumos sem conta ativa
+     * e contas com eventos da janela que o resumo ainda não reflete são marcadas para releitura. A janela recua até
+     * o maior id visto há {@code banco.resumo.janela-conferencia}, o que cobre também os eventos confirmados fora
+     * de ordem.
+     */
+    @Scheduled(fixedDelayString = "${banco.resumo.intervalo-conferencia:60000}",
+            initialDelayString = "${banco.resumo.intervalo-conferencia:60000}")
+    public synchronized int conferir() {
+        long agora = System.currentTimeMillis();
+        int marcadas = 0;
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            marcadas += marcar(ShardDataSource.em(shard, () -> transacao.execute(status ->
+                    resumos.contasSemResumoOuSemConta())));
+            ArrayDeque<Marca> doShard = marcas.get(shard);
+            long maior = ShardDataSource.em(shard, eventos::maiorId);
+            doShard.addLast(new Marca(agora, maior));
+            Marca inicio = doShard.pollFirst();
+            while (!doShard.isEmpty() && doShard.peekFirst().momento() <= agora - janelaConferencia.toMillis()) {
+                inicio = doShard.pollFirst();
+            }
+            doShard.addFirst(inicio);
+            long desde = inicio.id();
+            if (desde >= maior) {
+                continue;
+            }
+            List<Integer> atrasadas = ShardDataSource.em(shard, () -> transacao.execute(status ->
+                    resumos.contasComEventosNaoAplicados(desde, maior)));
+            marcadas += marcar(atrasadas);
+        }
+        if (marcadas > 0) {
+            corrigidas.increment(marcadas);
+            log.warn("Conferência com EVENTO_CONTA encontrou {} contas atrás da outbox em RESUMO_CONTA.", marcadas);
+        }
+        return marcadas;
+    }
+
+    /**
+     * Marca as contas para releitura e devolve quantas ainda não estavam marcadas.
+     */
+    private int marcar(List<Integer> numeros) {
+        int novas = 0;
+        if (numeros != null) {
+            for (Integer numeroConta : numeros) {
+                if (pendentes.add(numeroConta)) {
+                    novas++;
+                }
+            }
+        }
+        return novas;
+    }
+
+    /**
+     * O rendimento publica seus lançamentos em lotes grandes que o relay pode levar minutos para alcançar; ao fim
+     * dele o resumo é refeito de uma vez, sem depender de horário fixo.
+     */
+    @EventListener
+    public void rendimentoAplicado(RendimentoAplicado rendimento) {
+        reconstruir();
+    }
+
+    /**
+     * Refaz RESUMO_CONTA de cada shard a partir de CONTA e PESSOA numa única transação por shard; as leituras
+     * continuam vendo o resumo anterior até o fim dela.
+     */
+    public synchronized int reconstruir() {
+        long inicio = System.nanoTime();
+        int total = 0;
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            total += reconstruir(shard);
+        }
+        log.info("RESUMO_CONTA reconstruído com {} contas em {} ms.", total,
+                Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        return total;
+    }
+
+    private int reconstruir(int shard) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                Integer contasDoShard = ShardDataSource.em(shard, () -> transacao.execute(status -> {
+                    resumos.deleteAllInBatch();
+                    return resumos.reconstruir(Instant.now());
+                }));
+                return contasDoShard == null ? 0 : contasDoShard;
+            } catch (DataIntegrityViolationException e) {
+                // outra instância releu uma conta durante a reconstrução; basta refazer o shard
+                if (tentativa == 3) {
+                    throw e;
+                }
+                log.warn("Reconstrução de RESUMO_CONTA no shard {} colidiu com uma atualização; repetindo.", shard);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirSeVazio() {
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            boolean vazio = Boolean.TRUE.equals(ShardDataSource.em(shard,
+                    () -> transacao.execute(status -> resumos.count() == 0 && contas.count() > 0)));
+            if (vazio) {
+                reconstruir();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.LoteRendimento;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.RendimentoAplicado;
+import tech.ada.banco.model.VariacaoRendimento;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.EventoContaRepository;
+import tech.ada.banco.repository.LoteRendimentoRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Aplica o rendimento diário às contas poupança (CP).
+ * <p>
+ * O intervalo de números de conta é dividido em lotes processados em paralelo, cada um com um único
+ * UPDATE e registrado em RENDIMENTO_LOTE na mesma transação, que também lança o rendimento de cada conta em
+ * EVENTO_CONTA (tipo RENDIMENTO), para que o saldo continue explicado pelos lançamentos, e publica o quanto somou
+ * em cada agência ({@link VariacaoRendimento}). Uma execução interrompida pode ser
+ * repetida para a mesma data: as faixas de número já registradas são puladas. Os lotes começam em múltiplos de
+ * {@code tamanho-lote}, e não na menor conta, e cada lote só atualiza o que nenhum registro da data cobre; assim a
+ * retomada continua correta se a menor conta for encerrada ou arquivada, ou se o tamanho do lote mudar.
+ * Com o particionamento ligado, cada shard tem seus próprios lotes e registros.
+ */
+@Service
+@Slf4j
+public class Rendimento {
+
+    private final ContaRepository repository;
+    private final LoteRendimentoRepository lotes;
+    private final EventoContaRepository eventos;
+    private final TransactionTemplate transaction;
+    private final BigDecimal fator;
+    private final int tamanhoLote;
+    private final int paralelismo;
+    private final long pausaEntreLotes;
+    private final Shards shards;
+    private final ApplicationEventPublisher publicador;
+
+    public Rendimento(ContaRepository repository, LoteRendimentoRepository lotes, EventoContaRepository eventos,
+                      PlatformTransactionManager transactionManager, ApplicationEventPublisher publicador,
+                      @Value("${banco.rendimento.taxa-diaria:0.0002}") BigDecimal taxaDiaria,
+                      @Value("${banco.rendimento.tamanho-lote:10000}") int tamanhoLote,
+                      @Value("${banco.rendimento.paralelismo:2}") int paralelismo,
+                      @Value("${banco.rendimento.pausa-entre-lotes:0}") long pausaEntreLotes,
+                      Shards shards) {
+        this.repository = repository;
+        this.lotes = lotes;
+        this.eventos = eventos;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.fator = BigDecimal.ONE.add(taxaDiaria);
+        this.tamanhoLote = tamanhoLote;
+        this.paralelismo = paralelismo;
+        this.pausaEntreLotes = pausaEntreLotes;
+        this.shards = shards;
+        this.publicador = publicador;
+    }
+
+    @Scheduled(cron = "${banco.rendimento.cron:0 0 2 * * *}")
+    public void executarAgendado() {
+        executar(LocalDate.now());
+    }
+
+    public Resultado executar(LocalDate dataReferencia) {
+        long inicio = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo);
+        try {
+            List<Future<Integer>> pendentes = new ArrayList<>();
+            for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+                int destino = shard;
+                Integer menor = ShardDataSource.em(destino, () -> repository.menorNumeroConta(ModalidadeConta.CP))
+                        .orElse(null);
+                Integer maior = ShardDataSource.em(destino, () -> repository.maiorNumeroConta(ModalidadeConta.CP))
+                        .orElse(null);
+                if (menor == null || maior == null) {
+                    continue;
+                }
+                for (long lote = Math.floorDiv((long) menor, tamanhoLote) * tamanhoLote; lote <= maior;
+                     lote += tamanhoLote) {
+                    int de = (int) lote;
+                    int ate = (int) Math.min(lote + tamanhoLote - 1, maior);
+                    pendentes.add(executor.submit(() -> ShardDataSource.em(destino,
+                            () -> processarLote(dataReferencia, de, ate))));
+                }
+            }
+
+            int contas = 0;
+            for (Future<Integer> pendente : pendentes) {
+                contas += pendente.get();
+            }
+
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            Resultado resultado = new Resultado(pendentes.size(), contas, duracao);
+            log.info("Rendimento de {} aplicado em {} contas ({} lotes) em {} ms, {} contas/s.", dataReferencia,
+                    contas, pendentes.size(), duracao.toMillis(), resultado.contasPorSegundo());
+            publicador.publishEvent(new RendimentoAplicado(dataReferencia, contas));
+            return resultado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Execução do rendimento interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao aplicar rendimento.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int processarLote(LocalDate dataReferencia, int inicio, int fim) {
+        Integer contas = transaction.execute(status -> {
+            int atualizadas = 0;
+            long pendente = inicio;
+            for (LoteRendimento registrado : lotes.sobrepostos(dataReferencia, inicio, fim)) {
+                if (registrado.getInicio() > pendente) {
+                    atualizadas += aplicar(dataReferencia, (int) pendente, registrado.getInicio() - 1);
+                }
+                pendente = Math.max(pendente, registrado.getFim() + 1L);
+            }
+            if (pendente <= fim) {
+                atualizadas += aplicar(dataReferencia, (int) pendente, fim);
+            }
+            return atualizadas;
+        });
+        if (pausaEntreLotes > 0) {
+            try {
+                Thread.sleep(pausaEntreLotes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return contas == null ? 0 : contas;
+    }
+
+    private int aplicar(LocalDate dataReferencia, int inicio, int fim) {
+        repository.travarParaRendimento(ModalidadeConta.CP.name(), inicio, fim);
+        for (Object[] variacao : repository.variacaoRendimento(ModalidadeConta.CP.name(), fator, inicio, fim)) {
+            publicador.publishEvent(new VariacaoRendimento((String) variacao[0], ModalidadeConta.CP,
+                    (BigDecimal) variacao[1]));
+        }
+        eventos.lancarRendimento(ModalidadeConta.CP.name(), fator, inicio, fim, Instant.now());
+        int atualizadas = repository.aplicarRendimento(ModalidadeConta.CP.name(), fator, inicio, fim);
+        lotes.save(new LoteRendimento(dataReferencia, inicio, fim, atualizadas));
+        return atualizadas;
+    }
+
+    public record Resultado(int lotes, int contas, Duration duracao) {
+
+        public long contasPorSegundo() {
+            long millis = Math.max(duracao.toMillis(), 1);
+            return contas * 1000L / millis;
+        }
+    }
+}
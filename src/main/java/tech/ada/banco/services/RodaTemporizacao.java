@@ -0,0 +1,156 @@
+package tech.ada.banco.services;
+
+import java.util.Arrays;
+
+/**
+ * Roda de temporização hierárquica para os prazos dos bloqueios. O nível 0 tem 256 posições de um tique; cada
+ * um dos três níveis seguintes tem 64 posições que cobrem uma volta inteira do nível anterior, o que alcança
+ * 2^26 tiques (cerca de dois anos com tiques de um segundo). Prazos mais distantes ficam na última posição do
+ * nível mais alto e são redistribuídos a cada volta dele.
+ * <p>
+ * Agendar custa O(1) e avançar custa O(1) por tique mais o que vence ou desce de nível. Cada posição guarda
+ * id, conta e prazo em arrays primitivos, cerca de 20 bytes por bloqueio, sem objeto por entrada.
+ */
+final class RodaTemporizacao {
+
+    interface Vencimento {
+
+        void vencido(long id, int numeroConta);
+    }
+
+    private static final int[] BITS = {8, 6, 6, 6};
+    private static final int[] DESLOCAMENTO = {0, 8, 14, 20};
+    private static final int ALCANCE = 26;
+
+    private final long tique;
+    private final Posicao[][] niveis = new Posicao[BITS.length][];
+    private long atual;
+    private long agendados;
+
+    RodaTemporizacao(long tiqueMillis, long agora) {
+        this.tique = tiqueMillis;
+        this.atual = agora / tiqueMillis;
+        for (int nivel = 0; nivel < BITS.length; nivel++) {
+            niveis[nivel] = new Posicao[1 << BITS[nivel]];
+            for (int i = 0; i < niveis[nivel].length; i++) {
+                niveis[nivel][i] = new Posicao();
+            }
+        }
+    }
+
+    /**
+     * Prazos já passados vencem no próximo {@link #avancar}.
+     */
+    synchronized void agendar(long id, int numeroConta, long prazoMillis) {
+        long prazo = Math.max(Math.floorDiv(prazoMillis + tique - 1, tique), atual + 1);
+        inserir(id, numeroConta, prazo);
+        agendados++;
+    }
+
+    /**
+     * Avança a roda até {@code agora} e entrega os vencidos, fora do lock, para que o tratamento possa ir ao
+     * banco sem segurar os agendamentos.
+     */
+    void avancar(long agora, Vencimento vencimento) {
+        Posicao vencidos = coletar(agora / tique);
+        for (int i = 0; i < vencidos.tamanho; i++) {
+            vencimento.vencido(vencidos.ids[i], vencidos.contas[i]);
+        }
+    }
+
+    synchronized long getAgendados() {
+        return agendados;
+    }
+
+    private synchronized Posicao coletar(long alvo) {
+        Posicao vencidos = new Posicao();
+        while (atual < alvo) {
+            atual++;
+            for (int nivel = BITS.length - 1; nivel > 0; nivel--) {
+                if ((atual & ((1L << DESLOCAMENTO[nivel]) - 1)) == 0) {
+                    redistribuir(niveis[nivel][indice(nivel, atual)]);
+                }
+            }
+            Posicao posicao = niveis[0][indice(0, atual)];
+            for (int i = 0; i < posicao.tamanho; i++) {
+                if (posicao.prazos[i] <= atual) {
+                    vencidos.adicionar(posicao.ids[i], posicao.contas[i], posicao.prazos[i]);
+                    agendados--;
+                } else {
+                    inserir(posicao.ids[i], posicao.contas[i], posicao.prazos[i]);
+                }
+            }
+            posicao.esvaziar();
+        }
+        return vencidos;
+    }
+
+    private void redistribuir(Posicao posicao) {
+        if (posicao.tamanho == 0) {
+            return;
+        }
+        Posicao copia = posicao.copiar();
+        posicao.esvaziar();
+        for (int i = 0; i < copia.tamanho; i++) {
+            inserir(copia.ids[i], copia.contas[i], copia.prazos[i]);
+        }
+    }
+
+    private void inserir(long id, int numeroConta, long prazo) {
+        long alvo = Math.min(prazo, atual + (1L << ALCANCE) - 1);
+        long distancia = alvo - atual;
+        int nivel = 0;
+        while (nivel < BITS.length - 1 && distancia >= 1L << (DESLOCAMENTO[nivel] + BITS[nivel])) {
+            nivel++;
+        }
+        niveis[nivel][indice(nivel, alvo)].adicionar(id, numeroConta, prazo);
+    }
+
+    private static int indice(int nivel, long tique) {
+        return (int) ((tique >>> DESLOCAMENTO[nivel]) & ((1 << BITS[nivel]) - 1));
+    }
+
+    private static final class Posicao {
+
+        private static final int CAPACIDADE_INICIAL = 4;
+
+        private long[] ids = new long[CAPACIDADE_INICIAL];
+        private int[] contas = new int[CAPACIDADE_INICIAL];
+        private long[] prazos = new long[CAPACIDADE_INICIAL];
+        private int tamanho;
+
+        void adicionar(long id, int numeroConta, long prazo) {
+            if (tamanho == ids.length) {
+                int capacidade = tamanho * 2;
+                ids = Arrays.copyOf(ids, capacidade);
+                contas = Arrays.copyOf(contas, capacidade);
+                prazos = Arrays.copyOf(prazos, capacidade);
+            }
+            ids[tamanho] = id;
+            contas[tamanho] = numeroConta;
+            prazos[tamanho] = prazo;
+            tamanho++;
+        }
+
+        Posicao copiar() {
+            Posicao copia = new Posicao();
+            copia.ids = Arrays.copyOf(ids, tamanho);
+            copia.contas = Arrays.copyOf(contas, tamanho);
+            copia.prazos = Arrays.copyOf(prazos, tamanho);
+            copia.tamanho = tamanho;
+            return copia;
+        }
+
+        /**
+         * Devolve a memória de posições que cresceram num pico, em vez de mantê-la até a próxima volta.
+         */
+        void esvaziar() {
+            tamanho = 0;
+            if (ids.length > CAPACIDADE_INICIAL) {
+                ids = new long[CAPACIDADE_INICIAL];
+                contas = new int[CAPACIDADE_INICIAL];
+                prazos = new long[CAPACIDADE_INICIAL];
+            }
+        }
+    }
+}
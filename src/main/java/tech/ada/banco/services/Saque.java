@@ -1,31 +1,52 @@
 package tech.ada.banco.services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
 import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+import tech.ada.banco.services.PerfilOperacoes.Fase;
+import tech.ada.banco.services.PerfilOperacoes.Medicao;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 @Service
 @Slf4j
-public final class Saque {
+public class Saque {
 
     private final ContaRepository repository;
+    private final LimitesMovimentacao limites;
+    private final ApplicationEventPublisher eventos;
+    private final PerfilOperacoes perfil;
 
-    public Saque(ContaRepository repository) {
+    public Saque(ContaRepository repository, LimitesMovimentacao limites, ApplicationEventPublisher eventos,
+                 PerfilOperacoes perfil) {
         this.repository = repository;
+        this.limites = limites;
+        this.eventos = eventos;
+        this.perfil = perfil;
     }
 
+    @Transactional
     public BigDecimal executar(int numeroConta, BigDecimal valor) {
         valor = valor.setScale(2, RoundingMode.HALF_EVEN);
+        Medicao medicao = perfil.iniciar(PerfilOperacoes.Operacao.SAQUE, numeroConta, 0, valor);
 
-        Conta conta = repository.findContaByNumeroConta(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        Conta conta = repository.travar(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        medicao.concluir(Fase.CARGA);
 
+        limites.consumir(conta, Operacao.SAQUE, valor);
         conta.saque(valor);
+        medicao.concluir(Fase.MOVIMENTACAO);
         repository.save(conta);
+        medicao.concluir(Fase.GRAVACAO);
+        medicao.medirCommit();
+        eventos.publishEvent(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.SAQUE, valor.negate()));
         log.info("O saldo resultante após o saque é de R$ {}", conta.getSaldo());
         return conta.getSaldo();
     }
@@ -0,0 +1,490 @@
+package tech.ada.banco.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.model.VariacaoRendimento;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Totais de contas, saldo e depósitos por agência e modalidade, sem somar CONTA a cada consulta.
+ * <p>
+ * Cada instância acumula as variações que confirmou em {@link LongAdder}s e soma periodicamente a parte
+ * ainda não gravada em TOTAL_AGENCIA; a consulta devolve o que foi lido da tabela na última gravação mais
+ * essa parte pendente. O rendimento diário entra como variação ({@link VariacaoRendimento}). Contas e saldo são
+ * refeitos a partir de CONTA na subida; depósitos são um acumulado e não são recalculados.
+ * <p>
+ * A soma de CONTA já inclui as variações confirmadas e ainda não gravadas, desta e das outras instâncias. Por
+ * isso cada variação é confirmada com a guarda de leitura e só depois de a instância estar marcada como pendente
+ * em TOTAL_AGENCIA_INSTANCIA; a reconciliação fotografa as variações locais e soma CONTA com a guarda de escrita
+ * e com as linhas de todas as instâncias travadas, e só refaz a tabela se nenhuma outra estiver pendente.
+ * Uma instância ocupada continua marcada, então a reconciliação espera as outras passarem um intervalo de
+ * gravação sem variações; até lá fica adiada e é tentada de novo a cada gravação.
+ */
+@Service
+@Slf4j
+public class TotaisAgencia {
+
+    private static final String SOMAR = "update TOTAL_AGENCIA set CONTAS = CONTAS + ?, SALDO = SALDO + ?, "
+            + "DEPOSITOS = DEPOSITOS + ?, ATUALIZADO_EM = ? where AGENCIA = ? and TIPO = ?";
+
+    private static final String INSERIR = "insert into TOTAL_AGENCIA (AGENCIA, TIPO, CONTAS, SALDO, DEPOSITOS, "
+            + "ATUALIZADO_EM) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String SOMAR_DEPOSITOS = "update TOTAL_AGENCIA set DEPOSITOS = DEPOSITOS + ?, "
+            + "ATUALIZADO_EM = ? where AGENCIA = ? and TIPO = ?";
+
+    private static final String SELECT = "select AGENCIA, TIPO, CONTAS, SALDO, DEPOSITOS from TOTAL_AGENCIA";
+
+    private static final String SOMA_CONTAS = "select AGENCIA, TIPO, count(*), coalesce(sum(SALDO), 0) from CONTA "
+            + "where SITUACAO = 'ATIVA' group by AGENCIA, TIPO";
+
+    private static final String MARCAR = "update TOTAL_AGENCIA_INSTANCIA set PENDENTE = ?, ATUALIZADO_EM = ? "
+            + "where INSTANCIA = ?";
+
+    private static final String INSERIR_MARCA = "insert into TOTAL_AGENCIA_INSTANCIA (INSTANCIA, PENDENTE, "
+            + "ATUALIZADO_EM) values (?, ?, ?)";
+
+    private static final String TRAVAR_MARCAS = "select INSTANCIA, PENDENTE, ATUALIZADO_EM "
+            + "from TOTAL_AGENCIA_INSTANCIA for update";
+
+    private final Map<Chave, Totais> totais = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacao;
+    private final TransactionTemplate transacaoNova;
+    private final Shards shards;
+    private final long intervaloGravacao;
+    private final String instancia = UUID.randomUUID().toString();
+    // leitura: confirmar uma variação e somá-la aos acumuladores; escrita: gravar ou reconciliar
+    private final ReentrantReadWriteLock guarda = new ReentrantReadWriteLock();
+    // a linha da instância já diz que há variações pendentes
+    private volatile boolean marcada;
+    // houve variação desde a última gravação
+    private volatile boolean ativa;
+    private volatile boolean reconciliacaoAdiada;
+
+    public TotaisAgencia(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, Shards shards,
+                         @Value("${banco.totais.intervalo-gravacao:5000}") long intervaloGravacao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacaoNova = new TransactionTemplate(transactionManager);
+        this.transacaoNova.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards;
+        this.intervaloGravacao = intervaloGravacao;
+    }
+
+    public record Total(String agencia, ModalidadeConta modalidade, long contas, BigDecimal saldo,
+                        BigDecimal depositos) {
+    }
+
+    private record Chave(String agencia, ModalidadeConta modalidade) {
+    }
+
+    /**
+     * A linha da instância existe antes da primeira variação: a reconciliação trava as linhas existentes, e uma
+     * inserida durante a soma não a deteria.
+     */
+    @PostConstruct
+    public void registrar() {
+        ShardDataSource.em(0, () -> transacao.execute(status -> {
+            marcar(false, Timestamp.from(Instant.now()));
+            return null;
+        }));
+    }
+
+    @EventListener
+    public void movimentacao(MovimentacaoConta movimentacao) {
+        long centavos = IndiceSaldos.centavos(movimentacao.valor());
+        boolean deposito = movimentacao.tipo() == MovimentacaoConta.Tipo.DEPOSITO;
+        aoConfirmarVariacao(() -> {
+            Totais doGrupo = totais(movimentacao.agencia(), movimentacao.modalidade());
+            doGrupo.saldo.add(centavos);
+            if (deposito) {
+                doGrupo.depositos.add(centavos);
+            }
+        });
+    }
+
+    @EventListener
+    public void rendimento(VariacaoRendimento variacao) {
+        long centavos = IndiceSaldos.centavos(variacao.valor());
+        aoConfirmarVariacao(() -> totais(variacao.agencia(), variacao.modalidade()).saldo.add(centavos));
+    }
+
+    /**
+     * Abre a conta com {@code abertura}, que confirma a própria transação, e soma a conta aos totais sob a mesma
+     * guarda das movimentações.
+     */
+    public Conta abrir(Supplier<Conta> abertura) {
+        return comGuarda(() -> {
+            Conta conta = abertura.get();
+            Totais doGrupo = totais(conta.getAgencia(), conta.getTipo());
+            doGrupo.contas.increment();
+            doGrupo.saldo.add(IndiceSaldos.centavos(conta.getSaldo()));
+            return conta;
+        });
+    }
+
+    /**
+     * Encerra a conta com {@code encerramento}, que confirma a própria transação, e a tira dos totais sob a mesma
+     * guarda das movimentações.
+     */
+    public Conta encerrar(Supplier<Conta> encerramento) {
+        return comGuarda(() -> {
+            Conta conta = encerramento.get();
+            Totais doGrupo = totais(conta.getAgencia(), conta.getTipo());
+            doGrupo.contas.decrement();
+            doGrupo.saldo.add(-IndiceSaldos.centavos(conta.getSaldo()));
+            return conta;
+        });
+    }
+
+    public List<Total> consultar() {
+        return totais.entrySet().stream()
+                .map(entrada -> entrada.getValue().total(entrada.getKey()))
+                .sorted(Comparator.comparing(Total::agencia).thenComparing(Total::modalidade))
+                .toList();
+    }
+
+    /**
+     * Soma à tabela as variações pendentes. A instância só é desmarcada, na mesma transação, depois de um intervalo
+     * inteiro sem variações: ocupada, continua marcada e as movimentações não pagam o comando da marca. A guarda de
+     * escrita fica presa até a confirmação, para que nenhuma variação seja confirmada entre a fotografia e a
+     * desmarcação.
+     */
+    @Scheduled(fixedDelayString = "${banco.totais.intervalo-gravacao:5000}")
+    public synchronized void gravar() {
+        guarda.writeLock().lock();
+        try {
+            Timestamp agora = Timestamp.from(Instant.now());
+            ShardDataSource.em(0, () -> transacao.execute(status -> {
+                if (marcada && !ativa) {
+                    // antes de TOTAL_AGENCIA: uma reconciliação em outra instância trava as marcas primeiro
+                    marcar(false, agora);
+                    marcada = false;
+                }
+                ativa = false;
+                Map<Chave, long[]> gravados = new HashMap<>();
+                totais.forEach((chave, doGrupo) -> {
+                    long[] atuais = doGrupo.gravarPendente(chave, agora);
+                    if (atuais != null) {
+                        gravados.put(chave, atuais);
+                    }
+                });
+                aoConfirmar(gravados);
+                return null;
+            }));
+        } finally {
+            guarda.writeLock().unlock();
+        }
+        if (reconciliacaoAdiada) {
+            tentarReconciliar();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!tentarReconciliar()) {
+            log.info("Reconciliação dos totais por agência adiada: outras instâncias têm variações pendentes.");
+        }
+    }
+
+    /**
+     * Refaz contas e saldo de TOTAL_AGENCIA com a soma de CONTA em todos os shards, esperando até duas gravações
+     * para que as outras instâncias deixem de ter variações pendentes; se ainda houver, a reconciliação fica
+     * adiada para as próximas gravações e o retorno é {@code false}.
+     */
+    public boolean reconciliar() {
+        long limite = System.currentTimeMillis() + 2 * intervaloGravacao;
+        while (!tentarReconciliar()) {
+            if (System.currentTimeMillis() >= limite) {
+                log.warn("Reconciliação dos totais por agência adiada: outras instâncias têm variações pendentes.");
+                return false;
+            }
+            try {
+                Thread.sleep(Math.max(1, intervaloGravacao / 20));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Com a guarda de escrita e as marcas de todas as instâncias travadas, nenhuma variação é confirmada entre a
+     * fotografia e a soma; as variações locais fotografadas são marcadas como gravadas junto com a nova tabela,
+     * já que a soma as inclui. Uma marca pendente mais velha que três gravações é de uma instância que parou, e
+     * as variações que ela não gravou só existem na soma.
+     */
+    private synchronized boolean tentarReconciliar() {
+        guarda.writeLock().lock();
+        try {
+            Timestamp agora = Timestamp.from(Instant.now());
+            Timestamp viva = Timestamp.from(agora.toInstant().minusMillis(3 * intervaloGravacao));
+            Integer grupos = ShardDataSource.em(0, () -> transacao.execute(status -> {
+                boolean outraPendente = jdbcTemplate.query(TRAVAR_MARCAS, (rs, linha) ->
+                        !instancia.equals(rs.getString(1)) && rs.getBoolean(2)
+                                && !rs.getTimestamp(3).before(viva)).contains(true);
+                if (outraPendente) {
+                    return null;
+                }
+                Map<Chave, long[]> fotografia = new HashMap<>();
+                totais.forEach((chave, doGrupo) -> fotografia.put(chave, doGrupo.acumulados()));
+                Map<Chave, long[]> somas = somarContas();
+                // depósitos não são recalculados: a parte pendente é somada à tabela como na gravação
+                fotografia.forEach((chave, atuais) -> {
+                    long novosDepositos = totais.get(chave).depositosPendentes(atuais);
+                    if (jdbcTemplate.update(SOMAR_DEPOSITOS, BigDecimal.valueOf(novosDepositos, 2), agora,
+                            chave.agencia(), chave.modalidade().name()) == 0) {
+                        jdbcTemplate.update(INSERIR, chave.agencia(), chave.modalidade().name(), 0, BigDecimal.ZERO,
+                                BigDecimal.valueOf(novosDepositos, 2), agora);
+                    }
+                });
+                jdbcTemplate.update("update TOTAL_AGENCIA set CONTAS = 0, SALDO = 0, ATUALIZADO_EM = ?", agora);
+                somas.forEach((chave, soma) -> {
+                    if (jdbcTemplate.update(
+                            "update TOTAL_AGENCIA set CONTAS = ?, SALDO = ? where AGENCIA = ? and TIPO = ?",
+                            soma[0], BigDecimal.valueOf(soma[1], 2), chave.agencia(),
+                            chave.modalidade().name()) == 0) {
+                        jdbcTemplate.update(INSERIR, chave.agencia(), chave.modalidade().name(), soma[0],
+                                BigDecimal.valueOf(soma[1], 2), BigDecimal.ZERO, agora);
+                    }
+                });
+                if (marcada) {
+                    marcar(false, agora);
+                    marcada = false;
+                }
+                aoConfirmar(fotografia);
+                return somas.size();
+            }));
+            if (grupos == null) {
+                reconciliacaoAdiada = true;
+                return false;
+            }
+            reconciliacaoAdiada = false;
+            log.info("Totais por agência reconciliados: {} grupos.", grupos);
+            return true;
+        } finally {
+            guarda.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Soma CONTA em cada shard numa transação própria, fora da que trava as marcas no shard 0.
+     */
+    private Map<Chave, long[]> somarContas() {
+        Map<Chave, long[]> somas = new HashMap<>();
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            ShardDataSource.em(shard, () -> transacaoNova.execute(status -> {
+                jdbcTemplate.query(SOMA_CONTAS, rs -> {
+                    long[] soma = somas.computeIfAbsent(
+                            new Chave(rs.getString(1), ModalidadeConta.valueOf(rs.getString(2))), chave -> new long[2]);
+                    soma[0] += rs.getLong(3);
+                    soma[1] += IndiceSaldos.centavos(rs.getBigDecimal(4));
+                });
+                return null;
+            }));
+        }
+        return somas;
+    }
+
+    /**
+     * Soma a variação aos acumuladores depois que a transação corrente confirmar. A guarda de leitura é tomada
+     * antes da confirmação e solta depois da soma, e a instância é marcada como pendente antes de confirmar; sem
+     * transação, a variação já está confirmada por quem chamou.
+     */
+    private void aoConfirmarVariacao(Runnable variacao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            comGuarda(() -> {
+                variacao.run();
+                return null;
+            });
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean travada;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                guarda.readLock().lock();
+                travada = true;
+                marcarPendente();
+            }
+
+            @Override
+            public void afterCommit() {
+                variacao.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (travada) {
+                    guarda.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private <T> T comGuarda(Supplier<T> operacao) {
+        guarda.readLock().lock();
+        try {
+            marcarPendente();
+            return operacao.get();
+        } finally {
+            guarda.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marca a instância como pendente em transação própria no shard 0, na primeira variação depois de um intervalo
+     * ocioso; chamado com a guarda de leitura, espera uma reconciliação em andamento em outra instância terminar.
+     */
+    private void marcarPendente() {
+        if (!ativa) {
+            ativa = true;
+        }
+        if (marcada) {
+            return;
+        }
+        Timestamp agora = Timestamp.from(Instant.now());
+        ShardDataSource.em(0, () -> transacaoNova.execute(status -> {
+            marcar(true, agora);
+            return null;
+        }));
+        marcada = true;
+    }
+
+    private void marcar(boolean pendente, Timestamp agora) {
+        if (jdbcTemplate.update(MARCAR, pendente, agora, instancia) == 0) {
+            jdbcTemplate.update(INSERIR_MARCA, instancia, pendente, agora);
+        }
+    }
+
+    /**
+     * As variações só passam a contar como gravadas depois que a transação confirma; se ela for desfeita,
+     * continuam pendentes para a próxima gravação.
+     */
+    private void aoConfirmar(Map<Chave, long[]> gravados) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                carregarTabela(gravados);
+            }
+        });
+    }
+
+    /**
+     * Lê a tabela e, para os grupos cujas variações acabaram de ser gravadas, marca essas variações como
+     * gravadas junto com os novos valores da tabela, para que a consulta não as conte duas vezes.
+     */
+    private void carregarTabela(Map<Chave, long[]> gravados) {
+        ShardDataSource.em(0, () -> {
+            jdbcTemplate.query(SELECT, rs -> {
+                Chave chave = new Chave(rs.getString(1), ModalidadeConta.valueOf(rs.getString(2)));
+                totais(chave.agencia(), chave.modalidade()).carregar(rs.getLong(3),
+                        IndiceSaldos.centavos(rs.getBigDecimal(4)), IndiceSaldos.centavos(rs.getBigDecimal(5)),
+                        gravados.get(chave));
+            });
+            return null;
+        });
+    }
+
+    private Totais totais(String agencia, ModalidadeConta modalidade) {
+        return totais.computeIfAbsent(new Chave(agencia, modalidade), chave -> new Totais());
+    }
+
+    private final class Totais {
+
+        // variações confirmadas por esta instância desde a subida
+        private final LongAdder contas = new LongAdder();
+        private final LongAdder saldo = new LongAdder();
+        private final LongAdder depositos = new LongAdder();
+
+        // parte dessas variações já somada à tabela e valores da tabela na última leitura, trocados juntos
+        private long contasGravadas;
+        private long saldoGravado;
+        private long depositosGravados;
+        private long contasTabela;
+        private long saldoTabela;
+        private long depositosTabela;
+
+        private synchronized Total total(Chave chave) {
+            return new Total(chave.agencia(), chave.modalidade(),
+                    contasTabela + contas.sum() - contasGravadas,
+                    BigDecimal.valueOf(saldoTabela + saldo.sum() - saldoGravado, 2),
+                    BigDecimal.valueOf(depositosTabela + depositos.sum() - depositosGravados, 2));
+        }
+
+        private long[] acumulados() {
+            return new long[]{contas.sum(), saldo.sum(), depositos.sum()};
+        }
+
+        private synchronized long depositosPendentes(long[] atuais) {
+            return atuais[2] - depositosGravados;
+        }
+
+        /**
+         * Soma à tabela as variações ainda não gravadas e devolve os acumulados usados, ou {@code null} se não
+         * havia nada a gravar.
+         */
+        private long[] gravarPendente(Chave chave, Timestamp agora) {
+            long[] atuais = acumulados();
+            long novasContas;
+            long variacaoSaldo;
+            long novosDepositos;
+            synchronized (this) {
+                novasContas = atuais[0] - contasGravadas;
+                variacaoSaldo = atuais[1] - saldoGravado;
+                novosDepositos = atuais[2] - depositosGravados;
+            }
+            if (novasContas == 0 && variacaoSaldo == 0 && novosDepositos == 0) {
+                return null;
+            }
+            if (jdbcTemplate.update(SOMAR, novasContas, BigDecimal.valueOf(variacaoSaldo, 2),
+                    BigDecimal.valueOf(novosDepositos, 2), agora, chave.agencia(), chave.modalidade().name()) == 0) {
+                jdbcTemplate.update(INSERIR, chave.agencia(), chave.modalidade().name(), novasContas,
+                        BigDecimal.valueOf(variacaoSaldo, 2), BigDecimal.valueOf(novosDepositos, 2), agora);
+            }
+            return atuais;
+        }
+
+        private synchronized void carregar(long contas, long saldo, long depositos, long[] gravados) {
+            contasTabela = contas;
+            saldoTabela = saldo;
+            depositosTabela = depositos;
+            if (gravados != null) {
+                contasGravadas = gravados[0];
+                saldoGravado = gravados[1];
+                depositosGravados = gravados[2];
+            }
+        }
+    }
+}
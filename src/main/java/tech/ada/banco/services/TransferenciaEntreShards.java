@@ -0,0 +1,190 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.config.ShardDataSource;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.TransferenciaPendenteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.model.TransferenciaShard;
+import tech.ada.banco.model.TransferenciaShard.Situacao;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.TransferenciaShardRepository;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Pix entre contas de shards diferentes, em duas transações locais: débito da origem com registro
+ * DEBITADA no shard de origem, depois crédito do destino com registro CREDITADA no shard de destino. Se o
+ * destino recusar o crédito o débito é estornado; se o crédito falhar por outro motivo a transferência fica
+ * DEBITADA, o chamador recebe {@link TransferenciaPendenteException} com o saldo da origem, e ela é concluída
+ * pela recuperação, que roda na subida e periodicamente.
+ */
+@Service
+@Slf4j
+public class TransferenciaEntreShards {
+
+    private final ContaRepository repository;
+    private final TransferenciaShardRepository transferencias;
+    private final LimitesMovimentacao limites;
+    private final ApplicationEventPublisher eventos;
+    private final Shards shards;
+    private final TransactionTemplate transacao;
+    private final Duration esperaRecuperacao;
+
+    public TransferenciaEntreShards(ContaRepository repository, TransferenciaShardRepository transferencias,
+                                    LimitesMovimentacao limites, ApplicationEventPublisher eventos, Shards shards,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${banco.shards.espera-recuperacao:60000}") long esperaRecuperacao) {
+        this.repository = repository;
+        this.transferencias = transferencias;
+        this.limites = limites;
+        this.eventos = eventos;
+        this.shards = shards;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.esperaRecuperacao = Duration.ofMillis(esperaRecuperacao);
+    }
+
+    public BigDecimal executar(int contaOrigem, int contaDestino, BigDecimal valor) {
+        if (!noShard(shards.shardDaConta(contaDestino), () -> repository.existsById(contaDestino))) {
+            throw new ResourceNotFoundException();
+        }
+
+        TransferenciaShard transferencia = new TransferenciaShard(UUID.randomUUID().toString(), contaOrigem,
+                contaDestino, valor, Situacao.DEBITADA);
+        BigDecimal saldo = noShard(shards.shardDaConta(contaOrigem), () -> debitar(transferencia));
+        try {
+            noShard(shards.shardDaConta(contaDestino), () -> creditar(transferencia));
+        } catch (ResourceNotFoundException | ValorInvalidoException e) {
+            estornar(transferencia);
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Crédito da transferência {} pendente; será concluído pela recuperação.", transferencia.getId(), e);
+            throw new TransferenciaPendenteException(saldo);
+        }
+        concluir(transferencia);
+        return saldo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarNaSubida() {
+        recuperar(Duration.ZERO);
+    }
+
+    @Scheduled(fixedDelayString = "${banco.shards.intervalo-recuperacao:30000}",
+            initialDelayString = "${banco.shards.intervalo-recuperacao:30000}")
+    public void recuperarAgendado() {
+        recuperar(esperaRecuperacao);
+    }
+
+    /**
+     * Conclui ou estorna as transferências DEBITADA mais antigas que {@code espera}.
+     */
+    public int recuperar(Duration espera) {
+        if (shards.getQuantidade() == 1) {
+            return 0;
+        }
+        Instant limite = Instant.now().minus(espera);
+        int recuperadas = 0;
+        for (int shard = 0; shard < shards.getQuantidade(); shard++) {
+            List<TransferenciaShard> pendentes = noShard(shard,
+                    () -> transferencias.findBySituacaoAndMomentoBefore(Situacao.DEBITADA, limite));
+            for (TransferenciaShard transferencia : pendentes) {
+                try {
+                    noShard(shards.shardDaConta(transferencia.getContaDestino()), () -> creditar(transferencia));
+                    concluir(transferencia);
+                } catch (ResourceNotFoundException | ValorInvalidoException e) {
+                    estornar(transferencia);
+                } catch (RuntimeException e) {
+                    log.warn("Transferência {} continua pendente.", transferencia.getId(), e);
+                    continue;
+                }
+                recuperadas++;
+            }
+        }
+        if (recuperadas > 0) {
+            log.info("{} transferências entre shards recuperadas.", recuperadas);
+        }
+        return recuperadas;
+    }
+
+    private BigDecimal debitar(TransferenciaShard transferencia) {
+        Conta origem = repository.travar(transferencia.getContaOrigem())
+                .orElseThrow(ResourceNotFoundException::new);
+        // o consumo fica na fatia do momento da transferência, de onde o estorno o retira
+        limites.consumir(origem, Operacao.PIX, transferencia.getValor(), transferencia.getMomento().toEpochMilli());
+        origem.saque(transferencia.getValor());
+        repository.save(origem);
+        transferencias.save(transferencia);
+        eventos.publishEvent(MovimentacaoConta.de(origem, MovimentacaoConta.Tipo.PIX_ENVIADO,
+                transferencia.getValor().negate()));
+        return origem.getSaldo();
+    }
+
+    private Void creditar(TransferenciaShard transferencia) {
+        if (transferencias.existsById(transferencia.getId())) {
+            return null;
+        }
+        Conta destino = repository.travar(transferencia.getContaDestino())
+                .orElseThrow(ResourceNotFoundException::new);
+        destino.deposito(transferencia.getValor());
+        repository.save(destino);
+        transferencias.save(transferencia.credito());
+        eventos.publishEvent(MovimentacaoConta.de(destino, MovimentacaoConta.Tipo.PIX_RECEBIDO,
+                transferencia.getValor()));
+        return null;
+    }
+
+    private void concluir(TransferenciaShard transferencia) {
+        try {
+            noShard(shards.shardDaConta(transferencia.getContaOrigem()), () -> {
+                transferencias.findById(transferencia.getId()).ifPresent(t -> t.setSituacao(Situacao.CONCLUIDA));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // o crédito já está gravado; a recuperação encontra a linha CREDITADA e apenas conclui
+            log.warn("Não foi possível concluir a transferência {}.", transferencia.getId(), e);
+        }
+    }
+
+    private void estornar(TransferenciaShard transferencia) {
+        noShard(shards.shardDaConta(transferencia.getContaOrigem()), () -> {
+            TransferenciaShard registrada = transferencias.findById(transferencia.getId()).orElse(null);
+            if (registrada == null || registrada.getSituacao() != Situacao.DEBITADA) {
+                return null;
+            }
+            Conta origem = repository.travar(registrada.getContaOrigem())
+                    .orElseThrow(ResourceNotFoundException::new);
+            origem.deposito(registrada.getValor());
+            repository.save(origem);
+            limites.estornar(origem, Operacao.PIX, registrada.getValor(), registrada.getMomento().toEpochMilli());
+            registrada.setSituacao(Situacao.ESTORNADA);
+            eventos.publishEvent(MovimentacaoConta.de(origem, MovimentacaoConta.Tipo.PIX_ESTORNADO,
+                    registrada.getValor()));
+            log.info("Transferência {} estornada.", registrada.getId());
+            return null;
+        });
+    }
+
+    private <T> T noShard(int shard, Supplier<T> operacao) {
+        return ShardDataSource.em(shard, () -> transacao.execute(status -> operacao.get()));
+    }
+}
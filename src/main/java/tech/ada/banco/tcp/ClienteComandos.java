@@ -0,0 +1,144 @@
+package tech.ada.banco.tcp;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente da porta de comandos TCP. Cada chamada envia um quadro e devolve um {@link CompletableFuture};
+ * várias chamadas podem estar em voo na mesma conexão e uma thread de leitura casa as respostas pelo id.
+ * Erros de negócio chegam como as mesmas exceções lançadas pelos serviços.
+ */
+@Slf4j
+public class ClienteComandos implements AutoCloseable {
+
+    private final SocketChannel canal;
+    private final ByteBuffer saida = ByteBuffer.allocateDirect(ProtocoloComandos.TAMANHO_MAXIMO_REQUISICAO);
+    private final Map<Long, CompletableFuture<BigDecimal>> pendentes = new ConcurrentHashMap<>();
+    private final AtomicLong proximoId = new AtomicLong();
+    private final Thread leitor;
+    private volatile boolean fechado;
+    private volatile IOException perdida;
+
+    public ClienteComandos(String host, int porta) throws IOException {
+        canal = SocketChannel.open(new InetSocketAddress(host, porta));
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        leitor = new Thread(this::lerRespostas, "cliente-comandos-" + porta);
+        leitor.setDaemon(true);
+        leitor.start();
+    }
+
+    public CompletableFuture<BigDecimal> depositar(int conta, BigDecimal valor) {
+        return enviar(ProtocoloComandos.DEPOSITO, conta, 0, valor);
+    }
+
+    public CompletableFuture<BigDecimal> sacar(int conta, BigDecimal valor) {
+        return enviar(ProtocoloComandos.SAQUE, conta, 0, valor);
+    }
+
+    public CompletableFuture<BigDecimal> pix(int contaOrigem, int contaDestino, BigDecimal valor) {
+        return enviar(ProtocoloComandos.PIX, contaOrigem, contaDestino, valor);
+    }
+
+    public CompletableFuture<BigDecimal> saldo(int conta) {
+        return enviar(ProtocoloComandos.SALDO, conta, 0, BigDecimal.ZERO);
+    }
+
+    public int getEmVoo() {
+        return pendentes.size();
+    }
+
+    private CompletableFuture<BigDecimal> enviar(byte comando, int conta, int contaDestino, BigDecimal valor) {
+        long centavos;
+        try {
+            centavos = valor.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return CompletableFuture.failedFuture(new ValorInvalidoException());
+        }
+
+        long id = proximoId.incrementAndGet();
+        CompletableFuture<BigDecimal> resposta = new CompletableFuture<>();
+        pendentes.put(id, resposta);
+        try {
+            synchronized (saida) {
+                saida.clear();
+                ProtocoloComandos.escreverRequisicao(saida, id, comando, conta, contaDestino, centavos);
+                saida.flip();
+                while (saida.hasRemaining()) {
+                    canal.write(saida);
+                }
+            }
+        } catch (IOException e) {
+            pendentes.remove(id);
+            resposta.completeExceptionally(new UncheckedIOException(e));
+        }
+        if (perdida != null && pendentes.remove(id) != null) {
+            resposta.completeExceptionally(new UncheckedIOException(perdida));
+        }
+        return resposta;
+    }
+
+    private void lerRespostas() {
+        ByteBuffer entrada = ByteBuffer.allocateDirect(64 * 1024);
+        try {
+            while (canal.read(entrada) >= 0) {
+                entrada.flip();
+                while (entrada.remaining() >= ProtocoloComandos.TAMANHO_RESPOSTA) {
+                    entrada.getInt();
+                    long id = entrada.getLong();
+                    byte status = entrada.get();
+                    long centavos = entrada.getLong();
+
+                    CompletableFuture<BigDecimal> resposta = pendentes.remove(id);
+                    if (resposta == null) {
+                        log.warn("Resposta para requisição desconhecida {}", id);
+                    } else if (status == ProtocoloComandos.OK) {
+                        resposta.complete(BigDecimal.valueOf(centavos, 2));
+                    } else {
+                        resposta.completeExceptionally(ProtocoloComandos.excecao(status, centavos));
+                    }
+                }
+                entrada.compact();
+            }
+            falharPendentes(new IOException("Conexão encerrada pelo servidor de comandos."));
+        } catch (IOException e) {
+            falharPendentes(e);
+        }
+    }
+
+    private void falharPendentes(IOException causa) {
+        perdida = causa;
+        if (!fechado) {
+            log.warn("Conexão de comandos perdida", causa);
+        }
+        UncheckedIOException erro = new UncheckedIOException(causa);
+        pendentes.keySet().forEach(id -> {
+            CompletableFuture<BigDecimal> resposta = pendentes.remove(id);
+            if (resposta != null) {
+                resposta.completeExceptionally(erro);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        fechado = true;
+        canal.close();
+        try {
+            leitor.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
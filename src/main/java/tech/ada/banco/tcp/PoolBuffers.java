@@ -0,0 +1,44 @@
+package tech.ada.banco.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers diretos de tamanho fixo reaproveitados entre conexões e respostas. Quando o pool está vazio um
+ * buffer novo é alocado; devoluções acima da capacidade são descartadas para o GC. Todo buffer obtido deve ser
+ * devolvido uma única vez, inclusive quando a conexão fecha antes de usá-lo.
+ */
+final class PoolBuffers {
+
+    private final int tamanho;
+    private final ArrayBlockingQueue<ByteBuffer> livres;
+    private final AtomicInteger emUso = new AtomicInteger();
+
+    PoolBuffers(int tamanho, int capacidade) {
+        this.tamanho = tamanho;
+        this.livres = new ArrayBlockingQueue<>(capacidade);
+    }
+
+    ByteBuffer obter() {
+        emUso.incrementAndGet();
+        ByteBuffer buffer = livres.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(tamanho) : buffer.clear();
+    }
+
+    void devolver(ByteBuffer buffer) {
+        emUso.decrementAndGet();
+        livres.offer(buffer);
+    }
+
+    int livres() {
+        return livres.size();
+    }
+
+    /**
+     * Buffers obtidos e ainda não devolvidos.
+     */
+    int emUso() {
+        return emUso.get();
+    }
+}
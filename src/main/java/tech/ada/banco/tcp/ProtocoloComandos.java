@@ -0,0 +1,106 @@
+package tech.ada.banco.tcp;
+
+import tech.ada.banco.exceptions.ContaOrigemIgualDestinoException;
+import tech.ada.banco.exceptions.LimiteExcedidoException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.TransferenciaPendenteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * Quadros da porta TCP de comandos. Todo quadro começa com o tamanho (int) do restante.
+ * <pre>
+ * requisição: tamanho | id (long) | comando (byte) | conta (int) | [destino (int), só PIX] | [centavos (long), exceto SALDO]
+ * resposta:   tamanho | id (long) | status (byte)  | saldo em centavos (long, zero em caso de erro)
+ * </pre>
+ * O id é escolhido pelo cliente e devolvido na resposta; com várias requisições em voo na mesma conexão
+ * as respostas podem chegar fora de ordem. Um PIX com status PENDENTE foi debitado e traz o saldo da origem.
+ */
+public final class ProtocoloComandos {
+
+    public static final byte DEPOSITO = 1;
+    public static final byte SAQUE = 2;
+    public static final byte PIX = 3;
+    public static final byte SALDO = 4;
+
+    public static final byte OK = 0;
+    public static final byte NAO_ENCONTRADO = 1;
+    public static final byte SALDO_INSUFICIENTE = 2;
+    public static final byte VALOR_INVALIDO = 3;
+    public static final byte LIMITE_EXCEDIDO = 4;
+    public static final byte CONTA_ORIGEM_IGUAL_DESTINO = 5;
+    public static final byte PENDENTE = 6;
+    public static final byte ERRO_INTERNO = 127;
+
+    static final int CABECALHO = Integer.BYTES;
+    static final int TAMANHO_MAXIMO_REQUISICAO = CABECALHO + Long.BYTES + 1 + 2 * Integer.BYTES + Long.BYTES;
+    static final int TAMANHO_RESPOSTA = CABECALHO + Long.BYTES + 1 + Long.BYTES;
+
+    private ProtocoloComandos() {
+    }
+
+    /**
+     * Tamanho do corpo (sem o cabeçalho) esperado para o comando, ou -1 se o comando não existe.
+     */
+    static int tamanhoCorpo(byte comando) {
+        return switch (comando) {
+            case SALDO -> Long.BYTES + 1 + Integer.BYTES;
+            case DEPOSITO, SAQUE -> Long.BYTES + 1 + Integer.BYTES + Long.BYTES;
+            case PIX -> Long.BYTES + 1 + 2 * Integer.BYTES + Long.BYTES;
+            default -> -1;
+        };
+    }
+
+    static void escreverRequisicao(ByteBuffer destino, long id, byte comando, int conta, int contaDestino,
+                                   long centavos) {
+        destino.putInt(tamanhoCorpo(comando));
+        destino.putLong(id);
+        destino.put(comando);
+        destino.putInt(conta);
+        if (comando == PIX) {
+            destino.putInt(contaDestino);
+        }
+        if (comando != SALDO) {
+            destino.putLong(centavos);
+        }
+    }
+
+    static void escreverResposta(ByteBuffer destino, long id, byte status, long centavos) {
+        destino.putInt(TAMANHO_RESPOSTA - CABECALHO);
+        destino.putLong(id);
+        destino.put(status);
+        destino.putLong(centavos);
+    }
+
+    static byte status(RuntimeException e) {
+        if (e instanceof ResourceNotFoundException) {
+            return NAO_ENCONTRADO;
+        } else if (e instanceof SaldoInsuficienteException) {
+            return SALDO_INSUFICIENTE;
+        } else if (e instanceof ValorInvalidoException) {
+            return VALOR_INVALIDO;
+        } else if (e instanceof LimiteExcedidoException) {
+            return LIMITE_EXCEDIDO;
+        } else if (e instanceof ContaOrigemIgualDestinoException) {
+            return CONTA_ORIGEM_IGUAL_DESTINO;
+        } else if (e instanceof TransferenciaPendenteException) {
+            return PENDENTE;
+        }
+        return ERRO_INTERNO;
+    }
+
+    static RuntimeException excecao(byte status, long centavos) {
+        return switch (status) {
+            case NAO_ENCONTRADO -> new ResourceNotFoundException();
+            case SALDO_INSUFICIENTE -> new SaldoInsuficienteException();
+            case VALOR_INVALIDO -> new ValorInvalidoException();
+            case LIMITE_EXCEDIDO -> new LimiteExcedidoException();
+            case CONTA_ORIGEM_IGUAL_DESTINO -> new ContaOrigemIgualDestinoException();
+            case PENDENTE -> new TransferenciaPendenteException(BigDecimal.valueOf(centavos, 2));
+            default -> new IllegalStateException("Erro interno no servidor de comandos (status " + status + ").");
+        };
+    }
+}
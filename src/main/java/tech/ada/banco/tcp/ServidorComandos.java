@@ -0,0 +1,428 @@
+package tech.ada.banco.tcp;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.TransferenciaPendenteException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.IndiceSaldos;
+import tech.ada.banco.services.LeituraContas;
+import tech.ada.banco.services.Pix;
+import tech.ada.banco.services.Saque;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Porta TCP binária para depósito, saque, Pix e consulta de saldo, ao lado da porta HTTP.
+ * <p>
+ * Uma única thread faz o laço do {@link Selector}: aceita conexões, separa os quadros de
+ * {@link ProtocoloComandos} e entrega cada comando a um trabalhador escolhido pelo número da conta (a conta
+ * de origem, no Pix), que chama os mesmos serviços usados pelos controllers. Assim comandos em pipeline
+ * para a mesma conta executam na ordem de chegada e não disputam a mesma linha entre si. As respostas
+ * voltam por uma fila da conexão e são enviadas juntas numa escrita agregada. Cada conexão aceita até
+ * {@code banco.tcp.maximo-em-voo} comandos pendentes; acima disso a leitura do socket é suspensa até as
+ * respostas saírem.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.tcp.habilitado", havingValue = "true")
+@Slf4j
+public class ServidorComandos {
+
+    private static final int TAMANHO_LEITURA = 16 * 1024;
+    private static final int MAXIMO_ESCRITA_AGREGADA = 64;
+
+    private final Deposito deposito;
+    private final Saque saque;
+    private final Pix pix;
+    private final IndiceSaldos indiceSaldos;
+    private final LeituraContas leituras;
+    private final InetSocketAddress endereco;
+    private final int trabalhadores;
+    private final int maximoEmVoo;
+
+    private final PoolBuffers buffersLeitura = new PoolBuffers(TAMANHO_LEITURA, 256);
+    private final PoolBuffers buffersResposta = new PoolBuffers(ProtocoloComandos.TAMANHO_RESPOSTA, 16 * 1024);
+    private final Queue<Conexao> comRespostas = new ConcurrentLinkedQueue<>();
+    private final Set<Conexao> conexoes = ConcurrentHashMap.newKeySet();
+
+    private Selector selector;
+    private ServerSocketChannel servidor;
+    private ExecutorService[] filas;
+    private Thread laco;
+    private volatile boolean ativo;
+
+    public ServidorComandos(Deposito deposito, Saque saque, Pix pix, IndiceSaldos indiceSaldos,
+                            LeituraContas leituras,
+                            @Value("${banco.tcp.endereco:0.0.0.0}") String host,
+                            @Value("${banco.tcp.porta:8283}") int porta,
+                            @Value("${banco.tcp.trabalhadores:16}") int trabalhadores,
+                            @Value("${banco.tcp.maximo-em-voo:1024}") int maximoEmVoo) {
+        this.deposito = deposito;
+        this.saque = saque;
+        this.pix = pix;
+        this.indiceSaldos = indiceSaldos;
+        this.leituras = leituras;
+        this.endereco = new InetSocketAddress(host, porta);
+        this.trabalhadores = trabalhadores;
+        this.maximoEmVoo = maximoEmVoo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() throws IOException {
+        if (ativo) {
+            return;
+        }
+        selector = Selector.open();
+        servidor = ServerSocketChannel.open();
+        servidor.bind(endereco, 1024);
+        servidor.configureBlocking(false);
+        servidor.register(selector, SelectionKey.OP_ACCEPT);
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("comandos-tcp-");
+        filas = new ExecutorService[trabalhadores];
+        for (int i = 0; i < filas.length; i++) {
+            filas[i] = Executors.newSingleThreadExecutor(threads);
+        }
+
+        ativo = true;
+        laco = new Thread(this::executarLaco, "comandos-tcp-selector");
+        laco.setDaemon(true);
+        laco.start();
+        log.info("Porta de comandos TCP aberta em {}", servidor.getLocalAddress());
+    }
+
+    @PreDestroy
+    public synchronized void parar() throws InterruptedException {
+        if (!ativo) {
+            return;
+        }
+        ativo = false;
+        selector.wakeup();
+        laco.join(TimeUnit.SECONDS.toMillis(5));
+        for (ExecutorService fila : filas) {
+            fila.shutdown();
+        }
+        for (ExecutorService fila : filas) {
+            fila.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public int getPorta() {
+        return servidor.socket().getLocalPort();
+    }
+
+    private void executarLaco() {
+        try {
+            while (ativo) {
+                selector.select();
+                Conexao pendente;
+                while ((pendente = comRespostas.poll()) != null) {
+                    pendente.escrever();
+                }
+
+                Iterator<SelectionKey> chaves = selector.selectedKeys().iterator();
+                while (chaves.hasNext()) {
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    if (!chave.isValid()) {
+                        continue;
+                    }
+                    if (chave.isAcceptable()) {
+                        aceitar();
+                        continue;
+                    }
+                    Conexao conexao = (Conexao) chave.attachment();
+                    if (chave.isReadable()) {
+                        conexao.ler();
+                    }
+                    if (chave.isValid() && chave.isWritable()) {
+                        conexao.escrever();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Laço da porta de comandos TCP interrompido", e);
+        } finally {
+            conexoes.forEach(Conexao::fechar);
+            try {
+                servidor.close();
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Falha ao fechar a porta de comandos TCP", e);
+            }
+        }
+    }
+
+    /**
+     * Aceita uma conexão pendente. Uma falha ao aceitar ou preparar o canal (limite de descritores, cliente que
+     * desistiu no meio do handshake) fecha só esse canal; o laço segue atendendo as demais conexões.
+     */
+    private void aceitar() {
+        SocketChannel canal = null;
+        try {
+            canal = servidor.accept();
+            if (canal == null) {
+                return;
+            }
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Conexao conexao = new Conexao(canal);
+            conexao.chave = canal.register(selector, SelectionKey.OP_READ, conexao);
+            conexoes.add(conexao);
+        } catch (IOException e) {
+            log.warn("Falha ao aceitar conexão de comandos; porta segue aberta", e);
+            if (canal != null) {
+                try {
+                    canal.close();
+                } catch (IOException fechamento) {
+                    log.debug("Falha ao fechar conexão recusada", fechamento);
+                }
+            }
+        }
+    }
+
+    private void executar(Conexao conexao, long id, byte comando, int conta, int contaDestino, long centavos) {
+        byte status = ProtocoloComandos.OK;
+        long saldo = 0;
+        try {
+            saldo = switch (comando) {
+                case ProtocoloComandos.DEPOSITO -> IndiceSaldos.centavos(
+                        deposito.executar(conta, BigDecimal.valueOf(centavos, 2)));
+                case ProtocoloComandos.SAQUE -> IndiceSaldos.centavos(
+                        saque.executar(conta, BigDecimal.valueOf(centavos, 2)));
+                case ProtocoloComandos.PIX -> IndiceSaldos.centavos(
+                        pix.executar(conta, contaDestino, BigDecimal.valueOf(centavos, 2)));
+                default -> saldo(conta);
+            };
+        } catch (TransferenciaPendenteException e) {
+            status = ProtocoloComandos.PENDENTE;
+            saldo = IndiceSaldos.centavos(e.getSaldo());
+        } catch (RuntimeException e) {
+            status = ProtocoloComandos.status(e);
+            if (status == ProtocoloComandos.ERRO_INTERNO) {
+                log.error("Falha no comando {} da requisição {}", comando, id, e);
+            }
+        }
+
+        ByteBuffer resposta = buffersResposta.obter();
+        ProtocoloComandos.escreverResposta(resposta, id, status, saldo);
+        conexao.enfileirar(resposta.flip());
+    }
+
+    /**
+     * Buffers de resposta obtidos e ainda não devolvidos ao pool.
+     */
+    int respostasEmUso() {
+        return buffersResposta.emUso();
+    }
+
+    private long saldo(int conta) {
+        long centavos = indiceSaldos.saldo(conta);
+        if (centavos == IndiceSaldos.AUSENTE) {
+            Conta encontrada = leituras.buscarNaPrimaria(conta).orElseThrow(ResourceNotFoundException::new);
+            centavos = IndiceSaldos.centavos(encontrada.getSaldo());
+            indiceSaldos.inserirSeAusente(conta, centavos, encontrada.getVersaoSaldo());
+        }
+        return centavos;
+    }
+
+    /**
+     * Estado de uma conexão. Leitura, escrita e fechamento acontecem só na thread do selector; os
+     * trabalhadores apenas enfileiram respostas.
+     */
+    private final class Conexao {
+
+        private final SocketChannel canal;
+        private final ByteBuffer leitura = buffersLeitura.obter();
+        private final Queue<ByteBuffer> respostas = new ConcurrentLinkedQueue<>();
+        private final ArrayDeque<ByteBuffer> emEscrita = new ArrayDeque<>();
+        private final ByteBuffer[] agregada = new ByteBuffer[MAXIMO_ESCRITA_AGREGADA];
+        private final AtomicBoolean agendada = new AtomicBoolean();
+        private final AtomicInteger emVoo = new AtomicInteger();
+        private SelectionKey chave;
+        private boolean leituraSuspensa;
+        private volatile boolean fechada;
+
+        private Conexao(SocketChannel canal) {
+            this.canal = canal;
+        }
+
+        void ler() {
+            try {
+                if (canal.read(leitura) < 0) {
+                    fechar();
+                    return;
+                }
+            } catch (IOException e) {
+                fechar();
+                return;
+            }
+            processarQuadros();
+        }
+
+        private void processarQuadros() {
+            leitura.flip();
+            while (leitura.remaining() >= ProtocoloComandos.CABECALHO) {
+                if (emVoo.get() >= maximoEmVoo) {
+                    suspenderLeitura();
+                    break;
+                }
+                int inicio = leitura.position();
+                int tamanho = leitura.getInt(inicio);
+                if (tamanho <= Long.BYTES || tamanho > ProtocoloComandos.TAMANHO_MAXIMO_REQUISICAO
+                        || leitura.remaining() >= ProtocoloComandos.CABECALHO + Long.BYTES + 1
+                        && ProtocoloComandos.tamanhoCorpo(leitura.get(inicio + 12)) != tamanho) {
+                    log.warn("Quadro inválido de {}; conexão encerrada", endereco());
+                    fechar();
+                    return;
+                }
+                if (leitura.remaining() < ProtocoloComandos.CABECALHO + tamanho) {
+                    break;
+                }
+                leitura.position(inicio + ProtocoloComandos.CABECALHO);
+                long id = leitura.getLong();
+                byte comando = leitura.get();
+                int conta = leitura.getInt();
+                int contaDestino = comando == ProtocoloComandos.PIX ? leitura.getInt() : 0;
+                long centavos = comando == ProtocoloComandos.SALDO ? 0 : leitura.getLong();
+
+                emVoo.incrementAndGet();
+                filas[Math.floorMod(conta, filas.length)]
+                        .execute(() -> executar(this, id, comando, conta, contaDestino, centavos));
+            }
+            leitura.compact();
+        }
+
+        void enfileirar(ByteBuffer resposta) {
+            if (fechada) {
+                buffersResposta.devolver(resposta);
+                return;
+            }
+            respostas.add(resposta);
+            if (fechada) {
+                // fechar() pode ter esvaziado a fila entre a verificação acima e o add
+                descartarRespostas();
+                return;
+            }
+            if (agendada.compareAndSet(false, true)) {
+                comRespostas.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void escrever() {
+            if (fechada) {
+                descartarRespostas();
+                return;
+            }
+            agendada.set(false);
+            ByteBuffer resposta;
+            while ((resposta = respostas.poll()) != null) {
+                emEscrita.add(resposta);
+            }
+
+            try {
+                while (!emEscrita.isEmpty()) {
+                    int quantidade = 0;
+                    for (ByteBuffer buffer : emEscrita) {
+                        agregada[quantidade++] = buffer;
+                        if (quantidade == agregada.length) {
+                            break;
+                        }
+                    }
+                    canal.write(agregada, 0, quantidade);
+                    while (!emEscrita.isEmpty() && !emEscrita.peekFirst().hasRemaining()) {
+                        buffersResposta.devolver(emEscrita.pollFirst());
+                        emVoo.decrementAndGet();
+                    }
+                    if (!emEscrita.isEmpty() && emEscrita.peekFirst().hasRemaining()) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                fechar();
+                return;
+            }
+
+            chave.interestOps(emEscrita.isEmpty()
+                    ? chave.interestOps() & ~SelectionKey.OP_WRITE
+                    : chave.interestOps() | SelectionKey.OP_WRITE);
+
+            if (leituraSuspensa && emVoo.get() < maximoEmVoo / 2) {
+                leituraSuspensa = false;
+                chave.interestOps(chave.interestOps() | SelectionKey.OP_READ);
+                processarQuadros();
+            }
+        }
+
+        private void suspenderLeitura() {
+            leituraSuspensa = true;
+            chave.interestOps(chave.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        void fechar() {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            conexoes.remove(this);
+            if (chave != null) {
+                chave.cancel();
+            }
+            try {
+                canal.close();
+            } catch (IOException e) {
+                log.debug("Falha ao fechar conexão de comandos", e);
+            }
+            buffersLeitura.devolver(leitura);
+            emEscrita.forEach(buffersResposta::devolver);
+            emEscrita.clear();
+            descartarRespostas();
+        }
+
+        /**
+         * Devolve ao pool as respostas enfileiradas que não serão mais escritas; {@code poll} garante que cada
+         * uma é devolvida por uma única thread.
+         */
+        private void descartarRespostas() {
+            ByteBuffer resposta;
+            while ((resposta = respostas.poll()) != null) {
+                buffersResposta.devolver(resposta);
+            }
+        }
+
+        private Object endereco() {
+            try {
+                return canal.getRemoteAddress();
+            } catch (IOException e) {
+                return "conexão desconhecida";
+            }
+        }
+    }
+}
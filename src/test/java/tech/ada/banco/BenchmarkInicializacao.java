@@ -0,0 +1,182 @@
+package tech.ada.banco;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tempo até a aplicação responder ao health check, latência da primeira requisição de negócio (abrir uma conta
+ * e lê-la) e memória residente logo depois, em cada forma de execução disponível:
+ * <ul>
+ *     <li>JVM: classes de {@code target/classes}, empacotadas num JAR, e dependências de
+ *     {@code target/classpath.txt};</li>
+ *     <li>JVM+CDS: idem, com um arquivo de classes compartilhadas gerado numa execução de treino;</li>
+ *     <li>JVM+AOT: inicialização gerada pelo processamento AOT, quando compilado com {@code -Pnative};</li>
+ *     <li>nativo: o executável {@code target/banco} gerado por {@code mvn -Pnative package}.</li>
+ * </ul>
+ * Preparação: {@code mvn -B -Pnative -DskipTests prepare-package dependency:build-classpath
+ * -Dmdep.outputFile=target/classpath.txt -Dmdep.includeScope=runtime} (sem {@code -Pnative} o modo JVM+AOT é
+ * ignorado). Uso: {@code java tech.ada.banco.BenchmarkInicializacao [repeticoes]}.
+ */
+public class BenchmarkInicializacao {
+
+    private static final Path CLASSES = Path.of("target/classes");
+    private static final Path CLASSPATH = Path.of("target/classpath.txt");
+    // o CDS só arquiva classes vindas de JARs: as classes da aplicação são empacotadas antes das medições
+    private static final Path JAR_CLASSES = Path.of("target/inicializacao-classes.jar");
+    private static final Path ARQUIVO_CDS = Path.of("target/banco.jsa");
+    private static final Path NATIVO = Path.of("target/banco");
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(2);
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    record Medicao(long prontoMs, double primeiraRequisicaoMs, long rssMb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int repeticoes = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> java = List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        empacotarClasses();
+        String classpath = JAR_CLASSES + File.pathSeparator + Files.readString(CLASSPATH).trim();
+        List<String> jvm = concatenar(java, List.of("-cp", classpath));
+        String principal = BancoSpringApplication.class.getName();
+
+        executar("JVM", concatenar(jvm, List.of(principal)), repeticoes);
+
+        Files.deleteIfExists(ARQUIVO_CDS);
+        medir(concatenar(jvm, List.of("-XX:ArchiveClassesAtExit=" + ARQUIVO_CDS, principal)), 0);
+        if (Files.exists(ARQUIVO_CDS)) {
+            executar("JVM+CDS", concatenar(jvm, List.of("-XX:SharedArchiveFile=" + ARQUIVO_CDS, principal)), repeticoes);
+        } else {
+            System.out.println("JVM+CDS: arquivo de classes não gerado, ignorado");
+        }
+
+        if (Files.exists(CLASSES.resolve("tech/ada/banco/BancoSpringApplication__ApplicationContextInitializer.class"))) {
+            executar("JVM+AOT", concatenar(jvm, List.of("-Dspring.aot.enabled=true", principal)), repeticoes);
+        } else {
+            System.out.println("JVM+AOT: classes AOT ausentes (compile com -Pnative), ignorado");
+        }
+
+        if (Files.isExecutable(NATIVO)) {
+            executar("nativo", List.of(NATIVO.toString()), repeticoes);
+        } else {
+            System.out.println("nativo: " + NATIVO + " ausente (mvn -Pnative -DskipTests package), ignorado");
+        }
+    }
+
+    private static void executar(String modo, List<String> comando, int repeticoes) throws Exception {
+        // a primeira execução aquece o cache de disco e não entra na conta
+        medir(comando, 0);
+        long[] pronto = new long[repeticoes];
+        double[] primeira = new double[repeticoes];
+        long[] rss = new long[repeticoes];
+        for (int i = 0; i < repeticoes; i++) {
+            Medicao medicao = medir(comando, i + 1);
+            pronto[i] = medicao.prontoMs();
+            primeira[i] = medicao.primeiraRequisicaoMs();
+            rss[i] = medicao.rssMb();
+        }
+        Arrays.sort(pronto);
+        Arrays.sort(primeira);
+        Arrays.sort(rss);
+        System.out.printf("%-8s pronto em %6d ms, primeira requisição %7.1f ms, RSS %4d MB (medianas de %d)%n",
+                modo, pronto[repeticoes / 2], primeira[repeticoes / 2], rss[repeticoes / 2], repeticoes);
+    }
+
+    private static void empacotarClasses() throws Exception {
+        Files.deleteIfExists(JAR_CLASSES);
+        Path jar = Path.of(System.getProperty("java.home"), "bin", "jar");
+        Process processo = new ProcessBuilder(jar.toString(), "--create", "--file", JAR_CLASSES.toString(),
+                "-C", CLASSES.toString(), ".").inheritIO().start();
+        if (processo.waitFor() != 0) {
+            throw new IllegalStateException("Falha ao empacotar " + CLASSES);
+        }
+    }
+
+    private static Medicao medir(List<String> comando, int execucao) throws Exception {
+        int porta = portaLivre();
+        List<String> completo = concatenar(comando, List.of(
+                "--server.port=" + porta,
+                "--spring.datasource.url=jdbc:h2:mem:inicializacao-" + execucao + ";Mode=Oracle",
+                "--logging.level.root=warn"));
+        String base = "http://localhost:" + porta;
+
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(completo).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            aguardarHealth(base, processo);
+            long pronto = System.nanoTime() - inicio;
+
+            long antes = System.nanoTime();
+            String conta = enviar(HttpRequest.newBuilder(URI.create(base + "/contas?modalidade=CC"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build());
+            String numero = conta.replaceAll(".*\"numeroConta\":(\\d+).*", "$1");
+            enviar(HttpRequest.newBuilder(URI.create(base + "/contas/" + numero)).GET().build());
+            long primeira = System.nanoTime() - antes;
+
+            return new Medicao(pronto / 1_000_000, primeira / 1e6, rssMb(processo.pid()));
+        } finally {
+            processo.destroy();
+            processo.waitFor();
+        }
+    }
+
+    private static void aguardarHealth(String base, Process processo) throws Exception {
+        long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(base + "/actuator/health")).GET().build();
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("Aplicação terminou antes de responder: " + processo.exitValue());
+            }
+            try {
+                if (HTTP.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // ainda não está ouvindo
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Aplicação não respondeu em " + ESPERA_MAXIMA);
+    }
+
+    private static String enviar(HttpRequest requisicao) throws Exception {
+        HttpResponse<String> resposta = HTTP.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException(requisicao.uri() + " respondeu " + resposta.statusCode());
+        }
+        return resposta.body();
+    }
+
+    private static long rssMb(long pid) throws IOException {
+        for (String linha : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (linha.startsWith("VmRSS:")) {
+                return Long.parseLong(linha.replaceAll("\\D", "")) / 1024;
+            }
+        }
+        return -1;
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> concatenar(List<String> primeira, List<String> segunda) {
+        List<String> resultado = new ArrayList<>(primeira);
+        resultado.addAll(segunda);
+        return resultado;
+    }
+}
@@ -0,0 +1,32 @@
+package tech.ada.banco;
+
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import tech.ada.banco.config.MedicaoSql;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Falha o teste quando a operação executa mais comandos SQL do que o orçamento informado.
+ */
+public final class OrcamentoSql {
+
+    private OrcamentoSql() {
+    }
+
+    public static <T> T assertMaximoComandos(int maximo, ThrowingSupplier<T> operacao) {
+        T resultado;
+        int comandos;
+        try (MedicaoSql medicao = MedicaoSql.iniciar()) {
+            try {
+                resultado = operacao.get();
+            } catch (Throwable e) {
+                return fail(e);
+            }
+            comandos = medicao.getComandos();
+        }
+        assertTrue(comandos <= maximo,
+                "Orçamento de SQL excedido: " + comandos + " comandos executados, máximo de " + maximo + ".");
+        return resultado;
+    }
+}
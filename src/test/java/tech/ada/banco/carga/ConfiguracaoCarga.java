@@ -0,0 +1,37 @@
+package tech.ada.banco.carga;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+record ConfiguracaoCarga(URI url, int contas, int requisicoesPorSegundo, Duration duracao,
+                         Map<Operacao, Integer> mix, Path relatorio) {
+
+    enum Operacao {
+        DEPOSITO,
+        SAQUE,
+        PIX,
+        CONSULTA
+    }
+
+    static ConfiguracaoCarga doSistema() {
+        return new ConfiguracaoCarga(
+                URI.create(System.getProperty("carga.url", "http://localhost:8282")),
+                Integer.getInteger("carga.contas", 100),
+                Integer.getInteger("carga.taxa", 200),
+                Duration.ofSeconds(Long.getLong("carga.duracao", 30L)),
+                mix(System.getProperty("carga.mix", "DEPOSITO=25,SAQUE=25,PIX=25,CONSULTA=25")),
+                Path.of(System.getProperty("carga.relatorio", "target/carga/relatorio.json")));
+    }
+
+    static Map<Operacao, Integer> mix(String descricao) {
+        Map<Operacao, Integer> mix = new EnumMap<>(Operacao.class);
+        for (String parte : descricao.split(",")) {
+            String[] chaveValor = parte.trim().split("=");
+            mix.put(Operacao.valueOf(chaveValor[0].trim().toUpperCase()), Integer.parseInt(chaveValor[1].trim()));
+        }
+        return mix;
+    }
+}
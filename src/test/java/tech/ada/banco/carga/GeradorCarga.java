@@ -0,0 +1,181 @@
+package tech.ada.banco.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tech.ada.banco.carga.ConfiguracaoCarga.Operacao;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em modelo aberto: as requisições são disparadas numa taxa fixa, sem esperar as
+ * anteriores terminarem, e a latência é medida a partir do instante em que a requisição deveria ter
+ * saído, e não de quando saiu de fato. Assim um servidor lento não "freia" o gerador e as esperas
+ * aparecem nos percentis (correção de coordinated omission).
+ */
+public class GeradorCarga {
+
+    private static final long LATENCIA_MAXIMA = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConfiguracaoCarga configuracao;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Histogram total = new ConcurrentHistogram(LATENCIA_MAXIMA, 3);
+    private final Map<Operacao, Histogram> porOperacao = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, AtomicLong> erros = new EnumMap<>(Operacao.class);
+    private final List<Integer> contas = new ArrayList<>();
+
+    public GeradorCarga(ConfiguracaoCarga configuracao) {
+        this.configuracao = configuracao;
+        for (Operacao operacao : Operacao.values()) {
+            porOperacao.put(operacao, new ConcurrentHistogram(LATENCIA_MAXIMA, 3));
+            erros.put(operacao, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Object> relatorio = new GeradorCarga(ConfiguracaoCarga.doSistema()).executar();
+        System.out.println(relatorio);
+    }
+
+    public Map<String, Object> executar() throws IOException, InterruptedException {
+        criarContas();
+
+        Operacao[] sorteio = tabelaDeSorteio();
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / configuracao.requisicoesPorSegundo();
+        long quantidade = configuracao.duracao().toNanos() / intervalo;
+        List<CompletableFuture<?>> pendentes = new ArrayList<>();
+
+        long inicio = System.nanoTime();
+        for (long i = 0; i < quantidade; i++) {
+            long previsto = inicio + i * intervalo;
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacao operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+            pendentes.add(disparar(operacao, previsto));
+        }
+        CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new)).join();
+        long duracao = System.nanoTime() - inicio;
+
+        Map<String, Object> relatorio = relatorio(quantidade, duracao);
+        Files.createDirectories(configuracao.relatorio().toAbsolutePath().getParent());
+        mapper.writeValue(configuracao.relatorio().toFile(), relatorio);
+        return relatorio;
+    }
+
+    private void criarContas() throws IOException, InterruptedException {
+        for (int i = 0; i < configuracao.contas(); i++) {
+            HttpResponse<String> resposta = client.send(post("/contas?modalidade=CC"), HttpResponse.BodyHandlers.ofString());
+            int numeroConta = mapper.readTree(resposta.body()).get("numeroConta").asInt();
+            client.send(post("/deposito/" + numeroConta + "?valor=1000"), HttpResponse.BodyHandlers.discarding());
+            contas.add(numeroConta);
+        }
+    }
+
+    private CompletableFuture<?> disparar(Operacao operacao, long previsto) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int conta = contas.get(random.nextInt(contas.size()));
+        HttpRequest requisicao = switch (operacao) {
+            case DEPOSITO -> post("/deposito/" + conta + "?valor=1");
+            case SAQUE -> post("/saque/" + conta + "?valor=1");
+            case PIX -> post("/pix/" + conta + "?destino=" + outraConta(conta) + "&valor=1");
+            case CONSULTA -> HttpRequest.newBuilder(uri("/contas/" + conta)).GET().build();
+        };
+
+        return client.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                .handle((resposta, erro) -> {
+                    long latencia = Math.min(System.nanoTime() - previsto, LATENCIA_MAXIMA);
+                    total.recordValue(latencia);
+                    porOperacao.get(operacao).recordValue(latencia);
+                    if (erro != null || resposta.statusCode() >= 400) {
+                        erros.get(operacao).incrementAndGet();
+                    }
+                    return null;
+                });
+    }
+
+    private int outraConta(int conta) {
+        int destino = conta;
+        while (destino == conta && contas.size() > 1) {
+            destino = contas.get(ThreadLocalRandom.current().nextInt(contas.size()));
+        }
+        return destino;
+    }
+
+    private Operacao[] tabelaDeSorteio() {
+        List<Operacao> tabela = new ArrayList<>();
+        configuracao.mix().forEach((operacao, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                tabela.add(operacao);
+            }
+        });
+        return tabela.toArray(Operacao[]::new);
+    }
+
+    private Map<String, Object> relatorio(long quantidade, long duracaoNanos) {
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("data", Instant.now().toString());
+        relatorio.put("url", configuracao.url().toString());
+        relatorio.put("contas", configuracao.contas());
+        relatorio.put("taxaAlvo", configuracao.requisicoesPorSegundo());
+        relatorio.put("requisicoes", quantidade);
+        relatorio.put("duracaoMs", TimeUnit.NANOSECONDS.toMillis(duracaoNanos));
+        relatorio.put("vazao", quantidade * 1e9 / duracaoNanos);
+        relatorio.put("erros", erros.values().stream().mapToLong(AtomicLong::get).sum());
+        relatorio.put("latencia", percentis(total));
+
+        Map<String, Object> operacoes = new LinkedHashMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            Histogram histograma = porOperacao.get(operacao);
+            if (histograma.getTotalCount() > 0) {
+                Map<String, Object> resumo = percentis(histograma);
+                resumo.put("erros", erros.get(operacao).get());
+                operacoes.put(operacao.name().toLowerCase(), resumo);
+            }
+        }
+        relatorio.put("operacoes", operacoes);
+        return relatorio;
+    }
+
+    private static Map<String, Object> percentis(Histogram histograma) {
+        Map<String, Object> percentis = new LinkedHashMap<>();
+        percentis.put("quantidade", histograma.getTotalCount());
+        percentis.put("p50Ms", millis(histograma.getValueAtPercentile(50)));
+        percentis.put("p99Ms", millis(histograma.getValueAtPercentile(99)));
+        percentis.put("p999Ms", millis(histograma.getValueAtPercentile(99.9)));
+        percentis.put("maximoMs", millis(histograma.getMaxValue()));
+        return percentis;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private HttpRequest post(String caminho) {
+        return HttpRequest.newBuilder(uri(caminho)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private URI uri(String caminho) {
+        return configuracao.url().resolve(caminho);
+    }
+}
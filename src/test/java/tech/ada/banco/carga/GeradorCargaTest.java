@@ -0,0 +1,38 @@
+package tech.ada.banco.carga;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GeradorCargaTest {
+
+    @LocalServerPort
+    private int porta;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCargaCurtaGeraRelatorio() throws Exception {
+        Path arquivo = Path.of("target/carga/relatorio-teste.json");
+        ConfiguracaoCarga configuracao = new ConfiguracaoCarga(URI.create("http://localhost:" + porta), 10, 100,
+                Duration.ofSeconds(1), ConfiguracaoCarga.mix("DEPOSITO=1,SAQUE=1,PIX=1,CONSULTA=1"), arquivo);
+
+        Map<String, Object> relatorio = new GeradorCarga(configuracao).executar();
+
+        assertEquals(100L, relatorio.get("requisicoes"));
+        assertEquals(0L, relatorio.get("erros"));
+        Map<String, Object> latencia = (Map<String, Object>) relatorio.get("latencia");
+        assertEquals(100L, latencia.get("quantidade"));
+        assertTrue((double) latencia.get("p99Ms") >= (double) latencia.get("p50Ms"));
+        assertTrue(Files.size(arquivo) > 0);
+    }
+}
@@ -0,0 +1,60 @@
+package tech.ada.banco.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara tamanho e tempo de serialização do formato binário com o JSON do Jackson.
+ * Executar com o classpath de testes: {@code java tech.ada.banco.config.BenchmarkSerializacao [iteracoes]}.
+ */
+public class BenchmarkSerializacao {
+
+    private interface Serializador {
+        byte[] serializar(Object valor) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iteracoes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+        Conta conta = new Conta(ModalidadeConta.CC, new Pessoa("Maria da Silva", "12345678900", LocalDate.of(1985, 7, 1)));
+        conta.deposito(new BigDecimal("15230.47"));
+        Map<String, Object> mensagens = Map.of(
+                "saldo", new BigDecimal("15230.47"),
+                "conta", conta,
+                "lista de 100 contas", Collections.nCopies(100, conta));
+
+        Serializador json = mapper::writeValueAsBytes;
+        Serializador binario = CodecBinario::codificar;
+
+        for (boolean aquecimento : new boolean[]{true, false}) {
+            for (Map.Entry<String, Object> mensagem : mensagens.entrySet()) {
+                int vezes = mensagem.getValue() instanceof List<?> ? iteracoes / 100 : iteracoes;
+                medir("json", mensagem.getKey(), mensagem.getValue(), json, vezes, aquecimento);
+                medir("binario", mensagem.getKey(), mensagem.getValue(), binario, vezes, aquecimento);
+            }
+        }
+    }
+
+    private static void medir(String formato, String nome, Object valor, Serializador serializador, int vezes,
+                              boolean aquecimento) throws Exception {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < vezes; i++) {
+            serializador.serializar(valor);
+        }
+        long nanos = (System.nanoTime() - inicio) / vezes;
+        if (aquecimento) {
+            return;
+        }
+        System.out.printf("%-20s %-8s %6d bytes %8d ns/mensagem%n", nome, formato,
+                serializador.serializar(valor).length, nanos);
+    }
+}
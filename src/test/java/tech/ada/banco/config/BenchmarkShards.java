@@ -0,0 +1,93 @@
+package tech.ada.banco.config;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.Deposito;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vazão de depósitos com 1, 2 e 4 shards H2 em memória, cada configuração numa aplicação nova.
+ * Uso: {@code java tech.ada.banco.config.BenchmarkShards [threads] [segundos] [contasPorShard]}.
+ */
+public class BenchmarkShards {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int contasPorShard = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        for (int quantidade : new int[]{1, 2, 4}) {
+            try (ConfigurableApplicationContext contexto = iniciar(quantidade)) {
+                int[] contas = criarContas(contexto.getBean(ContaRepository.class), quantidade, contasPorShard);
+                Deposito deposito = contexto.getBean(Deposito.class);
+                executar(deposito, contas, threads, 2);
+                long operacoes = executar(deposito, contas, threads, segundos);
+                System.out.printf("%d shard(s), %d threads: %8.0f depósitos/s%n", quantidade, threads,
+                        operacoes / (double) segundos);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciar(int quantidade) {
+        String prefixo = "jdbc:h2:mem:benchmark-" + quantidade + "-";
+        StringJoiner urls = new StringJoiner(",");
+        for (int shard = 1; shard < quantidade; shard++) {
+            urls.add(prefixo + shard + ";Mode=Oracle;DB_CLOSE_DELAY=-1");
+        }
+        List<String> propriedades = new ArrayList<>(List.of(
+                "spring.datasource.url=" + prefixo + "0;Mode=Oracle;DB_CLOSE_DELAY=-1",
+                "spring.datasource.hikari.maximum-pool-size=16",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.root=warn"));
+        if (quantidade > 1) {
+            propriedades.add("banco.shards.urls=" + urls);
+        }
+        return new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(propriedades.toArray(String[]::new))
+                .run();
+    }
+
+    private static int[] criarContas(ContaRepository repository, int quantidade, int contasPorShard) {
+        int[] contas = new int[quantidade * contasPorShard];
+        for (int i = 0; i < contas.length; i++) {
+            contas[i] = ShardDataSource.em(i % quantidade,
+                    () -> repository.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta());
+        }
+        return contas;
+    }
+
+    private static long executar(Deposito deposito, int[] contas, int threads, int segundos)
+            throws InterruptedException {
+        LongAdder operacoes = new LongAdder();
+        long fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        List<Thread> trabalhadores = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread trabalhador = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < fim) {
+                    deposito.executar(contas[random.nextInt(contas.length)], BigDecimal.ONE);
+                    operacoes.increment();
+                }
+            });
+            trabalhador.start();
+            trabalhadores.add(trabalhador);
+        }
+        for (Thread trabalhador : trabalhadores) {
+            trabalhador.join();
+        }
+        return operacoes.sum();
+    }
+}
@@ -0,0 +1,69 @@
+package tech.ada.banco.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecBinarioTest {
+
+    static byte[] codificar(Object valor) throws IOException {
+        return CodecBinario.codificar(valor);
+    }
+
+    static Object decodificar(byte[] bytes) throws IOException {
+        return CodecBinario.ler(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void testDecimal() throws IOException {
+        assertEquals(new BigDecimal("12.34"), decodificar(codificar(new BigDecimal("12.34"))));
+        assertEquals(new BigDecimal("-0.01"), decodificar(codificar(new BigDecimal("-0.01"))));
+    }
+
+    @Test
+    void testDecimalMaiorQueLong() throws IOException {
+        BigDecimal grande = new BigDecimal("123456789012345678901234567890.12");
+
+        assertEquals(grande, decodificar(codificar(grande)));
+    }
+
+    @Test
+    void testPessoa() throws IOException {
+        Pessoa pessoa = new Pessoa("João", "12345678900", LocalDate.of(1990, 3, 15));
+        pessoa.setId(42L);
+
+        Pessoa lida = (Pessoa) decodificar(codificar(pessoa));
+
+        assertEquals(42L, lida.getId());
+        assertEquals("João", lida.getNome());
+        assertEquals("12345678900", lida.getCpf());
+        assertNull(lida.getTelefone());
+        assertEquals(LocalDate.of(1990, 3, 15), lida.getDataNascimento());
+    }
+
+    @Test
+    void testContaEListaSaoMenoresQueJson() throws IOException {
+        Conta conta = new Conta(ModalidadeConta.CC, new Pessoa("João", "12345678900", LocalDate.of(1990, 3, 15)));
+        conta.deposito(new BigDecimal("1500.75"));
+
+        byte[] binario = codificar(List.of(conta, conta));
+
+        assertEquals(CodecBinario.LISTA, binario[0]);
+        assertEquals(CodecBinario.CONTA, binario[5]);
+        assertEquals(2 * 46 + 5, binario.length);
+        assertTrue(binario.length * 2 < new ObjectMapper().findAndRegisterModules().writeValueAsBytes(List.of(conta, conta)).length);
+    }
+}
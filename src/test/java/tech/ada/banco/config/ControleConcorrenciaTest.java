@@ -0,0 +1,88 @@
+package tech.ada.banco.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tech.ada.banco.exceptions.SobrecargaException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControleConcorrenciaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ControleConcorrencia controle(int inicial, Duration janela) {
+        return new ControleConcorrencia(registry, true, inicial, 2, 100, 2.0, janela, 1, Duration.ofSeconds(1));
+    }
+
+    private static MockHttpServletRequest requisicao(String metodo, String caminho) {
+        return new MockHttpServletRequest(metodo, caminho);
+    }
+
+    @Test
+    void testRecusaAcimaDoLimiteComRetryAfter() {
+        ControleConcorrencia controle = controle(2, Duration.ofMinutes(1));
+        MockHttpServletRequest primeira = requisicao("POST", "/saque/1");
+        MockHttpServletRequest segunda = requisicao("POST", "/saque/2");
+        controle.preHandle(primeira, new MockHttpServletResponse(), null);
+        controle.preHandle(segunda, new MockHttpServletResponse(), null);
+
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        assertThrows(SobrecargaException.class,
+                () -> controle.preHandle(requisicao("POST", "/saque/3"), recusada, null));
+        assertEquals("1", recusada.getHeader("Retry-After"));
+        assertEquals(1, registry.get("banco.concorrencia.recusadas").tag("rota", "saque").counter().count());
+        assertTrue(controle.preHandle(requisicao("POST", "/pix/1"), new MockHttpServletResponse(), null),
+                "Cada rota tem o seu limite.");
+
+        controle.afterCompletion(primeira, new MockHttpServletResponse(), null, null);
+        assertTrue(controle.preHandle(requisicao("POST", "/saque/3"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void testLimiteCaiComLatenciaESobeComUso() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(40, 2, 100, 2.0, 0, 1);
+        long milissegundo = TimeUnit.MILLISECONDS.toNanos(1);
+
+        assertTrue(limite.adquirir());
+        limite.liberar(milissegundo, false, System.nanoTime());
+        assertEquals(40, limite.getLimite(), "Uma vaga em uso não justifica aumentar o limite.");
+
+        assertTrue(limite.adquirir());
+        limite.liberar(8 * milissegundo, false, System.nanoTime());
+        assertEquals(20, limite.getLimite(), "Latência 8x a base com tolerância 2: cai pela metade, no máximo.");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limite.adquirir());
+        }
+        limite.liberar(milissegundo, false, System.nanoTime());
+        assertTrue(limite.getLimite() > 20, "Metade do limite em uso e latência normal: o limite sobe.");
+        int antes = limite.getLimite();
+        limite.liberar(milissegundo, true, System.nanoTime());
+        assertEquals((int) (antes * 0.9), limite.getLimite());
+    }
+
+    @Test
+    void testLentidaoNasConsultasDeSaldoReduzEscritas() {
+        ControleConcorrencia controle = controle(50, Duration.ZERO);
+        MockHttpServletRequest rapida = requisicao("GET", "/contas/1/saldo");
+        controle.preHandle(rapida, new MockHttpServletResponse(), null);
+        controle.afterCompletion(rapida, new MockHttpServletResponse(), null, null);
+
+        MockHttpServletRequest lenta = requisicao("GET", "/contas/1/saldo");
+        controle.preHandle(lenta, new MockHttpServletResponse(), null);
+        lenta.setAttribute(ControleConcorrencia.INICIO, System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+        controle.afterCompletion(lenta, new MockHttpServletResponse(), null, null);
+
+        assertTrue(controle.limite(ControleConcorrencia.Rota.SALDO).getLimite() < 50);
+        assertEquals(45, controle.limite(ControleConcorrencia.Rota.PIX).getLimite());
+        assertEquals(45, controle.limite(ControleConcorrencia.Rota.DEPOSITO).getLimite());
+        assertEquals(45, registry.get("banco.concorrencia.limite").tag("rota", "saque").gauge().value());
+    }
+}
@@ -0,0 +1,43 @@
+package tech.ada.banco.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HintsNativosTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    HintsNativosTest() {
+        new HintsNativos().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testAcessoresGeradosPeloLombok() throws ReflectiveOperationException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Conta.class.getMethod("getAgencia")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Pessoa.class.getMethod("setNome", String.class))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onField(Conta.class.getDeclaredField("saldo")).test(hints));
+    }
+
+    @Test
+    void testRepositoriosEProxiesDoDataSourceInstrumentado() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ContaRepository.class.getMethod("findContaByNumeroConta", int.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class).test(hints));
+    }
+
+    @Test
+    void testConfiguracaoDoCache() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("ehcache.xml").test(hints));
+    }
+}
@@ -0,0 +1,62 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class InstrumentacaoSqlConfigTest {
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContaRepository repository;
+
+    @Test
+    void testPoolContinuaVisivelComoHikari() throws Exception {
+        assertInstanceOf(HikariDataSource.class, dataSource);
+
+        try (MedicaoSql medicao = MedicaoSql.iniciar()) {
+            jdbcTemplate.queryForObject("select count(*) from CONTA", Long.class);
+            assertTrue(medicao.getComandos() >= 1, "Os comandos continuam medidos por baixo do pool.");
+        }
+        mvc.perform(get("/actuator/metrics/hikaricp.connections.active")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk()).andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void testRespostaSemCorpoRecebeCabecalhos() throws Exception {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC, null));
+
+        mvc.perform(delete("/contas/" + conta.getNumeroConta()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(InstrumentacaoSqlConfig.CABECALHO_COMANDOS))
+                .andExpect(header().exists(InstrumentacaoSqlConfig.CABECALHO_TEMPO));
+    }
+}
@@ -0,0 +1,52 @@
+package tech.ada.banco.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Substituto de replicação para os testes: copia o banco H2 primário inteiro para a réplica.
+ */
+class ReplicadorH2 {
+
+    private final String urlPrimaria;
+    private final String urlReplica;
+
+    ReplicadorH2(String urlPrimaria, String urlReplica) {
+        this.urlPrimaria = urlPrimaria;
+        this.urlReplica = urlReplica;
+    }
+
+    void replicar() throws SQLException {
+        List<String> comandos = new ArrayList<>();
+        try (Connection primaria = DriverManager.getConnection(urlPrimaria, "root", "password");
+             Statement statement = primaria.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT")) {
+            while (script.next()) {
+                comandos.add(script.getString(1));
+            }
+        }
+
+        try (Connection replica = DriverManager.getConnection(urlReplica, "root", "password");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String comando : comandos) {
+                if (!comando.startsWith("CREATE USER")) {
+                    statement.execute(comando);
+                }
+            }
+        }
+    }
+
+    String consultar(String sql) throws SQLException {
+        try (Connection replica = DriverManager.getConnection(urlReplica, "root", "password");
+             Statement statement = replica.createStatement();
+             ResultSet resultado = statement.executeQuery(sql)) {
+            return resultado.next() ? resultado.getString(1) : null;
+        }
+    }
+}
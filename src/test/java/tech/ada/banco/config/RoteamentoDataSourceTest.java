@@ -0,0 +1,73 @@
+package tech.ada.banco.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + RoteamentoDataSourceTest.PRIMARIA,
+        "banco.datasource.replica.url=" + RoteamentoDataSourceTest.REPLICA,
+        "banco.datasource.replica.username=root",
+        "banco.datasource.replica.password=password",
+        "banco.datasource.replica.janela-consistencia=60000"})
+@AutoConfigureMockMvc
+class RoteamentoDataSourceTest {
+
+    static final String PRIMARIA = "jdbc:h2:mem:roteamento-primaria;Mode=Oracle;DB_CLOSE_DELAY=-1";
+    static final String REPLICA = "jdbc:h2:mem:roteamento-replica;Mode=Oracle;DB_CLOSE_DELAY=-1";
+
+    private final ReplicadorH2 replicador = new ReplicadorH2(PRIMARIA, REPLICA);
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    void replicar() throws Exception {
+        replicador.replicar();
+    }
+
+    private int criarConta() throws Exception {
+        String response = mvc.perform(post("/contas").param("modalidade", "CC"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(response).get("numeroConta").asInt();
+    }
+
+    @Test
+    void testLeituraVaiParaReplica() throws Exception {
+        int conta = criarConta();
+
+        mvc.perform(get("/contas/" + conta)).andExpect(status().isNotFound());
+
+        replicador.replicar();
+        mvc.perform(get("/contas/" + conta)).andExpect(status().isOk());
+    }
+
+    @Test
+    void testLeituraAposMovimentacaoVaiParaPrimaria() throws Exception {
+        int conta = criarConta();
+        replicador.replicar();
+
+        mvc.perform(post("/deposito/" + conta).param("valor", "10")).andExpect(status().isOk());
+
+        assertEquals("0", replicador.consultar("select SALDO from CONTA where NUMERO_CONTA = " + conta),
+                "A réplica ainda não recebeu o depósito.");
+        mvc.perform(get("/contas/" + conta))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(10.0));
+    }
+}
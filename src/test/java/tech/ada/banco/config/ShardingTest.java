@@ -0,0 +1,200 @@
+package tech.ada.banco.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.TransferenciaEntreShards;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-shard0;Mode=Oracle;DB_CLOSE_DELAY=-1",
+        "banco.shards.urls=jdbc:h2:mem:sharding-shard1;Mode=Oracle;DB_CLOSE_DELAY=-1",
+        "banco.shards.bloco=1000000"})
+@AutoConfigureMockMvc
+class ShardingTest {
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private ContaRepository repository;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private TransferenciaEntreShards entreShards;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private int criarConta(int shard, String saldo) {
+        return ShardDataSource.em(shard, () -> {
+            Conta conta = new Conta(ModalidadeConta.CC, null);
+            conta.deposito(new BigDecimal(saldo));
+            return repository.save(conta).getNumeroConta();
+        });
+    }
+
+    private BigDecimal saldo(int shard, int conta) {
+        return ShardDataSource.em(shard, () -> new JdbcTemplate(dataSource)
+                .queryForObject("select SALDO from CONTA where NUMERO_CONTA = ?", BigDecimal.class, conta))
+                .setScale(2);
+    }
+
+    private String consultar(int shard, String sql, Object... parametros) {
+        return ShardDataSource.em(shard, () -> new JdbcTemplate(dataSource).queryForObject(sql, String.class, parametros));
+    }
+
+    @Test
+    void testContasNovasSeAlternamEntreShards() throws Exception {
+        int primeira = mapper.readTree(mvc.perform(post("/contas").param("modalidade", "CC"))
+                .andReturn().getResponse().getContentAsString()).get("numeroConta").asInt();
+        int segunda = mapper.readTree(mvc.perform(post("/contas").param("modalidade", "CC"))
+                .andReturn().getResponse().getContentAsString()).get("numeroConta").asInt();
+
+        assertNotEquals(shards.shardDaConta(primeira), shards.shardDaConta(segunda));
+        for (int conta : new int[]{primeira, segunda}) {
+            int shard = shards.shardDaConta(conta);
+            assertEquals("1", consultar(shard, "select count(*) from CONTA where NUMERO_CONTA = ?", conta));
+            assertEquals("0", consultar(1 - shard, "select count(*) from CONTA where NUMERO_CONTA = ?", conta));
+        }
+    }
+
+    @Test
+    void testOperacoesSaoRoteadasPeloNumeroDaConta() throws Exception {
+        int conta = criarConta(1, "10");
+        assertEquals(1, shards.shardDaConta(conta));
+
+        mvc.perform(post("/deposito/" + conta).param("valor", "5")).andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta).param("valor", "3")).andExpect(status().isOk());
+
+        mvc.perform(get("/contas/" + conta))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(12.0));
+        mvc.perform(get("/contas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.numeroConta == " + conta + ")]").exists());
+    }
+
+    @Test
+    void testPixEntreShards() throws Exception {
+        int origem = criarConta(0, "100");
+        int destino = criarConta(1, "0");
+
+        mvc.perform(post("/pix/" + origem).param("destino", String.valueOf(destino)).param("valor", "40"))
+                .andExpect(status().isOk());
+
+        assertEquals(new BigDecimal("60.00"), saldo(0, origem));
+        assertEquals(new BigDecimal("40.00"), saldo(1, destino));
+        assertEquals("CONCLUIDA", consultar(0, "select SITUACAO from TRANSFERENCIA_SHARD where CONTA_ORIGEM = ?", origem));
+        assertEquals("CREDITADA", consultar(1, "select SITUACAO from TRANSFERENCIA_SHARD where CONTA_ORIGEM = ?", origem));
+    }
+
+    @Test
+    void testPixEntreShardsComCreditoPendenteRespondeAceito() throws Exception {
+        int origem = criarConta(0, "100");
+        int destino = criarConta(1, "0");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // sem a tabela de transferências no destino o crédito falha por um motivo que não é recusa da conta
+        ShardDataSource.em(1, () -> {
+            jdbc.execute("alter table TRANSFERENCIA_SHARD rename to TRANSFERENCIA_SHARD_FORA");
+            return null;
+        });
+        try {
+            mvc.perform(post("/pix/" + origem).param("destino", String.valueOf(destino)).param("valor", "40"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(content().string("60.00"));
+        } finally {
+            ShardDataSource.em(1, () -> {
+                jdbc.execute("alter table TRANSFERENCIA_SHARD_FORA rename to TRANSFERENCIA_SHARD");
+                return null;
+            });
+        }
+
+        assertEquals("DEBITADA", consultar(0, "select SITUACAO from TRANSFERENCIA_SHARD where CONTA_ORIGEM = ?", origem));
+        assertEquals(new BigDecimal("0.00"), saldo(1, destino));
+        entreShards.recuperar(Duration.ZERO);
+        assertEquals(new BigDecimal("40.00"), saldo(1, destino));
+    }
+
+    @Test
+    void testPixParaContaInexistenteEmOutroShard() throws Exception {
+        int origem = criarConta(0, "100");
+
+        mvc.perform(post("/pix/" + origem)
+                        .param("destino", String.valueOf(Shards.PRIMEIRA_CONTA + 1_999_999)).param("valor", "40"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(new BigDecimal("100.00"), saldo(0, origem));
+    }
+
+    @Test
+    void testRecuperacaoConcluiOuEstornaTransferenciasPendentes() {
+        int origem = criarConta(0, "30");
+        int destino = criarConta(1, "0");
+        int removida = criarConta(1, "0");
+        Timestamp antiga = Timestamp.from(Instant.now().minusSeconds(600));
+        ShardDataSource.em(0, () -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("update CONTA set SALDO = 0 where NUMERO_CONTA = ?", origem);
+            jdbc.update("insert into TRANSFERENCIA_SHARD (ID, CONTA_ORIGEM, CONTA_DESTINO, VALOR, SITUACAO, MOMENTO) "
+                    + "values ('pendente-1', ?, ?, 10, 'DEBITADA', ?)", origem, destino, antiga);
+            jdbc.update("insert into TRANSFERENCIA_SHARD (ID, CONTA_ORIGEM, CONTA_DESTINO, VALOR, SITUACAO, MOMENTO) "
+                    + "values ('pendente-2', ?, ?, 20, 'DEBITADA', ?)", origem, removida, antiga);
+            return null;
+        });
+        ShardDataSource.em(1, () -> new JdbcTemplate(dataSource)
+                .update("delete from CONTA where NUMERO_CONTA = ?", removida));
+
+        assertEquals(2, entreShards.recuperar(Duration.ofMinutes(1)));
+
+        assertEquals(new BigDecimal("10.00"), saldo(1, destino));
+        assertEquals(new BigDecimal("20.00"), saldo(0, origem));
+        assertEquals("CONCLUIDA", consultar(0, "select SITUACAO from TRANSFERENCIA_SHARD where ID = 'pendente-1'"));
+        assertEquals("ESTORNADA", consultar(0, "select SITUACAO from TRANSFERENCIA_SHARD where ID = 'pendente-2'"));
+        assertEquals(0, entreShards.recuperar(Duration.ZERO));
+    }
+
+    @Test
+    void testIdDosMetodosHerdadosRoteiaPeloShardDaConta() {
+        int conta = criarConta(1, "0");
+
+        assertTrue(repository.findById(conta).isPresent());
+        assertTrue(repository.existsById(conta));
+    }
+
+    @Test
+    void testTransacaoNaoAtravessaShards() {
+        int conta = criarConta(1, "0");
+
+        assertThrows(IllegalStateException.class,
+                () -> ShardDataSource.em(0, () -> repository.findContaByNumeroConta(conta)));
+    }
+}
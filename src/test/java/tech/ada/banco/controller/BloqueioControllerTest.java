@@ -0,0 +1,211 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.model.Bloqueio;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.services.Bloqueios;
+import tech.ada.banco.services.Saque;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BloqueioControllerTest extends BaseContaTest {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Bloqueios bloqueios;
+
+    @Autowired
+    private Saque saque;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long bloquear(Conta conta, String valor, String validade) throws Exception {
+        String response = mvc.perform(post("/contas/" + conta.getNumeroConta() + "/bloqueios")
+                        .param("valor", valor)
+                        .param("validade", validade))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.situacao").value("ATIVO"))
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(response).get("id").asLong();
+    }
+
+    @Test
+    void testSaqueEPixRespeitamSaldoDisponivel() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        Conta destino = criarConta(BigDecimal.ZERO);
+        bloquear(conta, "70", "15m");
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "40"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/pix/" + conta.getNumeroConta())
+                        .param("destino", String.valueOf(destino.getNumeroConta()))
+                        .param("valor", "40"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "30"))
+                .andExpect(status().isOk());
+
+        conta = obtemContaDoBanco(conta);
+        assertEquals(BigDecimal.valueOf(7000, 2), conta.getSaldo());
+        assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldoDisponivel());
+        mvc.perform(post("/contas/" + conta.getNumeroConta() + "/bloqueios").param("valor", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBloqueioDesfeitoNaoEntraNaRoda() {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        Gauge agendados = registry.get("banco.bloqueios.agendados").gauge();
+        double antes = agendados.value();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bloqueios.bloquear(conta.getNumeroConta(), BigDecimal.TEN, Duration.ofMinutes(15));
+            assertEquals(antes, agendados.value(), "O prazo só é agendado depois da confirmação.");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(antes, agendados.value());
+        assertEquals(BigDecimal.ZERO.setScale(2), obtemContaDoBanco(conta).getBloqueado());
+    }
+
+    @Test
+    void testCapturaParcialDevolveORestante() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        long id = bloquear(conta, "60", "15m");
+
+        mvc.perform(post("/contas/" + conta.getNumeroConta() + "/bloqueios/" + id + "/captura").param("valor", "45"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.situacao").value("CAPTURADO"))
+                .andExpect(jsonPath("$.valorCapturado").value(45.0));
+
+        conta = obtemContaDoBanco(conta);
+        assertEquals(BigDecimal.valueOf(5500, 2), conta.getSaldo());
+        assertEquals(BigDecimal.valueOf(5500, 2), conta.getSaldoDisponivel());
+        mvc.perform(post("/contas/" + conta.getNumeroConta() + "/bloqueios/" + id + "/captura"))
+                .andExpect(status().isConflict());
+        mvc.perform(post("/contas/" + conta.getNumeroConta() + "/bloqueios/" + bloquear(conta, "10", "15m")
+                        + "/captura").param("valor", "11"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testLiberacao() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        long id = bloquear(conta, "60", "15m");
+        bloquear(conta, "10", "15m");
+
+        mvc.perform(get("/contas/" + conta.getNumeroConta() + "/bloqueios"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mvc.perform(delete("/contas/" + conta.getNumeroConta() + "/bloqueios/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.situacao").value("LIBERADO"));
+
+        assertEquals(BigDecimal.valueOf(9000, 2), obtemContaDoBanco(conta).getSaldoDisponivel());
+        mvc.perform(delete("/contas/" + conta.getNumeroConta() + "/bloqueios/" + id))
+                .andExpect(status().isConflict());
+        mvc.perform(delete("/contas/" + (conta.getNumeroConta() + 1_000_000) + "/bloqueios/" + id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBloqueioExpira() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        bloquear(conta, "60", "1ms");
+
+        long limite = System.currentTimeMillis() + 5000;
+        while (obtemContaDoBanco(conta).getBloqueado().signum() > 0 && System.currentTimeMillis() < limite) {
+            bloqueios.expirar();
+            Thread.sleep(50);
+        }
+
+        assertEquals(BigDecimal.valueOf(10000, 2), obtemContaDoBanco(conta).getSaldoDisponivel());
+        JsonNode ativos = mapper.readTree(mvc.perform(get("/contas/" + conta.getNumeroConta() + "/bloqueios"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(0, ativos.size());
+    }
+
+    @Test
+    void testBloqueiosESaquesSimultaneosRespeitamSaldoDisponivel() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+        int numeroConta = conta.getNumeroConta();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> bloqueados = new ArrayList<>();
+        List<Future<Boolean>> sacados = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 10; i++) {
+                bloqueados.add(executor.submit(tentar(largada,
+                        () -> bloqueios.bloquear(numeroConta, BigDecimal.TEN, Duration.ofMinutes(15)))));
+                sacados.add(executor.submit(tentar(largada, () -> saque.executar(numeroConta, BigDecimal.TEN))));
+            }
+            largada.countDown();
+            int bloqueiosFeitos = sucessos(bloqueados);
+            int saquesFeitos = sucessos(sacados);
+            assertEquals(10, bloqueiosFeitos + saquesFeitos);
+
+            conta = obtemContaDoBanco(conta);
+            BigDecimal ativos = bloqueios.ativos(numeroConta).stream()
+                    .map(Bloqueio::getValor)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(BigDecimal.valueOf(bloqueiosFeitos * 1000L, 2), conta.getBloqueado());
+            assertEquals(conta.getBloqueado(), ativos.setScale(2));
+            assertEquals(BigDecimal.valueOf((10 - saquesFeitos) * 1000L, 2), conta.getSaldo());
+            assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldoDisponivel());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Callable<Boolean> tentar(CountDownLatch largada, Runnable operacao) {
+        return () -> {
+            largada.await();
+            try {
+                operacao.run();
+                return true;
+            } catch (SaldoInsuficienteException e) {
+                return false;
+            }
+        };
+    }
+
+    private static int sucessos(List<Future<Boolean>> resultados) throws Exception {
+        int sucessos = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get(10, TimeUnit.SECONDS)) {
+                sucessos++;
+            }
+        }
+        return sucessos;
+    }
+}
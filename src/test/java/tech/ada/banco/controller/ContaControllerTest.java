@@ -0,0 +1,247 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+import tech.ada.banco.services.EncerramentoContas;
+import tech.ada.banco.services.OutboxMovimentacoes;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContaControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/contas";
+
+    @Autowired
+    private OutboxMovimentacoes outbox;
+
+    @Autowired
+    private EncerramentoContas encerramento;
+
+    @Autowired
+    private PessoaRepository pessoas;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private String saldo(Conta conta) throws Exception {
+        return mvc.perform(get(baseUri + "/" + conta.getNumeroConta() + "/saldo"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void testSaldoContaNaoIndexada() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(12.5));
+
+        assertEquals("12.50", saldo(conta));
+    }
+
+    @Test
+    void testSaldoAtualizadoAposMovimentacoes() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        Conta destino = criarConta(BigDecimal.ZERO);
+        saldo(conta);
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "5")).andExpect(status().isOk());
+        assertEquals("15.00", saldo(conta));
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "2.5")).andExpect(status().isOk());
+        assertEquals("12.50", saldo(conta));
+
+        mvc.perform(post("/pix/" + conta.getNumeroConta())
+                        .param("destino", String.valueOf(destino.getNumeroConta()))
+                        .param("valor", "0.5"))
+                .andExpect(status().isOk());
+        assertEquals("12.00", saldo(conta));
+        assertEquals("0.50", saldo(destino));
+    }
+
+    @Test
+    void testSaldoContaInexistente() throws Exception {
+        mvc.perform(get(baseUri + "/1/saldo")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSaldoContaExcluida() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+        saldo(conta);
+
+        mvc.perform(delete(baseUri + "/" + conta.getNumeroConta())).andExpect(status().isAccepted());
+
+        mvc.perform(get(baseUri + "/" + conta.getNumeroConta() + "/saldo")).andExpect(status().isNotFound());
+    }
+
+    private JsonNode historico(int conta) throws Exception {
+        return mapper.readTree(mvc.perform(get(baseUri + "/" + conta + "/historico"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void testContaEncerradaNaoMovimentaEFicaNoHistorico() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        int numero = conta.getNumeroConta();
+
+        mvc.perform(delete(baseUri + "/" + numero)).andExpect(status().isConflict());
+        mvc.perform(post("/saque/" + numero).param("valor", "10")).andExpect(status().isOk());
+        mvc.perform(delete(baseUri + "/" + numero)).andExpect(status().isAccepted());
+
+        mvc.perform(get(baseUri + "/" + numero)).andExpect(status().isNotFound());
+        mvc.perform(post("/deposito/" + numero).param("valor", "1")).andExpect(status().isNotFound());
+        mvc.perform(delete(baseUri + "/" + numero)).andExpect(status().isNotFound());
+        JsonNode encerrada = historico(numero);
+        assertEquals("ENCERRADA", encerrada.get("situacao").asText());
+        assertEquals(0, encerrada.get("saldo").decimalValue().signum());
+        assertTrue(encerrada.get("arquivadaEm").isNull());
+        assertEquals("SALDO", jdbcTemplate.queryForObject("select 'SALDO' from CONTA where NUMERO_CONTA = ?",
+                String.class, numero));
+    }
+
+    @Test
+    void testArquivamentoMoveContaSemApagarTitular() throws Exception {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CP,
+                new Pessoa("Helena", "11122233344", LocalDate.of(1970, 3, 1))));
+        int numero = conta.getNumeroConta();
+        mvc.perform(delete(baseUri + "/" + numero)).andExpect(status().isAccepted());
+        // fora da carência de 30 dias
+        jdbcTemplate.update("update CONTA set ENCERRADA_EM = ? where NUMERO_CONTA = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(31))), numero);
+
+        assertTrue(encerramento.arquivar() >= 1);
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from CONTA where NUMERO_CONTA = ?",
+                Integer.class, numero));
+        JsonNode arquivada = historico(numero);
+        assertEquals("ENCERRADA", arquivada.get("situacao").asText());
+        assertEquals("CP", arquivada.get("modalidade").asText());
+        assertFalse(arquivada.get("arquivadaEm").isNull());
+        assertEquals(conta.getTitular().getId(), arquivada.get("titular").asLong());
+        assertTrue(pessoas.existsById(conta.getTitular().getId()));
+    }
+
+    @Test
+    void testHistoricoContaInexistente() throws Exception {
+        mvc.perform(get(baseUri + "/1/historico")).andExpect(status().isNotFound());
+    }
+
+    private MvcResult assinarEventos(Conta conta, String ultimoEvento) throws Exception {
+        var requisicao = get(baseUri + "/" + conta.getNumeroConta() + "/eventos");
+        if (ultimoEvento != null) {
+            requisicao.header("Last-Event-ID", ultimoEvento);
+        }
+        return mvc.perform(requisicao).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private String aguardarEventos(MvcResult assinatura, String esperado) throws Exception {
+        MockHttpServletResponse resposta = assinatura.getResponse();
+        long limite = System.currentTimeMillis() + 5000;
+        while (!resposta.getContentAsString(StandardCharsets.UTF_8).contains(esperado)
+                && System.currentTimeMillis() < limite) {
+            outbox.transmitir();
+            Thread.sleep(20);
+        }
+        return resposta.getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testEventosDaConta() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        MvcResult assinatura = assinarEventos(conta, null);
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "5")).andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "2")).andExpect(status().isOk());
+
+        String eventos = aguardarEventos(assinatura, "event:SAQUE");
+        assertTrue(eventos.contains("event:DEPOSITO"));
+        assertTrue(eventos.contains("\"saldo\":13.00"), eventos);
+        assertTrue(eventos.indexOf("event:DEPOSITO") < eventos.indexOf("event:SAQUE"));
+    }
+
+    @Test
+    void testEventosRetomadosPeloUltimoRecebido() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        MvcResult primeira = assinarEventos(conta, null);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")).andExpect(status().isOk());
+        String recebidos = aguardarEventos(primeira, "event:DEPOSITO");
+        String ultimo = recebidos.substring(recebidos.indexOf("id:") + 3, recebidos.indexOf('\n', recebidos.indexOf("id:")));
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "4")).andExpect(status().isOk());
+        String retomados = aguardarEventos(assinarEventos(conta, ultimo), "event:SAQUE");
+
+        assertTrue(retomados.contains("event:SAQUE"), retomados);
+        assertFalse(retomados.contains("event:DEPOSITO"), retomados);
+    }
+
+    @Test
+    void testEventosContaInexistente() throws Exception {
+        mvc.perform(get(baseUri + "/1/eventos")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testContaMaisMovimentadaNoActuator() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(1000));
+        for (int i = 0; i < 50; i++) {
+            mvc.perform(get(baseUri + "/" + conta.getNumeroConta())).andExpect(status().isOk());
+        }
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "900")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/contasquentes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].porOperacoes[0].numeroConta").value(conta.getNumeroConta()))
+                .andExpect(jsonPath("$[0].porValor[0].numeroConta").value(conta.getNumeroConta()))
+                .andExpect(jsonPath("$[0].porValor[0].valor").value(900.0));
+    }
+
+    @Test
+    void testConsultaDeVariasContas() throws Exception {
+        Conta primeira = criarConta(BigDecimal.ONE);
+        Conta segunda = criarConta(BigDecimal.TEN);
+
+        mvc.perform(post(baseUri + "/consulta").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + segunda.getNumeroConta() + ", 1, " + primeira.getNumeroConta() + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].numeroConta").value(segunda.getNumeroConta()))
+                .andExpect(jsonPath("$[0].conta.saldo").value(10.0))
+                .andExpect(jsonPath("$[1].encontrada").value(false))
+                .andExpect(jsonPath("$[1].conta").isEmpty())
+                .andExpect(jsonPath("$[2].numeroConta").value(primeira.getNumeroConta()))
+                .andExpect(jsonPath("$[2].encontrada").value(true));
+    }
+
+    @Test
+    void testConsultaComElementoNuloEhRecusada() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post(baseUri + "/consulta").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + conta.getNumeroConta() + ", null]"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,88 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExportacaoControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/export";
+
+    @Autowired
+    private PessoaRepository pessoas;
+
+    private String exportar(String uri, String formato) throws Exception {
+        MvcResult resultado = mvc.perform(get(uri).param("formato", formato))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MockHttpServletResponse response = mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse();
+
+        return descompactar(response.getContentAsByteArray());
+    }
+
+    private String descompactar(byte[] conteudo) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(conteudo))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testExportarContasCsv() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(15.5));
+
+        String csv = exportar(baseUri + "/contas", "CSV");
+
+        String[] linhas = csv.split("\n");
+        assertEquals("numero_conta,agencia,tipo,saldo,pessoa_id", linhas[0]);
+        assertTrue(csv.contains("\n" + conta.getNumeroConta() + ",0001,CC,15.5"), csv);
+    }
+
+    @Test
+    void testExportarContasNdjson() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        String ndjson = exportar(baseUri + "/contas", "NDJSON");
+
+        assertTrue(ndjson.contains("{\"numero_conta\":" + conta.getNumeroConta()
+                + ",\"agencia\":\"0001\",\"tipo\":\"CC\",\"saldo\":10,\"pessoa_id\":null}\n"), ndjson);
+    }
+
+    @Test
+    void testExportarPessoasCsv() throws Exception {
+        String csv = exportar(baseUri + "/pessoas", "CSV");
+
+        assertTrue(csv.startsWith("id,nome,cpf,telefone,data_nascimento\n"), csv);
+    }
+
+    @Test
+    void testExportarNdjsonEscapaCaracteresDeControle() throws Exception {
+        pessoas.save(new Pessoa("Ana\u0001\u001fSilva\n", "12345678901", LocalDate.of(1990, 1, 1)));
+
+        String ndjson = exportar(baseUri + "/pessoas", "NDJSON");
+
+        assertTrue(ndjson.contains("\"nome\":\"Ana\\u0001\\u001fSilva\\n\""), ndjson);
+    }
+}
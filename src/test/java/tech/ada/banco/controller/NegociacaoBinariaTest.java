@@ -0,0 +1,115 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import tech.ada.banco.config.BinarioHttpMessageConverter;
+import tech.ada.banco.config.CodecBinario;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class NegociacaoBinariaTest extends BaseContaTest {
+
+    private static Object decodificar(byte[] bytes) throws IOException {
+        return CodecBinario.ler(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void testSaqueRespondeBinarioQuandoSolicitado() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+
+        byte[] response =
+                mvc.perform(post("/saque/" + contaBase.getNumeroConta())
+                                .param("valor", "2.5")
+                                .accept(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                        .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(new BigDecimal("7.50"), decodificar(response));
+    }
+
+    @Test
+    void testJsonContinuaSendoPadrao() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+
+        mvc.perform(get("/contas/" + contaBase.getNumeroConta()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testContaBinariaMenorQueJson() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+
+        byte[] binario = mvc.perform(get("/contas/" + contaBase.getNumeroConta())
+                        .accept(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mvc.perform(get("/contas/" + contaBase.getNumeroConta())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertTrue(binario.length * 2 < json.length);
+    }
+
+    @Test
+    void testListaSemFormatoBinarioRecusadaCom406() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+
+        mvc.perform(post("/contas/consulta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + contaBase.getNumeroConta() + "]")
+                        .accept(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testListaDeContasBinaria() throws Exception {
+        criarConta(BigDecimal.TEN);
+
+        mvc.perform(get("/contas").accept(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO));
+    }
+
+    @Test
+    void testBinarioSoNasRotasDeContaEDinheiro() throws Exception {
+        long titular = repository.save(new Conta(ModalidadeConta.CC,
+                new Pessoa("Rita Melo", "32165498700", LocalDate.of(1985, 2, 3)))).getTitular().getId();
+
+        mvc.perform(get("/pessoas/" + titular).accept(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testCriaContaComTitularBinario() throws Exception {
+        Pessoa titular = new Pessoa("Ana Souza", "98765432100", LocalDate.of(1992, 11, 5));
+
+        String response =
+                mvc.perform(post("/contas")
+                                .param("modalidade", "CC")
+                                .contentType(BinarioHttpMessageConverter.APPLICATION_BANCO_BINARIO)
+                                .content(CodecBinario.codificar(titular))
+                                .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+
+        assertTrue(response.contains("\"nome\":\"Ana Souza\""));
+        assertTrue(response.contains("\"dataNascimento\":\"1992-11-05\""));
+    }
+}
@@ -0,0 +1,132 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PessoaControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/pessoas";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private CacheRegionStatistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("pessoa");
+    }
+
+    private JsonNode criarPessoa(String nome) throws Exception {
+        String json = "{\"nome\":\"" + nome + "\",\"cpf\":\"12345678900\",\"dataNascimento\":\"1990-01-01\"}";
+        String response = mvc.perform(post(baseUri).content(json).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(response);
+    }
+
+    private JsonNode obterPessoa(long id) throws Exception {
+        String response = mvc.perform(get(baseUri + "/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(response);
+    }
+
+    @Test
+    void testPessoaLidaDoCache() throws Exception {
+        long id = criarPessoa("Maria").get("id").asLong();
+        obterPessoa(id);
+        long acertos = estatisticas().getHitCount();
+
+        JsonNode pessoa = obterPessoa(id);
+
+        assertEquals("Maria", pessoa.get("nome").asText());
+        assertTrue(estatisticas().getHitCount() > acertos, "A segunda leitura deve vir do cache.");
+    }
+
+    @Test
+    void testTitularDaContaLidoDoCache() {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC,
+                new Pessoa("José", "98765432100", LocalDate.of(1980, 5, 10))));
+        long acertos = estatisticas().getHitCount();
+
+        Conta lida = obtemContaDoBanco(conta);
+
+        assertEquals("José", lida.getTitular().getNome());
+        assertTrue(estatisticas().getHitCount() > acertos, "O titular deve vir do cache.");
+    }
+
+    @Test
+    void testAtualizacaoInvalidaCache() throws Exception {
+        long id = criarPessoa("Ana").get("id").asLong();
+        obterPessoa(id);
+
+        String json = "{\"id\":" + id + ",\"nome\":\"Ana Paula\",\"cpf\":\"12345678900\",\"dataNascimento\":\"1990-01-01\"}";
+        mvc.perform(put(baseUri).content(json).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals("Ana Paula", obterPessoa(id).get("nome").asText());
+    }
+
+    @Test
+    void testAtualizacaoGravaNoCacheSemVoltarAReplica() throws Exception {
+        long id = criarPessoa("Bruna").get("id").asLong();
+
+        String json = "{\"id\":" + id + ",\"nome\":\"Bruna Reis\",\"cpf\":\"12345678900\",\"dataNascimento\":\"1990-01-01\"}";
+        mvc.perform(put(baseUri).content(json).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        long faltas = estatisticas().getMissCount();
+
+        assertEquals("Bruna Reis", obterPessoa(id).get("nome").asText());
+        assertEquals(faltas, estatisticas().getMissCount(), "A leitura depois da atualização deve vir do cache.");
+    }
+
+    @Test
+    void testBuscaPorNomeParcial() throws Exception {
+        long id = criarPessoa("Valquíria Estrôncio Prado").get("id").asLong();
+        long outra = criarPessoa("Valquiria Santos").get("id").asLong();
+
+        JsonNode encontradas = mapper.readTree(mvc.perform(get(baseUri + "/busca").param("q", "valquiria estr"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(id, encontradas.get(0).get("id").asLong());
+
+        String json = "{\"id\":" + outra + ",\"nome\":\"Valquiria Estroncio\",\"cpf\":\"12345678900\","
+                + "\"dataNascimento\":\"1990-01-01\"}";
+        mvc.perform(put(baseUri).content(json).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        encontradas = mapper.readTree(mvc.perform(get(baseUri + "/busca").param("q", "Estroncio Valq"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(outra, encontradas.get(0).get("id").asLong());
+        assertEquals(id, encontradas.get(1).get("id").asLong());
+
+        mvc.perform(get(baseUri + "/busca").param("q", "valquiria").param("limite", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPessoaNaoEncontrada() throws Exception {
+        mvc.perform(get(baseUri + "/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,6 +2,7 @@ package tech.ada.banco.controller;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import tech.ada.banco.config.InstrumentacaoSqlConfig;
 import tech.ada.banco.model.Conta;
 
 import java.math.BigDecimal;
@@ -298,4 +299,24 @@ class PixControllerTest extends BaseContaTest {
         assertEquals(BigDecimal.valueOf(7.64).setScale(2), obtemContaDoBanco(contaBase).getSaldo());
         assertEquals(BigDecimal.valueOf(2.36).setScale(2), obtemContaDoBanco(contaDestino).getSaldo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPixInformaComandosSqlNoCabecalho() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+        Conta contaDestino = criarConta(BigDecimal.ZERO);
+
+        String comandos =
+                mvc.perform(
+                        post(baseUri + "/" + contaBase.getNumeroConta())
+                                .param("destino", String.valueOf(contaDestino.getNumeroConta()))
+                                .param("valor", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                ).andExpect(
+                        status().isOk()
+                ).andReturn()
+                        .getResponse()
+                        .getHeader(InstrumentacaoSqlConfig.CABECALHO_COMANDOS);
+
+        assertEquals("6", comandos);
+    }
+}
@@ -0,0 +1,212 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.services.ConciliacaoSaldos;
+import tech.ada.banco.services.TotaisAgencia;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RelatorioControllerTest extends BaseContaTest {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private TotaisAgencia totais;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JsonNode totalCC() throws Exception {
+        JsonNode totaisAgencia = mapper.readTree(mvc.perform(get("/relatorios/totais"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        for (JsonNode total : totaisAgencia) {
+            if (total.get("agencia").asText().equals("0001") && total.get("modalidade").asText().equals("CC")) {
+                return total;
+            }
+        }
+        throw new AssertionError("Sem totais para a agência 0001 CC: " + totaisAgencia);
+    }
+
+    private int abrirConta() throws Exception {
+        return mapper.readTree(mvc.perform(post("/contas").param("modalidade", "CC"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("numeroConta").asInt();
+    }
+
+    private static BigDecimal valor(JsonNode total, String campo) {
+        return total.get(campo).decimalValue().setScale(2);
+    }
+
+    @Test
+    void testTotaisAcompanhamMovimentacoes() throws Exception {
+        totais.gravar();
+        JsonNode antes = totalCC();
+
+        int origem = abrirConta();
+        int destino = abrirConta();
+        mvc.perform(post("/deposito/" + origem).param("valor", "10")).andExpect(status().isOk());
+        mvc.perform(post("/saque/" + origem).param("valor", "3")).andExpect(status().isOk());
+        mvc.perform(post("/pix/" + origem).param("destino", String.valueOf(destino)).param("valor", "2"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + destino).param("valor", "2")).andExpect(status().isOk());
+        mvc.perform(delete("/contas/" + destino)).andExpect(status().isAccepted());
+
+        JsonNode depois = totalCC();
+        assertEquals(antes.get("contas").asLong() + 1, depois.get("contas").asLong());
+        assertEquals(valor(antes, "saldo").add(new BigDecimal("5.00")), valor(depois, "saldo"));
+        assertEquals(valor(antes, "depositos").add(new BigDecimal("10.00")), valor(depois, "depositos"));
+
+        totais.gravar();
+        JsonNode gravado = totalCC();
+        assertEquals(depois, gravado);
+        assertEquals(valor(gravado, "saldo"), jdbcTemplate.queryForObject(
+                "select SALDO from TOTAL_AGENCIA where AGENCIA = '0001' and TIPO = 'CC'", BigDecimal.class).setScale(2));
+    }
+
+    @Test
+    void testReconciliacaoComCONTA() throws Exception {
+        criarConta(BigDecimal.valueOf(25));
+
+        totais.reconciliar();
+
+        JsonNode total = totalCC();
+        assertEquals(jdbcTemplate.queryForObject(
+                "select count(*) from CONTA where AGENCIA = '0001' and TIPO = 'CC' and SITUACAO = 'ATIVA'", Long.class),
+                total.get("contas").asLong());
+        assertEquals(jdbcTemplate.queryForObject(
+                "select coalesce(sum(SALDO), 0) from CONTA where AGENCIA = '0001' and TIPO = 'CC' "
+                        + "and SITUACAO = 'ATIVA'", BigDecimal.class)
+                .setScale(2), valor(total, "saldo"));
+    }
+
+    @Test
+    void testGravacaoDesfeitaContinuaPendente() throws Exception {
+        abrirConta();
+        totais.gravar();
+        JsonNode antes = totalCC();
+        mvc.perform(post("/deposito/" + abrirConta()).param("valor", "7")).andExpect(status().isOk());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            totais.gravar();
+            status.setRollbackOnly();
+        });
+
+        JsonNode depois = totalCC();
+        assertEquals(antes.get("contas").asLong() + 1, depois.get("contas").asLong());
+        assertEquals(valor(antes, "depositos").add(new BigDecimal("7.00")), valor(depois, "depositos"));
+        totais.gravar();
+        assertEquals(valor(depois, "depositos"), jdbcTemplate.queryForObject(
+                "select DEPOSITOS from TOTAL_AGENCIA where AGENCIA = '0001' and TIPO = 'CC'", BigDecimal.class)
+                .setScale(2));
+    }
+
+    @Test
+    void testReconciliacaoComVariacoesPendentes() throws Exception {
+        abrirConta();
+        totais.gravar();
+        JsonNode antes = totalCC();
+        mvc.perform(post("/deposito/" + abrirConta()).param("valor", "4")).andExpect(status().isOk());
+
+        totais.reconciliar();
+
+        JsonNode total = totalCC();
+        assertEquals(jdbcTemplate.queryForObject(
+                "select count(*) from CONTA where AGENCIA = '0001' and TIPO = 'CC' and SITUACAO = 'ATIVA'", Long.class),
+                total.get("contas").asLong());
+        assertEquals(valor(antes, "depositos").add(new BigDecimal("4.00")), valor(total, "depositos"));
+        totais.gravar();
+        assertEquals(total, totalCC());
+    }
+
+    @Test
+    void testReconciliacaoEsperaOutraInstanciaGravar() throws Exception {
+        abrirConta();
+        // outra instância com variações que a soma de CONTA já inclui e que ela ainda vai gravar
+        jdbcTemplate.update("insert into TOTAL_AGENCIA_INSTANCIA (INSTANCIA, PENDENTE, ATUALIZADO_EM) "
+                + "values ('outra', true, ?)", Timestamp.from(Instant.now()));
+        try {
+            CompletableFuture<Void> gravacao = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                jdbcTemplate.update("update TOTAL_AGENCIA_INSTANCIA set PENDENTE = false where INSTANCIA = 'outra'");
+            });
+            long inicio = System.nanoTime();
+
+            assertTrue(totais.reconciliar());
+
+            assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(300));
+            gravacao.join();
+
+            // marca pendente parada há mais de três gravações: a instância caiu e não vai gravar
+            jdbcTemplate.update("update TOTAL_AGENCIA_INSTANCIA set PENDENTE = true, ATUALIZADO_EM = ? "
+                    + "where INSTANCIA = 'outra'", Timestamp.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+            assertTrue(totais.reconciliar());
+        } finally {
+            jdbcTemplate.update("delete from TOTAL_AGENCIA_INSTANCIA where INSTANCIA = 'outra'");
+        }
+
+        JsonNode total = totalCC();
+        assertEquals(jdbcTemplate.queryForObject(
+                "select count(*) from CONTA where AGENCIA = '0001' and TIPO = 'CC' and SITUACAO = 'ATIVA'", Long.class),
+                total.get("contas").asLong());
+    }
+
+    private JsonNode divergencia(JsonNode relatorio, int conta) {
+        for (JsonNode divergencia : relatorio.get("divergencias")) {
+            if (divergencia.get("numeroConta").asInt() == conta) {
+                return divergencia;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testConciliacaoApontaSaldoSemLancamento() throws Exception {
+        int correta = abrirConta();
+        int alterada = abrirConta();
+        mvc.perform(post("/deposito/" + correta).param("valor", "10")).andExpect(status().isOk());
+        mvc.perform(post("/pix/" + correta).param("destino", String.valueOf(alterada)).param("valor", "4"))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("update CONTA set SALDO = SALDO + 1 where NUMERO_CONTA = ?", alterada);
+
+        JsonNode relatorio = mapper.readTree(mvc.perform(post("/relatorios/conciliacao"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertTrue(relatorio.get("contas").asLong() >= 2);
+        assertEquals(null, divergencia(relatorio, correta));
+        JsonNode divergencia = divergencia(relatorio, alterada);
+        assertEquals(ConciliacaoSaldos.TipoDivergencia.SALDO.name(), divergencia.get("tipo").asText());
+        assertEquals(new BigDecimal("4.00"), divergencia.get("esperado").decimalValue().setScale(2));
+        assertEquals(new BigDecimal("5.00"), divergencia.get("encontrado").decimalValue().setScale(2));
+        assertEquals(relatorio, mapper.readTree(mvc.perform(get("/relatorios/conciliacao"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()));
+    }
+}
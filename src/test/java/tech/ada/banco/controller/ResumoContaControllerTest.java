@@ -0,0 +1,167 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.repository.ResumoContaRepository;
+import tech.ada.banco.services.OutboxMovimentacoes;
+import tech.ada.banco.services.ProjecaoResumoContas;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResumoContaControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/resumos";
+
+    @Autowired
+    private ProjecaoResumoContas projecao;
+
+    @Autowired
+    private OutboxMovimentacoes outbox;
+
+    @Autowired
+    private ResumoContaRepository resumos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int criarContaComTitular(String nome, String cpf) throws Exception {
+        String json = "{\"nome\":\"" + nome + "\",\"cpf\":\"" + cpf + "\",\"dataNascimento\":\"1990-01-01\"}";
+        String conta = mvc.perform(post("/contas").param("modalidade", "CC")
+                        .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Integer.parseInt(conta.replaceAll(".*\"numeroConta\":(\\d+).*", "$1"));
+    }
+
+    @Test
+    void testContaNovaAparecePeloTitular() throws Exception {
+        int conta = criarContaComTitular("Helena Prado", "98765432100");
+        projecao.processarPendentes();
+
+        mvc.perform(get(baseUri + "/busca").param("cpf", "98765432100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.numeroConta == " + conta + ")].nomeTitular").value("Helena Prado"));
+        mvc.perform(get(baseUri + "/busca").param("nome", "Helena P"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.numeroConta == " + conta + ")]").exists());
+    }
+
+    @Test
+    void testMovimentacoesChegamPeloRelay() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        projecao.processarPendentes();
+        projecao.contaAlterada(conta.getNumeroConta());
+        projecao.processarPendentes();
+        assertNotNull(resumos.findById(conta.getNumeroConta()).orElseThrow());
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "5")).andExpect(status().isOk());
+        long limite = System.currentTimeMillis() + 5000;
+        while (resumos.findById(conta.getNumeroConta()).orElseThrow().getUltimaMovimentacao() == null
+                && System.currentTimeMillis() < limite) {
+            outbox.transmitir();
+            Thread.sleep(20);
+        }
+
+        mvc.perform(get(baseUri).param("aPartirDe", String.valueOf(conta.getNumeroConta() - 1)).param("tamanho", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].numeroConta").value(conta.getNumeroConta()))
+                .andExpect(jsonPath("$[0].saldo").value(15.0))
+                .andExpect(jsonPath("$[0].ultimaMovimentacao").exists());
+    }
+
+    @Test
+    void testConferenciaReleContaQueORelayNaoAtualizou() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        projecao.contaAlterada(conta.getNumeroConta());
+        projecao.processarPendentes();
+        projecao.conferir();
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "5")).andExpect(status().isOk());
+        long limite = System.currentTimeMillis() + 5000;
+        while (resumos.findById(conta.getNumeroConta()).orElseThrow().getUltimaMovimentacao() == null
+                && System.currentTimeMillis() < limite) {
+            outbox.transmitir();
+            Thread.sleep(20);
+        }
+        // simula um evento que o relay pulou: o resumo volta ao estado anterior ao depósito
+        jdbcTemplate.update("update RESUMO_CONTA set SALDO = 10, ULTIMA_MOVIMENTACAO = null, ULTIMO_EVENTO = null "
+                + "where NUMERO_CONTA = ?", conta.getNumeroConta());
+
+        // a conferência agendada pode chegar antes; de todo modo só ela relê a conta, já que o relay não volta
+        projecao.conferir();
+        projecao.processarPendentes();
+
+        assertEquals(0, new BigDecimal("15").compareTo(resumos.findById(conta.getNumeroConta()).orElseThrow().getSaldo()));
+        assertNotNull(resumos.findById(conta.getNumeroConta()).orElseThrow().getUltimoEvento());
+    }
+
+    @Test
+    void testConferenciaRecriaResumoAusenteERemoveResumoSemConta() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        projecao.contaAlterada(conta.getNumeroConta());
+        projecao.processarPendentes();
+        // marcações perdidas: a linha da conta sumiu e sobrou a de uma conta que não existe
+        jdbcTemplate.update("delete from RESUMO_CONTA where NUMERO_CONTA = ?", conta.getNumeroConta());
+        jdbcTemplate.update("insert into RESUMO_CONTA (NUMERO_CONTA, AGENCIA, TIPO, SALDO, ATUALIZADO_EM) "
+                + "values (9, '0001', 'CC', 1, current_timestamp)");
+
+        projecao.conferir();
+        projecao.processarPendentes();
+
+        assertEquals(0, BigDecimal.TEN.compareTo(resumos.findById(conta.getNumeroConta()).orElseThrow().getSaldo()));
+        assertFalse(resumos.existsById(9));
+    }
+
+    @Test
+    void testContaExcluidaSaiDoResumo() throws Exception {
+        int conta = criarContaComTitular("Otavio Lima", "11122233344");
+        projecao.processarPendentes();
+        assertTrue(resumos.existsById(conta));
+
+        mvc.perform(delete("/contas/" + conta)).andExpect(status().isAccepted());
+        projecao.processarPendentes();
+
+        assertFalse(resumos.existsById(conta));
+    }
+
+    @Test
+    void testTitularAlteradoEReconstrucao() throws Exception {
+        int conta = criarContaComTitular("Joana Dias", "55566677788");
+        projecao.processarPendentes();
+        long titular = Long.parseLong(mvc.perform(get("/contas/" + conta)).andReturn().getResponse()
+                .getContentAsString().replaceAll(".*\"titular\":\\{\"id\":(\\d+).*", "$1"));
+
+        mvc.perform(put("/pessoas").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + titular + ",\"nome\":\"Joana Dias Souza\",\"cpf\":\"55566677788\","
+                                + "\"dataNascimento\":\"1990-01-01\"}"))
+                .andExpect(status().isOk());
+        projecao.processarPendentes();
+        assertEquals("Joana Dias Souza", resumos.findById(conta).orElseThrow().getNomeTitular());
+
+        int reconstruidas = Integer.parseInt(mvc.perform(post(baseUri + "/reconstrucao"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(repository.count(), reconstruidas);
+        assertEquals("55566677788", resumos.findById(conta).orElseThrow().getCpfTitular());
+    }
+
+    @Test
+    void testBuscaExigeUmCriterio() throws Exception {
+        mvc.perform(get(baseUri + "/busca")).andExpect(status().isBadRequest());
+        mvc.perform(get(baseUri).param("tamanho", "0")).andExpect(status().isBadRequest());
+    }
+}
@@ -1,6 +1,7 @@
 package tech.ada.banco.controller;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import tech.ada.banco.model.Conta;
 
@@ -13,6 +14,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@SpringBootTest(properties = {"banco.limites.modalidades.CC.SAQUE.por-minuto=2000",
+        "banco.limites.modalidades.CC.SAQUE.por-dia=5000"})
 class SaqueControllerTest extends BaseContaTest {
 
     private final String baseUri = "/saque";
@@ -137,4 +140,21 @@ class SaqueControllerTest extends BaseContaTest {
         assertEquals(BigDecimal.valueOf(10).setScale(2), contaBase.getSaldo());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void testSaqueAcimaDoLimitePorMinuto() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.valueOf(3000));
+
+        String response =
+                mvc.perform(post(baseUri + "/" + contaBase.getNumeroConta())
+                                .param("valor", "2500")
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andReturn().getResponse().getErrorMessage();
+
+        contaBase = obtemContaDoBanco(contaBase);
+        assertEquals("Limite de movimentação da conta excedido.", response);
+        assertEquals(BigDecimal.valueOf(3000).setScale(2), contaBase.getSaldo());
+    }
+}
@@ -0,0 +1,72 @@
+package tech.ada.banco.services;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Tempo de importação de um arquivo de folha gerado com {@code linhas} créditos distribuídos entre
+ * {@code contas} contas. Uso: {@code java -Xmx2g tech.ada.banco.services.BenchmarkImportacaoFolha [linhas] [contas]}.
+ * <p>
+ * Meta: 1 milhão de linhas por minuto. Medido com os padrões (H2 em memória, lote de 1000): 112 a 120 s, ainda
+ * fora da meta. Pendente: o custo está no travamento e na gravação das contas por lote e na publicação de um
+ * evento por crédito; próximos passos são agregar os créditos por conta dentro do lote e gravar os eventos em
+ * lote antes de mexer na leitura, que já não aparece no perfil.
+ */
+public class BenchmarkImportacaoFolha {
+
+    public static void main(String[] args) throws Exception {
+        int linhas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int quantidadeContas = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Path diretorio = Files.createTempDirectory("benchmark-importacao");
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                // argumentos, e não properties(): as propriedades padrão perdem para o application.yml
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-importacao;Mode=Oracle;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--banco.importacao.diretorio=" + diretorio,
+                        "--logging.level.root=warn")) {
+            ContaRepository repository = contexto.getBean(ContaRepository.class);
+            int[] contas = new int[quantidadeContas];
+            for (int i = 0; i < contas.length; i++) {
+                contas[i] = repository.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta();
+            }
+
+            Path arquivo = diretorio.resolve("folha.csv");
+            Random random = new Random(42);
+            try (BufferedWriter saida = Files.newBufferedWriter(arquivo)) {
+                saida.write("conta;valor\n");
+                for (int i = 0; i < linhas; i++) {
+                    int centavos = 100_000 + random.nextInt(1_000_000);
+                    saida.write(contas[random.nextInt(contas.length)] + ";" + centavos / 100 + "," + centavos % 100
+                            / 10 + centavos % 10 + "\n");
+                }
+            }
+
+            ImportacaoFolha importacao = contexto.getBean(ImportacaoFolha.class);
+            long inicio = System.nanoTime();
+            ImportacaoFolha.Importacao atual;
+            try (InputStream entrada = Files.newInputStream(arquivo)) {
+                atual = importacao.receber(entrada);
+            }
+            while (atual.situacao() != ImportacaoFolha.Situacao.CONCLUIDA) {
+                Thread.sleep(100);
+                atual = importacao.consultar(atual.id());
+            }
+            System.out.printf("%d linhas (%d MB) importadas em %d ms: %d créditos, %d rejeitadas%n", linhas,
+                    Files.size(arquivo) >> 20, (System.nanoTime() - inicio) / 1_000_000, atual.creditadas(),
+                    atual.rejeitadas());
+        }
+    }
+}
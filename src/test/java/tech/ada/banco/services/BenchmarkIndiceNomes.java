@@ -0,0 +1,88 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.mockito.Mockito;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Pessoa;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Carga do {@link IndiceNomes} com nomes sintéticos (um ou dois prenomes e dois sobrenomes de listas comuns,
+ * parte deles com acento) e latência de buscas por prefixo, por prefixos frequentes e com erro de digitação.
+ * Uso: {@code java -Xmx8g tech.ada.banco.services.BenchmarkIndiceNomes [pessoas] [buscas]}.
+ */
+public class BenchmarkIndiceNomes {
+
+    private static final String[] PRENOMES = {"Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos",
+            "Paulo", "Pedro", "Lucas", "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Francisca", "Daniel",
+            "Marcelo", "Bruno", "Eduardo", "Felipe", "Raimundo", "Rodrigo", "Antônia", "Adriana", "Juliana", "Márcia",
+            "Fernanda", "Patrícia", "Aline", "Sandra", "Camila", "Amanda", "Bruna", "Jéssica", "Letícia", "Júlia",
+            "Luciana", "Vanessa", "Mariana", "Gabriela", "Vera", "Vitória", "Larissa", "Cláudia", "Beatriz"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+            "Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes",
+            "Marques", "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira",
+            "Araújo", "Albuquerque", "Cavalcanti", "Bezerra", "Monteiro", "Brandão", "Figueiredo", "Magalhães"};
+
+    public static void main(String[] args) {
+        int pessoas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int buscas = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        IndiceNomes indice = new IndiceNomes(Mockito.mock(DataSource.class), Shards.unico(),
+                new SimpleMeterRegistry(), 10_000, 0.6);
+        Random aleatorio = new Random(42);
+        Pessoa pessoa = new Pessoa("", "00000000000", LocalDate.of(1990, 1, 1));
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < pessoas; i++) {
+            pessoa.setId(100L + i);
+            pessoa.setNome(nome(aleatorio) + " " + i);
+            indice.indexar(pessoa);
+        }
+        System.out.printf("%d pessoas indexadas em %d ms, %d MB%n", pessoas,
+                (System.nanoTime() - inicio) / 1_000_000, indice.getBytes() / (1024 * 1024));
+
+        medir("nome completo", indice, buscas, () -> nome(aleatorio));
+        medir("prefixos curtos", indice, buscas, () -> prefixo(PRENOMES[aleatorio.nextInt(PRENOMES.length)], 3)
+                + " " + prefixo(SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)], 2));
+        medir("número", indice, buscas, () -> String.valueOf(aleatorio.nextInt(pessoas)));
+        medir("erro de digitação", indice, buscas, () -> {
+            String sobrenome = SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+            int posicao = 1 + aleatorio.nextInt(sobrenome.length() - 1);
+            return sobrenome.substring(0, posicao) + sobrenome.substring(posicao + 1) + " 12345";
+        });
+    }
+
+    private static String nome(Random aleatorio) {
+        StringBuilder nome = new StringBuilder(PRENOMES[aleatorio.nextInt(PRENOMES.length)]);
+        if (aleatorio.nextBoolean()) {
+            nome.append(' ').append(PRENOMES[aleatorio.nextInt(PRENOMES.length)]);
+        }
+        return nome.append(' ').append(SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)])
+                .append(' ').append(SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]).toString();
+    }
+
+    private static String prefixo(String palavra, int tamanho) {
+        return palavra.substring(0, Math.min(tamanho, palavra.length()));
+    }
+
+    private static void medir(String tipo, IndiceNomes indice, int buscas, Supplier<String> consultas) {
+        Histogram latencias = new Histogram(3);
+        for (int i = 0; i < buscas * 2; i++) {
+            String consulta = consultas.get();
+            long inicio = System.nanoTime();
+            indice.buscar(consulta, 20);
+            // a primeira metade aquece o JIT e não entra na conta
+            if (i >= buscas) {
+                latencias.recordValue((System.nanoTime() - inicio) / 1000);
+            }
+        }
+        System.out.printf("%-18s p50 %8.2f ms, p99 %8.2f ms, máx %8.2f ms%n", tipo,
+                latencias.getValueAtPercentile(50) / 1000.0, latencias.getValueAtPercentile(99) / 1000.0,
+                latencias.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,103 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.EventoConta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.MovimentacaoConta;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanalEventosTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private EventoConta evento(int numeroConta, long id) {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.setNumeroConta(numeroConta);
+        EventoConta evento = new EventoConta(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.DEPOSITO, BigDecimal.ONE));
+        ReflectionTestUtils.setField(evento, "id", id);
+        return evento;
+    }
+
+    private double contador(String nome) {
+        return registry.get(nome).counter().count();
+    }
+
+    @Test
+    void testAssinanteLentoEDesconectado() throws InterruptedException {
+        ExecutorService envio = Executors.newSingleThreadExecutor();
+        CountDownLatch liberar = new CountDownLatch(1);
+        envio.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CanalEventos canal = new CanalEventos(registry, 2, 60000, envio);
+        canal.assinar(10001, null, desde -> List.of());
+        canal.assinar(10002, null, desde -> List.of());
+
+        canal.publicar(evento(10001, 1));
+        canal.publicar(evento(10001, 2));
+        canal.publicar(evento(10002, 3));
+        assertEquals(2, canal.getAssinantes());
+        canal.publicar(evento(10001, 4));
+
+        assertEquals(1, canal.getAssinantes());
+        assertEquals(1.0, contador("banco.eventos.assinantes.descartados"));
+        liberar.countDown();
+        envio.shutdown();
+        assertTrue(envio.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1.0, contador("banco.eventos.enviados"));
+    }
+
+    @Test
+    void testHistoricoEEventosAoVivoNaoSeRepetem() throws InterruptedException {
+        ExecutorService envio = Executors.newSingleThreadExecutor();
+        CanalEventos canal = new CanalEventos(registry, 16, 60000, envio);
+
+        canal.assinar(10001, 0L, desde -> {
+            if (desde > 0) {
+                return List.of();
+            }
+            // publicado enquanto o histórico é lido: fica na fila e não é enviado duas vezes
+            canal.publicar(evento(10001, 2));
+            return List.of(evento(10001, 1), evento(10001, 2));
+        });
+        canal.publicar(evento(10001, 3));
+        canal.publicar(evento(10002, 4));
+
+        envio.shutdown();
+        assertTrue(envio.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(3.0, contador("banco.eventos.enviados"));
+    }
+
+    @Test
+    void testHistoricoPaginadoEEventoAtrasado() throws InterruptedException {
+        ExecutorService envio = Executors.newSingleThreadExecutor();
+        CanalEventos canal = new CanalEventos(registry, 16, 60000, envio);
+
+        canal.assinar(10001, 0L, desde -> desde < 4 ? List.of(evento(10001, desde + 1), evento(10001, desde + 2))
+                : List.of());
+        canal.publicar(evento(10001, 6));
+        // confirmado depois do 6 por uma transação mais longa
+        canal.publicarAtrasado(evento(10001, 5));
+        canal.publicar(evento(10001, 5));
+
+        envio.shutdown();
+        assertTrue(envio.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(6.0, contador("banco.eventos.enviados"));
+    }
+}
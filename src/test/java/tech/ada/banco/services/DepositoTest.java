@@ -2,6 +2,7 @@ package tech.ada.banco.services;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.exceptions.ValorInvalidoException;
 import tech.ada.banco.model.Conta;
@@ -18,12 +19,13 @@ import static org.mockito.Mockito.*;
 public class DepositoTest {
 
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
-    private final Deposito deposito = new Deposito(repository);
+    private final Deposito deposito = new Deposito(repository, Mockito.mock(ApplicationEventPublisher.class),
+            PerfilOperacoes.desligado());
 
     @Test
     void testDepositoContaNaoEncontrada() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser 0.00.");
 
         try {
@@ -41,7 +43,7 @@ public class DepositoTest {
     void testDepositoDeValorNegativo() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         try {
             deposito.executar(10, BigDecimal.valueOf(-10));
             fail("A conta deveria lançar o erro ValorInvalidoException ao tentar depositar um valor negativo.");
@@ -52,7 +54,7 @@ public class DepositoTest {
     @Test
     void testDepositoComSaldoZerado() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(12));
@@ -63,7 +65,7 @@ public class DepositoTest {
     void testDepositosConsecutivos() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
 
         deposito.executar(10, BigDecimal.TEN);
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(), "O saldo da conta deve ser alterado para 10.00.");
@@ -75,7 +77,7 @@ public class DepositoTest {
     @Test
     void testDepositoDeNumeroQuebrado() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(12.27));
@@ -85,7 +87,7 @@ public class DepositoTest {
     @Test
     void testDepositoArredondamentoParaCima() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(12.279));
@@ -95,7 +97,7 @@ public class DepositoTest {
     @Test
     void testDepositoArredondamentoParaBaixo() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(12.2709));
@@ -105,7 +107,7 @@ public class DepositoTest {
     @Test
     void testDepositoArredondamentoImpar() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(10.275));
@@ -115,7 +117,7 @@ public class DepositoTest {
     @Test
     void testDepositoArredondamentoPar() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
         deposito.executar(10, BigDecimal.valueOf(10.265));
@@ -0,0 +1,73 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EsbocoQuentesTest {
+
+    @Test
+    void testEncontraContasQuentesNoMeioDoRuido() throws Exception {
+        EsbocoQuentes esboco = new EsbocoQuentes(1024, 64, 6, 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] tarefas = new Future<?>[4];
+            for (int t = 0; t < tarefas.length; t++) {
+                int semente = t;
+                tarefas[t] = executor.submit(() -> {
+                    Random aleatorio = new Random(semente);
+                    for (int i = 0; i < 50_000; i++) {
+                        esboco.somar(10_000 + aleatorio.nextInt(100_000), 1, 0);
+                        if (i % 10 == 0) {
+                            esboco.somar(1 + i % 3, 1, 0);
+                        }
+                    }
+                });
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<EsbocoQuentes.Item> maiores = esboco.maiores(3, 0);
+        assertEquals(List.of(1, 2, 3), maiores.stream().map(EsbocoQuentes.Item::numeroConta).sorted().toList());
+        for (EsbocoQuentes.Item item : maiores) {
+            assertTrue(item.total() >= 6_668, "A estimativa nunca fica abaixo do real.");
+        }
+    }
+
+    @Test
+    void testJanelaDeslizaEDescartaFatiasAntigas() {
+        EsbocoQuentes esboco = new EsbocoQuentes(1024, 64, 6, 10_000);
+        esboco.somar(10_000, 500, 0);
+        esboco.somar(10_000, 250, 30_000);
+        esboco.somar(20_000, 100, 30_000);
+
+        assertEquals(750, esboco.estimar(10_000, 59_999));
+        assertEquals(250, esboco.estimar(10_000, 60_000), "A primeira fatia saiu da janela.");
+        assertEquals(List.of(new EsbocoQuentes.Item(10_000, 250), new EsbocoQuentes.Item(20_000, 100)),
+                esboco.maiores(5, 60_000));
+        assertTrue(esboco.maiores(5, 90_000).isEmpty());
+    }
+
+    @Test
+    void testContaQueEsfriouCedeAPosicao() {
+        EsbocoQuentes esboco = new EsbocoQuentes(1024, 4, 2, 10_000);
+        for (int conta = 1; conta <= 4; conta++) {
+            esboco.somar(conta, 1_000, 0);
+        }
+        esboco.somar(99, 1, 20_000);
+
+        assertEquals(List.of(new EsbocoQuentes.Item(99, 1)), esboco.maiores(5, 20_000));
+    }
+}
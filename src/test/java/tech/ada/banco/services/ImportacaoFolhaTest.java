@@ -0,0 +1,148 @@
+package tech.ada.banco.services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.LoteImportacaoRepository;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"banco.importacao.diretorio=target/importacoes-teste", "banco.importacao.tamanho-lote=2"})
+class ImportacaoFolhaTest {
+
+    @Autowired
+    private ImportacaoFolha importacao;
+
+    @Autowired
+    private ContaRepository repository;
+
+    @Autowired
+    private LoteImportacaoRepository lotes;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${banco.importacao.diretorio}")
+    private Path diretorio;
+
+    @BeforeEach
+    void limparDiretorio() throws Exception {
+        // o banco em memória recomeça a numeração das contas, então o mesmo arquivo (e id) se repete entre execuções
+        Files.createDirectories(diretorio);
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.toList()) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    private Conta criarConta() {
+        return repository.save(new Conta(ModalidadeConta.CC, null));
+    }
+
+    private BigDecimal saldo(Conta conta) {
+        return repository.findContaByNumeroConta(conta.getNumeroConta()).orElseThrow().getSaldo();
+    }
+
+    private ImportacaoFolha.Importacao aguardar(String id) throws InterruptedException {
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            ImportacaoFolha.Importacao atual = importacao.consultar(id);
+            if (atual.situacao() == ImportacaoFolha.Situacao.CONCLUIDA) {
+                return atual;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Importação não concluída.");
+    }
+
+    @Test
+    void testImportacaoCreditaLinhasValidasERegistraResultado() throws Exception {
+        Conta primeira = criarConta();
+        Conta segunda = criarConta();
+        String arquivo = "conta;valor\r\n"
+                + primeira.getNumeroConta() + ";1500,50\r\n"
+                + segunda.getNumeroConta() + ",20.1\r\n"
+                + String.format("%010d%015d", primeira.getNumeroConta(), 99) + "\r\n"
+                + "999999999;10\r\n"
+                + segunda.getNumeroConta() + ";-5\r\n"
+                + segunda.getNumeroConta() + ";1.234\r\n"
+                + "abc;10";
+
+        String id = importacao.receber(new ByteArrayInputStream(arquivo.getBytes(StandardCharsets.UTF_8))).id();
+        ImportacaoFolha.Importacao concluida = aguardar(id);
+
+        assertEquals(3, concluida.creditadas());
+        assertEquals(4, concluida.rejeitadas());
+        assertEquals(new BigDecimal("1501.49"), saldo(primeira));
+        assertEquals(new BigDecimal("20.10"), saldo(segunda));
+        assertEquals(List.of(
+                "2;" + primeira.getNumeroConta() + ";1500.50;CREDITADA",
+                "3;" + segunda.getNumeroConta() + ";20.10;CREDITADA",
+                "4;" + primeira.getNumeroConta() + ";0.99;CREDITADA",
+                "5;999999999;10.00;CONTA_INEXISTENTE",
+                "6;" + segunda.getNumeroConta() + ";0.00;VALOR_INVALIDO",
+                "7;" + segunda.getNumeroConta() + ";0.00;VALOR_INVALIDO",
+                "8;;;FORMATO_INVALIDO"), Files.readAllLines(importacao.resultado(id)));
+    }
+
+    @Test
+    void testRetomadaNaoCreditaLotesJaAplicados() throws Exception {
+        Conta conta = criarConta();
+        String arquivo = conta.getNumeroConta() + ";10\n" + conta.getNumeroConta() + ";20\n"
+                + conta.getNumeroConta() + ";30\n";
+        String id = importacao.receber(new ByteArrayInputStream(arquivo.getBytes(StandardCharsets.UTF_8))).id();
+        aguardar(id);
+
+        // sem o arquivo de progresso a importação recomeça do início, como depois de uma queda antes de gravá-lo
+        Files.delete(diretorio.resolve(id + ".progresso"));
+        importacao.iniciar(id);
+        ImportacaoFolha.Importacao retomada = aguardar(id);
+
+        assertEquals(3, retomada.creditadas());
+        assertEquals(new BigDecimal("60.00"), saldo(conta), "Lotes registrados não podem ser creditados de novo.");
+        assertEquals(3, Files.readAllLines(importacao.resultado(id)).size());
+    }
+
+    @Test
+    void testRetomadaComOutroTamanhoDeLoteNaoCreditaDeNovo() throws Exception {
+        Conta conta = criarConta();
+        String arquivo = conta.getNumeroConta() + ";10\n" + conta.getNumeroConta() + ";20\n"
+                + conta.getNumeroConta() + ";30\n" + conta.getNumeroConta() + ";40\n";
+        String id = importacao.receber(new ByteArrayInputStream(arquivo.getBytes(StandardCharsets.UTF_8))).id();
+        aguardar(id);
+
+        // lotes de 2 registraram as linhas 1-2 e 3-4; a retomada com lotes de 3 lê 1-3 e depois 4
+        Files.delete(diretorio.resolve(id + ".progresso"));
+        new ImportacaoFolha(repository, lotes, eventos, entityManager, shards, transactionManager, diretorio, 3)
+                .processar(id);
+
+        assertEquals(4, importacao.consultar(id).creditadas());
+        assertEquals(new BigDecimal("100.00"), saldo(conta), "Linhas já registradas não podem ser creditadas de novo.");
+    }
+}
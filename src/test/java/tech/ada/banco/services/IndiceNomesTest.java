@@ -0,0 +1,89 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Pessoa;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceNomesTest {
+
+    private final IndiceNomes indice = new IndiceNomes(Mockito.mock(DataSource.class), Shards.unico(),
+            new SimpleMeterRegistry(), 10_000, 0.6);
+
+    private void indexar(long id, String nome) {
+        Pessoa pessoa = new Pessoa(nome, "12345678900", LocalDate.of(1990, 1, 1));
+        pessoa.setId(id);
+        indice.indexar(pessoa);
+    }
+
+    @Test
+    void testNormalizacao() {
+        assertArrayEquals("jose antonio d avila".getBytes(), IndiceNomes.normalizar("  José ANTÔNIO d'Ávila "));
+    }
+
+    @Test
+    void testBuscaPorPrefixoSemAcentos() {
+        indexar(100, "José Antônio da Silva");
+        indexar(101, "Maria José Souza");
+        indexar(102, "Antonia Pereira");
+
+        assertEquals(List.of(100L), indice.buscar("jose ANT", 10));
+        assertEquals(List.of(101L, 100L), indice.buscar("Jos", 10));
+        assertEquals(List.of(), indice.buscar("  ", 10));
+    }
+
+    @Test
+    void testPalavraInteiraEPrimeiroNomeMaisCurto() {
+        indexar(100, "Antonieta Barros Carvalho");
+        indexar(101, "Ana Beatriz Carvalho de Oliveira");
+        indexar(102, "Ana Carvalho");
+
+        assertEquals(List.of(102L, 100L, 101L), indice.buscar("an carvalho", 10));
+        assertEquals(List.of(102L, 101L), indice.buscar("ana carv", 10));
+        assertEquals(List.of(102L), indice.buscar("an carvalho", 1));
+    }
+
+    @Test
+    void testBuscaAproximadaToleraErroDeDigitacao() {
+        indexar(100, "Pedro Albuquerque");
+        indexar(101, "Pedro Alves");
+
+        assertEquals(List.of(100L), indice.buscar("albuquerqe", 10));
+        assertEquals(List.of(100L), indice.buscar("pedro albuquerqe", 10));
+    }
+
+    @Test
+    void testAtualizacaoSubstituiNome() {
+        indexar(100, "Ana Souza");
+        indexar(100, "Ana Paula Lima");
+
+        assertEquals(List.of(), indice.buscar("souza", 10));
+        assertEquals(List.of(100L), indice.buscar("paula", 10));
+        assertEquals(1, indice.getIndexadas());
+    }
+
+    @Test
+    void testCompactacaoMantemResultados() {
+        for (int i = 0; i < 3000; i++) {
+            indexar(100 + i, "Cliente " + i);
+        }
+        for (int i = 0; i < 3000; i += 2) {
+            indexar(100 + i, "Renomeado " + i);
+        }
+
+        assertEquals(3000, indice.getIndexadas());
+        assertEquals(List.of(1100L), indice.buscar("renomeado 1000", 1));
+        assertEquals(List.of(1101L), indice.buscar("cliente 1001", 1));
+        assertTrue(indice.buscar("cliente 1000", 10).stream().noneMatch(id -> id == 1100L));
+        assertTrue(indice.getBytes() > 0);
+    }
+}
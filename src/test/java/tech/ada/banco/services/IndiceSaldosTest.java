@@ -0,0 +1,170 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import tech.ada.banco.config.Shards;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceSaldosTest {
+
+    private IndiceSaldos criarIndice(long capacidade) {
+        return new IndiceSaldos(capacidade, Mockito.mock(DataSource.class), Shards.unico());
+    }
+
+    @Test
+    void testContaNaoIndexada() {
+        IndiceSaldos indice = criarIndice(16);
+
+        assertEquals(IndiceSaldos.AUSENTE, indice.saldo(10000));
+    }
+
+    @Test
+    void testAtualizacaoSobrescreveSaldo() {
+        IndiceSaldos indice = criarIndice(16);
+
+        indice.atualizar(10000, 1000, 1);
+        indice.atualizar(10000, 250, 2);
+
+        assertEquals(250, indice.saldo(10000));
+        assertEquals(1, indice.getOcupadas());
+    }
+
+    @Test
+    void testMuitasContasComColisoes() {
+        IndiceSaldos indice = criarIndice(100_000);
+
+        for (int conta = 0; conta < 80_000; conta++) {
+            indice.atualizar(conta, conta * 3L, 1);
+        }
+
+        for (int conta = 0; conta < 80_000; conta++) {
+            assertEquals(conta * 3L, indice.saldo(conta));
+        }
+        assertEquals(IndiceSaldos.AUSENTE, indice.saldo(80_000));
+    }
+
+    @Test
+    void testRemocao() {
+        IndiceSaldos indice = criarIndice(16);
+        indice.atualizar(10000, 1000, 1);
+        indice.atualizar(10001, 2000, 1);
+
+        indice.remover(10000);
+
+        assertEquals(IndiceSaldos.AUSENTE, indice.saldo(10000));
+        assertEquals(2000, indice.saldo(10001));
+    }
+
+    @Test
+    void testIndiceCheioIgnoraNovasContas() {
+        IndiceSaldos indice = criarIndice(16);
+
+        for (int conta = 0; conta < 20; conta++) {
+            indice.atualizar(conta, 1, 1);
+        }
+
+        assertEquals(14, indice.getOcupadas(), "Com 16 posições o índice aceita até 90% de ocupação.");
+        indice.atualizar(0, 5, 2);
+        assertEquals(5, indice.saldo(0), "Contas já indexadas continuam sendo atualizadas.");
+    }
+
+    @Test
+    void testRemocaoLiberaPosicoes() {
+        IndiceSaldos indice = criarIndice(16);
+        for (int conta = 0; conta < 14; conta++) {
+            indice.atualizar(conta, conta, 1);
+        }
+
+        for (int conta = 0; conta < 14; conta += 2) {
+            indice.remover(conta);
+        }
+        for (int conta = 100; conta < 107; conta++) {
+            indice.atualizar(conta, conta, 1);
+        }
+
+        assertEquals(14, indice.getOcupadas());
+        for (int conta = 1; conta < 14; conta += 2) {
+            assertEquals(conta, indice.saldo(conta));
+        }
+        for (int conta = 100; conta < 107; conta++) {
+            assertEquals(conta, indice.saldo(conta));
+        }
+    }
+
+    @Test
+    void testRemocaoComColisoes() {
+        IndiceSaldos indice = criarIndice(100_000);
+        for (int conta = 0; conta < 80_000; conta++) {
+            indice.atualizar(conta, conta * 3L, 1);
+        }
+
+        for (int conta = 0; conta < 80_000; conta += 2) {
+            indice.remover(conta);
+        }
+
+        for (int conta = 0; conta < 80_000; conta++) {
+            assertEquals(conta % 2 == 0 ? IndiceSaldos.AUSENTE : conta * 3L, indice.saldo(conta));
+        }
+        assertEquals(40_000, indice.getOcupadas());
+    }
+
+    @Test
+    void testInsercaoSeAusenteNaoSobrescreve() {
+        IndiceSaldos indice = criarIndice(16);
+        indice.atualizar(10000, 500, 1);
+
+        indice.inserirSeAusente(10000, 100, 2);
+        indice.inserirSeAusente(10001, 100, 1);
+
+        assertEquals(500, indice.saldo(10000));
+        assertEquals(100, indice.saldo(10001));
+    }
+
+    @Test
+    void testVersaoAntigaNaoSobrescreve() {
+        IndiceSaldos indice = criarIndice(16);
+        indice.atualizar(10000, 300, 3);
+
+        // confirmação de uma movimentação anterior que chegou depois da seguinte
+        indice.atualizar(10000, 200, 2);
+
+        assertEquals(300, indice.saldo(10000));
+    }
+
+    @Test
+    void testLeituraDuranteRemocaoNaoDevolveSaldoDeOutraConta() throws Exception {
+        IndiceSaldos indice = criarIndice(16);
+        // o saldo de cada conta é o próprio número: qualquer outro valor veio de outra posição
+        for (int conta = 0; conta < 14; conta++) {
+            indice.atualizar(conta, conta, 1);
+        }
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicLong erradas = new AtomicLong();
+        Thread leitor = new Thread(() -> {
+            while (!parar.get()) {
+                for (int conta = 0; conta < 14; conta++) {
+                    long saldo = indice.saldo(conta);
+                    if (saldo != IndiceSaldos.AUSENTE && saldo != conta) {
+                        erradas.incrementAndGet();
+                    }
+                }
+            }
+        });
+        leitor.start();
+        for (int rodada = 0; rodada < 200_000; rodada++) {
+            int conta = rodada % 14;
+            indice.remover(conta);
+            indice.atualizar(conta, conta, 1);
+        }
+        parar.set(true);
+        leitor.join();
+
+        assertEquals(0, erradas.get());
+        assertEquals(14, indice.getOcupadas());
+    }
+}
@@ -0,0 +1,136 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeituraContasTest {
+
+    private final ContaRepository repository = mock(ContaRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Conta conta = new Conta(ModalidadeConta.CC, null);
+
+    private LeituraContas leituras(Duration validade) {
+        return new LeituraContas(repository, new ConsistenciaLeitura(0), Shards.unico(),
+                mock(PlatformTransactionManager.class), registry, validade, 5, 2);
+    }
+
+    private double leituras(String origem) {
+        return registry.get("banco.contas.leituras").tag("origem", origem).counter().count();
+    }
+
+    @Test
+    void testLeiturasSimultaneasCompartilhamConsulta() throws Exception {
+        LeituraContas leituras = leituras(Duration.ZERO);
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(repository.findContaByNumeroConta(10)).thenAnswer(invocacao -> {
+            consultando.countDown();
+            liberar.await();
+            return Optional.of(conta);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Conta>>> resultados = new ArrayList<>();
+            resultados.add(executor.submit(() -> leituras.buscar(10)));
+            assertTrue(consultando.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                resultados.add(executor.submit(() -> leituras.buscar(10)));
+            }
+            while (leituras("coalescida") < 7) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+            for (Future<Optional<Conta>> resultado : resultados) {
+                assertSame(conta, resultado.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(repository, times(1)).findContaByNumeroConta(10);
+        assertEquals(1, leituras("banco"));
+
+        leituras.buscar(10);
+        verify(repository, times(2)).findContaByNumeroConta(10);
+    }
+
+    @Test
+    void testResultadoValeAteMovimentacao() {
+        LeituraContas leituras = leituras(Duration.ofMinutes(1));
+        conta.setNumeroConta(10);
+        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+
+        leituras.buscar(10);
+        leituras.buscar(10);
+        verify(repository, times(1)).findContaByNumeroConta(10);
+        assertEquals(1, leituras("coalescida"));
+
+        leituras.movimentada(MovimentacaoConta.de(conta, MovimentacaoConta.Tipo.DEPOSITO, BigDecimal.TEN));
+        leituras.buscar(10);
+        verify(repository, times(2)).findContaByNumeroConta(10);
+    }
+
+    @Test
+    void testContaInexistenteNaoFicaGuardada() {
+        LeituraContas leituras = leituras(Duration.ofMinutes(1));
+        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.empty());
+
+        assertTrue(leituras.buscar(10).isEmpty());
+        assertTrue(leituras.buscar(10).isEmpty());
+
+        verify(repository, times(2)).findContaByNumeroConta(Mockito.anyInt());
+    }
+
+    @Test
+    void testConsultaEmLotesMantemOrdemPedida() {
+        LeituraContas leituras = leituras(Duration.ZERO);
+        Conta outra = new Conta(ModalidadeConta.CP, null);
+        conta.setNumeroConta(10);
+        outra.setNumeroConta(30);
+        when(repository.findByNumeroContaIn(List.of(30, 20))).thenReturn(List.of(outra));
+        when(repository.findByNumeroContaIn(List.of(10))).thenReturn(List.of(conta));
+
+        List<LeituraContas.ContaConsultada> consultadas = leituras.consultar(List.of(30, 20, 10, 30));
+
+        assertEquals(List.of(30, 20, 10, 30), consultadas.stream().map(LeituraContas.ContaConsultada::numeroConta)
+                .toList());
+        assertSame(outra, consultadas.get(0).conta());
+        assertFalse(consultadas.get(1).encontrada());
+        assertNull(consultadas.get(1).conta());
+        assertSame(conta, consultadas.get(2).conta());
+        assertTrue(consultadas.get(3).encontrada());
+        verify(repository, times(2)).findByNumeroContaIn(Mockito.anyCollection());
+        assertThrows(ValorInvalidoException.class, () -> leituras.consultar(List.of(1, 2, 3, 4, 5, 6)));
+    }
+}
@@ -0,0 +1,121 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.ada.banco.exceptions.LimiteExcedidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.services.LimitesProperties.Limite;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LimitesMovimentacaoTest {
+
+    private final LimitesMovimentacao limites = new LimitesMovimentacao(new LimitesProperties(Map.of(
+            ModalidadeConta.CC, Map.of(Operacao.SAQUE, new Limite(BigDecimal.valueOf(100), BigDecimal.valueOf(150)))),
+            null));
+
+    @Test
+    void testJanelaDescartaFatiasAntigas() {
+        JanelaDeslizante janela = new JanelaDeslizante(60, 1000);
+
+        janela.somar(0, 500);
+        janela.somar(30_000, 250);
+
+        assertEquals(750, janela.total(59_999));
+        assertEquals(250, janela.total(60_000), "A primeira fatia saiu da janela.");
+        assertEquals(0, janela.total(90_000));
+    }
+
+    @Test
+    void testJanelaReaproveitaFatiaDeOutraEpoca() {
+        JanelaDeslizante janela = new JanelaDeslizante(60, 1000);
+
+        janela.somar(1_000, 500);
+        janela.somar(61_000, 100);
+
+        assertEquals(100, janela.total(61_000));
+    }
+
+    @Test
+    void testLimitePorMinuto() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+
+        limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(60));
+        assertThrows(LimiteExcedidoException.class,
+                () -> limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(41)));
+
+        assertEquals(6000, limites.totalDiario(conta.getNumeroConta(), Operacao.SAQUE),
+                "O valor recusado não pode ficar acumulado.");
+        limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(40));
+    }
+
+    @Test
+    void testEstornoLiberaLimite() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+
+        long momento = limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(100));
+        limites.estornar(conta, Operacao.SAQUE, BigDecimal.valueOf(100), momento);
+
+        assertEquals(0, limites.totalDiario(conta.getNumeroConta(), Operacao.SAQUE));
+    }
+
+    @Test
+    void testEstornoRetiraDaFatiaDoConsumo() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        long duasHorasAtras = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+
+        limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(100), duasHorasAtras);
+        limites.estornar(conta, Operacao.SAQUE, BigDecimal.valueOf(100), duasHorasAtras);
+
+        assertEquals(0, limites.totalDiario(conta.getNumeroConta(), Operacao.SAQUE));
+    }
+
+    @Test
+    void testTransacaoDesfeitaEstornaConsumo() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(100));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, limites.totalDiario(conta.getNumeroConta(), Operacao.SAQUE));
+    }
+
+    @Test
+    void testLimpezaAcimaDoMaximoNaoRemoveContaComConsumoNoDia() {
+        LimitesMovimentacao umaConta = new LimitesMovimentacao(new LimitesProperties(Map.of(), 1));
+        long agora = System.currentTimeMillis();
+        umaConta.restaurar(1, Operacao.SAQUE, 10_000, agora - Duration.ofHours(2).toMillis());
+        umaConta.restaurar(2, Operacao.SAQUE, 0, agora);
+        umaConta.restaurar(3, Operacao.SAQUE, 500, agora - Duration.ofDays(2).toMillis());
+
+        umaConta.removerContasOciosas();
+
+        assertEquals(10_000, umaConta.totalDiario(1, Operacao.SAQUE),
+                "A conta mais antiga tem consumo no dia e não pode voltar com o limite inteiro.");
+        assertEquals(0, umaConta.ultimoUso(2), "Sem consumo no dia, a conta pode sair para respeitar o máximo.");
+        assertEquals(0, umaConta.ultimoUso(3), "Sem uso há mais de um dia, a conta sai sempre.");
+    }
+
+    @Test
+    void testModalidadeSemLimiteConfigurado() {
+        Conta conta = new Conta(ModalidadeConta.CP, null);
+
+        limites.consumir(conta, Operacao.PIX, BigDecimal.valueOf(1_000_000));
+
+        assertEquals(0, limites.totalDiario(conta.getNumeroConta(), Operacao.PIX));
+    }
+}
@@ -0,0 +1,71 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tech.ada.banco.OrcamentoSql.assertMaximoComandos;
+
+@SpringBootTest
+class OrcamentoSqlTest {
+
+    @Autowired
+    private Pix pix;
+
+    @Autowired
+    private Saque saque;
+
+    @Autowired
+    private Deposito deposito;
+
+    @Autowired
+    private ContaRepository repository;
+
+    /**
+     * A primeira movimentação depois de um intervalo ocioso marca a instância em TOTAL_AGENCIA_INSTANCIA, um
+     * comando a mais por intervalo; o depósito inicial faz essa marca antes da medição.
+     */
+    private Conta criarConta(BigDecimal saldo) {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC, null));
+        if (saldo.signum() > 0) {
+            deposito.executar(conta.getNumeroConta(), saldo);
+        }
+        return repository.findById(conta.getNumeroConta()).orElseThrow();
+    }
+
+    @Test
+    void testPixDuasLeiturasDuasAtualizacoesEDoisEventos() {
+        Conta origem = criarConta(BigDecimal.TEN);
+        Conta destino = criarConta(BigDecimal.ZERO);
+
+        assertMaximoComandos(6, () -> pix.executar(origem.getNumeroConta(), destino.getNumeroConta(), BigDecimal.ONE));
+    }
+
+    @Test
+    void testSaqueUmaLeituraUmaAtualizacaoEUmEvento() {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        assertMaximoComandos(3, () -> saque.executar(conta.getNumeroConta(), BigDecimal.ONE));
+    }
+
+    @Test
+    void testDepositoUmaLeituraUmaAtualizacaoEUmEvento() {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        assertMaximoComandos(3, () -> deposito.executar(conta.getNumeroConta(), BigDecimal.ONE));
+    }
+
+    @Test
+    void testOrcamentoExcedidoFalha() {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        assertThrows(AssertionError.class,
+                () -> assertMaximoComandos(1, () -> deposito.executar(conta.getNumeroConta(), BigDecimal.ONE)));
+    }
+}
@@ -0,0 +1,107 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;Mode=Oracle;DB_CLOSE_DELAY=-1",
+        "banco.eventos.intervalo-relay=3600000",
+        "banco.eventos.espera-lacuna=300",
+        "banco.eventos.retencao=0s"})
+class OutboxMovimentacoesTest {
+
+    @Autowired
+    private OutboxMovimentacoes outbox;
+
+    @Autowired
+    private Deposito deposito;
+
+    @Autowired
+    private ContaRepository contas;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testRelayAguardaLacunaDeixadaPorTransacaoDesfeita() throws InterruptedException {
+        int conta = contas.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta();
+        outbox.transmitir();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            deposito.executar(conta, BigDecimal.ONE);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, outbox.eventosDesde(conta, 0).size());
+
+        deposito.executar(conta, BigDecimal.TEN);
+        assertEquals(1, outbox.eventosDesde(conta, 0).size());
+        assertEquals(0, outbox.transmitir());
+
+        Thread.sleep(350);
+        assertEquals(1, outbox.transmitir());
+        assertEquals(0, outbox.transmitir());
+    }
+
+    @Test
+    void testEventoConfirmadoDepoisDaLacunaAindaETransmitido() throws Exception {
+        int lenta = contas.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta();
+        int rapida = contas.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta();
+        outbox.transmitir();
+        CountDownLatch depositado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> transacaoLonga = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        deposito.executar(lenta, BigDecimal.ONE);
+                        depositado.countDown();
+                        try {
+                            confirmar.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(depositado.await(5, TimeUnit.SECONDS));
+            deposito.executar(rapida, BigDecimal.TEN);
+            assertEquals(0, outbox.transmitir());
+
+            Thread.sleep(350);
+            assertEquals(1, outbox.transmitir());
+            assertEquals(1, outbox.getLacunas());
+
+            confirmar.countDown();
+            transacaoLonga.get(5, TimeUnit.SECONDS);
+            assertEquals(1, outbox.transmitir());
+            assertEquals(0, outbox.getLacunas());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLimpezaRemoveEventosForaDaRetencao() {
+        int conta = contas.save(new Conta(ModalidadeConta.CC, null)).getNumeroConta();
+        deposito.executar(conta, BigDecimal.ONE);
+        assertEquals(1, outbox.eventosDesde(conta, 0).size());
+
+        outbox.limpar();
+
+        assertEquals(0, outbox.eventosDesde(conta, 0).size());
+    }
+}
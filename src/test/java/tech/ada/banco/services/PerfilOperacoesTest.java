@@ -0,0 +1,76 @@
+package tech.ada.banco.services;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.ada.banco.services.PerfilOperacoes.Fase;
+import tech.ada.banco.services.PerfilOperacoes.Medicao;
+import tech.ada.banco.services.PerfilOperacoes.Operacao;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerfilOperacoesTest {
+
+    @Test
+    void testDesligadoNaoMede() {
+        PerfilOperacoes perfil = PerfilOperacoes.desligado();
+
+        Medicao medicao = perfil.iniciar(Operacao.SAQUE, 10, 0, BigDecimal.TEN);
+        medicao.concluir(Fase.CARGA);
+
+        assertSame(Medicao.VAZIA, medicao);
+        assertTrue(perfil.resumir().isEmpty());
+    }
+
+    @Test
+    void testHistogramasPorFase() throws Exception {
+        PerfilOperacoes perfil = new PerfilOperacoes(true);
+        for (int i = 0; i < 3; i++) {
+            Medicao medicao = perfil.iniciar(Operacao.PIX, 10, 11, BigDecimal.ONE);
+            Thread.sleep(2);
+            medicao.concluir(Fase.CARGA);
+            medicao.concluir(Fase.MOVIMENTACAO);
+        }
+
+        List<PerfilOperacoes.Resumo> resumos = perfil.resumir();
+        assertEquals(List.of(Fase.CARGA, Fase.MOVIMENTACAO),
+                resumos.stream().map(PerfilOperacoes.Resumo::fase).toList());
+        PerfilOperacoes.Resumo carga = resumos.get(0);
+        assertEquals(3, carga.quantidade());
+        assertTrue(carga.p50Micros() >= 2000, "A carga incluiu a pausa de 2 ms.");
+
+        perfil.zerar();
+        assertTrue(perfil.resumir().isEmpty());
+    }
+
+    @Test
+    void testEventosJfr(@TempDir Path diretorio) throws Exception {
+        PerfilOperacoes perfil = PerfilOperacoes.desligado();
+        Path arquivo = diretorio.resolve("fases.jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable(EventoFase.NOME);
+            gravacao.start();
+            Medicao medicao = perfil.iniciar(Operacao.DEPOSITO, 10, 0, new BigDecimal("12.50"));
+            medicao.concluir(Fase.CARGA);
+            medicao.concluir(Fase.GRAVACAO);
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(arquivo).stream()
+                .filter(evento -> evento.getEventType().getName().equals(EventoFase.NOME))
+                .toList();
+        assertEquals(List.of("CARGA", "GRAVACAO"), eventos.stream().map(evento -> evento.getString("fase")).toList());
+        assertEquals("DEPOSITO", eventos.get(0).getString("operacao"));
+        assertEquals(10, eventos.get(0).getInt("conta"));
+        assertEquals(12.5, eventos.get(0).getDouble("valor"));
+    }
+}
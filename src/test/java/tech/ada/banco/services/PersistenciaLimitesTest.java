@@ -0,0 +1,49 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.LimitesProperties.Operacao;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"banco.limites.modalidades.CC.SAQUE.por-minuto=2000",
+        "banco.limites.modalidades.CC.SAQUE.por-dia=5000"})
+class PersistenciaLimitesTest {
+
+    @Autowired
+    private LimitesMovimentacao limites;
+
+    @Autowired
+    private LimitesProperties properties;
+
+    @Autowired
+    private PersistenciaLimites persistencia;
+
+    @Autowired
+    private ContaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testUsoDiarioSobreviveAoRestart() {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC, null));
+        limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(10));
+        persistencia.gravar();
+        limites.consumir(conta, Operacao.SAQUE, BigDecimal.valueOf(2.5));
+        persistencia.gravar();
+
+        LimitesMovimentacao aposRestart = new LimitesMovimentacao(properties);
+        new PersistenciaLimites(aposRestart, jdbcTemplate).carregar();
+
+        assertEquals(1250, aposRestart.totalDiario(conta.getNumeroConta(), Operacao.SAQUE));
+        assertEquals(0, aposRestart.totalDiario(conta.getNumeroConta(), Operacao.PIX));
+    }
+}
@@ -2,6 +2,8 @@ package tech.ada.banco.services;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import tech.ada.banco.config.Shards;
 import tech.ada.banco.exceptions.ContaOrigemIgualDestinoException;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.exceptions.SaldoInsuficienteException;
@@ -11,6 +13,7 @@ import tech.ada.banco.model.ModalidadeConta;
 import tech.ada.banco.repository.ContaRepository;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -21,12 +24,15 @@ import static org.mockito.Mockito.*;
 class PixTest {
 
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
-    private final Pix pix = new Pix(repository);
+    private final TransferenciaEntreShards entreShards = Mockito.mock(TransferenciaEntreShards.class);
+    private final Pix pix = new Pix(repository, Mockito.mock(LimitesMovimentacao.class),
+            Mockito.mock(ApplicationEventPublisher.class), Shards.unico(), entreShards,
+            PerfilOperacoes.desligado());
 
     @Test
     void testPixContasNaoEncontradas() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser 0.00.");
 
         try {
@@ -43,7 +49,7 @@ class PixTest {
     @Test
     void testPixContaOrigemNaoEncontrada() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser 0.00.");
 
         try {
@@ -60,7 +66,7 @@ class PixTest {
     @Test
     void testPixContaDestinoNaoEncontrada() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser 0.00.");
 
         try {
@@ -77,7 +83,7 @@ class PixTest {
     @Test
     void testPixContaDestinoIgualOrigem() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.ZERO.setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser 0.00.");
 
         try {
@@ -101,8 +107,8 @@ class PixTest {
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(-10));
@@ -124,8 +130,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(5, 10, BigDecimal.valueOf(5));
@@ -147,8 +153,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(6));
@@ -168,8 +174,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.TEN);
@@ -189,8 +195,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(4.37));
@@ -210,8 +216,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(4.379));
@@ -231,8 +237,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(4.371));
@@ -252,8 +258,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(4.375));
@@ -273,8 +279,8 @@ class PixTest {
         Conta conta5 = new Conta(ModalidadeConta.CC, null);
         assertEquals(BigDecimal.ZERO.setScale(2), conta5.getSaldo(), "O saldo inicial da conta deve ser igual a 0.00.");
 
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta10));
-        when(repository.findContaByNumeroConta(5)).thenReturn(Optional.of(conta5));
+        when(repository.travar(10)).thenReturn(Optional.of(conta10));
+        when(repository.travar(5)).thenReturn(Optional.of(conta5));
 
         try {
             pix.executar(10, 5, BigDecimal.valueOf(4.365));
@@ -283,4 +289,16 @@ class PixTest {
         assertEquals(BigDecimal.valueOf(5.64).setScale(2), conta10.getSaldo(), "O saldo da conta deve continuar sendo igual a 5.63.");
         assertEquals(BigDecimal.valueOf(4.36).setScale(2), conta5.getSaldo(), "O saldo da conta deve continuar sendo igual a 4.37.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPixEntreShardsUsaTransferenciaEmDuasEtapas() {
+        Shards doisShards = new Shards(List.of("jdbc:h2:mem:outro"), 1000);
+        Pix pixEntreShards = new Pix(repository, Mockito.mock(LimitesMovimentacao.class),
+                Mockito.mock(ApplicationEventPublisher.class), doisShards, entreShards,
+                PerfilOperacoes.desligado());
+        when(entreShards.executar(10000, 11000, new BigDecimal("5.00"))).thenReturn(BigDecimal.TEN);
+
+        assertEquals(BigDecimal.TEN, pixEntreShards.executar(10000, 11000, new BigDecimal("5")));
+        verify(repository, never()).travar(Mockito.anyInt());
+    }
+}
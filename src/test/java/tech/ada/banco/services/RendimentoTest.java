@@ -0,0 +1,120 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.ada.banco.config.Shards;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.EventoConta;
+import tech.ada.banco.model.LoteRendimento;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.MovimentacaoConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.EventoContaRepository;
+import tech.ada.banco.repository.LoteRendimentoRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"banco.rendimento.taxa-diaria=0.01", "banco.rendimento.tamanho-lote=2"})
+class RendimentoTest {
+
+    @Autowired
+    private Rendimento rendimento;
+
+    @Autowired
+    private ContaRepository repository;
+
+    @Autowired
+    private LoteRendimentoRepository lotes;
+
+    @Autowired
+    private EventoContaRepository eventos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Shards shards;
+
+    @Autowired
+    private IndiceSaldos indiceSaldos;
+
+    private Conta criarConta(ModalidadeConta modalidade, BigDecimal saldo) {
+        Conta conta = new Conta(modalidade, null);
+        conta.deposito(saldo);
+        return repository.save(conta);
+    }
+
+    private BigDecimal saldo(Conta conta) {
+        return repository.findContaByNumeroConta(conta.getNumeroConta()).orElseThrow().getSaldo();
+    }
+
+    @Test
+    void testRendimentoApenasContasPoupanca() {
+        Conta poupanca = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        Conta outraPoupanca = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(200));
+        Conta corrente = criarConta(ModalidadeConta.CC, BigDecimal.valueOf(100));
+        indiceSaldos.atualizar(poupanca.getNumeroConta(), 10000, poupanca.getVersaoSaldo());
+
+        Rendimento.Resultado resultado = rendimento.executar(LocalDate.of(2030, 1, 1));
+
+        assertTrue(resultado.contas() >= 2);
+        assertEquals(BigDecimal.valueOf(101).setScale(2), saldo(poupanca));
+        assertEquals(BigDecimal.valueOf(202).setScale(2), saldo(outraPoupanca));
+        assertEquals(BigDecimal.valueOf(100).setScale(2), saldo(corrente), "Conta corrente não rende.");
+        assertEquals(10100, indiceSaldos.saldo(poupanca.getNumeroConta()), "O índice de saldos acompanha o rendimento.");
+    }
+
+    @Test
+    void testRendimentoRetomaSemReaplicarLotesConcluidos() {
+        Conta primeira = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        Conta segunda = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        LocalDate data = LocalDate.of(2030, 1, 2);
+        // registro de uma execução anterior com outro tamanho de lote, que cobriu só a primeira conta
+        lotes.save(new LoteRendimento(data, primeira.getNumeroConta(), primeira.getNumeroConta(), 1));
+
+        rendimento.executar(data);
+        rendimento.executar(data);
+
+        assertEquals(BigDecimal.valueOf(100).setScale(2), saldo(primeira), "Lote já registrado não pode ser reaplicado.");
+        assertEquals(BigDecimal.valueOf(101).setScale(2), saldo(segunda));
+    }
+
+    @Test
+    void testRetomadaComOutroTamanhoDeLote() {
+        Conta primeira = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        Conta segunda = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        Conta terceira = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(100));
+        LocalDate data = LocalDate.of(2030, 1, 4);
+        rendimento.executar(data);
+
+        Rendimento.Resultado retomada = new Rendimento(repository, lotes, eventos, transactionManager,
+                event -> { }, new BigDecimal("0.01"), 1, 1, 0, shards).executar(data);
+
+        assertEquals(0, retomada.contas(), "Nenhuma conta pode render duas vezes na mesma data.");
+        assertEquals(BigDecimal.valueOf(101).setScale(2), saldo(primeira));
+        assertEquals(BigDecimal.valueOf(101).setScale(2), saldo(segunda));
+        assertEquals(BigDecimal.valueOf(101).setScale(2), saldo(terceira));
+    }
+
+    @Test
+    void testRendimentoLancadoEmEventoConta() {
+        Conta poupanca = criarConta(ModalidadeConta.CP, BigDecimal.valueOf(300));
+
+        rendimento.executar(LocalDate.of(2030, 1, 3));
+
+        List<EventoConta> lancamentos = eventos.findByNumeroContaAndIdGreaterThanOrderByIdAsc(
+                poupanca.getNumeroConta(), 0, Pageable.unpaged());
+        assertEquals(1, lancamentos.size());
+        assertEquals(MovimentacaoConta.Tipo.RENDIMENTO, lancamentos.get(0).getTipo());
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(lancamentos.get(0).getValor()));
+        assertEquals(0, saldo(poupanca).compareTo(lancamentos.get(0).getSaldo()));
+    }
+}
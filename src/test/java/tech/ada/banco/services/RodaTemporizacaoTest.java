@@ -0,0 +1,54 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RodaTemporizacaoTest {
+
+    private static List<Long> avancar(RodaTemporizacao roda, long agora) {
+        List<Long> vencidos = new ArrayList<>();
+        roda.avancar(agora, (id, conta) -> vencidos.add(id));
+        return vencidos;
+    }
+
+    @Test
+    void testVenceNoTiqueDoPrazo() {
+        RodaTemporizacao roda = new RodaTemporizacao(1000, 0);
+        roda.agendar(1, 10, 2500);
+        roda.agendar(2, 10, 3000);
+
+        assertTrue(avancar(roda, 2999).isEmpty());
+        assertEquals(List.of(1L, 2L), avancar(roda, 3000));
+        assertEquals(0, roda.getAgendados());
+    }
+
+    @Test
+    void testPrazosEmTodosOsNiveis() {
+        long tique = 1000;
+        RodaTemporizacao roda = new RodaTemporizacao(tique, 0);
+        long[] prazos = {1, 255, 256, 300, 16_383, 16_384, 1_048_575, 1_048_576, (1L << 26) + 5_000};
+        for (int i = 0; i < prazos.length; i++) {
+            roda.agendar(i, 10, (prazos[i] + 37) * tique);
+        }
+
+        for (int i = 0; i < prazos.length; i++) {
+            long prazo = (prazos[i] + 37) * tique;
+            assertTrue(avancar(roda, prazo - tique).isEmpty(), "Nada vence antes do prazo " + prazos[i]);
+            assertEquals(List.of((long) i), avancar(roda, prazo));
+        }
+        assertEquals(0, roda.getAgendados());
+    }
+
+    @Test
+    void testPrazoPassadoVenceNoProximoAvanco() {
+        RodaTemporizacao roda = new RodaTemporizacao(1000, 10_000);
+        roda.agendar(7, 10, 0);
+
+        assertEquals(List.of(7L), avancar(roda, 11_000));
+    }
+}
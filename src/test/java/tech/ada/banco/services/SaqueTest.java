@@ -3,6 +3,7 @@ package tech.ada.banco.services;
 import org.hibernate.HibernateException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.exceptions.SaldoInsuficienteException;
 import tech.ada.banco.model.Conta;
@@ -22,13 +23,14 @@ import static org.mockito.Mockito.when;
 class SaqueTest {
 
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
-    private final Saque saque = new Saque(repository);
+    private final Saque saque = new Saque(repository, Mockito.mock(LimitesMovimentacao.class),
+            Mockito.mock(ApplicationEventPublisher.class), PerfilOperacoes.desligado());
 
     @Test
     void testSaqueParcial() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.TEN);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser alterado para 10");
 
         BigDecimal resp = saque.executar(10, BigDecimal.ONE);
@@ -43,7 +45,7 @@ class SaqueTest {
     void testSaqueContaNaoEncontrada() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.TEN);
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser alterado para 10");
 
         try {
@@ -61,7 +63,7 @@ class SaqueTest {
     void testSaqueProblemaDeBancoDeDados() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.TEN);
-        when(repository.findContaByNumeroConta(10)).thenThrow(RuntimeException.class);
+        when(repository.travar(10)).thenThrow(RuntimeException.class);
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser alterado para 10");
 
         try {
@@ -79,7 +81,7 @@ class SaqueTest {
     void testSaqueMaiorSaldo() {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.valueOf(5));
-        when(repository.findContaByNumeroConta(10)).thenReturn(Optional.of(conta));
+        when(repository.travar(10)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.valueOf(5).setScale(2), conta.getSaldo(), "O saldo inicial da conta deve ser alterado para 5");
 
         assertThrows(SaldoInsuficienteException.class, () -> saque.executar(10, BigDecimal.valueOf(6)));
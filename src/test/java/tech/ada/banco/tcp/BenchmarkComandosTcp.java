@@ -0,0 +1,87 @@
+package tech.ada.banco.tcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de depósitos pela porta HTTP e pela porta de comandos TCP, no loopback, contra uma aplicação já
+ * no ar com {@code banco.tcp.habilitado=true}.
+ * Uso: {@code java tech.ada.banco.tcp.BenchmarkComandosTcp [host] [portaHttp] [portaTcp] [requisicoes] [emVoo]}.
+ */
+public class BenchmarkComandosTcp {
+
+    private static final long LATENCIA_MAXIMA = TimeUnit.MINUTES.toNanos(1);
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int portaHttp = args.length > 1 ? Integer.parseInt(args[1]) : 8282;
+        int portaTcp = args.length > 2 ? Integer.parseInt(args[2]) : 8283;
+        int requisicoes = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int emVoo = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        HttpClient http = HttpClient.newHttpClient();
+        String base = "http://" + host + ":" + portaHttp;
+        int[] contas = new int[emVoo];
+        for (int i = 0; i < contas.length; i++) {
+            HttpResponse<String> conta = http.send(HttpRequest.newBuilder(URI.create(base + "/contas?modalidade=CC"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            contas[i] = new ObjectMapper().readTree(conta.body()).get("numeroConta").asInt();
+        }
+
+        for (boolean aquecimento : new boolean[]{true, false}) {
+            Histogram httpSequencial = new Histogram(LATENCIA_MAXIMA, 3);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < requisicoes / 10; i++) {
+                long envio = System.nanoTime();
+                http.send(HttpRequest.newBuilder(URI.create(base + "/deposito/" + contas[0] + "?valor=0.01"))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+                httpSequencial.recordValue(System.nanoTime() - envio);
+            }
+            imprimir("http, 1 em voo", httpSequencial, System.nanoTime() - inicio, aquecimento);
+
+            try (ClienteComandos cliente = new ClienteComandos(host, portaTcp)) {
+                Histogram tcpSequencial = new Histogram(LATENCIA_MAXIMA, 3);
+                inicio = System.nanoTime();
+                for (int i = 0; i < requisicoes; i++) {
+                    long envio = System.nanoTime();
+                    cliente.depositar(contas[0], new BigDecimal("0.01")).get();
+                    tcpSequencial.recordValue(System.nanoTime() - envio);
+                }
+                imprimir("tcp, 1 em voo", tcpSequencial, System.nanoTime() - inicio, aquecimento);
+
+                Histogram tcpPipeline = new ConcurrentHistogram(LATENCIA_MAXIMA, 3);
+                Semaphore janela = new Semaphore(emVoo);
+                inicio = System.nanoTime();
+                for (int i = 0; i < requisicoes; i++) {
+                    janela.acquire();
+                    long envio = System.nanoTime();
+                    cliente.depositar(contas[i % contas.length], new BigDecimal("0.01")).whenComplete((saldo, erro) -> {
+                        tcpPipeline.recordValue(System.nanoTime() - envio);
+                        janela.release();
+                    });
+                }
+                janela.acquire(emVoo);
+                imprimir("tcp, " + emVoo + " em voo", tcpPipeline, System.nanoTime() - inicio, aquecimento);
+            }
+        }
+    }
+
+    private static void imprimir(String nome, Histogram histograma, long duracao, boolean aquecimento) {
+        if (aquecimento) {
+            return;
+        }
+        System.out.printf("%-16s %8.0f ops/s  p50 %7.1f us  p99 %7.1f us  p99.9 %8.1f us  max %8.1f us%n",
+                nome, histograma.getTotalCount() / (duracao / 1e9),
+                histograma.getValueAtPercentile(50) / 1e3, histograma.getValueAtPercentile(99) / 1e3,
+                histograma.getValueAtPercentile(99.9) / 1e3, histograma.getMaxValue() / 1e3);
+    }
+}
@@ -0,0 +1,143 @@
+package tech.ada.banco.tcp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"banco.tcp.habilitado=true", "banco.tcp.porta=0", "banco.tcp.maximo-em-voo=8"})
+class ServidorComandosTest {
+
+    @Autowired
+    private ServidorComandos servidor;
+
+    @Autowired
+    private ContaRepository repository;
+
+    private ClienteComandos cliente;
+
+    @BeforeEach
+    void conectar() throws IOException {
+        cliente = new ClienteComandos("localhost", servidor.getPorta());
+    }
+
+    @AfterEach
+    void desconectar() throws IOException {
+        cliente.close();
+    }
+
+    private Conta criarConta(BigDecimal saldo) {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(saldo);
+        return repository.save(conta);
+    }
+
+    private BigDecimal saldo(Conta conta) {
+        return repository.findContaByNumeroConta(conta.getNumeroConta()).orElseThrow().getSaldo();
+    }
+
+    private static Throwable causa(CompletableFuture<?> resposta) {
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> resposta.get(5, TimeUnit.SECONDS));
+        return erro.getCause();
+    }
+
+    @Test
+    void testDepositoSaqueESaldo() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        assertEquals(new BigDecimal("15.50"), cliente.depositar(conta.getNumeroConta(), new BigDecimal("5.5")).get());
+        assertEquals(new BigDecimal("12.50"), cliente.sacar(conta.getNumeroConta(), new BigDecimal("3")).get());
+        assertEquals(new BigDecimal("12.50"), cliente.saldo(conta.getNumeroConta()).get());
+        assertEquals(new BigDecimal("12.50"),
+                repository.findContaByNumeroConta(conta.getNumeroConta()).orElseThrow().getSaldo());
+    }
+
+    @Test
+    void testPix() throws Exception {
+        Conta origem = criarConta(BigDecimal.TEN);
+        Conta destino = criarConta(BigDecimal.ZERO);
+
+        assertEquals(new BigDecimal("6.00"),
+                cliente.pix(origem.getNumeroConta(), destino.getNumeroConta(), new BigDecimal("4")).get());
+        assertEquals(new BigDecimal("4.00"), cliente.saldo(destino.getNumeroConta()).get());
+    }
+
+    @Test
+    void testErrosDeNegocio() {
+        Conta conta = criarConta(BigDecimal.ONE);
+
+        assertInstanceOf(SaldoInsuficienteException.class,
+                causa(cliente.sacar(conta.getNumeroConta(), BigDecimal.TEN)));
+        assertInstanceOf(ResourceNotFoundException.class, causa(cliente.saldo(-1)));
+        assertInstanceOf(ValorInvalidoException.class,
+                causa(cliente.depositar(conta.getNumeroConta(), new BigDecimal("0.001"))));
+    }
+
+    @Test
+    void testRequisicoesEmPipelineAlemDoLimiteEmVoo() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+
+        List<CompletableFuture<BigDecimal>> respostas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            respostas.add(cliente.depositar(conta.getNumeroConta(), BigDecimal.ONE));
+        }
+        CompletableFuture.allOf(respostas.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(new BigDecimal("200.00"), cliente.saldo(conta.getNumeroConta()).get());
+    }
+
+    @Test
+    void testQuadroInvalidoEncerraConexao() throws IOException {
+        try (SocketChannel canal = SocketChannel.open(new InetSocketAddress("localhost", servidor.getPorta()))) {
+            ByteBuffer quadro = ByteBuffer.allocate(ProtocoloComandos.TAMANHO_MAXIMO_REQUISICAO);
+            quadro.putInt(13).putLong(1).put((byte) 99).putInt(1).flip();
+            canal.write(quadro);
+
+            assertEquals(-1, canal.read(ByteBuffer.allocate(64)));
+        }
+    }
+
+    @Test
+    void testRespostasDeConexaoFechadaVoltamAoPool() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+        try (SocketChannel canal = SocketChannel.open(new InetSocketAddress("localhost", servidor.getPorta()))) {
+            ByteBuffer quadros = ByteBuffer.allocate(8 * ProtocoloComandos.TAMANHO_MAXIMO_REQUISICAO);
+            for (int i = 0; i < 8; i++) {
+                ProtocoloComandos.escreverRequisicao(quadros, i, ProtocoloComandos.DEPOSITO, conta.getNumeroConta(),
+                        0, 100);
+            }
+            canal.write(quadros.flip());
+        }
+
+        // fechada com os comandos em voo: as respostas que não chegam a ser escritas também voltam ao pool
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((saldo(conta).compareTo(new BigDecimal("8.00")) != 0 || servidor.respostasEmUso() > 0)
+                && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertEquals(new BigDecimal("8.00"), saldo(conta));
+        assertEquals(0, servidor.respostasEmUso());
+    }
+}